@@ -0,0 +1,68 @@
+package com.github.pgvector;
+
+/**
+ * One sample of {@code pg_stat_progress_create_index} for an index being built by
+ * {@link PgClient#createCollection}. Counters the current phase does not use are zero.
+ */
+public final class IndexBuildProgress {
+    private final String index;
+    private final String phase;
+    private final long blocksDone;
+    private final long blocksTotal;
+    private final long tuplesDone;
+    private final long tuplesTotal;
+
+    IndexBuildProgress(String index, String phase, long blocksDone, long blocksTotal, long tuplesDone, long tuplesTotal) {
+        this.index = index;
+        this.phase = phase;
+        this.blocksDone = blocksDone;
+        this.blocksTotal = blocksTotal;
+        this.tuplesDone = tuplesDone;
+        this.tuplesTotal = tuplesTotal;
+    }
+
+    public String getIndex() {
+        return index;
+    }
+
+    /** e.g. "building index: loading tuples in tree", "waiting for old snapshots". */
+    public String getPhase() {
+        return phase;
+    }
+
+    public long getBlocksDone() {
+        return blocksDone;
+    }
+
+    public long getBlocksTotal() {
+        return blocksTotal;
+    }
+
+    public long getTuplesDone() {
+        return tuplesDone;
+    }
+
+    public long getTuplesTotal() {
+        return tuplesTotal;
+    }
+
+    /**
+     * @return completion of the current phase in [0, 1], from tuples if counted, else blocks;
+     * -1 if the phase reports neither
+     */
+    public double getPhaseFraction() {
+        if (tuplesTotal > 0) {
+            return Math.min(1.0, (double) tuplesDone / tuplesTotal);
+        }
+        if (blocksTotal > 0) {
+            return Math.min(1.0, (double) blocksDone / blocksTotal);
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        double fraction = getPhaseFraction();
+        return index + ": " + phase + (fraction < 0 ? "" : String.format(" (%.1f%%)", fraction * 100));
+    }
+}
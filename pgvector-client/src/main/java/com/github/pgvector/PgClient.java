@@ -1,51 +1,1156 @@
 package com.github.pgvector;
 
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.vector.Config;
 import com.github.vector.client.Client;
+import com.github.vector.client.FilterPlanner;
+import com.github.vector.client.FilterStrategy;
+import com.github.vector.client.FilteredSearchResult;
+import com.github.vector.client.HybridQuery;
+import com.github.vector.connection.ConnectionPool;
 import com.github.vector.data.Embedding;
+import com.github.vector.data.Metadata;
+import com.github.vector.data.Text;
+import com.github.vector.data.filter.Filter;
 import com.github.vector.exception.VectorClientException;
+import com.github.vector.index.IndexSpec;
+import com.github.vector.util.DistanceMetric;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+/**
+ * {@link Client} for PostgreSQL with the pgvector extension. Each collection is a table
+ * (id text, embedding vector, content text, metadata jsonb).
+ *
+ * <p>Settings read from {@link Config#getAdditionalProperties()}: "user", "pgvector.metric"
+ * (a {@link DistanceMetric} name, default L2, used for collections whose metric is not known),
+ * the session defaults "hnsw.ef_search" and "ivfflat.probes" (integers), which are applied to
+ * every pooled connection when it is opened, and "maintenance_work_mem" (e.g. "8GB") and
+ * "max_parallel_maintenance_workers" (integer), which apply while an index is built.
+ * "pgvector.copyUpsert" (boolean, default false) makes {@link #batchStore} overwrite existing
+ * ids instead of failing on them.
+ * Filtered searches are planned with the "filter.exactScanRows" and
+ * "filter.postFilterSelectivity" thresholds of {@link FilterPlanner}; hybrid searches use the
+ * text search configuration "pgvector.textSearchConfig" (default "english").
+ */
 public class PgClient implements Client {
+    private static final Logger logger = LoggerFactory.getLogger(PgClient.class);
+
+    // Size at which encoded rows are pushed to the server while a COPY is open
+    private static final int COPY_FLUSH_BYTES = 1 << 20;
+    private static final String COPY_STAGING_TABLE = "pgvector_copy_staging";
+    private static final String COPY_UPSERT_PROPERTY = "pgvector.copyUpsert";
+    private static final String METRIC_PROPERTY = "pgvector.metric";
+    private static final String TEXT_SEARCH_CONFIG_PROPERTY = "pgvector.textSearchConfig";
+    private static final String DEFAULT_TEXT_SEARCH_CONFIG = "english";
+    private static final String EF_SEARCH_SETTING = "hnsw.ef_search";
+    private static final String PROBES_SETTING = "ivfflat.probes";
+    private static final String MAINTENANCE_WORK_MEM_SETTING = "maintenance_work_mem";
+    private static final String PARALLEL_WORKERS_SETTING = "max_parallel_maintenance_workers";
+    private static final String HNSW_ITERATIVE_SCAN_SETTING = "hnsw.iterative_scan";
+    private static final String IVFFLAT_ITERATIVE_SCAN_SETTING = "ivfflat.iterative_scan";
+    // Largest value hnsw.ef_search accepts, and pgvector's default
+    private static final int MAX_EF_SEARCH = 1000;
+    private static final int DEFAULT_EF_SEARCH = 40;
+    // Postgres truncates longer identifiers (NAMEDATALEN - 1)
+    private static final int MAX_IDENTIFIER_BYTES = 63;
+    // pgvector indexes vectors of up to 2000 dimensions
+    private static final int MAX_INDEXED_DIMENSION = 2000;
+    private static final long PROGRESS_INTERVAL_MS = 5_000;
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {};
+    // vector_send yields pgvector's binary format as bytea, which the driver hands over as bytes
+    private static final String SELECT_COLUMNS = "id, content, metadata::text, vector_send(embedding)";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Config config;
+    private volatile ConnectionPool pool;
+    // Distance each collection is indexed for, as created here or read back by metricOf
+    private final Map<String, DistanceMetric> metrics = new ConcurrentHashMap<>();
+    // One SQL string per collection and metric: the driver keeps a server-side prepared
+    // statement per connection for each distinct string, so identical text means reuse
+    private final Map<String, String> searchSql = new ConcurrentHashMap<>();
+    private final PgSelectivityEstimator estimator = new PgSelectivityEstimator();
+    private FilterPlanner planner;
+    private volatile Boolean iterativeScan;
+
     @Override
     public void connect(Config config) throws VectorClientException {
-
+        this.config = config;
+        this.planner = FilterPlanner.fromConfig(config);
+        ConnectionPool connectionPool = new ConnectionPool(config, () -> openConnection(config));
+        try {
+            connectionPool.initialize(config.getMinPoolSize());
+        } catch (IllegalStateException e) {
+            connectionPool.shutdown(false, 0, TimeUnit.MILLISECONDS);
+            throw new VectorClientException("Failed to connect to PostgreSQL: " + e.getMessage(), e);
+        }
+        this.pool = connectionPool;
     }
 
     @Override
     public boolean isConnected() {
-        return false;
+        return pool != null;
     }
 
     @Override
     public void disconnect() {
+        if (pool == null) {
+            return;
+        }
+        pool.shutdown(true, config.getConnectionTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        pool = null;
+    }
 
+    /**
+     * Create the collection's table, with a vector column of unconstrained dimension and no
+     * index. Does nothing if it already exists.
+     */
+    @Override
+    public void createCollection(String collectionName) throws VectorClientException {
+        createTable(collectionName, "vector");
     }
 
     @Override
-    public void createCollection(String s) throws VectorClientException {
+    public void createCollection(String collectionName, int dimension, DistanceMetric metric, IndexSpec index)
+            throws VectorClientException {
+        createCollection(collectionName, dimension, metric, index,
+                progress -> logger.info("Building index {}", progress));
+    }
 
+    /**
+     * Create the table with a {@code vector(dimension)} column and build the index with
+     * {@code CREATE INDEX CONCURRENTLY}, so writes to the table continue during the build.
+     * Blocks until the index is ready, passing a sample of {@code pg_stat_progress_create_index}
+     * to {@code progress} every few seconds. The "maintenance_work_mem" and
+     * "max_parallel_maintenance_workers" properties are set for the build only; an HNSW build
+     * is much faster when the graph fits in maintenance_work_mem. A failed build drops the
+     * invalid index it leaves behind.
+     */
+    public void createCollection(String collectionName, int dimension, DistanceMetric metric, IndexSpec index,
+                                 Consumer<IndexBuildProgress> progress) throws VectorClientException {
+        if (dimension <= 0) {
+            throw new VectorClientException("Dimension must be positive");
+        }
+        if (index.getType() != IndexSpec.Type.NONE && dimension > MAX_INDEXED_DIMENSION) {
+            throw new VectorClientException("pgvector cannot index more than " + MAX_INDEXED_DIMENSION
+                    + " dimensions; got " + dimension);
+        }
+        createTable(collectionName, "vector(" + dimension + ")");
+        storeMetric(collectionName, metric);
+        if (index.getType() != IndexSpec.Type.NONE) {
+            buildIndex(collectionName, metric, index, progress);
+        }
     }
 
     @Override
     public void store(Embedding embedding) throws VectorClientException {
-
+        batchStore(List.of(embedding));
     }
 
+    /**
+     * Bulk load embeddings with COPY ... FROM STDIN (FORMAT BINARY), one COPY per collection
+     * and chunk. A chunk is closed and committed once it reaches {@link Config#getMaxBatchRows()}
+     * rows or {@link Config#getMaxBatchBytes()} encoded bytes, so a single call never holds one
+     * giant transaction open. Embeddings without an id are assigned a random UUID.
+     *
+     * <p>Rows are copied straight into the collection's table, so an id that already exists
+     * fails its chunk. If the call fails, the chunks committed before the failure stay applied.
+     * With "pgvector.copyUpsert" set, each chunk is instead copied into a temporary table and
+     * upserted by id from there, at the cost of writing every row twice: a failed call can then
+     * be repeated with the same embeddings, and an id given more than once keeps its last
+     * embedding.
+     */
     @Override
     public void batchStore(List<Embedding> list) throws VectorClientException {
+        if (!isConnected()) {
+            throw new VectorClientException("Client is not connected");
+        }
+        if (list == null || list.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<Embedding>> byCollection = new LinkedHashMap<>();
+        for (Embedding embedding : list) {
+            if (embedding.getCollection() == null) {
+                throw new VectorClientException("Embedding has no collection");
+            }
+            if (embedding.getId() == null) {
+                embedding.setId(UUID.randomUUID().toString());
+            }
+            byCollection.computeIfAbsent(embedding.getCollection(), k -> new ArrayList<>()).add(embedding);
+        }
+
+        long start = System.nanoTime();
+        try (Connection connection = pool.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                for (Map.Entry<String, List<Embedding>> entry : byCollection.entrySet()) {
+                    copyCollection(connection, copyManager, entry.getKey(), entry.getValue());
+                }
+            } catch (SQLException | IOException | IllegalArgumentException e) {
+                rollbackQuietly(connection);
+                throw new VectorClientException("Bulk load failed: " + e.getMessage(), e);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | IllegalStateException e) {
+            throw new VectorClientException("Bulk load failed: " + e.getMessage(), e);
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        logger.debug("Stored {} embeddings in {} ms ({} rows/s)",
+                list.size(), elapsedNanos / 1_000_000, (long) (list.size() * 1e9 / elapsedNanos));
+    }
+
+    @Override
+    public List<Embedding> search(Embedding embedding, int topK) throws VectorClientException {
+        return search(embedding, topK, PgSearchOptions.defaults());
+    }
+
+    /**
+     * kNN search ordered by the collection's distance operator, so pgvector can answer it from
+     * an HNSW or IVFFlat index. efSearch and probes given in {@code options} apply to this query
+     * only ({@code set_config(..., true)} inside a short transaction); otherwise the session
+     * defaults are used. An HNSW scan returns at most ef_search rows, so ef_search is raised to
+     * topK (up to {@value #MAX_EF_SEARCH}) when it is lower. Results carry their stored vector,
+     * text and metadata.
+     */
+    public List<Embedding> search(Embedding embedding, int topK, PgSearchOptions options) throws VectorClientException {
+        return search(embedding, topK, null, options);
+    }
+
+    @Override
+    public List<List<Embedding>> searchBatch(List<Embedding> queries, int topK) throws VectorClientException {
+        return searchBatch(queries, topK, PgSearchOptions.defaults());
+    }
+
+    /**
+     * Answer many kNN queries on one connection with one statement per collection: the query
+     * vectors are sent as a single {@code vector[]}, unnested WITH ORDINALITY, and each row
+     * drives an index-ordered LATERAL subquery. Results come back in query order. Options apply
+     * to every query, as for {@link #search(Embedding, int, PgSearchOptions)}, and hnsw.ef_search
+     * is likewise raised to topK for the whole batch, in the same transaction.
+     */
+    public List<List<Embedding>> searchBatch(List<Embedding> queries, int topK, PgSearchOptions options)
+            throws VectorClientException {
+        for (Embedding query : queries) {
+            requireQuery(query);
+        }
+        List<List<Embedding>> results = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            results.add(new ArrayList<>(Math.max(topK, 0)));
+        }
+        if (queries.isEmpty() || topK <= 0) {
+            return results;
+        }
+
+        Map<String, List<Integer>> byCollection = new LinkedHashMap<>();
+        for (int i = 0; i < queries.size(); i++) {
+            byCollection.computeIfAbsent(queries.get(i).getCollection(), c -> new ArrayList<>()).add(i);
+        }
+
+        // every query in the batch shares topK, so one ef_search covers them all
+        Map<String, String> settings = localSettings(options);
+        raiseEfSearch(settings, topK);
+        try (Connection connection = pool.getConnection()) {
+            withLocalSettings(connection, settings, () -> {
+                for (Map.Entry<String, List<Integer>> group : byCollection.entrySet()) {
+                    searchCollectionBatch(connection, group.getKey(), group.getValue(), queries, topK, options, results);
+                }
+                return null;
+            });
+        } catch (SQLException | IllegalStateException | IllegalArgumentException e) {
+            throw new VectorClientException("Batch search of " + queries.size() + " queries failed: " + e.getMessage(), e);
+        }
+        return results;
+    }
+
+    @Override
+    public List<Embedding> search(Embedding embedding, int topK, Filter filter) throws VectorClientException {
+        return search(embedding, topK, filter, PgSearchOptions.defaults());
+    }
+
+    /**
+     * kNN search restricted to rows whose metadata matches {@code filter}; the results of
+     * {@link #searchFiltered(Embedding, int, Filter, PgSearchOptions)}. A null filter is a plain
+     * search.
+     */
+    public List<Embedding> search(Embedding embedding, int topK, Filter filter, PgSearchOptions options)
+            throws VectorClientException {
+        requireQuery(embedding);
+        if (topK <= 0) {
+            return List.of();
+        }
+        if (filter != null) {
+            return searchFiltered(embedding, topK, filter, options).getResults();
+        }
+
+        String collection = embedding.getCollection();
+        List<Object> parameters = List.of(PgVectorCodec.format(embedding.getEmbedding()), topK);
+
+        Map<String, String> settings = localSettings(options);
+        raiseEfSearch(settings, topK);
+        try (Connection connection = pool.getConnection()) {
+            DistanceMetric metric = metricOf(connection, collection, options);
+            String sql = searchSql.computeIfAbsent(collection + '\0' + metric, key -> buildSearchSql(collection, metric));
+            return withLocalSettings(connection, settings, () -> query(connection, sql, parameters, collection));
+        } catch (SQLException | IllegalStateException | IllegalArgumentException e) {
+            throw new VectorClientException("Search in " + collection + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public FilteredSearchResult searchFiltered(Embedding embedding, int topK, Filter filter) throws VectorClientException {
+        return searchFiltered(embedding, topK, filter, PgSearchOptions.defaults());
+    }
+
+    /**
+     * Filtered kNN search planned from the filter's selectivity, estimated on a sample of the
+     * table (see {@link PgSelectivityEstimator}) and turned into a strategy by the
+     * {@link FilterPlanner} configured with the "filter.*" properties:
+     *
+     * <ul>
+     *   <li>{@link FilterStrategy#PRE_FILTER_EXACT}: the matching rows are materialized and
+     *   ranked by distance, with no index involved.</li>
+     *   <li>{@link FilterStrategy#POST_FILTER_EXPANDING}: the nearest candidates are fetched
+     *   unfiltered, with hnsw.ef_search raised to their number, and filtered afterwards. The
+     *   candidate count grows fourfold per round until topK rows match. Past
+     *   {@value #MAX_EF_SEARCH} candidates, the most ef_search allows, the search continues
+     *   with one of the other strategies.</li>
+     *   <li>{@link FilterStrategy#ITERATIVE_INDEX_SCAN}: pgvector 0.8's iterative index scans
+     *   ({@code hnsw.iterative_scan}, {@code ivfflat.iterative_scan} set to relaxed_order) keep
+     *   walking the index until enough rows pass the filter; the rows are re-sorted by exact
+     *   distance. If the scan stops early, within hnsw.max_scan_tuples, an exact scan finishes.</li>
+     * </ul>
+     *
+     * All settings are local to the query's transaction. The returned result tells which
+     * strategy ran and why.
+     */
+    public FilteredSearchResult searchFiltered(Embedding embedding, int topK, Filter filter, PgSearchOptions options)
+            throws VectorClientException {
+        requireQuery(embedding);
+        if (filter == null) {
+            throw new VectorClientException("Filter cannot be null");
+        }
+        if (topK <= 0) {
+            throw new VectorClientException("topK must be positive");
+        }
+
+        long start = System.nanoTime();
+        String collection = embedding.getCollection();
+        PgFilterCompiler.Compiled where = PgFilterCompiler.compile(filter, mapper);
+        String vector = PgVectorCodec.format(embedding.getEmbedding());
+
+        try (Connection connection = pool.getConnection()) {
+            DistanceMetric metric = metricOf(connection, collection, options);
+            PgSelectivityEstimator.Estimate estimate = estimator.estimate(connection, collection, filter, where);
+            boolean iterativeScan = supportsIterativeScan(connection);
+            FilterStrategy chosen = planner.choose(estimate.selectivity, estimate.rows, iterativeScan);
+            FilterStrategy strategy = chosen;
+            int rounds = 0;
+            long examined = -1;
+            List<Embedding> results = List.of();
+
+            if (strategy == FilterStrategy.POST_FILTER_EXPANDING) {
+                examined = 0;
+                String sql = postFilterSql(collection, metric, where.sql);
+                int candidates = planner.initialCandidates(topK, estimate.selectivity);
+                while (true) {
+                    if (candidates > MAX_EF_SEARCH) {
+                        strategy = iterativeScan ? FilterStrategy.ITERATIVE_INDEX_SCAN : FilterStrategy.PRE_FILTER_EXACT;
+                        break;
+                    }
+                    rounds++;
+                    examined += candidates;
+                    Map<String, String> settings = localSettings(options);
+                    raiseEfSearch(settings, candidates);
+                    List<Object> parameters = new ArrayList<>();
+                    parameters.add(vector);
+                    parameters.add(candidates);
+                    parameters.addAll(where.parameters);
+                    parameters.add(topK);
+                    results = withLocalSettings(connection, settings, () -> query(connection, sql, parameters, collection));
+                    if (results.size() >= topK || candidates >= estimate.rows) {
+                        break;
+                    }
+                    candidates *= 4;
+                }
+            }
+
+            if (strategy == FilterStrategy.ITERATIVE_INDEX_SCAN) {
+                rounds++;
+                Map<String, String> settings = localSettings(options);
+                settings.put(HNSW_ITERATIVE_SCAN_SETTING, "relaxed_order");
+                settings.put(IVFFLAT_ITERATIVE_SCAN_SETTING, "relaxed_order");
+                List<Object> parameters = new ArrayList<>();
+                parameters.add(vector);
+                parameters.addAll(where.parameters);
+                parameters.add(topK);
+                String sql = iterativeScanSql(collection, metric, where.sql);
+                results = withLocalSettings(connection, settings, () -> query(connection, sql, parameters, collection));
+                if (results.size() < topK && estimate.selectivity * estimate.rows >= topK) {
+                    strategy = FilterStrategy.PRE_FILTER_EXACT;
+                }
+            }
+
+            if (strategy == FilterStrategy.PRE_FILTER_EXACT) {
+                rounds++;
+                List<Object> parameters = new ArrayList<>(where.parameters);
+                parameters.add(vector);
+                parameters.add(topK);
+                results = query(connection, exactScanSql(collection, metric, where.sql), parameters, collection);
+            }
 
+            FilteredSearchResult result = new FilteredSearchResult(results, strategy, estimate.selectivity,
+                    estimate.rows, rounds, examined, strategy != chosen ? chosen : null,
+                    Duration.ofNanos(System.nanoTime() - start));
+            logger.debug("Filtered search in {} [{}]: {}", collection, filter, result);
+            return result;
+        } catch (SQLException | IllegalStateException | IllegalArgumentException e) {
+            throw new VectorClientException("Search in " + collection + " failed: " + e.getMessage(), e);
+        }
     }
 
     @Override
-    public List<Embedding> search(Embedding embedding, int i) throws VectorClientException {
-        return List.of();
+    public List<Embedding> searchHybrid(HybridQuery query) throws VectorClientException {
+        return searchHybrid(query, PgSearchOptions.defaults());
+    }
+
+    /**
+     * Hybrid search in one round trip. The kNN search and a full-text search of {@code content}
+     * ({@code websearch_to_tsquery}, ranked by {@code ts_rank_cd}) each keep their best
+     * candidates in a CTE, and the statement fuses them as {@code query} asks before joining
+     * back to the table for the topK rows. hnsw.ef_search is raised to the candidate count for
+     * the query. With a filter, and pgvector 0.8 or later, the kNN side uses an iterative index
+     * scan so that filtering does not starve it.
+     *
+     * <p>The text search configuration is the "pgvector.textSearchConfig" property (default
+     * "english"). Without {@link #createTextIndex} the text side scans the whole table.
+     */
+    public List<Embedding> searchHybrid(HybridQuery query, PgSearchOptions options) throws VectorClientException {
+        Embedding embedding = query.getEmbedding();
+        requireQuery(embedding);
+
+        String collection = embedding.getCollection();
+        PgFilterCompiler.Compiled where = query.getFilter() != null ? PgFilterCompiler.compile(query.getFilter(), mapper) : null;
+        String textConfig = textSearchConfig();
+
+        List<Object> parameters = hybridParameters(query, where);
+
+        try (Connection connection = pool.getConnection()) {
+            String sql = hybridSql(collection, metricOf(connection, collection, options), textConfig, where, query.getFusion());
+            Map<String, String> settings = localSettings(options);
+            raiseEfSearch(settings, query.getCandidates());
+            if (where != null && supportsIterativeScan(connection)) {
+                settings.put(HNSW_ITERATIVE_SCAN_SETTING, "relaxed_order");
+                settings.put(IVFFLAT_ITERATIVE_SCAN_SETTING, "relaxed_order");
+            }
+            return withLocalSettings(connection, settings, () -> query(connection, sql, parameters, collection));
+        } catch (SQLException | IllegalStateException | IllegalArgumentException e) {
+            throw new VectorClientException("Hybrid search in " + collection + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Build a GIN index on {@code to_tsvector(config, content)}, CONCURRENTLY, for the text side
+     * of {@link #searchHybrid}. The configuration is "pgvector.textSearchConfig" as set now; the
+     * index only serves queries made with the same one.
+     */
+    public void createTextIndex(String collectionName) throws VectorClientException {
+        if (!isConnected()) {
+            throw new VectorClientException("Client is not connected");
+        }
+        String indexName = indexName(collectionName, "content_fts_idx");
+        String sql = "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + quoteIdentifier(indexName)
+                + " ON " + quoteIdentifier(collectionName)
+                + " USING gin (to_tsvector('" + textSearchConfig() + "', content))";
+        try (Connection connection = pool.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            // CONCURRENTLY cannot run inside a transaction block
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            } catch (SQLException e) {
+                dropInvalidIndex(connection, indexName);
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | IllegalStateException e) {
+            throw new VectorClientException("Building index " + indexName + " failed: " + e.getMessage(), e);
+        }
     }
 
     @Override
     public void delete(String s) throws VectorClientException {
 
     }
+
+    private void createTable(String collection, String vectorType) throws VectorClientException {
+        if (!isConnected()) {
+            throw new VectorClientException("Client is not connected");
+        }
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS vector");
+            statement.execute("CREATE TABLE IF NOT EXISTS " + quoteIdentifier(collection)
+                    + " (id text PRIMARY KEY, embedding " + vectorType + ", content text, metadata jsonb)");
+        } catch (SQLException | IllegalStateException e) {
+            throw new VectorClientException("Could not create collection " + collection + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void buildIndex(String collection, DistanceMetric metric, IndexSpec index, Consumer<IndexBuildProgress> progress)
+            throws VectorClientException {
+        String indexName = indexName(collection, "embedding_" + index.getType().name().toLowerCase() + "_idx");
+        String options = index.getType() == IndexSpec.Type.HNSW
+                ? "m = " + index.getM() + ", ef_construction = " + index.getEfConstruction()
+                : "lists = " + index.getLists();
+        String sql = "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + quoteIdentifier(indexName)
+                + " ON " + quoteIdentifier(collection)
+                + " USING " + index.getType().name().toLowerCase()
+                + " (embedding " + PgVectorCodec.operatorClass(metric) + ") WITH (" + options + ")";
+
+        long start = System.nanoTime();
+        try (Connection connection = pool.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            // CONCURRENTLY cannot run inside a transaction block
+            connection.setAutoCommit(true);
+            try {
+                buildIndex(connection, sql, indexName, progress);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | IllegalStateException e) {
+            throw new VectorClientException("Building index " + indexName + " failed: " + e.getMessage(), e);
+        }
+        logger.info("Built {} index {} on {} in {} s", index, indexName, collection,
+                (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    private void buildIndex(Connection connection, String sql, String indexName, Consumer<IndexBuildProgress> progress)
+            throws SQLException {
+        setMaintenanceSettings(connection, false);
+        int pid;
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT pg_backend_pid()")) {
+            rows.next();
+            pid = rows.getInt(1);
+        }
+        Thread poller = Thread.ofVirtual()
+                .name("pgvector-index-progress")
+                .start(() -> reportProgress(pid, indexName, progress));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            dropInvalidIndex(connection, indexName);
+            throw e;
+        } finally {
+            poller.interrupt();
+            joinQuietly(poller);
+            setMaintenanceSettings(connection, true);
+        }
+    }
+
+    /**
+     * Apply the configured maintenance settings to the session, or reset them once the build is
+     * done so the pooled connection goes back with server defaults.
+     */
+    private void setMaintenanceSettings(Connection connection, boolean reset) throws SQLException {
+        for (String setting : List.of(MAINTENANCE_WORK_MEM_SETTING, PARALLEL_WORKERS_SETTING)) {
+            Object value = config.getAdditionalProperties().get(setting);
+            if (value == null) {
+                continue;
+            }
+            if (reset) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("RESET " + setting);
+                }
+            } else {
+                try (PreparedStatement statement = connection.prepareStatement("SELECT set_config(?, ?, false)")) {
+                    statement.setString(1, setting);
+                    statement.setString(2, value.toString());
+                    statement.execute();
+                }
+            }
+        }
+    }
+
+    private void reportProgress(int pid, String indexName, Consumer<IndexBuildProgress> progress) {
+        String sql = "SELECT phase, blocks_done, blocks_total, tuples_done, tuples_total"
+                + " FROM pg_stat_progress_create_index WHERE pid = ?";
+        while (true) {
+            try {
+                Thread.sleep(PROGRESS_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try (Connection connection = pool.getConnection(); PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setInt(1, pid);
+                try (ResultSet rows = statement.executeQuery()) {
+                    if (rows.next() && !Thread.currentThread().isInterrupted()) {
+                        progress.accept(new IndexBuildProgress(indexName, rows.getString(1), rows.getLong(2),
+                                rows.getLong(3), rows.getLong(4), rows.getLong(5)));
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                logger.warn("Stopped reporting progress of index {}: {}", indexName, e.toString());
+                return;
+            }
+        }
+    }
+
+    private static void dropInvalidIndex(Connection connection, String indexName) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + quoteIdentifier(indexName));
+        } catch (SQLException e) {
+            logger.warn("Could not drop invalid index {} after failed build", indexName, e);
+        }
+    }
+
+    private static void joinQuietly(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Embedding> query(Connection connection, String sql, List<Object> parameters, String collection)
+            throws SQLException, VectorClientException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                if (parameters.get(i) instanceof Integer value) {
+                    statement.setInt(i + 1, value);
+                } else if (parameters.get(i) instanceof Double value) {
+                    statement.setDouble(i + 1, value);
+                } else {
+                    statement.setString(i + 1, (String) parameters.get(i));
+                }
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                List<Embedding> results = new ArrayList<>();
+                while (rows.next()) {
+                    results.add(readEmbedding(rows, collection));
+                }
+                return results;
+            }
+        }
+    }
+
+    /**
+     * Run the queries at {@code positions}, all against {@code collection}, and add each one's
+     * results to its slot in {@code results}.
+     */
+    private void searchCollectionBatch(Connection connection, String collection, List<Integer> positions,
+                                       List<Embedding> queries, int topK, PgSearchOptions options,
+                                       List<List<Embedding>> results) throws SQLException, VectorClientException {
+        DistanceMetric metric = metricOf(connection, collection, options);
+        String sql = searchSql.computeIfAbsent(collection + '\0' + metric + "\0batch",
+                key -> buildBatchSearchSql(collection, metric));
+
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, vectorArray(queries, positions));
+            statement.setInt(2, topK);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    int ordinal = (int) rows.getLong(1);
+                    results.get(positions.get(ordinal - 1)).add(readEmbedding(rows, collection, 2));
+                }
+            }
+        }
+    }
+
+    private Embedding readEmbedding(ResultSet rows, String collection) throws SQLException, VectorClientException {
+        return readEmbedding(rows, collection, 1);
+    }
+
+    /**
+     * Column order is the one produced by {@link #SELECT_COLUMNS}, starting at {@code first}.
+     */
+    private Embedding readEmbedding(ResultSet rows, String collection, int first) throws SQLException, VectorClientException {
+        String content = rows.getString(first + 1);
+        String metadata = rows.getString(first + 2);
+        Metadata parsed = null;
+        if (metadata != null) {
+            try {
+                parsed = new Metadata(mapper.readValue(metadata, METADATA_TYPE));
+            } catch (JsonProcessingException e) {
+                throw new VectorClientException("Unreadable metadata in " + collection + ": " + e.getMessage(), e);
+            }
+        }
+        return new Embedding(rows.getString(first), PgVectorCodec.decode(rows.getBytes(first + 3)),
+                content != null ? new Text(content) : null, parsed, collection);
+    }
+
+    private static String buildSearchSql(String collection, DistanceMetric metric) {
+        return "SELECT " + SELECT_COLUMNS + " FROM " + quoteIdentifier(collection)
+                + " ORDER BY embedding " + PgVectorCodec.operator(metric) + " CAST(? AS vector) LIMIT ?";
+    }
+
+    /**
+     * Parameters: the query vectors as a {@code vector[]} literal, limit. The ordinal comes
+     * first, then {@link #SELECT_COLUMNS}.
+     */
+    static String buildBatchSearchSql(String collection, DistanceMetric metric) {
+        return "SELECT q.ordinal, " + SELECT_COLUMNS
+                + " FROM unnest(CAST(? AS vector[])) WITH ORDINALITY AS q(vector, ordinal)"
+                + " CROSS JOIN LATERAL (SELECT id, content, metadata, embedding, embedding "
+                + PgVectorCodec.operator(metric) + " q.vector AS distance FROM " + quoteIdentifier(collection)
+                + " ORDER BY distance LIMIT ?) AS nearest ORDER BY q.ordinal, nearest.distance";
+    }
+
+    /**
+     * The {@code vector[]} literal of the queries at {@code positions}, in that order. Vector
+     * text forms contain only digits, signs, dots, E and commas, so quoting each one is enough.
+     */
+    static String vectorArray(List<Embedding> queries, List<Integer> positions) {
+        StringBuilder vectors = new StringBuilder("{");
+        for (int i = 0; i < positions.size(); i++) {
+            if (i > 0) {
+                vectors.append(',');
+            }
+            vectors.append('"').append(PgVectorCodec.format(queries.get(positions.get(i)).getEmbedding())).append('"');
+        }
+        return vectors.append('}').toString();
+    }
+
+    /**
+     * Parameters: filter parameters, query vector, limit. The MATERIALIZED fence keeps the
+     * planner from pushing the ORDER BY into an index scan.
+     */
+    private static String exactScanSql(String collection, DistanceMetric metric, String where) {
+        return "WITH matches AS MATERIALIZED (SELECT id, embedding, content, metadata FROM " + quoteIdentifier(collection)
+                + " WHERE " + where + ") SELECT " + SELECT_COLUMNS + " FROM matches"
+                + " ORDER BY embedding " + PgVectorCodec.operator(metric) + " CAST(? AS vector) LIMIT ?";
+    }
+
+    /**
+     * Parameters: query vector, candidates, filter parameters, limit.
+     */
+    private static String postFilterSql(String collection, DistanceMetric metric, String where) {
+        return "WITH nearest AS MATERIALIZED (SELECT id, embedding, content, metadata, embedding "
+                + PgVectorCodec.operator(metric) + " CAST(? AS vector) AS distance FROM " + quoteIdentifier(collection)
+                + " ORDER BY distance LIMIT ?) SELECT " + SELECT_COLUMNS + " FROM nearest WHERE " + where
+                + " ORDER BY distance LIMIT ?";
+    }
+
+    /**
+     * Parameters: query vector, filter parameters, limit. relaxed_order scans return rows
+     * slightly out of order, so they are sorted again outside the fence.
+     */
+    private static String iterativeScanSql(String collection, DistanceMetric metric, String where) {
+        return "WITH nearest AS MATERIALIZED (SELECT id, embedding, content, metadata, embedding "
+                + PgVectorCodec.operator(metric) + " CAST(? AS vector) AS distance FROM " + quoteIdentifier(collection)
+                + " WHERE " + where + " ORDER BY distance LIMIT ?) SELECT " + SELECT_COLUMNS
+                + " FROM nearest ORDER BY distance";
+    }
+
+    /**
+     * Parameters: query vector, filter parameters, candidates; text query, filter parameters,
+     * candidates; then the fusion's weights (and rank constants), and the limit. Each side's
+     * scores are min-max normalized to [0, 1], 1 when all are equal, for weighted fusion.
+     */
+    static String hybridSql(String collection, DistanceMetric metric, String textConfig,
+                            PgFilterCompiler.Compiled where, HybridQuery.Fusion fusion) {
+        String table = quoteIdentifier(collection);
+        String document = "to_tsvector('" + textConfig + "', content)";
+        String score = fusion == HybridQuery.Fusion.RECIPROCAL_RANK
+                ? "COALESCE(? / (? + s.rank), 0) + COALESCE(? / (? + l.rank), 0)"
+                : "? * COALESCE(s.normalized, 0) + ? * COALESCE(l.normalized, 0)";
+        return "WITH semantic AS MATERIALIZED (SELECT id, embedding " + PgVectorCodec.operator(metric)
+                + " CAST(? AS vector) AS distance FROM " + table
+                + (where != null ? " WHERE " + where.sql : "") + " ORDER BY distance LIMIT ?),"
+                + " lexical AS MATERIALIZED (SELECT id, ts_rank_cd(" + document + ", query) AS score FROM " + table
+                + ", websearch_to_tsquery('" + textConfig + "', ?) AS query WHERE " + document + " @@ query"
+                + (where != null ? " AND " + where.sql : "") + " ORDER BY score DESC LIMIT ?),"
+                + " semantic_ranked AS (SELECT id, row_number() OVER (ORDER BY distance) AS rank,"
+                + " COALESCE((max(distance) OVER () - distance) / NULLIF(max(distance) OVER () - min(distance) OVER (), 0), 1)"
+                + " AS normalized FROM semantic),"
+                + " lexical_ranked AS (SELECT id, row_number() OVER (ORDER BY score DESC) AS rank,"
+                + " COALESCE((score - min(score) OVER ()) / NULLIF(max(score) OVER () - min(score) OVER (), 0), 1)"
+                + " AS normalized FROM lexical),"
+                + " fused AS (SELECT COALESCE(s.id, l.id) AS id, " + score + " AS score"
+                + " FROM semantic_ranked s FULL JOIN lexical_ranked l ON s.id = l.id)"
+                + " SELECT " + SELECT_COLUMNS + " FROM fused JOIN " + table + " USING (id)"
+                + " ORDER BY fused.score DESC, id LIMIT ?";
+    }
+
+    /**
+     * The parameters of {@link #hybridSql} for {@code query}, in placeholder order.
+     */
+    static List<Object> hybridParameters(HybridQuery query, PgFilterCompiler.Compiled where) {
+        List<String> filterParameters = where != null ? where.parameters : List.of();
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(PgVectorCodec.format(query.getEmbedding().getEmbedding()));
+        parameters.addAll(filterParameters);
+        parameters.add(query.getCandidates());
+        parameters.add(query.getText());
+        parameters.addAll(filterParameters);
+        parameters.add(query.getCandidates());
+        if (query.getFusion() == HybridQuery.Fusion.RECIPROCAL_RANK) {
+            parameters.add(query.getVectorWeight());
+            parameters.add(query.getRankConstant());
+            parameters.add(query.getTextWeight());
+            parameters.add(query.getRankConstant());
+        } else {
+            parameters.add(query.getVectorWeight());
+            parameters.add(query.getTextWeight());
+        }
+        parameters.add(query.getTopK());
+        return parameters;
+    }
+
+    /**
+     * The text search configuration, validated because it is spelled into the SQL: a
+     * configuration name must be a literal for an expression index on it to match.
+     */
+    private String textSearchConfig() throws VectorClientException {
+        String name = config.getAdditionalProperty(TEXT_SEARCH_CONFIG_PROPERTY, String.class).orElse(DEFAULT_TEXT_SEARCH_CONFIG);
+        if (!name.matches("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?")) {
+            throw new VectorClientException("Invalid text search configuration: " + name);
+        }
+        return name;
+    }
+
+    /**
+     * Make hnsw.ef_search at least {@code candidates}, within its limit, so an HNSW scan can
+     * return that many rows. Nothing is added when the session value is already high enough,
+     * so a small search still runs in autocommit without the set_config round trip.
+     */
+    private void raiseEfSearch(Map<String, String> settings, int candidates) {
+        int needed = Math.min(candidates, MAX_EF_SEARCH);
+        if (!settings.containsKey(EF_SEARCH_SETTING) && needed <= sessionEfSearch()) {
+            return;
+        }
+        settings.merge(EF_SEARCH_SETTING, Integer.toString(needed),
+                (given, raised) -> Integer.parseInt(given) >= Integer.parseInt(raised) ? given : raised);
+    }
+
+    private int sessionEfSearch() {
+        return config.getAdditionalProperty(EF_SEARCH_SETTING, Integer.class).orElse(DEFAULT_EF_SEARCH);
+    }
+
+    private static Map<String, String> localSettings(PgSearchOptions options) {
+        Map<String, String> settings = new LinkedHashMap<>();
+        if (options.getEfSearch() != null) {
+            settings.put(EF_SEARCH_SETTING, options.getEfSearch().toString());
+        }
+        if (options.getProbes() != null) {
+            settings.put(PROBES_SETTING, options.getProbes().toString());
+        }
+        return settings;
+    }
+
+    /**
+     * Run {@code work} with {@code settings} applied to it alone, through
+     * {@code set_config(..., true)} inside a short transaction. Without settings the work runs
+     * as is, in autocommit.
+     */
+    private static <T> T withLocalSettings(Connection connection, Map<String, String> settings, SqlWork<T> work)
+            throws SQLException, VectorClientException {
+        if (settings.isEmpty()) {
+            return work.run();
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT set_config(?, ?, true)")) {
+                for (Map.Entry<String, String> setting : settings.entrySet()) {
+                    statement.setString(1, setting.getKey());
+                    statement.setString(2, setting.getValue());
+                    statement.execute();
+                }
+            }
+            T result = work.run();
+            connection.commit();
+            return result;
+        } catch (SQLException | VectorClientException e) {
+            rollbackQuietly(connection);
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private interface SqlWork<T> {
+        T run() throws SQLException, VectorClientException;
+    }
+
+    /**
+     * Iterative index scans arrived in pgvector 0.8.0. The installed version is read once.
+     */
+    private boolean supportsIterativeScan(Connection connection) throws SQLException {
+        Boolean supported = iterativeScan;
+        if (supported == null) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT extversion FROM pg_extension WHERE extname = 'vector'")) {
+                supported = rows.next() && versionAtLeast(rows.getString(1), 0, 8);
+            }
+            iterativeScan = supported;
+        }
+        return supported;
+    }
+
+    private static boolean versionAtLeast(String version, int major, int minor) {
+        String[] parts = version.split("\\.");
+        try {
+            int actualMajor = Integer.parseInt(parts[0]);
+            int actualMinor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return actualMajor > major || (actualMajor == major && actualMinor >= minor);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private void requireQuery(Embedding embedding) throws VectorClientException {
+        if (!isConnected()) {
+            throw new VectorClientException("Client is not connected");
+        }
+        if (embedding.getCollection() == null || embedding.getEmbedding() == null) {
+            throw new VectorClientException("Query must have a collection and a vector");
+        }
+    }
+
+    /**
+     * The metric to search {@code collection} by: the one in {@code options}, else the one its
+     * vector index was built for, else the one recorded in the table comment by
+     * {@link #createCollection(String, int, DistanceMetric, IndexSpec)}, else the
+     * "pgvector.metric" property (default L2). The result is cached, the fallback included, so
+     * an unindexed collection is not looked up again on every search; creating the collection
+     * through this client drops the cached entry.
+     */
+    private DistanceMetric metricOf(Connection connection, String collection, PgSearchOptions options)
+            throws SQLException {
+        if (options.getMetric() != null) {
+            return options.getMetric();
+        }
+        DistanceMetric metric = metrics.get(collection);
+        if (metric != null) {
+            return metric;
+        }
+        String sql = "SELECT (SELECT opc.opcname FROM pg_index i"
+                + " JOIN pg_opclass opc ON opc.oid = i.indclass[0]"
+                + " JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0]"
+                + " WHERE i.indrelid = t.oid AND i.indisvalid AND a.attname = 'embedding'"
+                + " ORDER BY i.indexrelid LIMIT 1), obj_description(t.oid, 'pg_class')"
+                + " FROM (SELECT to_regclass(?) AS oid) AS t";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, quoteIdentifier(collection));
+            try (ResultSet rows = statement.executeQuery()) {
+                if (rows.next()) {
+                    metric = PgVectorCodec.metricOfOperatorClass(rows.getString(1));
+                    if (metric == null) {
+                        metric = parseMetricComment(rows.getString(2));
+                    }
+                }
+            }
+        }
+        if (metric == null) {
+            metric = config.getAdditionalProperty(METRIC_PROPERTY, String.class)
+                    .map(name -> DistanceMetric.valueOf(name.toUpperCase()))
+                    .orElse(DistanceMetric.L2);
+        }
+        metrics.put(collection, metric);
+        return metric;
+    }
+
+    /**
+     * Record {@code metric} as the table comment, "pgvector.metric=NAME", for clients that meet
+     * the table without an index to read it from. The cached metric is dropped rather than
+     * replaced: if the table already had an index for another metric, that index decides.
+     */
+    private void storeMetric(String collection, DistanceMetric metric) throws VectorClientException {
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("COMMENT ON TABLE " + quoteIdentifier(collection)
+                    + " IS '" + METRIC_PROPERTY + '=' + metric.name() + "'");
+        } catch (SQLException | IllegalStateException e) {
+            throw new VectorClientException("Could not record the metric of " + collection + ": " + e.getMessage(), e);
+        }
+        metrics.remove(collection);
+    }
+
+    private static DistanceMetric parseMetricComment(String comment) {
+        String prefix = METRIC_PROPERTY + '=';
+        if (comment == null || !comment.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return DistanceMetric.valueOf(comment.substring(prefix.length()).trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void copyCollection(Connection connection, CopyManager copyManager, String collection, List<Embedding> embeddings)
+            throws SQLException, IOException {
+        String table = quoteIdentifier(collection);
+        boolean upsert = config.getAdditionalProperty(COPY_UPSERT_PROPERTY, Boolean.class).orElse(false);
+        if (upsert) {
+            // ON CONFLICT DO UPDATE cannot touch the same row twice in one statement
+            embeddings = lastPerId(embeddings);
+        }
+        // dropped at the end of each chunk's transaction
+        String stage = "CREATE TEMP TABLE " + COPY_STAGING_TABLE + " (LIKE " + table + " INCLUDING DEFAULTS) ON COMMIT DROP";
+        String sql = "COPY " + (upsert ? COPY_STAGING_TABLE : table) + " (id, embedding, content, metadata) FROM STDIN (FORMAT BINARY)";
+        String merge = "INSERT INTO " + table + " (id, embedding, content, metadata)"
+                + " SELECT id, embedding, content, metadata FROM " + COPY_STAGING_TABLE
+                + " ON CONFLICT (id) DO UPDATE SET embedding = EXCLUDED.embedding,"
+                + " content = EXCLUDED.content, metadata = EXCLUDED.metadata";
+        PgCopyEncoder encoder = new PgCopyEncoder(mapper, COPY_FLUSH_BYTES + (COPY_FLUSH_BYTES >> 2));
+
+        int index = 0;
+        while (index < embeddings.size()) {
+            if (upsert) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(stage);
+                }
+            }
+            CopyIn copyIn = copyManager.copyIn(sql);
+            try {
+                encoder.writeHeader();
+                int rows = 0;
+                long chunkBytes = 0;
+                // the first row always goes in, however large, so every chunk makes progress
+                while (index < embeddings.size()
+                        && (rows == 0 || rows < config.getMaxBatchRows()
+                        && chunkBytes + encoder.size() < config.getMaxBatchBytes())) {
+                    encoder.writeRow(embeddings.get(index++));
+                    rows++;
+                    if (encoder.size() >= COPY_FLUSH_BYTES) {
+                        chunkBytes += flush(copyIn, encoder);
+                    }
+                }
+                encoder.writeTrailer();
+                flush(copyIn, encoder);
+                copyIn.endCopy();
+                if (upsert) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute(merge);
+                    }
+                }
+                connection.commit();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                encoder.drain();
+            }
+        }
+    }
+
+    /**
+     * The embeddings with duplicate ids removed, keeping the last embedding given for each id at
+     * the position where that id first appeared.
+     */
+    static List<Embedding> lastPerId(List<Embedding> embeddings) {
+        Map<String, Embedding> byId = new LinkedHashMap<>(embeddings.size() * 2);
+        for (Embedding embedding : embeddings) {
+            byId.put(embedding.getId(), embedding);
+        }
+        return byId.size() == embeddings.size() ? embeddings : new ArrayList<>(byId.values());
+    }
+
+    private static int flush(CopyIn copyIn, PgCopyEncoder encoder) throws SQLException {
+        byte[] chunk = encoder.drain();
+        copyIn.writeToCopy(chunk, 0, chunk.length);
+        return chunk.length;
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.warn("Rollback failed", e);
+        }
+    }
+
+    /**
+     * Name for an index on {@code collection}: "collection_suffix", unless that exceeds the 63
+     * bytes Postgres keeps of an identifier. Then the collection part is shortened and a hash of
+     * the full name added, so two long collections sharing a prefix do not get the same index.
+     */
+    static String indexName(String collection, String suffix) {
+        String name = collection + '_' + suffix;
+        if (name.getBytes(StandardCharsets.UTF_8).length <= MAX_IDENTIFIER_BYTES) {
+            return name;
+        }
+        String hash = String.format("%08x", collection.hashCode());
+        int budget = MAX_IDENTIFIER_BYTES - suffix.length() - hash.length() - 2;
+        StringBuilder prefix = new StringBuilder();
+        int bytes = 0;
+        for (int i = 0; i < collection.length(); ) {
+            int codePoint = collection.codePointAt(i);
+            int size = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8).length;
+            if (bytes + size > budget) {
+                break;
+            }
+            prefix.appendCodePoint(codePoint);
+            bytes += size;
+            i += Character.charCount(codePoint);
+        }
+        return prefix + "_" + hash + '_' + suffix;
+    }
+
+    static String quoteIdentifier(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    private static Connection openConnection(Config config) throws SQLException {
+        Properties properties = new Properties();
+        config.getAdditionalProperty("user", String.class).ifPresent(user -> properties.setProperty("user", user));
+        if (config.getApiKey() != null) {
+            properties.setProperty("password", config.getApiKey());
+        }
+        // use a named server-side statement from the first execution; search runs the same
+        // SQL text over and over on each pooled connection
+        properties.setProperty("prepareThreshold", "1");
+        // session defaults go in the startup packet rather than a SET, so that a pool
+        // resetQuery such as RESET ALL returns to them instead of to the server defaults
+        StringBuilder options = new StringBuilder();
+        config.getAdditionalProperty(EF_SEARCH_SETTING, Integer.class)
+                .ifPresent(efSearch -> options.append(" -c ").append(EF_SEARCH_SETTING).append('=').append(efSearch));
+        config.getAdditionalProperty(PROBES_SETTING, Integer.class)
+                .ifPresent(probes -> options.append(" -c ").append(PROBES_SETTING).append('=').append(probes));
+        if (!options.isEmpty()) {
+            properties.setProperty("options", options.toString().trim());
+        }
+        return DriverManager.getConnection(jdbcUrl(config), properties);
+    }
+
+    private static String jdbcUrl(Config config) {
+        String endpoint = config.getEndpoint();
+        if (endpoint != null && endpoint.startsWith("jdbc:")) {
+            return endpoint;
+        }
+        String host = endpoint != null ? endpoint : config.getServerName();
+        int port = config.getPort() != null ? config.getPort() : 5432;
+        return "jdbc:postgresql://" + host + ":" + port + "/" + config.getDatabaseName();
+    }
 }
@@ -0,0 +1,104 @@
+package com.github.pgvector;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.vector.data.Embedding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes embeddings into PostgreSQL's binary COPY stream format.
+ * Rows are laid out as (id text, embedding vector, content text, metadata jsonb),
+ * all integers big-endian as the protocol requires.
+ */
+final class PgCopyEncoder {
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short FIELD_COUNT = 4;
+    private static final byte JSONB_VERSION = 1;
+
+    private final ObjectMapper mapper;
+    private final ByteArrayOutputStream bytes;
+    private final DataOutputStream out;
+
+    PgCopyEncoder(ObjectMapper mapper, int initialCapacity) {
+        this.mapper = mapper;
+        this.bytes = new ByteArrayOutputStream(initialCapacity);
+        this.out = new DataOutputStream(bytes);
+    }
+
+    void writeHeader() throws IOException {
+        out.write(SIGNATURE);
+        out.writeInt(0); // flags
+        out.writeInt(0); // header extension length
+    }
+
+    void writeRow(Embedding embedding) throws IOException {
+        out.writeShort(FIELD_COUNT);
+        writeText(embedding.getId());
+        writeVector(embedding.getEmbedding());
+        writeText(embedding.getText() != null ? embedding.getText().getContextString() : null);
+        writeJsonb(embedding.getMetadata() != null ? embedding.getMetadata().getMetadata() : null);
+    }
+
+    void writeTrailer() throws IOException {
+        out.writeShort(-1);
+    }
+
+    int size() {
+        return bytes.size();
+    }
+
+    byte[] drain() {
+        byte[] chunk = bytes.toByteArray();
+        bytes.reset();
+        return chunk;
+    }
+
+    /**
+     * pgvector's binary receive format: int16 dim, int16 unused, then dim float4 values.
+     */
+    private void writeVector(float[] vector) throws IOException {
+        if (vector == null) {
+            out.writeInt(-1);
+            return;
+        }
+        if (vector.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Vector dimension exceeds pgvector limit: " + vector.length);
+        }
+        out.writeInt(4 + 4 * vector.length);
+        out.writeShort(vector.length);
+        out.writeShort(0);
+        for (float v : vector) {
+            out.writeFloat(v);
+        }
+    }
+
+    private void writeText(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    private void writeJsonb(Object value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] encoded;
+        try {
+            encoded = mapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Metadata is not serializable to JSON", e);
+        }
+        out.writeInt(encoded.length + 1);
+        out.writeByte(JSONB_VERSION);
+        out.write(encoded);
+    }
+}
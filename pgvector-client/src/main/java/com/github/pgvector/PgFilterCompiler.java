@@ -0,0 +1,126 @@
+package com.github.pgvector;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.vector.data.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles a {@link Filter} into a parameterised predicate on the {@code metadata jsonb} column.
+ * Values never appear in the SQL text, so filters of the same shape share one prepared statement.
+ *
+ * <ul>
+ *   <li>eq and in become {@code metadata @> ?::jsonb} containments, which a GIN index on
+ *   metadata can answer.</li>
+ *   <li>exists becomes {@code metadata ? key}, also GIN-indexable.</li>
+ *   <li>Ranges run a strict jsonpath filter on the key's value with the bounds as variables,
+ *   so a value of another type, or an array, simply does not match.</li>
+ *   <li>The operand of not is wrapped in {@code COALESCE(..., false)}, so a row without the key
+ *   or without metadata satisfies the negation, as it does in memory.</li>
+ * </ul>
+ */
+final class PgFilterCompiler {
+
+    /** SQL predicate and its parameters, all bound as strings. */
+    static final class Compiled {
+        final String sql;
+        final List<String> parameters;
+
+        private Compiled(String sql, List<String> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+
+    private final ObjectMapper mapper;
+    private final StringBuilder sql = new StringBuilder();
+    private final List<String> parameters = new ArrayList<>();
+
+    private PgFilterCompiler(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    static Compiled compile(Filter filter, ObjectMapper mapper) {
+        PgFilterCompiler compiler = new PgFilterCompiler(mapper);
+        compiler.append(filter);
+        return new Compiled(compiler.sql.toString(), List.copyOf(compiler.parameters));
+    }
+
+    private void append(Filter filter) {
+        switch (filter) {
+            case Filter.Eq eq -> containment(eq.getKey(), eq.getValue());
+            case Filter.In in -> {
+                sql.append('(');
+                for (int i = 0; i < in.getValues().size(); i++) {
+                    if (i > 0) {
+                        sql.append(" OR ");
+                    }
+                    containment(in.getKey(), in.getValues().get(i));
+                }
+                sql.append(')');
+            }
+            case Filter.Range range -> range(range);
+            case Filter.Exists exists -> {
+                // ?? is the driver's escape for a literal ? operator
+                sql.append("metadata ?? ?");
+                parameters.add(exists.getKey());
+            }
+            case Filter.And and -> join(and.getFilters(), " AND ");
+            case Filter.Or or -> join(or.getFilters(), " OR ");
+            case Filter.Not not -> {
+                sql.append("NOT COALESCE(");
+                append(not.getFilter());
+                sql.append(", false)");
+            }
+        }
+    }
+
+    private void containment(String key, Object value) {
+        sql.append("metadata @> CAST(? AS jsonb)");
+        parameters.add(json(Map.of(key, value)));
+    }
+
+    private void range(Filter.Range range) {
+        StringBuilder path = new StringBuilder("strict $ ? (");
+        Map<String, Object> bounds = new LinkedHashMap<>();
+        if (range.getLower() != null) {
+            path.append(range.isLowerInclusive() ? "@ >= $lo" : "@ > $lo");
+            bounds.put("lo", range.getLower());
+        }
+        if (range.getUpper() != null) {
+            if (!bounds.isEmpty()) {
+                path.append(" && ");
+            }
+            path.append(range.isUpperInclusive() ? "@ <= $hi" : "@ < $hi");
+            bounds.put("hi", range.getUpper());
+        }
+        path.append(')');
+        // the path only varies with the shape of the range, so it is part of the SQL text
+        sql.append("jsonb_path_exists(metadata -> ?, '").append(path).append("', CAST(? AS jsonb))");
+        parameters.add(range.getKey());
+        parameters.add(json(bounds));
+    }
+
+    private void join(List<Filter> filters, String operator) {
+        sql.append('(');
+        for (int i = 0; i < filters.size(); i++) {
+            if (i > 0) {
+                sql.append(operator);
+            }
+            append(filters.get(i));
+        }
+        sql.append(')');
+    }
+
+    private String json(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Filter value is not serializable to JSON", e);
+        }
+    }
+}
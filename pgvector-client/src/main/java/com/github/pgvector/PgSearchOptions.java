@@ -0,0 +1,79 @@
+package com.github.pgvector;
+
+import com.github.vector.util.DistanceMetric;
+
+/**
+ * Per-request overrides for {@link PgClient#search(com.github.vector.data.Embedding, int, PgSearchOptions)}.
+ * Unset values fall back to the session defaults taken from the client's {@code Config}.
+ *
+ * <p>{@code efSearch} is pgvector's {@code hnsw.ef_search} (candidate list size, default 40) and
+ * {@code probes} is {@code ivfflat.probes} (lists scanned, default 1). Raising either improves
+ * recall at the cost of latency.
+ */
+public final class PgSearchOptions {
+    private static final PgSearchOptions DEFAULTS = builder().build();
+
+    private final DistanceMetric metric;
+    private final Integer efSearch;
+    private final Integer probes;
+
+    private PgSearchOptions(Builder builder) {
+        this.metric = builder.metric;
+        this.efSearch = builder.efSearch;
+        this.probes = builder.probes;
+    }
+
+    public static PgSearchOptions defaults() {
+        return DEFAULTS;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public DistanceMetric getMetric() {
+        return metric;
+    }
+
+    public Integer getEfSearch() {
+        return efSearch;
+    }
+
+    public Integer getProbes() {
+        return probes;
+    }
+
+    public static class Builder {
+        private DistanceMetric metric;
+        private Integer efSearch;
+        private Integer probes;
+
+        /** Distance to order by. Defaults to the collection's metric. */
+        public Builder metric(DistanceMetric metric) {
+            this.metric = metric;
+            return this;
+        }
+
+        /**
+         * Lower bound for {@code hnsw.ef_search}. A search raises it to the number of rows it
+         * needs (topK, or the candidate count of a filtered or hybrid search), up to pgvector's
+         * limit of 1000, because an HNSW scan returns at most ef_search rows.
+         */
+        public Builder efSearch(int efSearch) {
+            this.efSearch = efSearch;
+            return this;
+        }
+
+        public Builder probes(int probes) {
+            this.probes = probes;
+            return this;
+        }
+
+        public PgSearchOptions build() {
+            if ((efSearch != null && efSearch <= 0) || (probes != null && probes <= 0)) {
+                throw new IllegalArgumentException("efSearch and probes must be positive");
+            }
+            return new PgSearchOptions(this);
+        }
+    }
+}
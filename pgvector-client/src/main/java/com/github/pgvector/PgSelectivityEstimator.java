@@ -0,0 +1,166 @@
+package com.github.pgvector;
+
+import com.github.vector.data.filter.Filter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Estimates the fraction of a collection's rows that match a compiled filter by evaluating it
+ * on a block sample ({@code TABLESAMPLE SYSTEM}) of about {@value #SAMPLE_ROWS} rows, or on the
+ * whole table when it is that small. The planner's own estimates for jsonb predicates are fixed
+ * guesses, so they cannot tell a 0.01% filter from a 50% one; a sample can.
+ *
+ * <p>Estimates are cached per collection and filter for {@value #TTL_SECONDS} seconds, so a burst
+ * of queries with the same filter pays for one sample. The cache holds at most {@value #MAX_ENTRIES}
+ * entries and evicts the least recently used one when full. The table size comes from the
+ * planner's statistics; for a table that has never been analyzed it is counted once and cached
+ * under the collection alone, shared by every filter, for the same time.
+ */
+final class PgSelectivityEstimator {
+    private static final int SAMPLE_ROWS = 10_000;
+    private static final long TTL_SECONDS = 60;
+    private static final int MAX_ENTRIES = 1024;
+
+    static final class Estimate {
+        final double selectivity;
+        final long rows;
+        final long createdNanos;
+
+        Estimate(double selectivity, long rows) {
+            this.selectivity = selectivity;
+            this.rows = rows;
+            this.createdNanos = System.nanoTime();
+        }
+    }
+
+    /** A null filter keys the row count of a table without statistics. */
+    private record Key(String collection, Filter filter) {}
+
+    // guarded by itself; lookups reorder it, so reads lock too
+    private final Map<Key, Estimate> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Estimate> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * @param filter the filter, which keys the cache
+     * @param compiled the same filter compiled to SQL
+     */
+    Estimate estimate(Connection connection, String collection, Filter filter, PgFilterCompiler.Compiled compiled)
+            throws SQLException {
+        Key key = new Key(collection, filter);
+        Estimate cached = get(key);
+        if (isFresh(cached)) {
+            return cached;
+        }
+
+        String table = PgClient.quoteIdentifier(collection);
+        long rows = tableRows(connection, table);
+        if (rows < 0) {
+            rows = countRows(connection, collection, table);
+        }
+        Estimate estimate = null;
+        if (rows > SAMPLE_ROWS) {
+            double percent = Math.min(100.0, 100.0 * SAMPLE_ROWS / rows);
+            estimate = count(connection, table + " TABLESAMPLE SYSTEM (" + String.format(Locale.ROOT, "%.6f", percent) + ")",
+                    compiled, rows);
+        }
+        if (estimate == null) {
+            // small table, or an unlucky empty sample: count exactly
+            estimate = count(connection, table, compiled, -1);
+        }
+        put(key, estimate);
+        return estimate;
+    }
+
+    /**
+     * Row count of a table without planner statistics, cached as the estimate for an empty filter
+     * so that estimates for different filters share one full count.
+     */
+    private long countRows(Connection connection, String collection, String table) throws SQLException {
+        Key key = new Key(collection, null);
+        Estimate cached = get(key);
+        if (isFresh(cached)) {
+            return cached.rows;
+        }
+        long rows;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT count(*) FROM " + table);
+             ResultSet result = statement.executeQuery()) {
+            result.next();
+            rows = result.getLong(1);
+        }
+        put(key, new Estimate(1.0, rows));
+        return rows;
+    }
+
+    private static boolean isFresh(Estimate estimate) {
+        return estimate != null && System.nanoTime() - estimate.createdNanos < TTL_SECONDS * 1_000_000_000L;
+    }
+
+    private Estimate get(Key key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private void put(Key key, Estimate estimate) {
+        synchronized (cache) {
+            cache.put(key, estimate);
+        }
+    }
+
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * @param rows table size to report, or -1 to report the number of rows counted
+     * @return null if the sample was empty
+     */
+    private static Estimate count(Connection connection, String from, PgFilterCompiler.Compiled filter, long rows)
+            throws SQLException {
+        String sql = "SELECT count(*) FILTER (WHERE " + filter.sql + "), count(*) FROM " + from;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, filter.parameters);
+            try (ResultSet result = statement.executeQuery()) {
+                result.next();
+                long matched = result.getLong(1);
+                long counted = result.getLong(2);
+                if (counted == 0) {
+                    return rows < 0 ? new Estimate(0, 0) : null;
+                }
+                return new Estimate((double) matched / counted, rows < 0 ? counted : rows);
+            }
+        }
+    }
+
+    /**
+     * @return the planner's row count for the table, or -1 if it has never been analyzed
+     */
+    private static long tableRows(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)")) {
+            statement.setString(1, table);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? result.getLong(1) : -1;
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement statement, List<String> parameters) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            statement.setString(i + 1, parameters.get(i));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.pgvector;
+
+import com.github.vector.util.DistanceMetric;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Conversions between {@code float[]} and pgvector's wire formats, plus the operator and index
+ * operator class for each {@link DistanceMetric}.
+ */
+final class PgVectorCodec {
+
+    private PgVectorCodec() {}
+
+    /**
+     * Text input format, {@code [x1,x2,...]}. {@link Float#toString} is the shortest string that
+     * parses back to the same float, so values survive the round trip exactly.
+     */
+    static String format(float[] vector) {
+        StringBuilder text = new StringBuilder(vector.length * 12 + 2).append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(vector[i]);
+        }
+        return text.append(']').toString();
+    }
+
+    /**
+     * Binary send format, as returned by {@code vector_send}: int16 dim, int16 unused, then dim
+     * big-endian float4 values.
+     */
+    static float[] decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int dim = buffer.getShort(0);
+        if (bytes.length != 4 + 4 * dim) {
+            throw new IllegalArgumentException("Malformed vector: " + bytes.length + " bytes for " + dim + " dimensions");
+        }
+        float[] vector = new float[dim];
+        buffer.position(4);
+        buffer.asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    /**
+     * pgvector distance operator for the metric. Every operator orders nearest first;
+     * {@code <#>} is the negated inner product.
+     */
+    static String operator(DistanceMetric metric) {
+        return switch (metric) {
+            case L2 -> "<->";
+            case COSINE -> "<=>";
+            case INNER_PRODUCT -> "<#>";
+            case L1 -> "<+>";
+        };
+    }
+
+    /**
+     * Index operator class matching {@link #operator}; an index only serves queries ordered by
+     * the operator of its class.
+     */
+    static String operatorClass(DistanceMetric metric) {
+        return switch (metric) {
+            case L2 -> "vector_l2_ops";
+            case COSINE -> "vector_cosine_ops";
+            case INNER_PRODUCT -> "vector_ip_ops";
+            case L1 -> "vector_l1_ops";
+        };
+    }
+
+    /**
+     * The metric whose {@link #operatorClass} is {@code name}, or null for any other class.
+     */
+    static DistanceMetric metricOfOperatorClass(String name) {
+        for (DistanceMetric metric : DistanceMetric.values()) {
+            if (operatorClass(metric).equals(name)) {
+                return metric;
+            }
+        }
+        return null;
+    }
+}
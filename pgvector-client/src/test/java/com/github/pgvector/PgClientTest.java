@@ -0,0 +1,174 @@
+package com.github.pgvector;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.vector.client.HybridQuery;
+import com.github.vector.data.Embedding;
+import com.github.vector.data.Text;
+import com.github.vector.data.filter.Filter;
+import com.github.vector.util.DistanceMetric;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgClientTest {
+
+    private static Embedding embedding(String id, float value) {
+        return new Embedding(id, new float[]{value}, new Text(id), null, "docs");
+    }
+
+    /** Bind placeholders in {@code sql}; {@code ??} is the driver's escape for a literal ?. */
+    private static int placeholders(String sql) {
+        return sql.replace("??", "").replaceAll("[^?]", "").length();
+    }
+
+    @Nested
+    @DisplayName("Bulk Load Tests")
+    class BulkLoad {
+        @Test
+        @DisplayName("Should keep the last embedding of an id given twice in one chunk")
+        void shouldKeepLastDuplicate() {
+            Embedding first = embedding("a", 1f);
+            Embedding other = embedding("b", 2f);
+            Embedding last = embedding("a", 3f);
+
+            List<Embedding> stored = PgClient.lastPerId(List.of(first, other, last));
+            assertEquals(2, stored.size());
+            assertSame(last, stored.get(0));
+            assertSame(other, stored.get(1));
+        }
+
+        @Test
+        @DisplayName("Should pass a chunk without duplicates through unchanged")
+        void shouldNotCopyDistinctIds() {
+            List<Embedding> embeddings = List.of(embedding("a", 1f), embedding("b", 2f));
+            assertSame(embeddings, PgClient.lastPerId(embeddings));
+        }
+    }
+
+    @Nested
+    @DisplayName("Index Name Tests")
+    class IndexNames {
+        @Test
+        @DisplayName("Should keep short names as collection_suffix")
+        void shouldKeepShortName() {
+            assertEquals("docs_embedding_idx", PgClient.indexName("docs", "embedding_idx"));
+        }
+
+        @Test
+        @DisplayName("Should shorten long names to 63 bytes and tell collections with a shared prefix apart")
+        void shouldTruncateLongName() {
+            String a = "a".repeat(70) + "_one";
+            String b = "a".repeat(70) + "_two";
+            String nameA = PgClient.indexName(a, "embedding_idx");
+            String nameB = PgClient.indexName(b, "embedding_idx");
+
+            assertTrue(nameA.getBytes(StandardCharsets.UTF_8).length <= 63);
+            assertTrue(nameA.endsWith("_embedding_idx"));
+            assertTrue(nameA.startsWith("aaaa"));
+            assertNotEquals(nameA, nameB);
+            assertEquals(nameA, PgClient.indexName(a, "embedding_idx"));
+        }
+
+        @Test
+        @DisplayName("Should not split a multi-byte character when shortening")
+        void shouldTruncateOnCodePoints() {
+            String collection = "é".repeat(40);
+            String name = PgClient.indexName(collection, "text_idx");
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+
+            assertTrue(bytes.length <= 63);
+            assertEquals(name, new String(bytes, StandardCharsets.UTF_8));
+            assertTrue(name.endsWith("_text_idx"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Hybrid SQL Tests")
+    class HybridSql {
+        private HybridQuery.Builder query() {
+            return HybridQuery.builder()
+                    .embedding(new Embedding(null, new float[]{1f, 2f}, null, null, "docs"))
+                    .text("vector search")
+                    .topK(5)
+                    .candidates(40)
+                    .rankConstant(60)
+                    .weights(0.7, 0.3);
+        }
+
+        @Test
+        @DisplayName("Should fuse reciprocal ranks with a weight and rank constant per side")
+        void shouldBuildReciprocalRankSql() {
+            HybridQuery query = query().fusion(HybridQuery.Fusion.RECIPROCAL_RANK).build();
+            String sql = PgClient.hybridSql("docs", DistanceMetric.COSINE, "english", null, query.getFusion());
+            List<Object> parameters = PgClient.hybridParameters(query, null);
+
+            assertTrue(sql.contains("COALESCE(? / (? + s.rank), 0) + COALESCE(? / (? + l.rank), 0)"));
+            assertTrue(sql.contains("embedding <=> CAST(? AS vector) AS distance FROM \"docs\" ORDER BY distance LIMIT ?"));
+            assertTrue(sql.contains("websearch_to_tsquery('english', ?)"));
+            assertTrue(sql.endsWith("ORDER BY fused.score DESC, id LIMIT ?"));
+            assertFalse(sql.contains(" WHERE metadata"));
+
+            assertEquals(placeholders(sql), parameters.size());
+            assertEquals(List.of("[1.0,2.0]", 40, "vector search", 40, 0.7, 60, 0.3, 60, 5), parameters);
+        }
+
+        @Test
+        @DisplayName("Should fuse normalized scores with one weight per side")
+        void shouldBuildWeightedSql() {
+            HybridQuery query = query().fusion(HybridQuery.Fusion.WEIGHTED).build();
+            String sql = PgClient.hybridSql("docs", DistanceMetric.L2, "simple", null, query.getFusion());
+            List<Object> parameters = PgClient.hybridParameters(query, null);
+
+            assertTrue(sql.contains("? * COALESCE(s.normalized, 0) + ? * COALESCE(l.normalized, 0)"));
+            assertTrue(sql.contains("embedding <-> CAST(? AS vector)"));
+            assertFalse(sql.contains("s.rank), 0)"));
+            assertEquals(placeholders(sql), parameters.size());
+            assertEquals(List.of("[1.0,2.0]", 40, "vector search", 40, 0.7, 0.3, 5), parameters);
+        }
+
+        @Test
+        @DisplayName("Should apply the filter to both sides and repeat its parameters")
+        void shouldFilterBothSides() {
+            PgFilterCompiler.Compiled where = PgFilterCompiler.compile(
+                    Filter.and(Filter.eq("tenant", "acme"), Filter.not(Filter.exists("deleted"))), new ObjectMapper());
+            HybridQuery query = query().build();
+            String sql = PgClient.hybridSql("docs", DistanceMetric.COSINE, "english", where, query.getFusion());
+            List<Object> parameters = PgClient.hybridParameters(query, where);
+
+            assertTrue(sql.contains("FROM \"docs\" WHERE " + where.sql + " ORDER BY distance LIMIT ?"));
+            assertTrue(sql.contains("@@ query AND " + where.sql + " ORDER BY score DESC LIMIT ?"));
+            assertEquals(placeholders(sql), parameters.size());
+            assertEquals(List.of("[1.0,2.0]", "{\"tenant\":\"acme\"}", "deleted", 40,
+                    "vector search", "{\"tenant\":\"acme\"}", "deleted", 40, 0.7, 60, 0.3, 60, 5), parameters);
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Search SQL Tests")
+    class BatchSearchSql {
+        @Test
+        @DisplayName("Should run one LATERAL kNN per unnested query, ordered by query ordinal")
+        void shouldBuildLateralSql() {
+            String sql = PgClient.buildBatchSearchSql("docs", DistanceMetric.INNER_PRODUCT);
+            assertTrue(sql.startsWith("SELECT q.ordinal, id, content, metadata::text, vector_send(embedding) FROM "));
+            assertTrue(sql.contains("unnest(CAST(? AS vector[])) WITH ORDINALITY AS q(vector, ordinal)"));
+            assertTrue(sql.contains("CROSS JOIN LATERAL (SELECT id, content, metadata, embedding,"
+                    + " embedding <#> q.vector AS distance FROM \"docs\" ORDER BY distance LIMIT ?) AS nearest"));
+            assertTrue(sql.endsWith("ORDER BY q.ordinal, nearest.distance"));
+            assertEquals(2, placeholders(sql));
+        }
+
+        @Test
+        @DisplayName("Should write the selected queries as a vector array literal in position order")
+        void shouldBuildVectorArray() {
+            List<Embedding> queries = List.of(embedding("a", 1f), embedding("b", -2.5f), embedding("c", 3f));
+            assertEquals("{\"[3.0]\",\"[1.0]\"}", PgClient.vectorArray(queries, List.of(2, 0)));
+            assertEquals("{\"[-2.5]\"}", PgClient.vectorArray(queries, List.of(1)));
+        }
+    }
+}
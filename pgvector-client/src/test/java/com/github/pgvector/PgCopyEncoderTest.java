@@ -0,0 +1,101 @@
+package com.github.pgvector;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.vector.data.Embedding;
+import com.github.vector.data.Metadata;
+import com.github.vector.data.Text;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgCopyEncoderTest {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static String readText(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should write the binary COPY signature, flags and extension length")
+    void shouldWriteHeader() throws IOException {
+        PgCopyEncoder encoder = new PgCopyEncoder(mapper, 64);
+        encoder.writeHeader();
+        ByteBuffer in = ByteBuffer.wrap(encoder.drain());
+
+        byte[] signature = new byte[SIGNATURE.length];
+        in.get(signature);
+        assertArrayEquals(SIGNATURE, signature);
+        assertEquals(0, in.getInt());
+        assertEquals(0, in.getInt());
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Should frame id, vector, content and jsonb metadata as four big-endian fields")
+    void shouldWriteRow() throws IOException {
+        PgCopyEncoder encoder = new PgCopyEncoder(mapper, 64);
+        encoder.writeRow(new Embedding("id-1", new float[]{1.5f, -2f, 0f}, new Text("héllo"),
+                new Metadata(Map.of("k", "v")), "docs"));
+        encoder.writeTrailer();
+        ByteBuffer in = ByteBuffer.wrap(encoder.drain());
+
+        assertEquals(4, in.getShort());
+        assertEquals("id-1", readText(in));
+
+        assertEquals(4 + 3 * Float.BYTES, in.getInt());
+        assertEquals(3, in.getShort());
+        assertEquals(0, in.getShort());
+        assertEquals(1.5f, in.getFloat());
+        assertEquals(-2f, in.getFloat());
+        assertEquals(0f, in.getFloat());
+
+        assertEquals("héllo", readText(in));
+
+        byte[] json = "{\"k\":\"v\"}".getBytes(StandardCharsets.UTF_8);
+        assertEquals(json.length + 1, in.getInt());
+        assertEquals(1, in.get());
+        byte[] payload = new byte[json.length];
+        in.get(payload);
+        assertArrayEquals(json, payload);
+
+        assertEquals(-1, in.getShort());
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Should write missing content and metadata as NULL fields")
+    void shouldWriteNulls() throws IOException {
+        PgCopyEncoder encoder = new PgCopyEncoder(mapper, 64);
+        encoder.writeRow(new Embedding("id-2", new float[]{1f}, null, null, "docs"));
+        ByteBuffer in = ByteBuffer.wrap(encoder.drain());
+
+        assertEquals(4, in.getShort());
+        assertEquals("id-2", readText(in));
+        int vectorBytes = in.getInt();
+        in.position(in.position() + vectorBytes);
+        assertEquals(-1, in.getInt());
+        assertEquals(-1, in.getInt());
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Should empty the buffer on drain and report its size")
+    void shouldDrain() throws IOException {
+        PgCopyEncoder encoder = new PgCopyEncoder(mapper, 64);
+        encoder.writeTrailer();
+        assertEquals(2, encoder.size());
+        assertEquals(2, encoder.drain().length);
+        assertEquals(0, encoder.size());
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.pgvector;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.vector.data.filter.Filter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgFilterCompilerTest {
+
+    private static final String CONTAINS = "metadata @> CAST(? AS jsonb)";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private PgFilterCompiler.Compiled compile(Filter filter) {
+        return PgFilterCompiler.compile(filter, mapper);
+    }
+
+    private static String range(String path) {
+        return "jsonb_path_exists(metadata -> ?, '" + path + "', CAST(? AS jsonb))";
+    }
+
+    @Nested
+    @DisplayName("Leaf Tests")
+    class Leaves {
+        @Test
+        @DisplayName("Should compile eq to a jsonb containment with the pair as parameter")
+        void shouldCompileEq() {
+            PgFilterCompiler.Compiled compiled = compile(Filter.eq("tenant", "acme"));
+            assertEquals(CONTAINS, compiled.sql);
+            assertEquals(List.of("{\"tenant\":\"acme\"}"), compiled.parameters);
+
+            assertEquals(List.of("{\"year\":2020}"), compile(Filter.eq("year", 2020)).parameters);
+            assertEquals(List.of("{\"draft\":false}"), compile(Filter.eq("draft", false)).parameters);
+        }
+
+        @Test
+        @DisplayName("Should compile in to one containment per value joined with OR")
+        void shouldCompileIn() {
+            PgFilterCompiler.Compiled compiled = compile(Filter.in("lang", "en", "de"));
+            assertEquals("(" + CONTAINS + " OR " + CONTAINS + ")", compiled.sql);
+            assertEquals(List.of("{\"lang\":\"en\"}", "{\"lang\":\"de\"}"), compiled.parameters);
+
+            assertEquals("(" + CONTAINS + ")", compile(Filter.in("lang", "en")).sql);
+        }
+
+        @Test
+        @DisplayName("Should compile exists to the escaped key operator")
+        void shouldCompileExists() {
+            PgFilterCompiler.Compiled compiled = compile(Filter.exists("deleted"));
+            assertEquals("metadata ?? ?", compiled.sql);
+            assertEquals(List.of("deleted"), compiled.parameters);
+        }
+
+        @Test
+        @DisplayName("Should compile each range shape to a jsonpath with the bounds as variables")
+        void shouldCompileRanges() {
+            PgFilterCompiler.Compiled both = compile(Filter.range("year", 2020, 2024));
+            assertEquals(range("strict $ ? (@ >= $lo && @ < $hi)"), both.sql);
+            assertEquals(List.of("year", "{\"lo\":2020,\"hi\":2024}"), both.parameters);
+
+            PgFilterCompiler.Compiled exclusive = compile(Filter.range("year", 2020, false, 2024, true));
+            assertEquals(range("strict $ ? (@ > $lo && @ <= $hi)"), exclusive.sql);
+
+            PgFilterCompiler.Compiled lower = compile(Filter.gt("score", 0.5));
+            assertEquals(range("strict $ ? (@ > $lo)"), lower.sql);
+            assertEquals(List.of("score", "{\"lo\":0.5}"), lower.parameters);
+
+            assertEquals(range("strict $ ? (@ >= $lo)"), compile(Filter.gte("score", 1)).sql);
+            assertEquals(range("strict $ ? (@ < $hi)"), compile(Filter.lt("name", "m")).sql);
+
+            PgFilterCompiler.Compiled upper = compile(Filter.lte("name", "m"));
+            assertEquals(range("strict $ ? (@ <= $hi)"), upper.sql);
+            assertEquals(List.of("name", "{\"hi\":\"m\"}"), upper.parameters);
+        }
+
+        @Test
+        @DisplayName("Should keep values out of the SQL text so equal shapes share a statement")
+        void shouldShareSqlAcrossValues() {
+            assertEquals(compile(Filter.eq("k", "a")).sql, compile(Filter.eq("k", "b")).sql);
+            assertEquals(compile(Filter.range("k", 1, 2)).sql, compile(Filter.range("k", 3, 4)).sql);
+        }
+    }
+
+    @Nested
+    @DisplayName("Combinator Tests")
+    class Combinators {
+        @Test
+        @DisplayName("Should parenthesise and/or and concatenate operand parameters in order")
+        void shouldCompileAndOr() {
+            PgFilterCompiler.Compiled compiled = compile(Filter.and(
+                    Filter.eq("tenant", "acme"),
+                    Filter.or(Filter.exists("pinned"), Filter.gte("year", 2020))));
+            assertEquals("(" + CONTAINS + " AND (metadata ?? ? OR " + range("strict $ ? (@ >= $lo)") + "))",
+                    compiled.sql);
+            assertEquals(List.of("{\"tenant\":\"acme\"}", "pinned", "year", "{\"lo\":2020}"), compiled.parameters);
+
+            assertEquals("(" + CONTAINS + ")", compile(Filter.or(Filter.eq("k", 1))).sql);
+        }
+
+        @Test
+        @DisplayName("Should wrap the operand of not in COALESCE so missing keys satisfy it")
+        void shouldCompileNot() {
+            PgFilterCompiler.Compiled compiled = compile(Filter.not(Filter.exists("deleted")));
+            assertEquals("NOT COALESCE(metadata ?? ?, false)", compiled.sql);
+            assertEquals(List.of("deleted"), compiled.parameters);
+
+            assertEquals("NOT COALESCE(NOT COALESCE(" + CONTAINS + ", false), false)",
+                    compile(Filter.not(Filter.not(Filter.eq("k", 1)))).sql);
+        }
+
+        @Test
+        @DisplayName("Should reject empty in, and and or before they reach the compiler")
+        void shouldRejectEmptyOperands() {
+            assertThrows(IllegalArgumentException.class, () -> Filter.in("k", List.of()));
+            assertThrows(IllegalArgumentException.class, () -> Filter.in("k"));
+            assertThrows(IllegalArgumentException.class, () -> Filter.and());
+            assertThrows(IllegalArgumentException.class, () -> Filter.or(List.of()));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.pgvector;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.vector.data.filter.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PgSelectivityEstimatorTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private PgSelectivityEstimator estimator;
+    private Connection connection;
+    private List<String> statements;
+
+    /** Planner row count, or -1 for a table that was never analyzed. */
+    private long reltuples;
+    private long tableRows;
+    private long matched;
+    private long sampled;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        estimator = new PgSelectivityEstimator();
+        statements = new ArrayList<>();
+        connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            statements.add(sql);
+            ResultSet result = mock(ResultSet.class);
+            when(result.next()).thenReturn(true);
+            if (sql.contains("reltuples")) {
+                when(result.getLong(anyInt())).thenReturn(reltuples);
+            } else if (sql.contains("FILTER")) {
+                when(result.getLong(1)).thenReturn(matched);
+                when(result.getLong(2)).thenReturn(sampled);
+            } else {
+                when(result.getLong(1)).thenReturn(tableRows);
+            }
+            PreparedStatement statement = mock(PreparedStatement.class);
+            when(statement.executeQuery()).thenReturn(result);
+            return statement;
+        });
+    }
+
+    private PgSelectivityEstimator.Estimate estimate(Filter filter) throws SQLException {
+        return estimator.estimate(connection, "docs", filter, PgFilterCompiler.compile(filter, mapper));
+    }
+
+    private long count(String fragment) {
+        return statements.stream().filter(sql -> sql.contains(fragment)).count();
+    }
+
+    @Nested
+    @DisplayName("Sampling Tests")
+    class Sampling {
+        @Test
+        @DisplayName("Should count a small table exactly")
+        void shouldCountSmallTable() throws SQLException {
+            reltuples = 500;
+            matched = 50;
+            sampled = 500;
+            PgSelectivityEstimator.Estimate estimate = estimate(Filter.eq("tenant", "acme"));
+            assertEquals(0.1, estimate.selectivity, 1e-12);
+            assertEquals(500, estimate.rows);
+            assertEquals(0, count("TABLESAMPLE"));
+            assertEquals(1, count("FILTER (WHERE metadata @> CAST(? AS jsonb))"));
+        }
+
+        @Test
+        @DisplayName("Should sample about ten thousand rows of a large table and report the planner's size")
+        void shouldSampleLargeTable() throws SQLException {
+            reltuples = 1_000_000;
+            matched = 25;
+            sampled = 10_000;
+            PgSelectivityEstimator.Estimate estimate = estimate(Filter.exists("pinned"));
+            assertEquals(0.0025, estimate.selectivity, 1e-12);
+            assertEquals(1_000_000, estimate.rows);
+            assertEquals(1, count("TABLESAMPLE SYSTEM (1.000000)"));
+        }
+
+        @Test
+        @DisplayName("Should count an unanalyzed table once for all filters")
+        void shouldCountUnanalyzedTableOnce() throws SQLException {
+            reltuples = -1;
+            tableRows = 200;
+            matched = 20;
+            sampled = 200;
+            assertEquals(200, estimate(Filter.eq("tenant", "acme")).rows);
+            assertEquals(200, estimate(Filter.eq("tenant", "other")).rows);
+            assertEquals(1, statements.stream().filter(sql -> sql.startsWith("SELECT count(*) FROM")).count());
+            assertEquals(2, count("FILTER"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Cache Tests")
+    class Cache {
+        @Test
+        @DisplayName("Should reuse the estimate of an equal filter built separately")
+        void shouldCacheByFilterValue() throws SQLException {
+            reltuples = 500;
+            sampled = 500;
+            estimate(Filter.and(Filter.eq("tenant", "acme"), Filter.gte("year", 2020)));
+            int queries = statements.size();
+            estimate(Filter.and(Filter.eq("tenant", "acme"), Filter.gte("year", 2020)));
+            assertEquals(queries, statements.size());
+
+            estimate(Filter.and(Filter.eq("tenant", "acme"), Filter.gte("year", 2021)));
+            assertTrue(statements.size() > queries);
+        }
+
+        @Test
+        @DisplayName("Should evict only the least recently used estimate when full")
+        void shouldEvictLeastRecentlyUsed() throws SQLException {
+            reltuples = 500;
+            sampled = 500;
+            for (int i = 0; i < 1024; i++) {
+                estimate(Filter.eq("n", i));
+            }
+            assertEquals(1024, estimator.size());
+
+            estimate(Filter.eq("n", 0));
+            estimate(Filter.eq("n", 1024));
+            assertEquals(1024, estimator.size());
+
+            int queries = statements.size();
+            estimate(Filter.eq("n", 0));
+            estimate(Filter.eq("n", 1023));
+            assertEquals(queries, statements.size());
+            estimate(Filter.eq("n", 1));
+            assertTrue(statements.size() > queries);
+        }
+    }
+}
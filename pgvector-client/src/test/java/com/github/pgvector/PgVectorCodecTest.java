@@ -0,0 +1,83 @@
+package com.github.pgvector;
+
+import com.github.vector.util.DistanceMetric;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgVectorCodecTest {
+
+    private static byte[] vectorSend(float... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 * values.length);
+        buffer.putShort((short) values.length).putShort((short) 0);
+        for (float value : values) {
+            buffer.putFloat(value);
+        }
+        return buffer.array();
+    }
+
+    @Nested
+    @DisplayName("Wire Format Tests")
+    class WireFormat {
+        @Test
+        @DisplayName("Should format vectors as pgvector text input that parses back exactly")
+        void shouldFormatText() {
+            float[] vector = {0.1f, -2.5f, 1e-8f};
+            String text = PgVectorCodec.format(vector);
+            assertEquals("[0.1,-2.5,1.0E-8]", text);
+            String[] parts = text.substring(1, text.length() - 1).split(",");
+            for (int i = 0; i < vector.length; i++) {
+                assertEquals(vector[i], Float.parseFloat(parts[i]));
+            }
+            assertEquals("[]", PgVectorCodec.format(new float[0]));
+        }
+
+        @Test
+        @DisplayName("Should decode the vector_send format")
+        void shouldDecodeSendFormat() {
+            assertArrayEquals(new float[]{1f, -0.5f, 3.25f}, PgVectorCodec.decode(vectorSend(1f, -0.5f, 3.25f)));
+            assertArrayEquals(new float[0], PgVectorCodec.decode(vectorSend()));
+            assertNull(PgVectorCodec.decode(null));
+        }
+
+        @Test
+        @DisplayName("Should reject a payload whose length does not match its dimension")
+        void shouldRejectMalformedPayload() {
+            byte[] bytes = vectorSend(1f, 2f);
+            byte[] truncated = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+            assertThrows(IllegalArgumentException.class, () -> PgVectorCodec.decode(truncated));
+        }
+    }
+
+    @Nested
+    @DisplayName("Operator Tests")
+    class Operators {
+        @Test
+        @DisplayName("Should map each metric to its pgvector operator and operator class")
+        void shouldMapMetrics() {
+            assertEquals("<->", PgVectorCodec.operator(DistanceMetric.L2));
+            assertEquals("<=>", PgVectorCodec.operator(DistanceMetric.COSINE));
+            assertEquals("<#>", PgVectorCodec.operator(DistanceMetric.INNER_PRODUCT));
+            assertEquals("<+>", PgVectorCodec.operator(DistanceMetric.L1));
+            assertEquals("vector_l2_ops", PgVectorCodec.operatorClass(DistanceMetric.L2));
+            assertEquals("vector_cosine_ops", PgVectorCodec.operatorClass(DistanceMetric.COSINE));
+            assertEquals("vector_ip_ops", PgVectorCodec.operatorClass(DistanceMetric.INNER_PRODUCT));
+            assertEquals("vector_l1_ops", PgVectorCodec.operatorClass(DistanceMetric.L1));
+        }
+
+        @Test
+        @DisplayName("Should read the metric back from an operator class name")
+        void shouldReadMetricOfOperatorClass() {
+            for (DistanceMetric metric : DistanceMetric.values()) {
+                assertEquals(metric, PgVectorCodec.metricOfOperatorClass(PgVectorCodec.operatorClass(metric)));
+            }
+            assertNull(PgVectorCodec.metricOfOperatorClass("halfvec_l2_ops"));
+            assertNull(PgVectorCodec.metricOfOperatorClass(null));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.vector.benchmarks;
+
+import com.github.vector.util.CompressionUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"512", "4096", "32768"})
+    public int textLength;
+
+    @Param({"1", "32"})
+    public int batchSize;
+
+    private String[] texts;
+    private byte[][] compressed;
+
+    @Setup
+    public void setUp() {
+        texts = new String[batchSize];
+        compressed = new byte[batchSize][];
+        for (int i = 0; i < batchSize; i++) {
+            texts[i] = SyntheticData.text(textLength, SyntheticData.SEED + i);
+            compressed[i] = CompressionUtil.compress(texts[i]);
+        }
+    }
+
+    @Benchmark
+    public void compress(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(CompressionUtil.compress(text));
+        }
+    }
+
+    @Benchmark
+    public void decompress(Blackhole blackhole) {
+        for (byte[] bytes : compressed) {
+            blackhole.consume(CompressionUtil.decompress(bytes));
+        }
+    }
+}
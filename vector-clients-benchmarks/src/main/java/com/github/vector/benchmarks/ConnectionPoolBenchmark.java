@@ -0,0 +1,85 @@
+package com.github.vector.benchmarks;
+
+import com.github.vector.Config;
+import com.github.vector.StorageEngine;
+import com.github.vector.connection.ConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borrow/return cost of {@link StorageEngine} against in-memory connections, so the number
+ * is pure pool overhead with no network in it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+
+    @Param({"8", "32"})
+    public int poolSize;
+
+    private StorageEngine pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Config config = new Config();
+        config.setMinPoolSize(poolSize);
+        config.setMaxPoolSize(poolSize);
+        pool = new ConnectionPool(config, ConnectionPoolBenchmark::fakeConnection);
+        pool.initialize(poolSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown(false, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Connection borrowReturnUncontended() {
+        Connection connection = pool.getConnection();
+        pool.returnConnection(connection);
+        return connection;
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Connection borrowReturnContended() {
+        Connection connection = pool.getConnection();
+        pool.returnConnection(connection);
+        return connection;
+    }
+
+    private static Connection fakeConnection() {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isValid" -> true;
+                    case "isClosed", "isReadOnly" -> false;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "FakeConnection";
+                    default -> null;
+                });
+    }
+}
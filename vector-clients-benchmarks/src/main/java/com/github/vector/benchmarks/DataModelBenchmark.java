@@ -0,0 +1,71 @@
+package com.github.vector.benchmarks;
+
+import com.github.vector.data.Metadata;
+import com.github.vector.data.Text;
+import com.github.vector.embedding.EmbeddingRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request object overhead: metadata comparison and request construction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataModelBenchmark {
+
+    @Param({"4", "32"})
+    public int metadataKeys;
+
+    @Param({"1", "256"})
+    public int batchSize;
+
+    private Metadata metadata;
+    private Map<String, Object> equalMap;
+    private Text[] texts;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> source = SyntheticData.metadata(metadataKeys, SyntheticData.SEED);
+        metadata = new Metadata(source);
+        equalMap = new HashMap<>(source);
+        texts = new Text[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            texts[i] = new Text(SyntheticData.text(256, SyntheticData.SEED + i));
+        }
+    }
+
+    @Benchmark
+    public boolean validateMetaData() {
+        return metadata.validateMetaData(equalMap);
+    }
+
+    @Benchmark
+    public void buildEmbeddingRequests(Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            blackhole.consume(EmbeddingRequest.builder()
+                    .text(texts[i])
+                    .requestId("req-" + i)
+                    .metadata(metadata)
+                    .collection("bench")
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.vector.benchmarks;
+
+import com.github.vector.util.PCA;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PCABenchmark {
+
+    @Param({"64", "384"})
+    public int dimension;
+
+    @Param({"1000", "5000"})
+    public int batchSize;
+
+    @Param({"16"})
+    public int nComponents;
+
+    private FloatBuffer data;
+    private FloatBuffer transformInput;
+    private FloatBuffer transformOutput;
+    private PCA fitted;
+
+    @Setup
+    public void setUp() {
+        data = FloatBuffer.wrap(SyntheticData.batch(batchSize, dimension, SyntheticData.SEED));
+        fitted = PCA.builder().nComponents(nComponents).build();
+        fitted.fit(data, batchSize, dimension);
+
+        transformInput = FloatBuffer.wrap(SyntheticData.batch(batchSize, dimension, SyntheticData.SEED + 1));
+        transformOutput = FloatBuffer.allocate(batchSize * nComponents);
+    }
+
+    @Benchmark
+    public PCA fit() {
+        PCA pca = PCA.builder().nComponents(nComponents).build();
+        pca.fit(data, batchSize, dimension);
+        return pca;
+    }
+
+    @Benchmark
+    public FloatBuffer transform() {
+        return fitted.transform(transformInput, batchSize);
+    }
+
+    @Benchmark
+    public FloatBuffer transformInto() {
+        return fitted.transform(transformInput, batchSize, transformOutput);
+    }
+}
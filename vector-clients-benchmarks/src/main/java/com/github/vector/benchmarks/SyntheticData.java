@@ -0,0 +1,80 @@
+package com.github.vector.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic inputs so benchmark runs are comparable across machines and commits.
+ */
+public final class SyntheticData {
+    public static final long SEED = 0x5EEDL;
+
+    private SyntheticData() {}
+
+    /**
+     * Gaussian vector with the given dimension; the same seed always yields the same vector.
+     */
+    public static float[] vector(int dimension, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) gaussian(random);
+        }
+        return vector;
+    }
+
+    /**
+     * Row-major batch of {@code batchSize} gaussian vectors.
+     */
+    public static float[] batch(int batchSize, int dimension, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        float[] data = new float[batchSize * dimension];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (float) gaussian(random);
+        }
+        return data;
+    }
+
+    /**
+     * Pseudo-English text of roughly {@code length} characters, drawn from a small vocabulary so
+     * it compresses like real chunked documents rather than like random bytes.
+     */
+    public static String text(int length, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder builder = new StringBuilder(length + 16);
+        while (builder.length() < length) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        builder.setLength(length);
+        return builder.toString();
+    }
+
+    /**
+     * Metadata map with {@code keys} entries mixing string, numeric and boolean values.
+     */
+    public static Map<String, Object> metadata(int keys, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < keys; i++) {
+            switch (i % 3) {
+                case 0 -> map.put("key" + i, WORDS[random.nextInt(WORDS.length)]);
+                case 1 -> map.put("key" + i, random.nextInt(1_000_000));
+                default -> map.put("key" + i, random.nextBoolean());
+            }
+        }
+        return map;
+    }
+
+    private static final String[] WORDS = {
+            "vector", "embedding", "index", "query", "postgres", "collection", "search", "model",
+            "latency", "throughput", "the", "a", "of", "and", "to", "in", "is", "for", "with", "on"
+    };
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller keeps the sequence independent of the JDK's gaussian implementation
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.vector.benchmarks;
+
+import com.github.vector.util.ScalarVectorKernels;
+import com.github.vector.util.SimdVectorKernels;
+import com.github.vector.util.VectorKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SIMD against scalar distance kernels at common embedding sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class VectorKernelsBenchmark {
+
+    @Param({"384", "768", "1536", "3072"})
+    public int dimension;
+
+    @Param({"scalar", "simd"})
+    public String kernels;
+
+    private VectorKernels impl;
+    private float[] a;
+    private float[] b;
+
+    @Setup
+    public void setUp() {
+        impl = "simd".equals(kernels) ? new SimdVectorKernels() : new ScalarVectorKernels();
+        a = SyntheticData.vector(dimension, SyntheticData.SEED);
+        b = SyntheticData.vector(dimension, SyntheticData.SEED + 1);
+    }
+
+    @Benchmark
+    public float dotProduct() {
+        return impl.dotProduct(a, 0, b, 0, dimension);
+    }
+
+    @Benchmark
+    public float cosineSimilarity() {
+        return impl.cosineSimilarity(a, 0, b, 0, dimension);
+    }
+
+    @Benchmark
+    public float squaredL2Distance() {
+        return impl.squaredL2Distance(a, 0, b, 0, dimension);
+    }
+
+    @Benchmark
+    public float l1Distance() {
+        return impl.l1Distance(a, 0, b, 0, dimension);
+    }
+}
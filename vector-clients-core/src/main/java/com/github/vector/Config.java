@@ -44,6 +44,9 @@ public class Config {
     @JsonProperty("maxConnectionLifetime")
     private Duration maxConnectionLifetime = Duration.ofHours(1);
 
+    @JsonProperty("resetQuery")
+    private String resetQuery; // run on every returned connection, e.g. "RESET ALL"
+
     // === Health Monitoring Settings ===
     @JsonProperty("checkInterval")
     private Duration checkInterval = Duration.ofSeconds(30);
@@ -89,6 +92,13 @@ public class Config {
     @JsonProperty("writeTimeout")
     private Duration writeTimeout = Duration.ofSeconds(30);
 
+    // === Bulk Load Settings ===
+    @JsonProperty("maxBatchRows")
+    private int maxBatchRows = 50_000;
+
+    @JsonProperty("maxBatchBytes")
+    private long maxBatchBytes = 64L * 1024 * 1024;
+
     // === SSL/TLS Settings ===
     @JsonProperty("sslEnabled")
     private boolean sslEnabled = true;
@@ -151,6 +161,9 @@ public class Config {
     public Duration getMaxConnectionLifetime() { return maxConnectionLifetime; }
     public void setMaxConnectionLifetime(Duration maxConnectionLifetime) { this.maxConnectionLifetime = maxConnectionLifetime; }
 
+    public String getResetQuery() { return resetQuery; }
+    public void setResetQuery(String resetQuery) { this.resetQuery = resetQuery; }
+
     // === Health Monitoring Getters/Setters ===
     public Duration getCheckInterval() { return checkInterval; }
     public void setCheckInterval(Duration checkInterval) { this.checkInterval = checkInterval; }
@@ -196,6 +209,23 @@ public class Config {
     public Duration getWriteTimeout() { return writeTimeout; }
     public void setWriteTimeout(Duration writeTimeout) { this.writeTimeout = writeTimeout; }
 
+    // === Bulk Load Getters/Setters ===
+    public int getMaxBatchRows() { return maxBatchRows; }
+    public void setMaxBatchRows(int maxBatchRows) {
+        if (maxBatchRows <= 0) {
+            throw new IllegalArgumentException("Max batch rows must be positive");
+        }
+        this.maxBatchRows = maxBatchRows;
+    }
+
+    public long getMaxBatchBytes() { return maxBatchBytes; }
+    public void setMaxBatchBytes(long maxBatchBytes) {
+        if (maxBatchBytes <= 0) {
+            throw new IllegalArgumentException("Max batch bytes must be positive");
+        }
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
     // === SSL Getters/Setters ===
     public boolean isSslEnabled() { return sslEnabled; }
     public void setSslEnabled(boolean sslEnabled) { this.sslEnabled = sslEnabled; }
@@ -264,6 +294,10 @@ public class Config {
         if (maxConsecutiveFailures <= 0) {
             throw new IllegalStateException("Max consecutive failures must be positive");
         }
+
+        if (maxBatchRows <= 0 || maxBatchBytes <= 0) {
+            throw new IllegalStateException("Batch row and byte budgets must be positive");
+        }
     }
 
     // === Utility Methods ===
@@ -283,6 +317,7 @@ public class Config {
         copy.connectionTimeout = this.connectionTimeout;
         copy.idleTimeout = this.idleTimeout;
         copy.maxConnectionLifetime = this.maxConnectionLifetime;
+        copy.resetQuery = this.resetQuery;
 
         copy.checkInterval = this.checkInterval;
         copy.validationTimeout = this.validationTimeout;
@@ -301,6 +336,9 @@ public class Config {
         copy.readTimeout = this.readTimeout;
         copy.writeTimeout = this.writeTimeout;
 
+        copy.maxBatchRows = this.maxBatchRows;
+        copy.maxBatchBytes = this.maxBatchBytes;
+
         copy.sslEnabled = this.sslEnabled;
         copy.sslVerifyHostname = this.sslVerifyHostname;
         copy.trustStorePath = this.trustStorePath;
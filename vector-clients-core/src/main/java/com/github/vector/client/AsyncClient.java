@@ -0,0 +1,33 @@
+package com.github.vector.client;
+
+import com.github.vector.data.Embedding;
+import com.github.vector.data.filter.Filter;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of the data operations of {@link Client}. Each call returns at once;
+ * the future completes with the result, or exceptionally with the
+ * {@link com.github.vector.exception.VectorClientException} the blocking call would have thrown.
+ *
+ * <p>{@link VirtualThreadAsyncClient} adapts any {@link Client}.
+ */
+public interface AsyncClient extends AutoCloseable {
+
+    CompletableFuture<Void> store(Embedding embedding);
+
+    CompletableFuture<Void> batchStore(List<Embedding> embeddings);
+
+    CompletableFuture<List<Embedding>> search(Embedding embedding, int topK);
+
+    CompletableFuture<List<Embedding>> search(Embedding embedding, int topK, Filter filter);
+
+    CompletableFuture<Void> delete(String embeddingId);
+
+    /**
+     * Reject new operations. Operations already accepted still complete.
+     */
+    @Override
+    void close();
+}
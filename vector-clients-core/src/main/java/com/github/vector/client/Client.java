@@ -2,8 +2,12 @@ package com.github.vector.client;
 
 import com.github.vector.Config;
 import com.github.vector.data.Embedding;
+import com.github.vector.data.filter.Filter;
 import com.github.vector.exception.VectorClientException;
+import com.github.vector.index.IndexSpec;
+import com.github.vector.util.DistanceMetric;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public interface Client {
@@ -16,11 +20,60 @@ public interface Client {
     // === Core CRUD Operations ===
     void createCollection(String collectionName) throws VectorClientException;
 
+    /**
+     * Create a collection of fixed-dimension vectors searched by {@code metric}, with the given
+     * approximate index. Clients that cannot honour the spec reject it.
+     */
+    default void createCollection(String collectionName, int dimension, DistanceMetric metric, IndexSpec index)
+            throws VectorClientException {
+        throw new VectorClientException(getClass().getSimpleName() + " does not support index specifications");
+    }
+
     void store(Embedding embedding) throws VectorClientException;
     void batchStore(List<Embedding> embeddings) throws VectorClientException;
 
     List<Embedding> search(Embedding embedding, int topK) throws VectorClientException;
 
+    /**
+     * The topK neighbours of each query, in query order. Clients that can answer many queries in
+     * one round trip override this; the default searches one query at a time.
+     */
+    default List<List<Embedding>> searchBatch(List<Embedding> queries, int topK) throws VectorClientException {
+        List<List<Embedding>> results = new ArrayList<>(queries.size());
+        for (Embedding query : queries) {
+            results.add(search(query, topK));
+        }
+        return results;
+    }
+
+    /**
+     * Nearest neighbours among the embeddings whose metadata matches {@code filter}; a null
+     * filter is a plain search. Clients apply the filter inside the search, not to an
+     * over-fetched result list.
+     */
+    default List<Embedding> search(Embedding embedding, int topK, Filter filter) throws VectorClientException {
+        if (filter == null) {
+            return search(embedding, topK);
+        }
+        throw new VectorClientException(getClass().getSimpleName() + " does not support filtered search");
+    }
+
+    /**
+     * Filtered search that picks its strategy from the estimated selectivity of {@code filter}
+     * (see {@link FilterPlanner}) and reports the plan it used alongside the results.
+     */
+    default FilteredSearchResult searchFiltered(Embedding embedding, int topK, Filter filter) throws VectorClientException {
+        throw new VectorClientException(getClass().getSimpleName() + " does not support filtered search");
+    }
+
+    /**
+     * Fused kNN and full-text search; see {@link HybridQuery}. Clients without a text index
+     * reject it.
+     */
+    default List<Embedding> searchHybrid(HybridQuery query) throws VectorClientException {
+        throw new VectorClientException(getClass().getSimpleName() + " does not support hybrid search");
+    }
+
     void delete(String embeddingId) throws VectorClientException;
 
 
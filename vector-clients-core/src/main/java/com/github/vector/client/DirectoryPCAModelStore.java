@@ -0,0 +1,56 @@
+package com.github.vector.client;
+
+import com.github.vector.util.PCA;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * {@link PCAModelStore} keeping one file per collection, {@code <collection>.pca}, in a directory,
+ * in the binary format of {@link PCA#save}, and memory-mapped on load. Files are written to a
+ * temporary name and moved into place, so a reader never sees a partial model.
+ */
+public class DirectoryPCAModelStore implements PCAModelStore {
+    private static final String EXTENSION = ".pca";
+
+    private final Path directory;
+
+    public DirectoryPCAModelStore(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public void save(String collection, PCA pca) throws IOException {
+        if (!pca.isFitted()) {
+            throw new IllegalArgumentException("Only fitted models can be saved");
+        }
+        Files.createDirectories(directory);
+        Path target = pathOf(collection);
+        Path temp = Files.createTempFile(directory, collection, ".tmp");
+        try {
+            pca.save(temp);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public PCA load(String collection) throws IOException {
+        Path source = pathOf(collection);
+        if (!Files.exists(source)) {
+            return null;
+        }
+        return PCA.load(source);
+    }
+
+    public Path pathOf(String collection) {
+        if (collection.isEmpty() || collection.contains("/") || collection.contains("\\") || collection.startsWith(".")) {
+            throw new IllegalArgumentException("Collection name cannot be used as a file name: " + collection);
+        }
+        return directory.resolve(collection + EXTENSION);
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.vector.client;
+
+import com.github.vector.Config;
+
+/**
+ * Chooses a {@link FilterStrategy} from the estimated selectivity of a filter.
+ *
+ * <ul>
+ *   <li>When at most {@code exactScanRows} rows are expected to match, an exact scan over the
+ *   matches is both the fastest plan and the only one with full recall.</li>
+ *   <li>When at least {@code postFilterSelectivity} of the rows match, an unfiltered search for
+ *   about topK / selectivity candidates almost always leaves topK matches, so post-filtering
+ *   finishes in one or two rounds.</li>
+ *   <li>In between, the index has to skip non-matching rows as it walks: an iterative index scan
+ *   if the client has one, otherwise post-filtering with expansion.</li>
+ * </ul>
+ *
+ * <p>Thresholds come from {@link Config#getAdditionalProperties()}: "filter.exactScanRows"
+ * (integer, default 10000) and "filter.postFilterSelectivity" (double, default 0.2).
+ */
+public final class FilterPlanner {
+    public static final int DEFAULT_EXACT_SCAN_ROWS = 10_000;
+    public static final double DEFAULT_POST_FILTER_SELECTIVITY = 0.2;
+    // Candidates fetched per expected match when post-filtering, to absorb estimation error
+    private static final double OVERFETCH = 1.5;
+
+    private final long exactScanRows;
+    private final double postFilterSelectivity;
+
+    public FilterPlanner(long exactScanRows, double postFilterSelectivity) {
+        if (exactScanRows < 0 || postFilterSelectivity <= 0 || postFilterSelectivity > 1) {
+            throw new IllegalArgumentException("exactScanRows must be >= 0 and postFilterSelectivity in (0, 1]");
+        }
+        this.exactScanRows = exactScanRows;
+        this.postFilterSelectivity = postFilterSelectivity;
+    }
+
+    public static FilterPlanner fromConfig(Config config) {
+        return new FilterPlanner(
+                config.getAdditionalProperty("filter.exactScanRows", Integer.class).orElse(DEFAULT_EXACT_SCAN_ROWS),
+                config.getAdditionalProperty("filter.postFilterSelectivity", Double.class).orElse(DEFAULT_POST_FILTER_SELECTIVITY));
+    }
+
+    /**
+     * @param selectivity estimated fraction of rows matching the filter
+     * @param rows estimated number of rows in the collection
+     * @param iterativeScanSupported whether the client can filter inside its index walk
+     */
+    public FilterStrategy choose(double selectivity, long rows, boolean iterativeScanSupported) {
+        if (selectivity * rows <= exactScanRows) {
+            return FilterStrategy.PRE_FILTER_EXACT;
+        }
+        if (selectivity >= postFilterSelectivity || !iterativeScanSupported) {
+            return FilterStrategy.POST_FILTER_EXPANDING;
+        }
+        return FilterStrategy.ITERATIVE_INDEX_SCAN;
+    }
+
+    /**
+     * Candidates to request in the first post-filter round.
+     */
+    public int initialCandidates(int topK, double selectivity) {
+        double expected = topK * OVERFETCH / Math.max(selectivity, 1e-6);
+        return (int) Math.min(Integer.MAX_VALUE / 2, Math.max(topK, Math.ceil(expected)));
+    }
+
+    public long getExactScanRows() {
+        return exactScanRows;
+    }
+
+    public double getPostFilterSelectivity() {
+        return postFilterSelectivity;
+    }
+}
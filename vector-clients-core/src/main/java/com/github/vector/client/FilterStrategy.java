@@ -0,0 +1,13 @@
+package com.github.vector.client;
+
+/**
+ * How a filtered search was executed. See {@link FilterPlanner} for when each is chosen.
+ */
+public enum FilterStrategy {
+    /** Evaluate the filter on every row and rank the matches exactly. Best when few rows match. */
+    PRE_FILTER_EXACT,
+    /** Search the index unfiltered, drop non-matches, and widen the search until topK remain. */
+    POST_FILTER_EXPANDING,
+    /** Let the index apply the filter as it walks, continuing until topK matches are found. */
+    ITERATIVE_INDEX_SCAN
+}
@@ -0,0 +1,94 @@
+package com.github.vector.client;
+
+import com.github.vector.data.Embedding;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Results of {@link Client#searchFiltered} together with how they were obtained, in the spirit
+ * of EXPLAIN ANALYZE: the plan chosen, the estimate it was chosen from, and what it cost.
+ */
+public final class FilteredSearchResult {
+    private final List<Embedding> results;
+    private final FilterStrategy strategy;
+    private final double estimatedSelectivity;
+    private final long estimatedRows;
+    private final int rounds;
+    private final long candidatesExamined;
+    private final FilterStrategy fallbackFrom;
+    private final Duration elapsed;
+
+    public FilteredSearchResult(List<Embedding> results, FilterStrategy strategy, double estimatedSelectivity,
+                                long estimatedRows, int rounds, long candidatesExamined, FilterStrategy fallbackFrom,
+                                Duration elapsed) {
+        this.results = results;
+        this.strategy = strategy;
+        this.estimatedSelectivity = estimatedSelectivity;
+        this.estimatedRows = estimatedRows;
+        this.rounds = rounds;
+        this.candidatesExamined = candidatesExamined;
+        this.fallbackFrom = fallbackFrom;
+        this.elapsed = elapsed;
+    }
+
+    public List<Embedding> getResults() {
+        return results;
+    }
+
+    /** The strategy that produced the results. */
+    public FilterStrategy getStrategy() {
+        return strategy;
+    }
+
+    public double getEstimatedSelectivity() {
+        return estimatedSelectivity;
+    }
+
+    /** Estimated size of the collection when the plan was chosen. */
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    public long getEstimatedMatches() {
+        return Math.round(estimatedSelectivity * estimatedRows);
+    }
+
+    /** Queries or index walks issued; above 1 only when post-filtering had to widen. */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /** Rows or nodes whose distance was evaluated, where the client can tell; otherwise -1. */
+    public long getCandidatesExamined() {
+        return candidatesExamined;
+    }
+
+    /**
+     * The strategy first chosen when it could not deliver topK matches and {@link #getStrategy()}
+     * finished the search instead; null if the first choice was kept.
+     */
+    public FilterStrategy getFallbackFrom() {
+        return fallbackFrom;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.valueOf(strategy));
+        if (fallbackFrom != null) {
+            text.append(" (after ").append(fallbackFrom).append(')');
+        }
+        text.append(String.format(": selectivity=%.4f%% (~%d of %d rows), rounds=%d",
+                estimatedSelectivity * 100, getEstimatedMatches(), estimatedRows, rounds));
+        if (candidatesExamined >= 0) {
+            text.append(", candidates=").append(candidatesExamined);
+        }
+        return text.append(", results=").append(results.size())
+                .append(", time=").append(elapsed.toNanos() / 1_000).append("us")
+                .toString();
+    }
+}
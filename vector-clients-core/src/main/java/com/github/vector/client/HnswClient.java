@@ -0,0 +1,306 @@
+package com.github.vector.client;
+
+import com.github.vector.Config;
+import com.github.vector.data.Embedding;
+import com.github.vector.data.filter.Filter;
+import com.github.vector.exception.VectorClientException;
+import com.github.vector.index.HnswIndex;
+import com.github.vector.index.IndexSpec;
+import com.github.vector.index.SearchResult;
+import com.github.vector.util.DistanceMetric;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * {@link Client} backed by one in-process {@link HnswIndex} per collection. Drop-in replacement
+ * for a database client when a hot collection fits in memory.
+ *
+ * <p>Index parameters are read from {@link Config#getAdditionalProperties()}:
+ * "hnsw.m", "hnsw.efConstruction", "hnsw.efSearch" (integers) and "hnsw.metric"
+ * (a {@link DistanceMetric} name).
+ */
+public class HnswClient implements Client {
+    // Embeddings tested against a filter to estimate its selectivity
+    private static final int SELECTIVITY_SAMPLE = 1024;
+
+    private final Map<String, HnswIndex> indexes = new ConcurrentHashMap<>();
+    // collection -> id -> embedding; the same id may be stored in several collections
+    private final Map<String, Map<String, Embedding>> embeddings = new ConcurrentHashMap<>();
+    private volatile Config config;
+
+    @Override
+    public void connect(Config config) throws VectorClientException {
+        this.config = config;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return config != null;
+    }
+
+    @Override
+    public void disconnect() {
+        config = null;
+        indexes.clear();
+        embeddings.clear();
+    }
+
+    @Override
+    public void createCollection(String collectionName) throws VectorClientException {
+        requireConnected();
+        indexes.computeIfAbsent(collectionName, name -> newIndex());
+    }
+
+    /**
+     * HNSW parameters in the spec override the configured ones. {@link IndexSpec#none()} still
+     * builds an HNSW index with the configured parameters, as this client has no other storage;
+     * IVFFlat is not supported.
+     */
+    @Override
+    public void createCollection(String collectionName, int dimension, DistanceMetric metric, IndexSpec index)
+            throws VectorClientException {
+        requireConnected();
+        if (index.getType() == IndexSpec.Type.IVFFLAT) {
+            throw new VectorClientException("HnswClient does not support IVFFlat indexes");
+        }
+        indexes.computeIfAbsent(collectionName, name -> {
+            HnswIndex.Builder builder = configuredBuilder().dimension(dimension).metric(metric);
+            if (index.getType() == IndexSpec.Type.HNSW) {
+                builder.m(index.getM()).efConstruction(index.getEfConstruction());
+            }
+            return builder.build();
+        });
+    }
+
+    @Override
+    public void store(Embedding embedding) throws VectorClientException {
+        requireConnected();
+        if (embedding.getCollection() == null || embedding.getEmbedding() == null) {
+            throw new VectorClientException("Embedding must have a collection and a vector");
+        }
+        if (embedding.getId() == null) {
+            embedding.setId(UUID.randomUUID().toString());
+        }
+        HnswIndex index = indexes.computeIfAbsent(embedding.getCollection(), name -> newIndex());
+        try {
+            index.add(embedding.getId(), embedding.getEmbedding());
+        } catch (IllegalArgumentException e) {
+            throw new VectorClientException(e.getMessage(), e);
+        }
+        stored(embedding.getCollection()).put(embedding.getId(), embedding);
+    }
+
+    @Override
+    public void batchStore(List<Embedding> batch) throws VectorClientException {
+        for (Embedding embedding : batch) {
+            store(embedding);
+        }
+    }
+
+    @Override
+    public List<Embedding> search(Embedding embedding, int topK) throws VectorClientException {
+        return search(embedding, topK, null);
+    }
+
+    /**
+     * Nearest neighbours in the query's collection; with a filter, the results of
+     * {@link #searchFiltered(Embedding, int, Filter)}.
+     */
+    @Override
+    public List<Embedding> search(Embedding embedding, int topK, Filter filter) throws VectorClientException {
+        if (filter == null) {
+            requireConnected();
+            HnswIndex index = requireIndex(embedding);
+            try {
+                return resolve(stored(embedding.getCollection()), index.search(embedding.getEmbedding(), topK));
+            } catch (IllegalArgumentException e) {
+                throw new VectorClientException(e.getMessage(), e);
+            }
+        }
+        return searchFiltered(embedding, topK, filter).getResults();
+    }
+
+    /**
+     * Selectivity is estimated by testing the filter on up to {@value #SELECTIVITY_SAMPLE}
+     * embeddings of the collection. The iterative strategy is the in-graph filtered walk of
+     * {@link HnswIndex#search(float[], int, Predicate)}; if it ends with fewer than topK matches
+     * although more are expected, an exact scan finishes the search. Thresholds are those of
+     * {@link FilterPlanner#fromConfig}.
+     */
+    @Override
+    public FilteredSearchResult searchFiltered(Embedding embedding, int topK, Filter filter) throws VectorClientException {
+        requireConnected();
+        if (filter == null) {
+            throw new VectorClientException("Filter cannot be null");
+        }
+        if (topK <= 0) {
+            throw new VectorClientException("topK must be positive");
+        }
+        long start = System.nanoTime();
+        HnswIndex index = requireIndex(embedding);
+        String collection = embedding.getCollection();
+        float[] query = embedding.getEmbedding();
+        Map<String, Embedding> stored = stored(collection);
+        Predicate<String> accepts = id -> {
+            Embedding candidate = stored.get(id);
+            return candidate != null && filter.test(candidate.getMetadata());
+        };
+
+        double selectivity = estimateSelectivity(stored, filter);
+        long rows = index.size();
+        FilterPlanner planner = FilterPlanner.fromConfig(config);
+        FilterStrategy chosen = planner.choose(selectivity, rows, true);
+        FilterStrategy strategy = chosen;
+        int rounds = 0;
+        long examined = -1;
+        List<Embedding> results = List.of();
+        try {
+            if (strategy == FilterStrategy.POST_FILTER_EXPANDING) {
+                examined = 0;
+                int candidates = planner.initialCandidates(topK, selectivity);
+                while (true) {
+                    rounds++;
+                    List<SearchResult> nearest = index.search(query, candidates, candidates);
+                    examined += nearest.size();
+                    results = new ArrayList<>(topK);
+                    for (SearchResult result : nearest) {
+                        if (results.size() < topK && accepts.test(result.getId())) {
+                            results.add(stored.get(result.getId()));
+                        }
+                    }
+                    if (results.size() >= topK || nearest.size() < candidates || candidates >= rows) {
+                        break;
+                    }
+                    candidates = (int) Math.min(rows, candidates * 4L);
+                }
+            } else if (strategy == FilterStrategy.ITERATIVE_INDEX_SCAN) {
+                rounds++;
+                results = resolve(stored, index.search(query, topK, accepts));
+                if (results.size() < topK && selectivity * rows >= topK) {
+                    strategy = FilterStrategy.PRE_FILTER_EXACT;
+                }
+            }
+            if (strategy == FilterStrategy.PRE_FILTER_EXACT) {
+                rounds++;
+                results = exactScan(stored, query, topK, filter, index.getMetric());
+            }
+        } catch (IllegalArgumentException e) {
+            throw new VectorClientException(e.getMessage(), e);
+        }
+        return new FilteredSearchResult(results, strategy, selectivity, rows, rounds, examined,
+                strategy != chosen ? chosen : null, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Removes the id from every collection that holds it.
+     */
+    @Override
+    public void delete(String embeddingId) throws VectorClientException {
+        requireConnected();
+        for (Map.Entry<String, Map<String, Embedding>> collection : embeddings.entrySet()) {
+            if (collection.getValue().remove(embeddingId) != null) {
+                HnswIndex index = indexes.get(collection.getKey());
+                if (index != null) {
+                    index.remove(embeddingId);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the index backing a collection, or null if the collection does not exist
+     */
+    public HnswIndex getIndex(String collectionName) {
+        return indexes.get(collectionName);
+    }
+
+    private HnswIndex requireIndex(Embedding query) throws VectorClientException {
+        HnswIndex index = indexes.get(query.getCollection());
+        if (index == null) {
+            throw new VectorClientException("Unknown collection: " + query.getCollection());
+        }
+        return index;
+    }
+
+    private Map<String, Embedding> stored(String collection) {
+        return embeddings.computeIfAbsent(collection, name -> new ConcurrentHashMap<>());
+    }
+
+    private static List<Embedding> resolve(Map<String, Embedding> stored, List<SearchResult> results) {
+        List<Embedding> matches = new ArrayList<>(results.size());
+        for (SearchResult result : results) {
+            Embedding match = stored.get(result.getId());
+            if (match != null) {
+                matches.add(match);
+            }
+        }
+        return matches;
+    }
+
+    private static double estimateSelectivity(Map<String, Embedding> stored, Filter filter) {
+        int sampled = 0;
+        int matched = 0;
+        for (Embedding embedding : stored.values()) {
+            if (filter.test(embedding.getMetadata())) {
+                matched++;
+            }
+            if (++sampled == SELECTIVITY_SAMPLE) {
+                break;
+            }
+        }
+        return sampled == 0 ? 0 : (double) matched / sampled;
+    }
+
+    private static List<Embedding> exactScan(Map<String, Embedding> stored, float[] query, int topK, Filter filter,
+                                             DistanceMetric metric) {
+        // max-heap on distance holding the best topK so far
+        PriorityQueue<SearchResult> best = new PriorityQueue<>(
+                Comparator.comparingDouble(SearchResult::getDistance).reversed());
+        for (Embedding embedding : stored.values()) {
+            if (!filter.test(embedding.getMetadata())) {
+                continue;
+            }
+            float distance = metric.distance(query, embedding.getEmbedding());
+            if (best.size() < topK) {
+                best.add(new SearchResult(embedding.getId(), distance));
+            } else if (distance < best.peek().getDistance()) {
+                best.poll();
+                best.add(new SearchResult(embedding.getId(), distance));
+            }
+        }
+        SearchResult[] ordered = new SearchResult[best.size()];
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            ordered[i] = best.poll();
+        }
+        return resolve(stored, Arrays.asList(ordered));
+    }
+
+    private HnswIndex newIndex() {
+        return configuredBuilder().build();
+    }
+
+    private HnswIndex.Builder configuredBuilder() {
+        HnswIndex.Builder builder = HnswIndex.builder();
+        config.getAdditionalProperty("hnsw.m", Integer.class).ifPresent(builder::m);
+        config.getAdditionalProperty("hnsw.efConstruction", Integer.class).ifPresent(builder::efConstruction);
+        config.getAdditionalProperty("hnsw.efSearch", Integer.class).ifPresent(builder::efSearch);
+        config.getAdditionalProperty("hnsw.metric", String.class)
+                .ifPresent(metric -> builder.metric(DistanceMetric.valueOf(metric.toUpperCase())));
+        return builder;
+    }
+
+    private void requireConnected() throws VectorClientException {
+        if (config == null) {
+            throw new VectorClientException("Client is not connected");
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.vector.client;
+
+import com.github.vector.data.Embedding;
+import com.github.vector.data.filter.Filter;
+
+/**
+ * A query for {@link Client#searchHybrid}: a kNN search on the embedding and a full-text search
+ * on the stored {@link com.github.vector.data.Text}, each keeping its best {@code candidates},
+ * fused into one ranking of topK.
+ *
+ * <ul>
+ *   <li>{@link Fusion#RECIPROCAL_RANK} scores a result {@code w / (rankConstant + rank)} in each
+ *   list it appears in. Only ranks matter, so the two score scales never need reconciling.</li>
+ *   <li>{@link Fusion#WEIGHTED} min-max normalizes each list's scores to [0, 1] (distances
+ *   inverted, so 1 is nearest) and adds them with the given weights.</li>
+ * </ul>
+ *
+ * A result missing from one list gets nothing from it.
+ */
+public final class HybridQuery {
+    public static final int DEFAULT_CANDIDATES = 100;
+    public static final int DEFAULT_RANK_CONSTANT = 60;
+
+    public enum Fusion {
+        RECIPROCAL_RANK,
+        WEIGHTED
+    }
+
+    private final Embedding embedding;
+    private final String text;
+    private final int topK;
+    private final int candidates;
+    private final Fusion fusion;
+    private final int rankConstant;
+    private final double vectorWeight;
+    private final double textWeight;
+    private final Filter filter;
+
+    private HybridQuery(Builder builder) {
+        this.embedding = builder.embedding;
+        this.text = builder.text;
+        this.topK = builder.topK;
+        this.candidates = builder.candidates != null ? builder.candidates : Math.max(builder.topK, DEFAULT_CANDIDATES);
+        this.fusion = builder.fusion;
+        this.rankConstant = builder.rankConstant;
+        this.vectorWeight = builder.vectorWeight;
+        this.textWeight = builder.textWeight;
+        this.filter = builder.filter;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** The same query for another query embedding. */
+    HybridQuery withEmbedding(Embedding embedding) {
+        return new Builder()
+                .embedding(embedding)
+                .text(text)
+                .topK(topK)
+                .candidates(candidates)
+                .fusion(fusion)
+                .rankConstant(rankConstant)
+                .weights(vectorWeight, textWeight)
+                .filter(filter)
+                .build();
+    }
+
+    /** Query vector and collection. */
+    public Embedding getEmbedding() {
+        return embedding;
+    }
+
+    /** Full-text query, in web search syntax: words, "quoted phrases", or, -excluded. */
+    public String getText() {
+        return text;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /** Results each of the two searches contributes to the fusion. */
+    public int getCandidates() {
+        return candidates;
+    }
+
+    public Fusion getFusion() {
+        return fusion;
+    }
+
+    public int getRankConstant() {
+        return rankConstant;
+    }
+
+    public double getVectorWeight() {
+        return vectorWeight;
+    }
+
+    public double getTextWeight() {
+        return textWeight;
+    }
+
+    /** Metadata filter applied to both searches, or null. */
+    public Filter getFilter() {
+        return filter;
+    }
+
+    public static class Builder {
+        private Embedding embedding;
+        private String text;
+        private int topK = 10;
+        private Integer candidates;
+        private Fusion fusion = Fusion.RECIPROCAL_RANK;
+        private int rankConstant = DEFAULT_RANK_CONSTANT;
+        private double vectorWeight = 1.0;
+        private double textWeight = 1.0;
+        private Filter filter;
+
+        public Builder embedding(Embedding embedding) {
+            this.embedding = embedding;
+            return this;
+        }
+
+        public Builder text(String text) {
+            this.text = text;
+            return this;
+        }
+
+        public Builder topK(int topK) {
+            this.topK = topK;
+            return this;
+        }
+
+        /** Defaults to the larger of topK and {@value #DEFAULT_CANDIDATES}. */
+        public Builder candidates(int candidates) {
+            this.candidates = candidates;
+            return this;
+        }
+
+        public Builder fusion(Fusion fusion) {
+            this.fusion = fusion;
+            return this;
+        }
+
+        /** k in {@code 1 / (k + rank)}; larger values flatten the gap between top ranks. */
+        public Builder rankConstant(int rankConstant) {
+            this.rankConstant = rankConstant;
+            return this;
+        }
+
+        /** Relative weight of each search, under either fusion. Both default to 1. */
+        public Builder weights(double vectorWeight, double textWeight) {
+            this.vectorWeight = vectorWeight;
+            this.textWeight = textWeight;
+            return this;
+        }
+
+        public Builder filter(Filter filter) {
+            this.filter = filter;
+            return this;
+        }
+
+        public HybridQuery build() {
+            if (embedding == null || embedding.getCollection() == null || embedding.getEmbedding() == null) {
+                throw new IllegalArgumentException("Embedding must have a collection and a vector");
+            }
+            if (text == null || text.isBlank()) {
+                throw new IllegalArgumentException("Text query cannot be null or blank");
+            }
+            if (topK <= 0) {
+                throw new IllegalArgumentException("topK must be positive");
+            }
+            if (candidates != null && candidates < topK) {
+                throw new IllegalArgumentException("candidates must be at least topK");
+            }
+            if (fusion == null) {
+                throw new IllegalArgumentException("Fusion cannot be null");
+            }
+            if (rankConstant < 0) {
+                throw new IllegalArgumentException("rankConstant cannot be negative");
+            }
+            if (!(vectorWeight >= 0) || !(textWeight >= 0) || vectorWeight + textWeight == 0
+                    || Double.isInfinite(vectorWeight) || Double.isInfinite(textWeight)) {
+                throw new IllegalArgumentException("Weights must be finite, non-negative and not both zero");
+            }
+            return new HybridQuery(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HybridQuery{" +
+                "collection='" + embedding.getCollection() + '\'' +
+                ", text='" + text + '\'' +
+                ", topK=" + topK +
+                ", candidates=" + candidates +
+                ", fusion=" + fusion +
+                ", weights=" + vectorWeight + "/" + textWeight +
+                (filter != null ? ", filter=" + filter : "") +
+                '}';
+    }
+}
@@ -0,0 +1,245 @@
+package com.github.vector.client;
+
+import com.github.vector.Config;
+import com.github.vector.data.Embedding;
+import com.github.vector.data.filter.Filter;
+import com.github.vector.exception.VectorClientException;
+import com.github.vector.index.IndexSpec;
+import com.github.vector.util.DistanceMetric;
+import com.github.vector.util.PCA;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link Client} decorator that reduces vectors with a fitted {@link PCA} before they reach the
+ * wrapped client: stored embeddings and search queries are both projected with the model of
+ * their collection, so the database only ever sees the reduced dimension.
+ *
+ * <p>Models are registered with {@link #registerModel}, which persists them in a
+ * {@link PCAModelStore}, and are loaded from that store lazily on the first use of a collection.
+ * Search results carry reduced vectors. A collection without a model is rejected unless the
+ * client was built with {@code requireModel(false)}, in which case its vectors pass through.
+ */
+public class PCAClient implements Client {
+    private final Client delegate;
+    private final PCAModelStore modelStore;
+    private final boolean requireModel;
+    // Optional.empty() caches "no model saved" so the store is not asked again on every call
+    private final Map<String, Optional<PCA>> models = new ConcurrentHashMap<>();
+
+    private PCAClient(Builder builder) {
+        this.delegate = builder.delegate;
+        this.modelStore = builder.modelStore;
+        this.requireModel = builder.requireModel;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Persist a fitted model for a collection and use it from now on.
+     */
+    public void registerModel(String collection, PCA pca) throws VectorClientException {
+        if (!pca.isFitted()) {
+            throw new VectorClientException("PCA model for " + collection + " is not fitted");
+        }
+        try {
+            modelStore.save(collection, pca);
+        } catch (IOException e) {
+            throw new VectorClientException("Could not save PCA model for " + collection, e);
+        }
+        models.put(collection, Optional.of(pca));
+    }
+
+    /**
+     * @return the model used for the collection, loading it if needed; null if there is none
+     */
+    public PCA getModel(String collection) throws VectorClientException {
+        Optional<PCA> cached = models.get(collection);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        PCA loaded;
+        try {
+            loaded = modelStore.load(collection);
+        } catch (IOException e) {
+            throw new VectorClientException("Could not load PCA model for " + collection, e);
+        }
+        Optional<PCA> previous = models.putIfAbsent(collection, Optional.ofNullable(loaded));
+        return previous != null ? previous.orElse(null) : loaded;
+    }
+
+    @Override
+    public void connect(Config config) throws VectorClientException {
+        delegate.connect(config);
+    }
+
+    @Override
+    public boolean isConnected() {
+        return delegate.isConnected();
+    }
+
+    @Override
+    public void disconnect() {
+        delegate.disconnect();
+    }
+
+    @Override
+    public void createCollection(String collectionName) throws VectorClientException {
+        delegate.createCollection(collectionName);
+    }
+
+    /**
+     * {@code dimension} is the original one; the wrapped collection is created with the model's
+     * component count when the collection already has a model.
+     */
+    @Override
+    public void createCollection(String collectionName, int dimension, DistanceMetric metric, IndexSpec index)
+            throws VectorClientException {
+        PCA pca = getModel(collectionName);
+        if (pca != null && pca.getNumFeatures() != dimension) {
+            throw new VectorClientException("PCA model for " + collectionName + " expects " + pca.getNumFeatures()
+                    + " dimensions, not " + dimension);
+        }
+        delegate.createCollection(collectionName, pca != null ? pca.getNumComponents() : dimension, metric, index);
+    }
+
+    @Override
+    public void store(Embedding embedding) throws VectorClientException {
+        batchStore(List.of(embedding));
+    }
+
+    @Override
+    public void batchStore(List<Embedding> embeddings) throws VectorClientException {
+        List<Embedding> reduced = reduce(embeddings);
+        delegate.batchStore(reduced);
+        // ids assigned by the wrapped client on the copies are reported back on the originals
+        for (int i = 0; i < embeddings.size(); i++) {
+            if (embeddings.get(i).getId() == null) {
+                embeddings.get(i).setId(reduced.get(i).getId());
+            }
+        }
+    }
+
+    @Override
+    public List<Embedding> search(Embedding embedding, int topK) throws VectorClientException {
+        return delegate.search(reduce(List.of(embedding)).get(0), topK);
+    }
+
+    /**
+     * All queries are reduced together, one transform per collection, before the delegate's
+     * batch search.
+     */
+    @Override
+    public List<List<Embedding>> searchBatch(List<Embedding> queries, int topK) throws VectorClientException {
+        return delegate.searchBatch(reduce(queries), topK);
+    }
+
+    @Override
+    public List<Embedding> search(Embedding embedding, int topK, Filter filter) throws VectorClientException {
+        return delegate.search(reduce(List.of(embedding)).get(0), topK, filter);
+    }
+
+    @Override
+    public FilteredSearchResult searchFiltered(Embedding embedding, int topK, Filter filter) throws VectorClientException {
+        return delegate.searchFiltered(reduce(List.of(embedding)).get(0), topK, filter);
+    }
+
+    @Override
+    public List<Embedding> searchHybrid(HybridQuery query) throws VectorClientException {
+        return delegate.searchHybrid(query.withEmbedding(reduce(List.of(query.getEmbedding())).get(0)));
+    }
+
+    @Override
+    public void delete(String embeddingId) throws VectorClientException {
+        delegate.delete(embeddingId);
+    }
+
+    /**
+     * Project every embedding with its collection's model. Embeddings of one collection are
+     * transformed together; the originals are left untouched.
+     */
+    private List<Embedding> reduce(List<Embedding> embeddings) throws VectorClientException {
+        Map<String, List<Integer>> byCollection = new LinkedHashMap<>();
+        for (int i = 0; i < embeddings.size(); i++) {
+            byCollection.computeIfAbsent(embeddings.get(i).getCollection(), c -> new ArrayList<>()).add(i);
+        }
+
+        Embedding[] reduced = embeddings.toArray(new Embedding[0]);
+        for (Map.Entry<String, List<Integer>> group : byCollection.entrySet()) {
+            String collection = group.getKey();
+            PCA pca = collection == null ? null : getModel(collection);
+            if (pca == null) {
+                if (requireModel) {
+                    throw new VectorClientException("No PCA model registered for collection " + collection);
+                }
+                continue;
+            }
+
+            List<Integer> positions = group.getValue();
+            int nFeatures = pca.getNumFeatures();
+            int nComponents = pca.getNumComponents();
+            float[] rows = new float[positions.size() * nFeatures];
+            for (int r = 0; r < positions.size(); r++) {
+                float[] vector = embeddings.get(positions.get(r)).getEmbedding();
+                if (vector == null || vector.length != nFeatures) {
+                    throw new VectorClientException("Embedding in " + collection + " has "
+                            + (vector == null ? 0 : vector.length) + " dimensions, PCA model expects " + nFeatures);
+                }
+                System.arraycopy(vector, 0, rows, r * nFeatures, nFeatures);
+            }
+
+            FloatBuffer projected;
+            try {
+                projected = pca.transform(FloatBuffer.wrap(rows), positions.size());
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                throw new VectorClientException("PCA transform failed for " + collection + ": " + e.getMessage(), e);
+            }
+            for (int r = 0; r < positions.size(); r++) {
+                Embedding original = embeddings.get(positions.get(r));
+                float[] vector = new float[nComponents];
+                projected.get(r * nComponents, vector);
+                reduced[positions.get(r)] = new Embedding(original.getId(), vector, original.getText(),
+                        original.getMetadata(), original.getCollection());
+            }
+        }
+        return List.of(reduced);
+    }
+
+    public static class Builder {
+        private Client delegate;
+        private PCAModelStore modelStore;
+        private boolean requireModel = true;
+
+        public Builder delegate(Client delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        public Builder modelStore(PCAModelStore modelStore) {
+            this.modelStore = modelStore;
+            return this;
+        }
+
+        /** Whether collections without a model are rejected (default) or passed through. */
+        public Builder requireModel(boolean requireModel) {
+            this.requireModel = requireModel;
+            return this;
+        }
+
+        public PCAClient build() {
+            if (delegate == null || modelStore == null) {
+                throw new IllegalArgumentException("Delegate client and model store are required");
+            }
+            return new PCAClient(this);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.vector.client;
+
+import com.github.vector.util.PCA;
+
+import java.io.IOException;
+
+/**
+ * Where {@link PCAClient} keeps the fitted model of each collection.
+ */
+public interface PCAModelStore {
+
+    /**
+     * Persist the fitted model for a collection, replacing any previous one.
+     */
+    void save(String collection, PCA pca) throws IOException;
+
+    /**
+     * @return the model saved for the collection, or null if there is none
+     */
+    PCA load(String collection) throws IOException;
+}
@@ -0,0 +1,213 @@
+package com.github.vector.client;
+
+import com.github.vector.data.Embedding;
+import com.github.vector.data.filter.Filter;
+import com.github.vector.exception.VectorClientException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AsyncClient} that runs each operation of a blocking {@link Client} on its own virtual
+ * thread. A virtual thread blocked in JDBC I/O releases its carrier, so thousands of operations
+ * can be in flight on a handful of platform threads.
+ *
+ * <p>At most {@code maxConcurrency} operations run against the wrapped client at once; the rest
+ * wait, in arrival order, on their virtual threads. Keep the limit at or below the connection
+ * pool size so that waiting happens here, cheaply, rather than on the pool. With an
+ * {@code acquireTimeout}, an operation that cannot start in time fails instead of waiting.
+ * Operations whose future is cancelled before they start are skipped.
+ *
+ * <p>Every operation gets a fresh thread, so state a wrapped client keeps in a
+ * {@link ThreadLocal} is rebuilt on each call and never reused. The per-thread caches in this
+ * library step aside on virtual threads: {@link com.github.vector.util.VectorUtil} copies
+ * buffers into fresh arrays instead of its thread-local scratch arrays, and
+ * {@link com.github.vector.connection.ConnectionPool} does not remember the connection a
+ * virtual thread returned. A client that depends on per-thread caches is better driven from a
+ * bounded pool of platform threads, at the cost of one blocked platform thread per
+ * operation in flight.
+ */
+public class VirtualThreadAsyncClient implements AsyncClient {
+    public static final int DEFAULT_MAX_CONCURRENCY = 32;
+
+    private final Client delegate;
+    private final int maxConcurrency;
+    private final Duration acquireTimeout;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+
+    private VirtualThreadAsyncClient(Builder builder) {
+        this.delegate = builder.delegate;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.acquireTimeout = builder.acquireTimeout;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("vector-client-", 0).factory());
+    }
+
+    public static Builder builder(Client delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(Embedding embedding) {
+        return submit(() -> {
+            delegate.store(embedding);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> batchStore(List<Embedding> embeddings) {
+        return submit(() -> {
+            delegate.batchStore(embeddings);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Embedding>> search(Embedding embedding, int topK) {
+        return submit(() -> delegate.search(embedding, topK));
+    }
+
+    @Override
+    public CompletableFuture<List<Embedding>> search(Embedding embedding, int topK, Filter filter) {
+        return submit(() -> delegate.search(embedding, topK, filter));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String embeddingId) {
+        return submit(() -> {
+            delegate.delete(embeddingId);
+            return null;
+        });
+    }
+
+    /**
+     * Operations already accepted still complete. The wrapped client is not disconnected.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return operations currently running against the wrapped client
+     */
+    public int getInFlight() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * @return operations waiting for the concurrency limit
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    private <T> CompletableFuture<T> submit(Operation<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(operation, future));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new VectorClientException("Async client is closed"));
+        }
+        return future;
+    }
+
+    private <T> void run(Operation<T> operation, CompletableFuture<T> future) {
+        if (future.isDone()) {
+            return;
+        }
+        try {
+            if (!acquire()) {
+                future.completeExceptionally(new VectorClientException(
+                        "No capacity within " + acquireTimeout.toMillis() + " ms; " + maxConcurrency + " operations in flight"));
+                return;
+            }
+        } catch (InterruptedException e) {
+            future.completeExceptionally(new VectorClientException("Interrupted while waiting for capacity", e));
+            return;
+        }
+        T result = null;
+        Throwable failure = null;
+        try {
+            if (!future.isDone()) {
+                result = operation.run();
+            }
+        } catch (Throwable e) {
+            // errors too: an operation that dies without completing its future would hang the caller
+            failure = e;
+        } finally {
+            // released before completing, so callbacks run by complete() do not hold a permit
+            permits.release();
+        }
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(result);
+        }
+    }
+
+    private boolean acquire() throws InterruptedException {
+        if (acquireTimeout == null) {
+            permits.acquire();
+            return true;
+        }
+        return permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private interface Operation<T> {
+        T run() throws VectorClientException;
+    }
+
+    public static class Builder {
+        private final Client delegate;
+        private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+        private Duration acquireTimeout;
+
+        private Builder(Client delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Operations running against the wrapped client at once. Defaults to
+         * {@value #DEFAULT_MAX_CONCURRENCY}.
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Longest time an operation waits to start before failing. By default it waits as long
+         * as it takes.
+         */
+        public Builder acquireTimeout(Duration acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+            return this;
+        }
+
+        public VirtualThreadAsyncClient build() {
+            if (delegate == null) {
+                throw new IllegalArgumentException("Delegate client cannot be null");
+            }
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("maxConcurrency must be positive");
+            }
+            if (acquireTimeout != null && acquireTimeout.isNegative()) {
+                throw new IllegalArgumentException("acquireTimeout must not be negative");
+            }
+            return new VirtualThreadAsyncClient(this);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.vector.connection;
+
+import com.github.vector.Config;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Opens physical connections on behalf of a {@link ConnectionPool}.
+ */
+@FunctionalInterface
+public interface ConnectionFactory {
+
+    Connection create() throws SQLException;
+
+    /**
+     * Factory that treats {@link Config#getEndpoint()} as a JDBC URL, the optional
+     * "user" additional property as the user name and the API key as the password.
+     */
+    static ConnectionFactory fromConfig(Config config) {
+        return () -> {
+            Properties properties = new Properties();
+            config.getAdditionalProperty("user", String.class).ifPresent(user -> properties.setProperty("user", user));
+            if (config.getApiKey() != null) {
+                properties.setProperty("password", config.getApiKey());
+            }
+            return DriverManager.getConnection(config.getEndpoint(), properties);
+        };
+    }
+}
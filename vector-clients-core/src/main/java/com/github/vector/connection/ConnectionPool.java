@@ -0,0 +1,469 @@
+package com.github.vector.connection;
+
+import com.github.vector.Config;
+import com.github.vector.StorageEngine;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Lock-free JDBC connection pool.
+ *
+ * <p>Borrowing first tries the connection this thread returned last (platform threads only;
+ * virtual threads are too short-lived to benefit), then pops the idle deque
+ * (LIFO, so warm connections are reused), then opens a new connection if the pool is below
+ * {@link Config#getMaxPoolSize()}. Only when all of that fails does the caller wait, and
+ * returning threads hand connections straight to waiters through a transfer queue. No path
+ * takes a monitor or lock.
+ *
+ * <p>Connections are handed out as proxies; closing the proxy returns the connection. On return
+ * an open transaction is rolled back, auto-commit, read-only, isolation, catalog and schema
+ * changed through the proxy are put back, and {@link Config#getResetQuery()} (for example
+ * {@code RESET ALL}) runs if set. A connection whose state cannot be reset is closed.
+ */
+public class ConnectionPool implements StorageEngine {
+
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+
+    // Connections idle for less than this are trusted without a validation round trip
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Config config;
+    private final ConnectionFactory factory;
+    private final ConcurrentLinkedDeque<PooledEntry> idle = new ConcurrentLinkedDeque<>();
+    private final Set<PooledEntry> entries = ConcurrentHashMap.newKeySet();
+    private final LinkedTransferQueue<PooledEntry> handoff = new LinkedTransferQueue<>();
+    private final ThreadLocal<PooledEntry> lastReturned = new ThreadLocal<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final LongAdder waiters = new LongAdder();
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final ConnectionStatistics statistics = new ConnectionStatistics();
+    // created on first use; the monitor needs a fully constructed pool
+    private final AtomicReference<ConnectionHealth> health = new AtomicReference<>();
+    private final ExecutorService asyncExecutor;
+    private final ScheduledExecutorService maintenance;
+
+    private volatile ScheduledFuture<?> maintenanceTask;
+
+    public ConnectionPool(Config config) {
+        this(config, ConnectionFactory.fromConfig(config));
+    }
+
+    public ConnectionPool(Config config, ConnectionFactory factory) {
+        this.config = config;
+        this.factory = factory;
+        this.asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ConnectionPoolMaintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        // bound to the counters rather than to this, which is not yet fully constructed
+        AtomicInteger total = totalConnections;
+        AtomicInteger active = activeConnections;
+        this.statistics.bindGauges(active::get, () -> Math.max(0, total.get() - active.get()), waiters::intValue);
+    }
+
+    @Override
+    public Connection getConnection() {
+        return getConnection(config.getConnectionTimeout().toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public CompletableFuture<Connection> getConnectionAsync() {
+        return CompletableFuture.supplyAsync(this::getConnection, asyncExecutor);
+    }
+
+    @Override
+    public Connection getConnection(long timeout, TimeUnit unit) {
+        final long start = System.nanoTime();
+        final long deadline = start + unit.toNanos(timeout);
+
+        while (true) {
+            ensureOpen();
+            PooledEntry entry = acquireIdle();
+            if (entry == null) {
+                entry = tryCreate();
+            }
+            if (entry == null) {
+                entry = awaitEntry(deadline);
+            }
+            long now = System.nanoTime();
+            if (validateOnBorrow(entry, now)) {
+                activeConnections.incrementAndGet();
+                entry.borrowedNanos = now;
+                statistics.recordBorrow(now - start);
+                return PooledConnectionHandler.wrap(this, entry);
+            }
+            discard(entry, PooledEntry.IN_USE);
+        }
+    }
+
+    @Override
+    public void returnConnection(Connection connection) {
+        handlerFor(connection).release(true);
+    }
+
+    @Override
+    public void returnInvalidConnection(Connection connection) {
+        handlerFor(connection).release(false);
+    }
+
+    @Override
+    public void initialize(int minConnections) {
+        ensureOpen();
+        if (!initialized.compareAndSet(false, true)) {
+            return;
+        }
+        int created = expandPool(Math.max(minConnections, config.getMinPoolSize()));
+        logger.info(String.format("Connection pool initialized with %d connections", created));
+
+        long interval = config.getCheckInterval().toMillis();
+        maintenanceTask = maintenance.scheduleWithFixedDelay(this::maintainPoolSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void shutdown(boolean graceful, long timeout, TimeUnit unit) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (maintenanceTask != null) {
+            maintenanceTask.cancel(false);
+        }
+        maintenance.shutdown();
+        ConnectionHealth monitor = health.get();
+        if (monitor != null) {
+            monitor.shutdown();
+        }
+
+        if (graceful) {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (activeConnections.get() > 0 && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(WAIT_SLICE_NANOS);
+            }
+            if (activeConnections.get() > 0) {
+                logger.warning(String.format("Closing pool with %d connections still in use", activeConnections.get()));
+            }
+        }
+
+        for (PooledEntry entry : entries) {
+            discard(entry, entry.state.get());
+        }
+        idle.clear();
+        asyncExecutor.shutdownNow();
+    }
+
+    @Override
+    public ConnectionStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public ConnectionHealth getHealthStatus() {
+        ConnectionHealth monitor = health.get();
+        if (monitor == null) {
+            ConnectionHealth created = new ConnectionHealth(this, config);
+            monitor = health.compareAndExchange(null, created);
+            if (monitor == null) {
+                monitor = created;
+            } else {
+                created.shutdown();
+            }
+        }
+        return monitor;
+    }
+
+    /**
+     * Closes connections that exceeded {@link Config#getMaxConnectionLifetime()}, trims idle
+     * connections older than {@link Config#getIdleTimeout()} down to the minimum size, and
+     * tops the pool back up to {@link Config#getMinPoolSize()}.
+     */
+    @Override
+    public void maintainPool() {
+        if (closed.get()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long idleTimeout = config.getIdleTimeout().toNanos();
+        int retired = 0;
+
+        for (PooledEntry entry : entries) {
+            if (entry.state.get() != PooledEntry.IDLE) {
+                continue;
+            }
+            boolean expired = isExpired(entry, now);
+            boolean idleTooLong = now - entry.lastAccessNanos > idleTimeout
+                    && totalConnections.get() > config.getMinPoolSize();
+            if ((expired || idleTooLong) && discard(entry, PooledEntry.IDLE)) {
+                retired++;
+            }
+        }
+        idle.removeIf(PooledEntry::isRemoved);
+
+        int added = expandPool(config.getMinPoolSize());
+        if (retired > 0 || added > 0) {
+            logger.fine(String.format("Pool maintenance retired %d and opened %d connections", retired, added));
+        }
+    }
+
+    @Override
+    public int expandPool(int targetSize) {
+        int target = Math.min(targetSize, config.getMaxPoolSize());
+        int added = 0;
+        while (!closed.get() && totalConnections.get() < target) {
+            PooledEntry entry = tryCreate();
+            if (entry == null) {
+                break;
+            }
+            entry.state.set(PooledEntry.IDLE);
+            offerIdle(entry);
+            added++;
+        }
+        return added;
+    }
+
+    @Override
+    public int shrinkPool(int targetSize) {
+        int target = Math.max(targetSize, 0);
+        int removed = 0;
+        PooledEntry entry;
+        while (totalConnections.get() > target && (entry = idle.pollLast()) != null) {
+            entry.queued.set(false);
+            if (discard(entry, PooledEntry.IDLE)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public Config getConnectionConfiguration() {
+        return config;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return Math.max(0, totalConnections.get() - activeConnections.get());
+    }
+
+    /**
+     * Called by the connection proxy when it is closed or explicitly returned.
+     */
+    void release(PooledEntry entry, boolean valid) {
+        long now = System.nanoTime();
+        activeConnections.decrementAndGet();
+        statistics.recordReturn(now - entry.borrowedNanos);
+        if (!valid || closed.get() || isExpired(entry, now) || !resetState(entry)) {
+            discard(entry, PooledEntry.IN_USE);
+            return;
+        }
+
+        entry.lastAccessNanos = now;
+        entry.state.set(PooledEntry.IDLE);
+        // a virtual thread rarely borrows twice; the slot would only pin the entry to it
+        if (!Thread.currentThread().isVirtual()) {
+            lastReturned.set(entry);
+        }
+
+        if (waiters.sum() > 0 && handoff.tryTransfer(entry)) {
+            return;
+        }
+        offerIdle(entry);
+    }
+
+    /**
+     * Leave the connection as the next borrower expects to find it; see the class comment.
+     */
+    private boolean resetState(PooledEntry entry) {
+        Connection connection = entry.connection;
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+            entry.restoreOriginals();
+            String resetQuery = config.getResetQuery();
+            if (resetQuery != null) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(resetQuery);
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+            }
+            connection.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.FINE, "Discarding connection whose session state could not be reset", e);
+            return false;
+        }
+    }
+
+    private PooledEntry acquireIdle() {
+        PooledEntry cached = lastReturned.get();
+        if (cached != null) {
+            lastReturned.remove();
+            if (cached.tryClaim()) {
+                return cached;
+            }
+        }
+
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            // clear the link flag before claiming; see offerIdle
+            entry.queued.set(false);
+            if (entry.tryClaim()) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void offerIdle(PooledEntry entry) {
+        // an entry claimed through the thread-local slot may still be linked in the deque
+        if (entry.queued.compareAndSet(false, true)) {
+            idle.offerFirst(entry);
+        }
+    }
+
+    private PooledEntry tryCreate() {
+        int current;
+        do {
+            current = totalConnections.get();
+            if (current >= config.getMaxPoolSize()) {
+                return null;
+            }
+        } while (!totalConnections.compareAndSet(current, current + 1));
+
+        try {
+            Connection connection = factory.create();
+            PooledEntry entry = new PooledEntry(connection, System.nanoTime());
+            entries.add(entry);
+            statistics.recordCreated();
+            return entry;
+        } catch (SQLException e) {
+            totalConnections.decrementAndGet();
+            statistics.recordCreationFailure();
+            throw new IllegalStateException("Failed to open connection: " + e.getMessage(), e);
+        }
+    }
+
+    private PooledEntry awaitEntry(long deadline) {
+        waiters.increment();
+        try {
+            while (true) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    statistics.recordTimeout();
+                    throw new IllegalStateException(String.format(
+                            "Timed out waiting for connection (active=%d, total=%d)",
+                            activeConnections.get(), totalConnections.get()));
+                }
+                PooledEntry entry = handoff.poll(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+                if (entry != null && entry.tryClaim()) {
+                    return entry;
+                }
+                ensureOpen();
+                entry = acquireIdle();
+                if (entry == null) {
+                    entry = tryCreate();
+                }
+                if (entry != null) {
+                    return entry;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for connection", e);
+        } finally {
+            waiters.decrement();
+        }
+    }
+
+    private boolean validateOnBorrow(PooledEntry entry, long now) {
+        if (isExpired(entry, now)) {
+            return false;
+        }
+        if (now - entry.lastAccessNanos < VALIDATION_BYPASS_NANOS) {
+            return true;
+        }
+        boolean valid;
+        try {
+            valid = entry.connection.isValid((int) Math.max(1, config.getValidationTimeout().getSeconds()));
+        } catch (SQLException e) {
+            valid = false;
+        }
+        if (!valid) {
+            statistics.recordValidationFailure();
+        }
+        return valid;
+    }
+
+    private boolean isExpired(PooledEntry entry, long now) {
+        return now - entry.createdNanos > config.getMaxConnectionLifetime().toNanos();
+    }
+
+    private boolean discard(PooledEntry entry, int expectedState) {
+        if (!entry.tryRemove(expectedState)) {
+            return false;
+        }
+        entries.remove(entry);
+        totalConnections.decrementAndGet();
+        statistics.recordDestroyed();
+        try {
+            entry.connection.close();
+        } catch (SQLException e) {
+            logger.log(Level.FINE, "Error closing pooled connection", e);
+        }
+        return true;
+    }
+
+    private void maintainPoolSafely() {
+        try {
+            maintainPool();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Connection pool maintenance failed", e);
+        }
+    }
+
+    private PooledConnectionHandler handlerFor(Connection connection) {
+        PooledConnectionHandler handler = PooledConnectionHandler.of(connection);
+        if (handler == null || !handler.belongsTo(this)) {
+            throw new IllegalArgumentException("Connection was not borrowed from this pool");
+        }
+        return handler;
+    }
+
+    private void ensureOpen() {
+        if (closed.get()) {
+            throw new IllegalStateException("Connection pool has been shut down");
+        }
+    }
+}
@@ -1,4 +1,149 @@
 package com.github.vector.connection;
 
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Live pool counters and latency histograms. Everything is recorded without locking;
+ * {@link #snapshot()} produces an immutable view suitable for logging or export.
+ * Latencies are recorded in nanoseconds.
+ */
 public class ConnectionStatistics {
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder returned = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder creationFailures = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LatencyHistogram borrowWait = new LatencyHistogram();
+    private final LatencyHistogram holdTime = new LatencyHistogram();
+
+    private volatile IntSupplier activeGauge = () -> 0;
+    private volatile IntSupplier idleGauge = () -> 0;
+    private volatile IntSupplier pendingGauge = () -> 0;
+
+    public ConnectionStatistics() {}
+
+    /**
+     * Bind the point-in-time pool gauges; called once by the owning pool.
+     */
+    public void bindGauges(IntSupplier active, IntSupplier idle, IntSupplier pending) {
+        this.activeGauge = active;
+        this.idleGauge = idle;
+        this.pendingGauge = pending;
+    }
+
+    // === Recording ===
+    public void recordBorrow(long waitNanos) {
+        borrowed.increment();
+        borrowWait.record(waitNanos);
+    }
+
+    public void recordReturn(long heldNanos) {
+        returned.increment();
+        holdTime.record(heldNanos);
+    }
+
+    public void recordCreated() { created.increment(); }
+    public void recordDestroyed() { destroyed.increment(); }
+    public void recordTimeout() { timeouts.increment(); }
+    public void recordCreationFailure() { creationFailures.increment(); }
+    public void recordValidationFailure() { validationFailures.increment(); }
+
+    // === Live Values ===
+    public int getActiveConnections() { return activeGauge.getAsInt(); }
+    public int getIdleConnections() { return idleGauge.getAsInt(); }
+    public int getPendingRequests() { return pendingGauge.getAsInt(); }
+
+    public long getBorrowedCount() { return borrowed.sum(); }
+    public long getReturnedCount() { return returned.sum(); }
+    public long getCreatedCount() { return created.sum(); }
+    public long getDestroyedCount() { return destroyed.sum(); }
+    public long getTimeoutCount() { return timeouts.sum(); }
+    public long getCreationFailureCount() { return creationFailures.sum(); }
+    public long getValidationFailureCount() { return validationFailures.sum(); }
+
+    public LatencyHistogram.Snapshot getBorrowWaitSnapshot() { return borrowWait.snapshot(); }
+    public LatencyHistogram.Snapshot getHoldTimeSnapshot() { return holdTime.snapshot(); }
+
+    /**
+     * Reset counters and histograms, e.g. at the start of a reporting window.
+     * Gauges are unaffected.
+     */
+    public void reset() {
+        borrowed.reset();
+        returned.reset();
+        created.reset();
+        destroyed.reset();
+        timeouts.reset();
+        creationFailures.reset();
+        validationFailures.reset();
+        borrowWait.reset();
+        holdTime.reset();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    public static class Snapshot {
+        private final int active;
+        private final int idle;
+        private final int pending;
+        private final long borrowed;
+        private final long returned;
+        private final long created;
+        private final long destroyed;
+        private final long timeouts;
+        private final long creationFailures;
+        private final long validationFailures;
+        private final LatencyHistogram.Snapshot borrowWait;
+        private final LatencyHistogram.Snapshot holdTime;
+
+        private Snapshot(ConnectionStatistics stats) {
+            this.active = stats.getActiveConnections();
+            this.idle = stats.getIdleConnections();
+            this.pending = stats.getPendingRequests();
+            this.borrowed = stats.getBorrowedCount();
+            this.returned = stats.getReturnedCount();
+            this.created = stats.getCreatedCount();
+            this.destroyed = stats.getDestroyedCount();
+            this.timeouts = stats.getTimeoutCount();
+            this.creationFailures = stats.getCreationFailureCount();
+            this.validationFailures = stats.getValidationFailureCount();
+            this.borrowWait = stats.getBorrowWaitSnapshot();
+            this.holdTime = stats.getHoldTimeSnapshot();
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getPending() { return pending; }
+        public long getBorrowed() { return borrowed; }
+        public long getReturned() { return returned; }
+        public long getCreated() { return created; }
+        public long getDestroyed() { return destroyed; }
+        public long getTimeouts() { return timeouts; }
+        public long getCreationFailures() { return creationFailures; }
+        public long getValidationFailures() { return validationFailures; }
+        public LatencyHistogram.Snapshot getBorrowWait() { return borrowWait; }
+        public LatencyHistogram.Snapshot getHoldTime() { return holdTime; }
+
+        @Override
+        public String toString() {
+            return "ConnectionStatistics{" +
+                    "active=" + active +
+                    ", idle=" + idle +
+                    ", pending=" + pending +
+                    ", borrowed=" + borrowed +
+                    ", created=" + created +
+                    ", destroyed=" + destroyed +
+                    ", timeouts=" + timeouts +
+                    ", creationFailures=" + creationFailures +
+                    ", validationFailures=" + validationFailures +
+                    ", borrowWaitNs=[" + borrowWait + ']' +
+                    ", holdTimeNs=[" + holdTime + ']' +
+                    '}';
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package com.github.vector.connection;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Backs the {@link Connection} proxy handed out for one borrow. {@code close()} returns the
+ * physical connection to the pool exactly once; any later call on the proxy fails as it would
+ * on a closed connection.
+ */
+final class PooledConnectionHandler implements InvocationHandler {
+    // resolved once; Proxy.newProxyInstance repeats the proxy-class lookup on every borrow
+    private static final Constructor<? extends Connection> PROXY_CONSTRUCTOR = proxyConstructor();
+
+    private final ConnectionPool pool;
+    private final PooledEntry entry;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    private PooledConnectionHandler(ConnectionPool pool, PooledEntry entry) {
+        this.pool = pool;
+        this.entry = entry;
+    }
+
+    static Connection wrap(ConnectionPool pool, PooledEntry entry) {
+        try {
+            return PROXY_CONSTRUCTOR.newInstance(new PooledConnectionHandler(pool, entry));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create connection proxy", e);
+        }
+    }
+
+    static PooledConnectionHandler of(Connection connection) {
+        if (connection != null && Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof PooledConnectionHandler handler) {
+            return handler;
+        }
+        return null;
+    }
+
+    boolean belongsTo(ConnectionPool owner) {
+        return pool == owner;
+    }
+
+    void release(boolean valid) {
+        if (closed.compareAndSet(false, true)) {
+            pool.release(entry, valid);
+        }
+    }
+
+    private static int sessionProperty(String setter) {
+        return switch (setter) {
+            case "setAutoCommit" -> PooledEntry.AUTO_COMMIT;
+            case "setReadOnly" -> PooledEntry.READ_ONLY;
+            case "setTransactionIsolation" -> PooledEntry.ISOLATION;
+            case "setCatalog" -> PooledEntry.CATALOG;
+            case "setSchema" -> PooledEntry.SCHEMA;
+            default -> 0;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Constructor<? extends Connection> proxyConstructor() {
+        Connection prototype = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> null);
+        try {
+            return (Constructor<? extends Connection>) prototype.getClass().getConstructor(InvocationHandler.class);
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                release(true);
+                return null;
+            case "isClosed":
+                return closed.get() || entry.connection.isClosed();
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "PooledConnection[" + entry.connection + (closed.get() ? ", closed]" : "]");
+            default:
+                break;
+        }
+        if (closed.get()) {
+            throw new SQLException("Connection has been returned to the pool");
+        }
+        int property = sessionProperty(method.getName());
+        if (property != 0) {
+            entry.rememberOriginal(property);
+        }
+        try {
+            return method.invoke(entry.connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
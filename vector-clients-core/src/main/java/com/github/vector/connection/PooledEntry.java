@@ -0,0 +1,104 @@
+package com.github.vector.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A physical connection owned by {@link ConnectionPool}. Ownership is decided by a CAS on
+ * {@link #state}, so the same entry can safely sit in the idle deque and in a thread-local
+ * slot at the same time; whoever wins the CAS gets it.
+ */
+final class PooledEntry {
+    static final int IDLE = 0;
+    static final int IN_USE = 1;
+    static final int REMOVED = -1;
+
+    // session properties changed through the proxy since the last release
+    static final int AUTO_COMMIT = 1;
+    static final int READ_ONLY = 1 << 1;
+    static final int ISOLATION = 1 << 2;
+    static final int CATALOG = 1 << 3;
+    static final int SCHEMA = 1 << 4;
+
+    final Connection connection;
+    final long createdNanos;
+    final AtomicInteger state = new AtomicInteger(IN_USE);
+    // true while the entry is linked into the idle deque; prevents duplicate links
+    final AtomicBoolean queued = new AtomicBoolean(false);
+    volatile long lastAccessNanos;
+    volatile long borrowedNanos;
+
+    // written only by the borrower; the state CAS orders them for the next one
+    int dirty;
+    boolean autoCommit;
+    boolean readOnly;
+    int isolation;
+    String catalog;
+    String schema;
+
+    PooledEntry(Connection connection, long nowNanos) {
+        this.connection = connection;
+        this.createdNanos = nowNanos;
+        this.lastAccessNanos = nowNanos;
+    }
+
+    boolean tryClaim() {
+        return state.compareAndSet(IDLE, IN_USE);
+    }
+
+    boolean tryRemove(int expected) {
+        return state.compareAndSet(expected, REMOVED);
+    }
+
+    /**
+     * Record the value of a session property before the borrower first changes it, so that
+     * {@link ConnectionPool} can put it back on release.
+     */
+    void rememberOriginal(int property) throws SQLException {
+        if ((dirty & property) != 0) {
+            return;
+        }
+        switch (property) {
+            case AUTO_COMMIT -> autoCommit = connection.getAutoCommit();
+            case READ_ONLY -> readOnly = connection.isReadOnly();
+            case ISOLATION -> isolation = connection.getTransactionIsolation();
+            case CATALOG -> catalog = connection.getCatalog();
+            case SCHEMA -> schema = connection.getSchema();
+            default -> throw new IllegalArgumentException("Unknown session property " + property);
+        }
+        dirty |= property;
+    }
+
+    /**
+     * Put back the session properties changed since the last release. Auto-commit goes last:
+     * read-only and isolation cannot change inside a transaction, and turning auto-commit on
+     * would commit one.
+     */
+    void restoreOriginals() throws SQLException {
+        if (dirty == 0) {
+            return;
+        }
+        if ((dirty & READ_ONLY) != 0) {
+            connection.setReadOnly(readOnly);
+        }
+        if ((dirty & ISOLATION) != 0) {
+            connection.setTransactionIsolation(isolation);
+        }
+        if ((dirty & CATALOG) != 0) {
+            connection.setCatalog(catalog);
+        }
+        if ((dirty & SCHEMA) != 0) {
+            connection.setSchema(schema);
+        }
+        if ((dirty & AUTO_COMMIT) != 0) {
+            connection.setAutoCommit(autoCommit);
+        }
+        dirty = 0;
+    }
+
+    boolean isRemoved() {
+        return state.get() == REMOVED;
+    }
+}
@@ -1,18 +1,32 @@
 package com.github.vector.data;
 
 public class Embedding {
+    private String id;
     private float[] embedding;
     private Metadata metadata;
     private String collection;
     private Text text;
 
     public Embedding(final float[] embedding, final Text text, final Metadata metadata, final String collection) {
+        this(null, embedding, text, metadata, collection);
+    }
+
+    public Embedding(final String id, final float[] embedding, final Text text, final Metadata metadata, final String collection) {
+        this.id = id;
         this.embedding = embedding;
         this.metadata = metadata;
         this.collection = collection;
         this.text = text;
     }
 
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
     public float[] getEmbedding() {
         return embedding;
     }
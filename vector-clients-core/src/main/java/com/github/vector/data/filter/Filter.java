@@ -1,6 +1,499 @@
 package com.github.vector.data.filter;
 
-public class Filter {
+import com.github.vector.data.Metadata;
 
-    
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Predicate over the top-level keys of an embedding's {@link Metadata}, built from
+ * {@link #eq}, {@link #in}, the range factories, {@link #exists} and the boolean combinators.
+ *
+ * <p>A filter is evaluated either in memory, with {@link #test} or {@link #asPredicate}, or
+ * compiled to SQL by a database client. Both follow JSON semantics so they agree: numbers compare
+ * by value whatever their Java type, strings compare lexicographically, a comparison between
+ * different types is false, and a missing key or missing metadata matches nothing except under
+ * {@link #not}. Values are limited to strings, numbers and booleans.
+ *
+ * <p>Filters are immutable values: two filters are equal when they have the same structure, keys
+ * and values, so they can key a cache. Equality compares values by their Java type, so
+ * {@code eq("n", 1)} and {@code eq("n", 1L)} are different keys even though they match the same rows.
+ *
+ * <pre>{@code
+ * Filter.and(Filter.eq("tenant", "acme"), Filter.gte("year", 2020), Filter.not(Filter.exists("deleted")))
+ * }</pre>
+ */
+public abstract sealed class Filter permits Filter.Eq, Filter.In, Filter.Range, Filter.Exists, Filter.And, Filter.Or, Filter.Not {
+
+    private Filter() {}
+
+    public static Filter eq(String key, Object value) {
+        return new Eq(key, value);
+    }
+
+    public static Filter in(String key, Object... values) {
+        return in(key, List.of(values));
+    }
+
+    public static Filter in(String key, List<?> values) {
+        return new In(key, values);
+    }
+
+    public static Filter gt(String key, Object value) {
+        return new Range(key, value, false, null, false);
+    }
+
+    public static Filter gte(String key, Object value) {
+        return new Range(key, value, true, null, false);
+    }
+
+    public static Filter lt(String key, Object value) {
+        return new Range(key, null, false, value, false);
+    }
+
+    public static Filter lte(String key, Object value) {
+        return new Range(key, null, false, value, true);
+    }
+
+    /**
+     * {@code lower <= value < upper}; either bound may be null for an open end.
+     */
+    public static Filter range(String key, Object lower, Object upper) {
+        return new Range(key, lower, true, upper, false);
+    }
+
+    public static Filter range(String key, Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive) {
+        return new Range(key, lower, lowerInclusive, upper, upperInclusive);
+    }
+
+    /** The key is present, even with a null value. */
+    public static Filter exists(String key) {
+        return new Exists(key);
+    }
+
+    public static Filter and(Filter... filters) {
+        return new And(List.of(filters));
+    }
+
+    public static Filter and(List<Filter> filters) {
+        return new And(filters);
+    }
+
+    public static Filter or(Filter... filters) {
+        return new Or(List.of(filters));
+    }
+
+    public static Filter or(List<Filter> filters) {
+        return new Or(filters);
+    }
+
+    public static Filter not(Filter filter) {
+        return new Not(filter);
+    }
+
+    public boolean test(Metadata metadata) {
+        Map<String, Object> values = metadata == null ? null : metadata.getMetadata();
+        return matches(values == null ? Collections.emptyMap() : values);
+    }
+
+    public Predicate<Metadata> asPredicate() {
+        return this::test;
+    }
+
+    abstract boolean matches(Map<String, Object> values);
+
+    // === Nodes ===
+
+    public static final class Eq extends Filter {
+        private final String key;
+        private final Object value;
+
+        private Eq(String key, Object value) {
+            this.key = requireKey(key);
+            this.value = requireScalar(value);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        boolean matches(Map<String, Object> values) {
+            return valueEquals(values.get(key), value);
+        }
+
+        @Override
+        public String toString() {
+            return key + " = " + quote(value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Eq other && key.equals(other.key) && value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, value);
+        }
+    }
+
+    public static final class In extends Filter {
+        private final String key;
+        private final List<Object> values;
+
+        private In(String key, List<?> values) {
+            this.key = requireKey(key);
+            if (values == null || values.isEmpty()) {
+                throw new IllegalArgumentException("in() needs at least one value");
+            }
+            List<Object> copy = new ArrayList<>(values.size());
+            for (Object value : values) {
+                copy.add(requireScalar(value));
+            }
+            this.values = List.copyOf(copy);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public List<Object> getValues() {
+            return values;
+        }
+
+        @Override
+        boolean matches(Map<String, Object> metadata) {
+            Object actual = metadata.get(key);
+            for (Object value : values) {
+                if (valueEquals(actual, value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            List<String> quoted = values.stream().map(Filter::quote).toList();
+            return key + " IN (" + String.join(", ", quoted) + ")";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof In other && key.equals(other.key) && values.equals(other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, values);
+        }
+    }
+
+    public static final class Range extends Filter {
+        private final String key;
+        private final Object lower;
+        private final boolean lowerInclusive;
+        private final Object upper;
+        private final boolean upperInclusive;
+
+        private Range(String key, Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive) {
+            this.key = requireKey(key);
+            if (lower == null && upper == null) {
+                throw new IllegalArgumentException("A range needs at least one bound");
+            }
+            if (!isOrderable(lower) || !isOrderable(upper)
+                    || (lower != null && upper != null && (lower instanceof Number) != (upper instanceof Number))) {
+                throw new IllegalArgumentException("Range bounds must both be numbers or both be strings");
+            }
+            this.lower = lower;
+            this.lowerInclusive = lowerInclusive;
+            this.upper = upper;
+            this.upperInclusive = upperInclusive;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /** Null when the range is open below. */
+        public Object getLower() {
+            return lower;
+        }
+
+        public boolean isLowerInclusive() {
+            return lowerInclusive;
+        }
+
+        /** Null when the range is open above. */
+        public Object getUpper() {
+            return upper;
+        }
+
+        public boolean isUpperInclusive() {
+            return upperInclusive;
+        }
+
+        /** Whether the bounds are numbers rather than strings. */
+        public boolean isNumeric() {
+            return (lower != null ? lower : upper) instanceof Number;
+        }
+
+        @Override
+        boolean matches(Map<String, Object> values) {
+            Object actual = values.get(key);
+            if (actual == null || (actual instanceof Number) != isNumeric() || !isOrderable(actual)) {
+                return false;
+            }
+            if (lower != null) {
+                int c = compare(actual, lower);
+                if (c < 0 || (c == 0 && !lowerInclusive)) {
+                    return false;
+                }
+            }
+            if (upper != null) {
+                int c = compare(actual, upper);
+                return c < 0 || (c == 0 && upperInclusive);
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            if (lower != null) {
+                text.append(quote(lower)).append(lowerInclusive ? " <= " : " < ");
+            }
+            text.append(key);
+            if (upper != null) {
+                text.append(upperInclusive ? " <= " : " < ").append(quote(upper));
+            }
+            return text.toString();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Range other && key.equals(other.key)
+                    && Objects.equals(lower, other.lower) && lowerInclusive == other.lowerInclusive
+                    && Objects.equals(upper, other.upper) && upperInclusive == other.upperInclusive;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, lower, lowerInclusive, upper, upperInclusive);
+        }
+    }
+
+    public static final class Exists extends Filter {
+        private final String key;
+
+        private Exists(String key) {
+            this.key = requireKey(key);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        boolean matches(Map<String, Object> values) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public String toString() {
+            return "EXISTS " + key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Exists other && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+    }
+
+    public static final class And extends Filter {
+        private final List<Filter> filters;
+
+        private And(List<Filter> filters) {
+            this.filters = requireOperands(filters);
+        }
+
+        public List<Filter> getFilters() {
+            return filters;
+        }
+
+        @Override
+        boolean matches(Map<String, Object> values) {
+            for (Filter filter : filters) {
+                if (!filter.matches(values)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return join(filters, " AND ");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof And other && filters.equals(other.filters);
+        }
+
+        @Override
+        public int hashCode() {
+            return filters.hashCode();
+        }
+    }
+
+    public static final class Or extends Filter {
+        private final List<Filter> filters;
+
+        private Or(List<Filter> filters) {
+            this.filters = requireOperands(filters);
+        }
+
+        public List<Filter> getFilters() {
+            return filters;
+        }
+
+        @Override
+        boolean matches(Map<String, Object> values) {
+            for (Filter filter : filters) {
+                if (filter.matches(values)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return join(filters, " OR ");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Or other && filters.equals(other.filters);
+        }
+
+        @Override
+        public int hashCode() {
+            return -filters.hashCode();
+        }
+    }
+
+    public static final class Not extends Filter {
+        private final Filter filter;
+
+        private Not(Filter filter) {
+            this.filter = Objects.requireNonNull(filter, "filter");
+        }
+
+        public Filter getFilter() {
+            return filter;
+        }
+
+        @Override
+        boolean matches(Map<String, Object> values) {
+            return !filter.matches(values);
+        }
+
+        @Override
+        public String toString() {
+            return "NOT (" + filter + ")";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Not other && filter.equals(other.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return ~filter.hashCode();
+        }
+    }
+
+    // === Value semantics ===
+
+    private static String requireKey(String key) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Filter key cannot be null or empty");
+        }
+        return key;
+    }
+
+    private static Object requireScalar(Object value) {
+        if (!(value instanceof String || value instanceof Number || value instanceof Boolean)) {
+            throw new IllegalArgumentException("Filter values must be strings, numbers or booleans, not " + value);
+        }
+        if (value instanceof Double d && !Double.isFinite(d) || value instanceof Float f && !Float.isFinite(f)) {
+            throw new IllegalArgumentException("Filter values must be finite numbers");
+        }
+        return value;
+    }
+
+    private static List<Filter> requireOperands(List<Filter> filters) {
+        if (filters == null || filters.isEmpty()) {
+            throw new IllegalArgumentException("and()/or() need at least one filter");
+        }
+        return List.copyOf(filters);
+    }
+
+    private static boolean isOrderable(Object value) {
+        return value == null || value instanceof String
+                || (value instanceof Number number && Double.isFinite(number.doubleValue()));
+    }
+
+    private static boolean valueEquals(Object actual, Object expected) {
+        if (actual instanceof Number a && expected instanceof Number b) {
+            return compareNumbers(a, b) == 0;
+        }
+        return expected.equals(actual);
+    }
+
+    private static int compare(Object actual, Object bound) {
+        if (actual instanceof Number a) {
+            return compareNumbers(a, (Number) bound);
+        }
+        return ((String) actual).compareTo((String) bound);
+    }
+
+    private static int compareNumbers(Number a, Number b) {
+        if (isIntegral(a) && isIntegral(b)) {
+            return Long.compare(a.longValue(), b.longValue());
+        }
+        double x = a.doubleValue();
+        double y = b.doubleValue();
+        return x == y ? 0 : Double.compare(x, y);
+    }
+
+    private static boolean isIntegral(Number n) {
+        return n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte;
+    }
+
+    private static String quote(Object value) {
+        return value instanceof String ? "'" + value + "'" : String.valueOf(value);
+    }
+
+    private static String join(List<Filter> filters, String operator) {
+        List<String> parts = filters.stream().map(filter -> "(" + filter + ")").toList();
+        return String.join(operator, parts);
+    }
 }
@@ -2,9 +2,12 @@ package com.github.vector.embedding;
 
 import com.github.vector.data.Metadata;
 import com.github.vector.data.Text;
+import com.github.vector.util.BufferAllocator;
 
 import java.nio.FloatBuffer;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class BatchEmbeddingResponse {
@@ -13,15 +16,48 @@ public class BatchEmbeddingResponse {
     final List<Metadata> metadatas;
     final Instant timeCreated;
     final List<String> collections;
+    final FloatBuffer packed;
+    final int dimension;
 
     public BatchEmbeddingResponse(final List<Text> texts, final List<FloatBuffer> embeddings, final List<Metadata> metadatas, final List<String> collections) {
+        this(texts, embeddings, metadatas, collections, null, 0);
+    }
+
+    private BatchEmbeddingResponse(final List<Text> texts, final List<FloatBuffer> embeddings, final List<Metadata> metadatas,
+                                   final List<String> collections, final FloatBuffer packed, final int dimension) {
         this.texts = texts;
         this.embeddings = embeddings;
         this.metadatas = metadatas;
         this.collections = collections;
+        this.packed = packed;
+        this.dimension = dimension;
         this.timeCreated = Instant.now();
     }
 
+    /**
+     * Copy all embeddings into one contiguous row-major buffer from {@code allocator}. The
+     * per-item buffers returned by {@link #getEmbeddings()} are views into it, and the whole
+     * block can be written to a channel or a COPY stream in one call. With an
+     * {@link com.github.vector.util.OffHeapArena} the block is one buffer of the arena, freed
+     * when it is released to the arena or, after the arena is closed, once it is unreachable.
+     */
+    public static BatchEmbeddingResponse packed(final List<Text> texts, final List<FloatBuffer> embeddings, final List<Metadata> metadatas,
+                                                final List<String> collections, final BufferAllocator allocator) {
+        int dimension = embeddings.isEmpty() ? 0 : embeddings.get(0).remaining();
+        FloatBuffer block = allocator.allocateFloats(Math.multiplyExact(embeddings.size(), dimension));
+        List<FloatBuffer> views = new ArrayList<>(embeddings.size());
+        for (int i = 0; i < embeddings.size(); i++) {
+            FloatBuffer embedding = embeddings.get(i);
+            if (embedding.remaining() != dimension) {
+                throw new IllegalArgumentException("Embedding " + i + " has " + embedding.remaining()
+                        + " dimensions, expected " + dimension);
+            }
+            block.put(i * dimension, embedding, embedding.position(), dimension);
+            views.add(block.slice(i * dimension, dimension));
+        }
+        return new BatchEmbeddingResponse(texts, Collections.unmodifiableList(views), metadatas, collections, block, dimension);
+    }
+
     public List<Text> getTexts() {
         return texts;
     }
@@ -31,8 +67,23 @@ public class BatchEmbeddingResponse {
     public List<Metadata> getMetadatas() {
         return metadatas;
     }
+    public List<String> getCollections() {
+        return collections;
+    }
     public Instant getTimeCreated() {
         return timeCreated;
     }
 
+    /**
+     * @return the contiguous nEmbeddings × dimension block, or null unless built with
+     *         {@link #packed}
+     */
+    public FloatBuffer getPackedEmbeddings() {
+        return packed;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
 }
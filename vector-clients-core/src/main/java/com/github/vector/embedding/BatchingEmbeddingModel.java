@@ -0,0 +1,302 @@
+package com.github.vector.embedding;
+
+import com.github.vector.exception.VectorClientException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decorator that coalesces concurrent single-text {@link #embed} calls into
+ * {@link EmbeddingModel#embedBatch} calls on the wrapped model.
+ *
+ * <p>A batch is sent as soon as it holds {@code maxBatchSize} requests, or when the oldest
+ * queued request has waited {@code maxLinger}, whichever comes first. Each caller's future is
+ * completed from its own slot in the batch result; a failed batch fails every request in it.
+ * Requests whose futures were cancelled before dispatch are dropped from the batch.
+ */
+public class BatchingEmbeddingModel implements EmbeddingModel, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(BatchingEmbeddingModel.class);
+
+    private final EmbeddingModel delegate;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Pending> pending = new ArrayList<>();
+    private ScheduledFuture<?> lingerTimer;
+    private long generation;
+    private boolean closed;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedRequests = new LongAdder();
+
+    private BatchingEmbeddingModel(Builder builder) {
+        this.delegate = builder.delegate;
+        this.maxBatchSize = builder.maxBatchSize > 0 ? builder.maxBatchSize : Math.max(1, delegate.getMaxBatchSize());
+        this.maxLingerNanos = builder.maxLinger.toNanos();
+        this.ownsScheduler = builder.scheduler == null;
+        this.scheduler = ownsScheduler
+                ? Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "embedding-batcher");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : builder.scheduler;
+    }
+
+    public static Builder builder(EmbeddingModel delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public CompletableFuture<EmbeddingResponse> embed(EmbeddingRequest request) {
+        Pending entry = new Pending(request);
+        List<Pending> ready = null;
+
+        lock.lock();
+        try {
+            if (closed) {
+                return CompletableFuture.failedFuture(new VectorClientException("Batching model is closed"));
+            }
+            pending.add(entry);
+            if (pending.size() >= maxBatchSize) {
+                ready = takePending();
+            } else if (pending.size() == 1) {
+                long scheduledGeneration = generation;
+                try {
+                    lingerTimer = scheduler.schedule(() -> flushExpired(scheduledGeneration), maxLingerNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // without a deadline nothing would ever send this request
+                    pending.remove(entry);
+                    entry.future.completeExceptionally(new VectorClientException("Batch scheduler rejected the linger deadline", e));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (ready != null) {
+            dispatch(ready);
+        }
+        return entry.future;
+    }
+
+    /**
+     * Explicit batches bypass the queue and go straight to the wrapped model.
+     */
+    @Override
+    public CompletableFuture<List<EmbeddingResponse>> embedBatch(List<EmbeddingRequest> requests) {
+        return delegate.embedBatch(requests);
+    }
+
+    /**
+     * Send whatever is queued now instead of waiting for the linger deadline.
+     */
+    public void flush() {
+        List<Pending> ready;
+        lock.lock();
+        try {
+            ready = pending.isEmpty() ? null : takePending();
+        } finally {
+            lock.unlock();
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+    }
+
+    /**
+     * Flushes queued requests and rejects new ones. Batches already sent still complete. The
+     * wrapped model is not closed.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        flush();
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    private void flushExpired(long scheduledGeneration) {
+        List<Pending> ready = null;
+        lock.lock();
+        try {
+            // a size-triggered flush may have taken this batch already
+            if (scheduledGeneration == generation && !pending.isEmpty()) {
+                ready = takePending();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+    }
+
+    // caller holds the lock
+    private List<Pending> takePending() {
+        List<Pending> ready = pending;
+        pending = new ArrayList<>(maxBatchSize);
+        generation++;
+        if (lingerTimer != null) {
+            lingerTimer.cancel(false);
+            lingerTimer = null;
+        }
+        return ready;
+    }
+
+    private void dispatch(List<Pending> ready) {
+        List<Pending> live = new ArrayList<>(ready.size());
+        List<EmbeddingRequest> requests = new ArrayList<>(ready.size());
+        for (Pending entry : ready) {
+            if (!entry.future.isDone()) {
+                live.add(entry);
+                requests.add(entry.request);
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+        batches.increment();
+        batchedRequests.add(live.size());
+
+        CompletableFuture<List<EmbeddingResponse>> result;
+        try {
+            result = delegate.embedBatch(requests);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((responses, error) -> {
+            if (error == null && (responses == null || responses.size() != live.size())) {
+                error = new VectorClientException("Model " + delegate.getModelName() + " returned "
+                        + (responses == null ? 0 : responses.size()) + " embeddings for " + live.size() + " requests");
+            }
+            if (error != null) {
+                logger.warn("Embedding batch of {} failed: {}", live.size(), error.toString());
+                for (Pending entry : live) {
+                    entry.future.completeExceptionally(error);
+                }
+                return;
+            }
+            for (int i = 0; i < live.size(); i++) {
+                live.get(i).future.complete(responses.get(i));
+            }
+        });
+    }
+
+    /**
+     * @return batches sent to the wrapped model by this decorator
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * @return single requests that were sent as part of a batch
+     */
+    public long getBatchedRequestCount() {
+        return batchedRequests.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0.0 : (double) batchedRequests.sum() / count;
+    }
+
+    @Override
+    public int getDimensions() {
+        return delegate.getDimensions();
+    }
+
+    @Override
+    public int getMaxTokens() {
+        return delegate.getMaxTokens();
+    }
+
+    @Override
+    public String getModelName() {
+        return delegate.getModelName();
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    private static final class Pending {
+        final EmbeddingRequest request;
+        final CompletableFuture<EmbeddingResponse> future = new CompletableFuture<>();
+
+        Pending(EmbeddingRequest request) {
+            this.request = request;
+        }
+    }
+
+    public static class Builder {
+        private final EmbeddingModel delegate;
+        private int maxBatchSize = -1;
+        private Duration maxLinger = Duration.ofMillis(5);
+        private ScheduledExecutorService scheduler;
+
+        private Builder(EmbeddingModel delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Requests per batch. Defaults to the wrapped model's {@code getMaxBatchSize()}.
+         */
+        public Builder maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Longest time a request waits for the batch to fill. Defaults to 5ms.
+         */
+        public Builder maxLinger(Duration maxLinger) {
+            this.maxLinger = maxLinger;
+            return this;
+        }
+
+        /**
+         * Scheduler for linger deadlines. By default a private daemon thread is used and shut
+         * down on {@link #close()}.
+         */
+        public Builder scheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        public BatchingEmbeddingModel build() {
+            if (delegate == null) {
+                throw new IllegalArgumentException("Delegate model cannot be null");
+            }
+            if (maxLinger == null || maxLinger.isNegative()) {
+                throw new IllegalArgumentException("maxLinger must not be negative");
+            }
+            if (maxBatchSize > delegate.getMaxBatchSize() && delegate.getMaxBatchSize() > 0) {
+                throw new IllegalArgumentException("maxBatchSize exceeds the model limit of " + delegate.getMaxBatchSize());
+            }
+            return new BatchingEmbeddingModel(this);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.github.vector.embedding;
+
+import com.github.vector.util.VectorUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content-addressed cache in front of an {@link EmbeddingModel}. Vectors are keyed by a hash of
+ * the model name and {@code Text.getContextString()}, so repeated texts are embedded once.
+ *
+ * <p>The memory tier is a byte-bounded W-TinyLFU cache. An optional memory-mapped file tier
+ * keeps vectors across restarts; hits there are promoted to memory. Concurrent misses for the
+ * same text share a single model call, and within {@link #embedBatch} only distinct uncached
+ * texts are sent to the model.
+ */
+public class CachingEmbeddingModel implements EmbeddingModel, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(CachingEmbeddingModel.class);
+
+    private final EmbeddingModel delegate;
+    private final WTinyLfuCache memory;
+    private final MappedEmbeddingStore disk;
+    private final ConcurrentHashMap<EmbeddingCacheKey, CompletableFuture<float[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    private CachingEmbeddingModel(Builder builder) throws IOException {
+        this.delegate = builder.delegate;
+        this.memory = new WTinyLfuCache(builder.maxBytes);
+        this.disk = builder.diskPath == null
+                ? null
+                : new MappedEmbeddingStore(builder.diskPath, builder.maxDiskBytes, builder.diskSegmentBytes);
+    }
+
+    public static Builder builder(EmbeddingModel delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public CompletableFuture<EmbeddingResponse> embed(EmbeddingRequest request) {
+        EmbeddingCacheKey key = keyOf(request);
+        float[] cached = lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(response(request, cached));
+        }
+
+        CompletableFuture<float[]> mine = new CompletableFuture<>();
+        CompletableFuture<float[]> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.thenApply(vector -> response(request, vector));
+        }
+        misses.increment();
+        CompletableFuture<EmbeddingResponse> call;
+        try {
+            call = delegate.embed(request);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((response, error) -> {
+            if (error != null) {
+                fail(key, mine, error);
+                return;
+            }
+            try {
+                complete(key, mine, VectorUtil.toArray(response.getEmbedding()));
+            } catch (RuntimeException e) {
+                fail(key, mine, e);
+            }
+        });
+        return mine.thenApply(vector -> response(request, vector));
+    }
+
+    @Override
+    public CompletableFuture<List<EmbeddingResponse>> embedBatch(List<EmbeddingRequest> requests) {
+        List<CompletableFuture<EmbeddingResponse>> results = new ArrayList<>(requests.size());
+        List<EmbeddingRequest> toEmbed = new ArrayList<>();
+        List<EmbeddingCacheKey> toEmbedKeys = new ArrayList<>();
+        List<CompletableFuture<float[]>> toEmbedFutures = new ArrayList<>();
+
+        for (EmbeddingRequest request : requests) {
+            EmbeddingCacheKey key = keyOf(request);
+            float[] cached = lookup(key);
+            if (cached != null) {
+                results.add(CompletableFuture.completedFuture(response(request, cached)));
+                continue;
+            }
+            CompletableFuture<float[]> mine = new CompletableFuture<>();
+            CompletableFuture<float[]> existing = inFlight.putIfAbsent(key, mine);
+            if (existing != null) {
+                // duplicate within this batch, or already requested by another caller
+                coalesced.increment();
+                results.add(existing.thenApply(vector -> response(request, vector)));
+                continue;
+            }
+            misses.increment();
+            toEmbed.add(request);
+            toEmbedKeys.add(key);
+            toEmbedFutures.add(mine);
+            results.add(mine.thenApply(vector -> response(request, vector)));
+        }
+
+        if (!toEmbed.isEmpty()) {
+            CompletableFuture<List<EmbeddingResponse>> call;
+            try {
+                call = delegate.embedBatch(toEmbed);
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            call.whenComplete((responses, error) -> {
+                if (error == null && (responses == null || responses.size() != toEmbed.size())) {
+                    error = new IllegalStateException("Model " + delegate.getModelName() + " returned "
+                            + (responses == null ? 0 : responses.size()) + " embeddings for " + toEmbed.size() + " requests");
+                }
+                for (int i = 0; i < toEmbed.size(); i++) {
+                    EmbeddingCacheKey key = toEmbedKeys.get(i);
+                    CompletableFuture<float[]> future = toEmbedFutures.get(i);
+                    if (error != null) {
+                        fail(key, future, error);
+                        continue;
+                    }
+                    // a bad response fails its own request only; every future is settled either way
+                    try {
+                        complete(key, future, VectorUtil.toArray(responses.get(i).getEmbedding()));
+                    } catch (RuntimeException e) {
+                        fail(key, future, e);
+                    }
+                }
+            });
+        }
+
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    private float[] lookup(EmbeddingCacheKey key) {
+        float[] vector = memory.get(key);
+        if (vector == null && disk != null) {
+            vector = disk.get(key);
+            if (vector != null) {
+                diskHits.increment();
+                memory.put(key, vector);
+            }
+        }
+        if (vector != null) {
+            hits.increment();
+        }
+        return vector;
+    }
+
+    /**
+     * Caches {@code vector} and completes {@code future} with it. A disk tier failure only
+     * costs the persisted copy; anything else thrown leaves the future to the caller to fail.
+     */
+    private void complete(EmbeddingCacheKey key, CompletableFuture<float[]> future, float[] vector) {
+        memory.put(key, vector);
+        if (disk != null) {
+            try {
+                disk.put(key, vector);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not persist embedding {}: {}", key, e.toString());
+            }
+        }
+        inFlight.remove(key, future);
+        future.complete(vector);
+    }
+
+    private void fail(EmbeddingCacheKey key, CompletableFuture<float[]> future, Throwable error) {
+        inFlight.remove(key, future);
+        future.completeExceptionally(error);
+    }
+
+    private EmbeddingCacheKey keyOf(EmbeddingRequest request) {
+        return EmbeddingCacheKey.of(delegate.getModelName(), Objects.toString(request.getText().getContextString(), ""));
+    }
+
+    private static EmbeddingResponse response(EmbeddingRequest request, float[] vector) {
+        // cached arrays are shared; callers get their own copy
+        return EmbeddingResponse.builder()
+                .text(request.getText())
+                .requestId(request.getRequestId())
+                .metadata(request.getMetadata())
+                .collection(request.getCollection())
+                .embedding(vector.clone())
+                .build();
+    }
+
+    // === Metrics ===
+
+    /** Lookups answered from memory or disk. */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /** Lookups answered from the disk tier; included in {@link #getHitCount()}. */
+    public long getDiskHitCount() {
+        return diskHits.sum();
+    }
+
+    /** Lookups that called the model. */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /** Lookups that waited on a model call already in flight for the same text. */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public double getHitRate() {
+        long total = hits.sum() + misses.sum() + coalesced.sum();
+        return total == 0 ? 0.0 : (double) hits.sum() / total;
+    }
+
+    public long getEvictionCount() {
+        return memory.evictionCount();
+    }
+
+    public long getMemoryBytes() {
+        return memory.weightedBytes();
+    }
+
+    public int getMemoryEntries() {
+        return memory.size();
+    }
+
+    public int getDiskEntries() {
+        return disk == null ? 0 : disk.size();
+    }
+
+    /** Drops the memory tier; the disk tier is kept. */
+    public void invalidateMemory() {
+        memory.clear();
+    }
+
+    /** Forces the disk tier to storage. The wrapped model is not closed. */
+    @Override
+    public void close() {
+        if (disk != null) {
+            try {
+                disk.close();
+            } catch (IOException e) {
+                logger.warn("Error closing embedding cache file: {}", e.toString());
+            }
+        }
+    }
+
+    @Override
+    public int getDimensions() {
+        return delegate.getDimensions();
+    }
+
+    @Override
+    public int getMaxTokens() {
+        return delegate.getMaxTokens();
+    }
+
+    @Override
+    public String getModelName() {
+        return delegate.getModelName();
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return delegate.getMaxBatchSize();
+    }
+
+    public static class Builder {
+        private final EmbeddingModel delegate;
+        private long maxBytes = 256L * 1024 * 1024;
+        private Path diskPath;
+        private long maxDiskBytes = 4L * 1024 * 1024 * 1024;
+        private int diskSegmentBytes = 64 * 1024 * 1024;
+
+        private Builder(EmbeddingModel delegate) {
+            this.delegate = delegate;
+        }
+
+        /** Memory budget, counting vector bytes plus per-entry overhead. Defaults to 256MB. */
+        public Builder maxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /** Enables the memory-mapped disk tier at this file, created if missing. */
+        public Builder diskPath(Path diskPath) {
+            this.diskPath = diskPath;
+            return this;
+        }
+
+        /** Size limit of the disk tier file. Defaults to 4GB. */
+        public Builder maxDiskBytes(long maxDiskBytes) {
+            this.maxDiskBytes = maxDiskBytes;
+            return this;
+        }
+
+        /** Granularity at which the disk tier file is mapped and grown. Defaults to 64MB. */
+        public Builder diskSegmentBytes(int diskSegmentBytes) {
+            this.diskSegmentBytes = diskSegmentBytes;
+            return this;
+        }
+
+        /**
+         * @throws IOException if the disk tier file cannot be opened or is not a cache file
+         */
+        public CachingEmbeddingModel build() throws IOException {
+            if (delegate == null) {
+                throw new IllegalArgumentException("Delegate model cannot be null");
+            }
+            if (maxBytes <= 0) {
+                throw new IllegalArgumentException("maxBytes must be positive");
+            }
+            if (diskPath != null && (maxDiskBytes <= 0 || diskSegmentBytes <= 0)) {
+                throw new IllegalArgumentException("Disk tier sizes must be positive");
+            }
+            return new CachingEmbeddingModel(this);
+        }
+    }
+}
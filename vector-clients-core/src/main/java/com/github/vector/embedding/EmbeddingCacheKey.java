@@ -0,0 +1,54 @@
+package com.github.vector.embedding;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 128-bit content address of an embedding: the leading half of SHA-256 over the model name
+ * and the input text. The same text embedded by two models yields two keys.
+ */
+final class EmbeddingCacheKey {
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    final long high;
+    final long low;
+
+    EmbeddingCacheKey(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    static EmbeddingCacheKey of(String modelName, String text) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        digest.update(modelName.getBytes(StandardCharsets.UTF_8));
+        // separator keeps ("ab", "c") and ("a", "bc") apart
+        digest.update((byte) 0);
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+        return new EmbeddingCacheKey(hash.getLong(), hash.getLong());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EmbeddingCacheKey other && other.high == high && other.low == low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high ^ low);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+}
@@ -2,6 +2,7 @@ package com.github.vector.embedding;
 
 import com.github.vector.data.Metadata;
 import com.github.vector.data.Text;
+import com.github.vector.util.BufferAllocator;
 
 import java.nio.FloatBuffer;
 import java.time.Instant;
@@ -13,14 +14,13 @@ public class EmbeddingResponse {
     private final String collection;
     private Instant timeCreated;
     private FloatBuffer embedding;
-    private EmbeddingResponse(final Text text, final String requestId, final Metadata metadata, final String collection, final float[][] embedding) {
-        this.text = text;
-        this.requestId = requestId;
-        this.metadata = metadata;
-        this.collection = collection;
+    private EmbeddingResponse(Builder builder) {
+        this.text = builder.text;
+        this.requestId = builder.requestId;
+        this.metadata = builder.metadata;
+        this.collection = builder.collection;
         this.timeCreated = Instant.now();
-        this.embedding = FloatBuffer.allocate(embedding.length);
-
+        this.embedding = builder.embedding;
     }
 
     public Text getText() {
@@ -39,7 +39,79 @@ public class EmbeddingResponse {
         return collection;
     }
 
+    public Instant getTimeCreated() {
+        return timeCreated;
+    }
+
     public FloatBuffer getEmbedding() {
         return embedding;
     }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Text text;
+        private String requestId;
+        private Metadata metadata;
+        private String collection;
+        private FloatBuffer embedding;
+        private BufferAllocator allocator;
+
+        public Builder text(Text text) {
+            this.text = text;
+            return this;
+        }
+
+        public Builder requestId(String requestId) {
+            this.requestId = requestId;
+            return this;
+        }
+
+        public Builder metadata(Metadata metadata) {
+            this.metadata = metadata;
+            return this;
+        }
+
+        public Builder collection(String collection) {
+            this.collection = collection;
+            return this;
+        }
+
+        public Builder embedding(float[] embedding) {
+            this.embedding = FloatBuffer.wrap(embedding);
+            return this;
+        }
+
+        /**
+         * Use the buffer's elements between position and limit. Without an allocator the
+         * buffer is kept as is, not copied.
+         */
+        public Builder embedding(FloatBuffer embedding) {
+            this.embedding = embedding;
+            return this;
+        }
+
+        /**
+         * Copy the embedding into a buffer from this allocator, e.g. an
+         * {@link com.github.vector.util.OffHeapArena} owned by the caller.
+         */
+        public Builder allocator(BufferAllocator allocator) {
+            this.allocator = allocator;
+            return this;
+        }
+
+        public EmbeddingResponse build() {
+            if (embedding == null) {
+                throw new IllegalArgumentException("Embedding cannot be null");
+            }
+            if (allocator != null) {
+                FloatBuffer copy = allocator.allocateFloats(embedding.remaining());
+                copy.put(0, embedding, embedding.position(), embedding.remaining());
+                embedding = copy;
+            }
+            return new EmbeddingResponse(this);
+        }
+    }
 }
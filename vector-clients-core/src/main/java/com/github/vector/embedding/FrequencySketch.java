@@ -0,0 +1,72 @@
+package com.github.vector.embedding;
+
+/**
+ * Count-min sketch of 4-bit counters estimating how often each key was seen recently. Every
+ * counter is halved once the number of increments reaches ten times the table size, so old
+ * popularity fades. This is the admission filter of a TinyLFU cache.
+ */
+final class FrequencySketch {
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedEntries) {
+        int size = Integer.highestOneBit(Math.max(16, Math.min(expectedEntries, 1 << 26)) - 1) << 1;
+        this.table = new long[size];
+        this.mask = size - 1;
+        this.sampleSize = 10 * size;
+    }
+
+    int frequency(int hash) {
+        int spread = spread(hash);
+        int min = MAX_COUNT;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(spread, i);
+            int shift = counterShift(spread, i);
+            min = Math.min(min, (int) ((table[index] >>> shift) & 0xF));
+        }
+        return min;
+    }
+
+    void increment(int hash) {
+        int spread = spread(hash);
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(spread, i);
+            int shift = counterShift(spread, i);
+            if (((table[index] >>> shift) & 0xF) < MAX_COUNT) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private int indexOf(int spread, int depth) {
+        long h = (spread + (long) depth * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    private static int counterShift(int spread, int depth) {
+        // each depth reads its own 4-bit lane among the 16 in a word
+        return (((spread >>> (depth << 3)) & 3) << 2 | depth) << 2;
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
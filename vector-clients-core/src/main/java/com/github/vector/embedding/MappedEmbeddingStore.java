@@ -0,0 +1,193 @@
+package com.github.vector.embedding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped file of embeddings that outlives the process: the disk tier of
+ * {@link CachingEmbeddingModel}.
+ *
+ * <p>The file is a header followed by fixed-size segments, each mapped separately. A record is
+ * {@code int dim, long keyHigh, long keyLow, int crc32c, float[dim]} in little-endian order and
+ * never straddles segments; a {@code dim} of -1 marks the unused tail of a segment. On open the
+ * records are scanned to rebuild the index, stopping at the first zero or corrupt record so a
+ * torn write at the end is simply dropped. Once {@code maxBytes} is reached no more records are
+ * written. All operations take the store's monitor.
+ */
+final class MappedEmbeddingStore implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(MappedEmbeddingStore.class);
+    private static final long MAGIC = 0x56454341434845L; // "VECACHE"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 4 + 8 + 8 + 4;
+    private static final int SEGMENT_END = -1;
+
+    private final FileChannel channel;
+    private final long segmentBytes;
+    private final long maxBytes;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final Map<EmbeddingCacheKey, Long> index = new HashMap<>();
+    private long writeOffset;
+    private boolean full;
+
+    MappedEmbeddingStore(Path path, long maxBytes, int segmentBytes) throws IOException {
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN).putLong(0, MAGIC).putInt(8, VERSION);
+        } else {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION) {
+                channel.close();
+                throw new IOException("Not an embedding cache file (or unsupported version): " + path);
+            }
+        }
+        this.writeOffset = HEADER_BYTES;
+        scan();
+        logger.info("Opened embedding cache {} with {} entries ({} bytes)", path, index.size(), writeOffset);
+    }
+
+    synchronized float[] get(EmbeddingCacheKey key) {
+        Long offset = index.get(key);
+        if (offset == null) {
+            return null;
+        }
+        MappedByteBuffer segment = segments.get(segmentOf(offset));
+        int position = (int) (offset - segmentStart(segmentOf(offset)));
+        int dim = segment.getInt(position);
+        float[] vector = new float[dim];
+        floats(segment, position, dim).get(vector);
+        return vector;
+    }
+
+    synchronized void put(EmbeddingCacheKey key, float[] vector) throws IOException {
+        if (full || index.containsKey(key)) {
+            return;
+        }
+        long recordBytes = RECORD_HEADER_BYTES + (long) vector.length * Float.BYTES;
+        if (recordBytes > segmentBytes) {
+            return;
+        }
+        int segmentIndex = segmentOf(writeOffset);
+        long segmentEnd = segmentStart(segmentIndex) + segmentBytes;
+        if (writeOffset + recordBytes > segmentEnd) {
+            if (writeOffset + Integer.BYTES <= segmentEnd) {
+                segment(segmentIndex).putInt((int) (writeOffset - segmentStart(segmentIndex)), SEGMENT_END);
+            }
+            writeOffset = segmentEnd;
+            segmentIndex++;
+        }
+        if (writeOffset + recordBytes > maxBytes) {
+            full = true;
+            logger.info("Embedding cache file reached its {} byte limit; no further entries will be persisted", maxBytes);
+            return;
+        }
+
+        MappedByteBuffer segment = segment(segmentIndex);
+        int position = (int) (writeOffset - segmentStart(segmentIndex));
+        CRC32C crc = new CRC32C();
+        floats(segment, position, vector.length).put(vector);
+        crc.update(segment.slice(position + RECORD_HEADER_BYTES, vector.length * Float.BYTES));
+        segment.putLong(position + 4, key.high);
+        segment.putLong(position + 12, key.low);
+        segment.putInt(position + 20, (int) crc.getValue());
+        // dim is written last: a record is visible to the next scan only once it is complete
+        segment.putInt(position, vector.length);
+
+        index.put(key, writeOffset);
+        writeOffset += recordBytes;
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    synchronized long sizeBytes() {
+        return writeOffset;
+    }
+
+    synchronized void flush() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        segments.clear();
+        index.clear();
+        channel.close();
+    }
+
+    private void scan() throws IOException {
+        long fileSize = channel.size();
+        while (writeOffset + RECORD_HEADER_BYTES <= fileSize) {
+            int segmentIndex = segmentOf(writeOffset);
+            MappedByteBuffer segment = segment(segmentIndex);
+            long segmentEnd = segmentStart(segmentIndex) + segmentBytes;
+            if (writeOffset + Integer.BYTES > segmentEnd) {
+                writeOffset = segmentEnd;
+                continue;
+            }
+            int position = (int) (writeOffset - segmentStart(segmentIndex));
+            int dim = segment.getInt(position);
+            if (dim == SEGMENT_END) {
+                writeOffset = segmentEnd;
+                continue;
+            }
+            long recordBytes = RECORD_HEADER_BYTES + (long) dim * Float.BYTES;
+            if (dim <= 0 || writeOffset + recordBytes > segmentEnd) {
+                break;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(segment.slice(position + RECORD_HEADER_BYTES, dim * Float.BYTES));
+            if ((int) crc.getValue() != segment.getInt(position + 20)) {
+                logger.warn("Embedding cache record at offset {} is corrupt; truncating there", writeOffset);
+                break;
+            }
+            index.put(new EmbeddingCacheKey(segment.getLong(position + 4), segment.getLong(position + 12)), writeOffset);
+            writeOffset += recordBytes;
+        }
+    }
+
+    private static FloatBuffer floats(MappedByteBuffer segment, int recordPosition, int dim) {
+        // slices start out big-endian whatever the parent's order
+        return segment.slice(recordPosition + RECORD_HEADER_BYTES, dim * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer();
+    }
+
+    private MappedByteBuffer segment(int segmentIndex) throws IOException {
+        while (segments.size() <= segmentIndex) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, segmentStart(segments.size()), segmentBytes);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            segments.add(mapped);
+        }
+        return segments.get(segmentIndex);
+    }
+
+    private long segmentStart(int segmentIndex) {
+        return HEADER_BYTES + segmentIndex * segmentBytes;
+    }
+
+    private int segmentOf(long offset) {
+        return (int) ((offset - HEADER_BYTES) / segmentBytes);
+    }
+}
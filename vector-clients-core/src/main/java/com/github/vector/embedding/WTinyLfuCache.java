@@ -0,0 +1,163 @@
+package com.github.vector.embedding;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Byte-bounded W-TinyLFU cache of embedding vectors.
+ *
+ * <p>New entries land in a small LRU window (1% of the budget). Entries leaving the window
+ * compete for the main space, a segmented LRU split into probation (20%) and protected (80%):
+ * a candidate is only admitted if the {@link FrequencySketch} has seen it more often than the
+ * probation victim it would displace. One-off texts therefore pass through the window without
+ * flushing the popular ones. All operations take the cache's monitor.
+ */
+final class WTinyLfuCache {
+    // per-entry bookkeeping beyond the vector: map nodes, key and array headers
+    static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final long maxBytes;
+    private final long windowMaxBytes;
+    private final long protectedMaxBytes;
+
+    private final LinkedHashMap<EmbeddingCacheKey, float[]> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<EmbeddingCacheKey, float[]> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<EmbeddingCacheKey, float[]> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long windowBytes;
+    private long probationBytes;
+    private long protectedBytes;
+
+    private FrequencySketch sketch;
+    private long evictions;
+
+    WTinyLfuCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.windowMaxBytes = Math.max(1, maxBytes / 100);
+        this.protectedMaxBytes = (maxBytes - windowMaxBytes) * 8 / 10;
+    }
+
+    static long weigh(float[] vector) {
+        return (long) vector.length * Float.BYTES + ENTRY_OVERHEAD_BYTES;
+    }
+
+    synchronized float[] get(EmbeddingCacheKey key) {
+        if (sketch != null) {
+            sketch.increment(key.hashCode());
+        }
+        float[] value = window.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = protectedSegment.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = probation.remove(key);
+        if (value != null) {
+            // second hit: promote, demoting protected LRU entries back to probation if needed
+            long weight = weigh(value);
+            probationBytes -= weight;
+            protectedSegment.put(key, value);
+            protectedBytes += weight;
+            while (protectedBytes > protectedMaxBytes && protectedSegment.size() > 1) {
+                Map.Entry<EmbeddingCacheKey, float[]> eldest = removeEldest(protectedSegment);
+                long eldestWeight = weigh(eldest.getValue());
+                protectedBytes -= eldestWeight;
+                probation.put(eldest.getKey(), eldest.getValue());
+                probationBytes += eldestWeight;
+            }
+        }
+        return value;
+    }
+
+    synchronized void put(EmbeddingCacheKey key, float[] value) {
+        long weight = weigh(value);
+        if (weight > maxBytes - windowMaxBytes) {
+            return;
+        }
+        if (sketch == null) {
+            sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, maxBytes / weight));
+        }
+        sketch.increment(key.hashCode());
+        remove(key);
+
+        window.put(key, value);
+        windowBytes += weight;
+        while (windowBytes > windowMaxBytes && !window.isEmpty()) {
+            Map.Entry<EmbeddingCacheKey, float[]> candidate = removeEldest(window);
+            windowBytes -= weigh(candidate.getValue());
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    private void admit(EmbeddingCacheKey key, float[] value) {
+        long weight = weigh(value);
+        long mainMaxBytes = maxBytes - windowMaxBytes;
+        int candidateFrequency = sketch.frequency(key.hashCode());
+        while (probationBytes + protectedBytes + weight > mainMaxBytes) {
+            LinkedHashMap<EmbeddingCacheKey, float[]> victims = probation.isEmpty() ? protectedSegment : probation;
+            EmbeddingCacheKey victim = victims.keySet().iterator().next();
+            if (sketch.frequency(victim.hashCode()) >= candidateFrequency) {
+                evictions++;
+                return;
+            }
+            float[] evicted = victims.remove(victim);
+            if (victims == probation) {
+                probationBytes -= weigh(evicted);
+            } else {
+                protectedBytes -= weigh(evicted);
+            }
+            evictions++;
+        }
+        probation.put(key, value);
+        probationBytes += weight;
+    }
+
+    private void remove(EmbeddingCacheKey key) {
+        float[] old = window.remove(key);
+        if (old != null) {
+            windowBytes -= weigh(old);
+            return;
+        }
+        old = probation.remove(key);
+        if (old != null) {
+            probationBytes -= weigh(old);
+            return;
+        }
+        old = protectedSegment.remove(key);
+        if (old != null) {
+            protectedBytes -= weigh(old);
+        }
+    }
+
+    private static Map.Entry<EmbeddingCacheKey, float[]> removeEldest(LinkedHashMap<EmbeddingCacheKey, float[]> segment) {
+        // iterate rather than get(): a get() on an access-ordered map would reorder it
+        Iterator<Map.Entry<EmbeddingCacheKey, float[]>> it = segment.entrySet().iterator();
+        Map.Entry<EmbeddingCacheKey, float[]> first = it.next();
+        Map.Entry<EmbeddingCacheKey, float[]> eldest = Map.entry(first.getKey(), first.getValue());
+        it.remove();
+        return eldest;
+    }
+
+    synchronized long weightedBytes() {
+        return windowBytes + probationBytes + protectedBytes;
+    }
+
+    synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    synchronized long evictionCount() {
+        return evictions;
+    }
+
+    synchronized void clear() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        windowBytes = 0;
+        probationBytes = 0;
+        protectedBytes = 0;
+    }
+}
@@ -4,6 +4,12 @@ public class VectorClientException extends Throwable {
     private String message;
 
     public VectorClientException(String message) {
+        super(message);
+        this.message = message;
+    }
+
+    public VectorClientException(String message, Throwable cause) {
+        super(message, cause);
         this.message = message;
     }
 
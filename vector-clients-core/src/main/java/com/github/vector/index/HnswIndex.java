@@ -0,0 +1,560 @@
+package com.github.vector.index;
+
+import com.github.vector.util.DistanceMetric;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory Hierarchical Navigable Small World graph (Malkov &amp; Yashunin) keyed by embedding id.
+ *
+ * <p>Inserts may run concurrently with each other and with searches. Each node's adjacency
+ * lists are guarded by that node's monitor; the global lock is only held by an insert that
+ * raises the top level of the graph, which happens O(log n) times.
+ *
+ * <p>Removal marks a node as deleted: it stays in the graph for navigation but is never
+ * returned. The index keeps a reference to every added vector rather than copying it.
+ */
+public class HnswIndex {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAX_LEVEL = 16;
+
+    private final DistanceMetric metric;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final int defaultEfSearch;
+    private final double levelMultiplier;
+
+    private final AtomicInteger dimension;
+    private final AtomicInteger nodeCount = new AtomicInteger();
+    private final AtomicInteger deletedCount = new AtomicInteger();
+    private final ConcurrentHashMap<String, Integer> idToNode = new ConcurrentHashMap<>();
+    private final ReentrantLock growLock = new ReentrantLock();
+    private final ReentrantLock entryLock = new ReentrantLock();
+    // idle visited sets, shared rather than per thread so short-lived virtual threads reuse them
+    private final ConcurrentLinkedQueue<VisitedSet> visitedPool = new ConcurrentLinkedQueue<>();
+
+    private volatile Node[][] chunks = new Node[1][];
+    private volatile int entryPoint = -1;
+    private volatile int maxLevel = -1;
+
+    private HnswIndex(Builder builder) {
+        this.metric = builder.metric;
+        this.m = builder.m;
+        this.maxM0 = 2 * builder.m;
+        this.efConstruction = Math.max(builder.efConstruction, builder.m);
+        this.defaultEfSearch = builder.efSearch;
+        this.levelMultiplier = 1.0 / Math.log(Math.max(builder.m, 2));
+        this.dimension = new AtomicInteger(builder.dimension);
+        this.chunks[0] = new Node[CHUNK_SIZE];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Insert a vector, replacing any vector previously stored under the same id.
+     */
+    public void add(String id, float[] vector) {
+        if (id == null || vector == null) {
+            throw new IllegalArgumentException("Id and vector cannot be null");
+        }
+        checkDimension(vector);
+
+        int level = randomLevel();
+        int idx = nodeCount.getAndIncrement();
+        Node node = new Node(id, vector, level, m, maxM0);
+        setNode(idx, node);
+
+        boolean holdsEntryLock = false;
+        entryLock.lock();
+        try {
+            holdsEntryLock = true;
+            int ep = entryPoint;
+            int topLevel = maxLevel;
+            if (ep < 0) {
+                entryPoint = idx;
+                maxLevel = level;
+                publish(id, idx);
+                return;
+            }
+            if (level <= topLevel) {
+                entryLock.unlock();
+                holdsEntryLock = false;
+            }
+
+            int current = ep;
+            float currentDistance = metric.distance(vector, node(ep).vector);
+            for (int l = topLevel; l > level; l--) {
+                current = greedyClosest(vector, current, currentDistance, l);
+                currentDistance = metric.distance(vector, node(current).vector);
+            }
+
+            for (int l = Math.min(level, topLevel); l >= 0; l--) {
+                NodeHeap candidates = searchLayer(vector, current, currentDistance, efConstruction, l, false, null);
+                int[] selected = selectNeighbors(candidates, m, idx);
+                node.setNeighbors(l, selected);
+                for (int neighbor : selected) {
+                    connect(neighbor, idx, l);
+                }
+                // continue from the closest node found on this layer
+                while (candidates.size() > 1) {
+                    candidates.pop();
+                }
+                current = candidates.peekNode();
+                currentDistance = candidates.peekDistance();
+            }
+
+            if (level > topLevel) {
+                entryPoint = idx;
+                maxLevel = level;
+            }
+            publish(id, idx);
+        } finally {
+            if (holdsEntryLock) {
+                entryLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Mark the vector stored under {@code id} as deleted.
+     * @return true if the id was present
+     */
+    public boolean remove(String id) {
+        Integer idx = idToNode.remove(id);
+        if (idx == null) {
+            return false;
+        }
+        node(idx).deleted = true;
+        deletedCount.incrementAndGet();
+        return true;
+    }
+
+    public boolean contains(String id) {
+        return idToNode.containsKey(id);
+    }
+
+    public List<SearchResult> search(float[] query, int topK) {
+        return search(query, topK, defaultEfSearch);
+    }
+
+    public List<SearchResult> search(float[] query, int topK, Predicate<String> filter) {
+        return search(query, topK, defaultEfSearch, filter);
+    }
+
+    /**
+     * @param query query vector
+     * @param topK number of results to return
+     * @param efSearch size of the dynamic candidate list; higher trades speed for recall
+     * @return up to topK results ordered by increasing distance
+     */
+    public List<SearchResult> search(float[] query, int topK, int efSearch) {
+        return search(query, topK, efSearch, null);
+    }
+
+    /**
+     * Search that only returns ids accepted by {@code filter}. Rejected nodes are still traversed,
+     * so the graph stays connected for the search, but they do not occupy result slots: the
+     * search collects up to efSearch accepted nodes. A filter that rejects most of the index
+     * makes the walk long; callers should fall back to an exact scan for very selective filters.
+     */
+    public List<SearchResult> search(float[] query, int topK, int efSearch, Predicate<String> filter) {
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+        int ep = entryPoint;
+        if (ep < 0) {
+            return Collections.emptyList();
+        }
+        checkDimension(query);
+
+        int current = ep;
+        for (int l = maxLevel; l > 0; l--) {
+            current = greedyClosest(query, current, metric.distance(query, node(current).vector), l);
+        }
+        NodeHeap results = searchLayer(query, current, metric.distance(query, node(current).vector),
+                Math.max(efSearch, topK), 0, true, filter);
+
+        while (results.size() > topK) {
+            results.pop();
+        }
+        SearchResult[] ordered = new SearchResult[results.size()];
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            float distance = results.peekDistance();
+            ordered[i] = new SearchResult(node(results.pop()).id, distance);
+        }
+        return Arrays.asList(ordered);
+    }
+
+    public int size() {
+        return idToNode.size();
+    }
+
+    /**
+     * @return number of deleted or replaced nodes still occupying the graph
+     */
+    public int getDeletedCount() {
+        return deletedCount.get();
+    }
+
+    public int getDimension() {
+        return dimension.get();
+    }
+
+    public DistanceMetric getMetric() {
+        return metric;
+    }
+
+    // === Graph Construction ===
+
+    private int greedyClosest(float[] query, int start, float startDistance, int level) {
+        int current = start;
+        float currentDistance = startDistance;
+        int[] buffer = new int[maxM0];
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Node node = node(current);
+            int count = node.copyNeighbors(level, buffer);
+            for (int i = 0; i < count; i++) {
+                int candidate = buffer[i];
+                float d = metric.distance(query, node(candidate).vector);
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = candidate;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Beam search on one layer. Returns a max-heap of the ef closest nodes found.
+     * With {@code skipDeleted}, deleted nodes are traversed but not collected; so are nodes whose
+     * id the filter rejects.
+     */
+    private NodeHeap searchLayer(float[] query, int entry, float entryDistance, int ef, int level, boolean skipDeleted,
+                                 Predicate<String> filter) {
+        VisitedSet seen = visitedPool.poll();
+        if (seen == null) {
+            seen = new VisitedSet();
+        }
+        try {
+            return searchLayer(query, entry, entryDistance, ef, level, skipDeleted, filter, seen);
+        } finally {
+            visitedPool.offer(seen);
+        }
+    }
+
+    private NodeHeap searchLayer(float[] query, int entry, float entryDistance, int ef, int level, boolean skipDeleted,
+                                 Predicate<String> filter, VisitedSet seen) {
+        seen.reset(nodeCount.get());
+        NodeHeap candidates = NodeHeap.min(ef * 2);
+        NodeHeap results = NodeHeap.max(ef + 1);
+        int[] buffer = new int[maxM0];
+
+        seen.visit(entry);
+        candidates.push(entry, entryDistance);
+        if (collects(node(entry), skipDeleted, filter)) {
+            results.push(entry, entryDistance);
+        }
+
+        while (!candidates.isEmpty()) {
+            float closest = candidates.peekDistance();
+            if (results.size() >= ef && closest > results.peekDistance()) {
+                break;
+            }
+            Node node = node(candidates.pop());
+            int count = node.copyNeighbors(level, buffer);
+            for (int i = 0; i < count; i++) {
+                int neighbor = buffer[i];
+                if (!seen.visit(neighbor)) {
+                    continue;
+                }
+                Node candidate = node(neighbor);
+                float d = metric.distance(query, candidate.vector);
+                if (results.size() < ef || d < results.peekDistance()) {
+                    candidates.push(neighbor, d);
+                    if (collects(candidate, skipDeleted, filter)) {
+                        results.push(neighbor, d);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private static boolean collects(Node node, boolean skipDeleted, Predicate<String> filter) {
+        return !(skipDeleted && node.deleted) && (filter == null || filter.test(node.id));
+    }
+
+    /**
+     * Neighbour selection heuristic (Malkov &amp; Yashunin, algorithm 4): keep a candidate only if
+     * it is closer to the base than to any neighbour already kept, which preserves links across
+     * clusters instead of spending the whole budget on one dense region.
+     */
+    private int[] selectNeighbors(NodeHeap candidates, int limit, int exclude) {
+        int n = candidates.size();
+        int[] ids = new int[n];
+        float[] distances = new float[n];
+        for (int i = n - 1; i >= 0; i--) {
+            distances[i] = candidates.peekDistance();
+            ids[i] = candidates.pop();
+        }
+        // ids are now sorted by increasing distance; rebuild the heap for the caller
+        for (int i = 0; i < n; i++) {
+            candidates.push(ids[i], distances[i]);
+        }
+        return selectFromSorted(ids, distances, n, limit, exclude);
+    }
+
+    private int[] selectFromSorted(int[] ids, float[] distances, int n, int limit, int exclude) {
+        int[] selected = new int[Math.min(limit, n)];
+        int count = 0;
+        for (int i = 0; i < n && count < selected.length; i++) {
+            if (ids[i] == exclude) {
+                continue;
+            }
+            float[] candidate = node(ids[i]).vector;
+            boolean keep = true;
+            for (int j = 0; j < count; j++) {
+                if (metric.distance(candidate, node(selected[j]).vector) < distances[i]) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[count++] = ids[i];
+            }
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    private void connect(int from, int to, int level) {
+        Node node = node(from);
+        int limit = level == 0 ? maxM0 : m;
+        synchronized (node) {
+            if (node.tryAppend(level, to, limit)) {
+                return;
+            }
+            // full: re-select among the existing neighbours plus the new one
+            int[] current = node.neighbors[level];
+            int n = node.counts[level];
+            Integer[] order = new Integer[n + 1];
+            float[] byNode = new float[n + 1];
+            int[] ids = Arrays.copyOf(current, n + 1);
+            ids[n] = to;
+            for (int i = 0; i <= n; i++) {
+                order[i] = i;
+                byNode[i] = metric.distance(node.vector, node(ids[i]).vector);
+            }
+            Arrays.sort(order, (a, b) -> Float.compare(byNode[a], byNode[b]));
+            int[] sortedIds = new int[n + 1];
+            float[] sortedDistances = new float[n + 1];
+            for (int i = 0; i <= n; i++) {
+                sortedIds[i] = ids[order[i]];
+                sortedDistances[i] = byNode[order[i]];
+            }
+            node.replaceNeighbors(level, selectFromSorted(sortedIds, sortedDistances, n + 1, limit, from));
+        }
+    }
+
+    private int randomLevel() {
+        double r = ThreadLocalRandom.current().nextDouble();
+        return Math.min((int) (-Math.log(1.0 - r) * levelMultiplier), MAX_LEVEL);
+    }
+
+    private void publish(String id, int idx) {
+        Integer previous = idToNode.put(id, idx);
+        if (previous != null) {
+            node(previous).deleted = true;
+            deletedCount.incrementAndGet();
+        }
+    }
+
+    private void checkDimension(float[] vector) {
+        int expected = dimension.get();
+        if (expected <= 0 && dimension.compareAndSet(expected, vector.length)) {
+            return;
+        }
+        if (vector.length != dimension.get()) {
+            throw new IllegalArgumentException(String.format(
+                    "Vector dimension %d does not match index dimension %d", vector.length, dimension.get()));
+        }
+    }
+
+    // === Node Storage ===
+
+    private Node node(int idx) {
+        return chunks[idx >>> CHUNK_BITS][idx & CHUNK_MASK];
+    }
+
+    private void setNode(int idx, Node node) {
+        int chunk = idx >>> CHUNK_BITS;
+        Node[][] table = chunks;
+        if (chunk >= table.length || table[chunk] == null) {
+            growLock.lock();
+            try {
+                table = chunks;
+                if (chunk >= table.length) {
+                    table = Arrays.copyOf(table, Math.max(table.length * 2, chunk + 1));
+                }
+                for (int c = 0; c <= chunk; c++) {
+                    if (table[c] == null) {
+                        table[c] = new Node[CHUNK_SIZE];
+                    }
+                }
+                chunks = table;
+            } finally {
+                growLock.unlock();
+            }
+        }
+        // published to readers through the neighbour-list monitors and the volatile entry point
+        table[chunk][idx & CHUNK_MASK] = node;
+    }
+
+    static final class Node {
+        final String id;
+        final float[] vector;
+        final int[][] neighbors;
+        final int[] counts;
+        volatile boolean deleted;
+
+        Node(String id, float[] vector, int level, int m, int maxM0) {
+            this.id = id;
+            this.vector = vector;
+            this.neighbors = new int[level + 1][];
+            this.counts = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                neighbors[l] = new int[l == 0 ? maxM0 : m];
+            }
+        }
+
+        synchronized int copyNeighbors(int level, int[] target) {
+            if (level >= neighbors.length) {
+                return 0;
+            }
+            int n = counts[level];
+            System.arraycopy(neighbors[level], 0, target, 0, n);
+            return n;
+        }
+
+        synchronized void setNeighbors(int level, int[] ids) {
+            System.arraycopy(ids, 0, neighbors[level], 0, ids.length);
+            counts[level] = ids.length;
+        }
+
+        // caller holds the monitor
+        boolean tryAppend(int level, int id, int limit) {
+            int n = counts[level];
+            if (n >= limit) {
+                return false;
+            }
+            neighbors[level][n] = id;
+            counts[level] = n + 1;
+            return true;
+        }
+
+        // caller holds the monitor
+        void replaceNeighbors(int level, int[] ids) {
+            System.arraycopy(ids, 0, neighbors[level], 0, ids.length);
+            counts[level] = ids.length;
+        }
+    }
+
+    /**
+     * Generation-stamped visited marks, reused across searches so a search does not allocate
+     * or clear an array proportional to the index size.
+     */
+    private static final class VisitedSet {
+        private int[] marks = new int[CHUNK_SIZE];
+        private int generation;
+
+        void reset(int capacity) {
+            if (capacity > marks.length) {
+                marks = new int[Math.max(capacity, marks.length * 2)];
+                generation = 0;
+            }
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * @return true if the node had not been visited yet
+         */
+        boolean visit(int node) {
+            if (node >= marks.length) {
+                marks = Arrays.copyOf(marks, Math.max(node + 1, marks.length * 2));
+            }
+            if (marks[node] == generation) {
+                return false;
+            }
+            marks[node] = generation;
+            return true;
+        }
+    }
+
+    public static class Builder {
+        private int dimension = 0;  // inferred from the first vector if not specified
+        private DistanceMetric metric = DistanceMetric.L2;
+        private int m = 16;
+        private int efConstruction = 200;
+        private int efSearch = 64;
+
+        public Builder dimension(int dimension) {
+            this.dimension = dimension;
+            return this;
+        }
+
+        public Builder metric(DistanceMetric metric) {
+            this.metric = metric;
+            return this;
+        }
+
+        public Builder m(int m) {
+            this.m = m;
+            return this;
+        }
+
+        public Builder efConstruction(int efConstruction) {
+            this.efConstruction = efConstruction;
+            return this;
+        }
+
+        public Builder efSearch(int efSearch) {
+            this.efSearch = efSearch;
+            return this;
+        }
+
+        public HnswIndex build() {
+            if (m < 2) {
+                throw new IllegalArgumentException("M must be at least 2");
+            }
+            if (efConstruction <= 0 || efSearch <= 0) {
+                throw new IllegalArgumentException("ef values must be positive");
+            }
+            if (metric == null) {
+                throw new IllegalArgumentException("Metric cannot be null");
+            }
+            return new HnswIndex(this);
+        }
+    }
+}
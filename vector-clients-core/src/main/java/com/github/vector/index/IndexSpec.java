@@ -0,0 +1,77 @@
+package com.github.vector.index;
+
+/**
+ * Approximate index to build for a collection, passed to
+ * {@link com.github.vector.client.Client#createCollection(String, int, com.github.vector.util.DistanceMetric, IndexSpec)}.
+ *
+ * <p>HNSW takes {@code m} (links per node) and {@code efConstruction} (candidate list size while
+ * building). IVFFlat takes the number of {@code lists}; it clusters the rows present when the
+ * index is built, so it should be created after loading data. {@link #none()} means exact scans.
+ */
+public final class IndexSpec {
+    public static final int DEFAULT_M = 16;
+    public static final int DEFAULT_EF_CONSTRUCTION = 64;
+
+    public enum Type { NONE, HNSW, IVFFLAT }
+
+    private static final IndexSpec NONE = new IndexSpec(Type.NONE, 0, 0, 0);
+
+    private final Type type;
+    private final int m;
+    private final int efConstruction;
+    private final int lists;
+
+    private IndexSpec(Type type, int m, int efConstruction, int lists) {
+        this.type = type;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.lists = lists;
+    }
+
+    public static IndexSpec none() {
+        return NONE;
+    }
+
+    public static IndexSpec hnsw() {
+        return hnsw(DEFAULT_M, DEFAULT_EF_CONSTRUCTION);
+    }
+
+    public static IndexSpec hnsw(int m, int efConstruction) {
+        if (m < 2 || efConstruction < 2 * m) {
+            throw new IllegalArgumentException("HNSW needs m >= 2 and efConstruction >= 2 * m");
+        }
+        return new IndexSpec(Type.HNSW, m, efConstruction, 0);
+    }
+
+    public static IndexSpec ivfFlat(int lists) {
+        if (lists <= 0) {
+            throw new IllegalArgumentException("IVFFlat lists must be positive");
+        }
+        return new IndexSpec(Type.IVFFLAT, 0, 0, lists);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getM() {
+        return m;
+    }
+
+    public int getEfConstruction() {
+        return efConstruction;
+    }
+
+    public int getLists() {
+        return lists;
+    }
+
+    @Override
+    public String toString() {
+        return switch (type) {
+            case NONE -> "none";
+            case HNSW -> "hnsw(m=" + m + ", ef_construction=" + efConstruction + ")";
+            case IVFFLAT -> "ivfflat(lists=" + lists + ")";
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.vector.index;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of (node, distance) pairs backed by primitive arrays, so graph traversal
+ * does not allocate per visited node. Ordered as a min-heap or max-heap on distance.
+ */
+final class NodeHeap {
+    private final boolean maxHeap;
+    private int[] nodes;
+    private float[] distances;
+    private int size;
+
+    NodeHeap(int initialCapacity, boolean maxHeap) {
+        this.maxHeap = maxHeap;
+        this.nodes = new int[Math.max(initialCapacity, 4)];
+        this.distances = new float[nodes.length];
+    }
+
+    static NodeHeap min(int initialCapacity) {
+        return new NodeHeap(initialCapacity, false);
+    }
+
+    static NodeHeap max(int initialCapacity) {
+        return new NodeHeap(initialCapacity, true);
+    }
+
+    void push(int node, float distance) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            distances = Arrays.copyOf(distances, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(distance, distances[parent])) {
+                break;
+            }
+            nodes[i] = nodes[parent];
+            distances[i] = distances[parent];
+            i = parent;
+        }
+        nodes[i] = node;
+        distances[i] = distance;
+    }
+
+    int pop() {
+        int top = nodes[0];
+        int lastNode = nodes[--size];
+        float lastDistance = distances[size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && before(distances[right], distances[child])) {
+                child = right;
+            }
+            if (!before(distances[child], lastDistance)) {
+                break;
+            }
+            nodes[i] = nodes[child];
+            distances[i] = distances[child];
+            i = child;
+        }
+        nodes[i] = lastNode;
+        distances[i] = lastDistance;
+        return top;
+    }
+
+    int peekNode() {
+        return nodes[0];
+    }
+
+    float peekDistance() {
+        return distances[0];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    private boolean before(float a, float b) {
+        return maxHeap ? a > b : a < b;
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.vector.index;
+
+public class SearchResult {
+    private final String id;
+    private final float distance;
+
+    public SearchResult(final String id, final float distance) {
+        this.id = id;
+        this.distance = distance;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public float getDistance() {
+        return distance;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResult{" +
+                "id='" + id + '\'' +
+                ", distance=" + distance +
+                '}';
+    }
+}
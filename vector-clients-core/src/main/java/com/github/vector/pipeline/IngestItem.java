@@ -0,0 +1,46 @@
+package com.github.vector.pipeline;
+
+import com.github.vector.data.Metadata;
+import com.github.vector.data.Text;
+
+/**
+ * One document for {@link IngestPipeline}: the text to embed, its metadata, and optionally the
+ * id and collection to store it under. A null id lets the client assign one; a null collection
+ * falls back to the pipeline's default.
+ */
+public class IngestItem {
+    private final String id;
+    private final Text text;
+    private final Metadata metadata;
+    private final String collection;
+
+    public IngestItem(final Text text, final Metadata metadata) {
+        this(null, text, metadata, null);
+    }
+
+    public IngestItem(final String id, final Text text, final Metadata metadata, final String collection) {
+        if (text == null) {
+            throw new IllegalArgumentException("Text cannot be null");
+        }
+        this.id = id;
+        this.text = text;
+        this.metadata = metadata;
+        this.collection = collection;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Text getText() {
+        return text;
+    }
+
+    public Metadata getMetadata() {
+        return metadata;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+}
@@ -0,0 +1,405 @@
+package com.github.vector.pipeline;
+
+import com.github.vector.client.Client;
+import com.github.vector.data.Embedding;
+import com.github.vector.embedding.EmbeddingModel;
+import com.github.vector.embedding.EmbeddingRequest;
+import com.github.vector.embedding.EmbeddingResponse;
+import com.github.vector.exception.VectorClientException;
+import com.github.vector.util.VectorUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Streams documents through {@link EmbeddingModel#embedBatch} into {@link Client#batchStore}.
+ *
+ * <p>Items are grouped into batches of {@code batchSize}. Each batch is embedded and then
+ * stored, and up to {@code maxInFlightBatches} batches are somewhere between those two steps at
+ * once, so embedding the next batches overlaps with writing the previous ones. Writes run on
+ * virtual threads, at most {@code maxConcurrentWrites} at a time. When all in-flight slots are
+ * taken the source is not read further: a {@link Stream} is pulled on the calling thread, which
+ * blocks, and a {@link Flow.Publisher} is simply not asked for more items. Memory is therefore
+ * bounded by {@code maxInFlightBatches * batchSize} items.
+ *
+ * <p>The first failure stops reading from the source; batches already in flight are allowed to
+ * finish, and the run then fails with that error.
+ */
+public class IngestPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(IngestPipeline.class);
+
+    private final EmbeddingModel model;
+    private final Client client;
+    private final String collection;
+    private final int batchSize;
+    private final int maxInFlightBatches;
+    private final int maxConcurrentWrites;
+
+    private IngestPipeline(Builder builder) {
+        this.model = builder.model;
+        this.client = builder.client;
+        this.collection = builder.collection;
+        this.batchSize = builder.batchSize > 0 ? builder.batchSize : Math.max(1, model.getMaxBatchSize());
+        this.maxInFlightBatches = builder.maxInFlightBatches;
+        this.maxConcurrentWrites = builder.maxConcurrentWrites;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Ingest every item of the stream, blocking until all of them are stored.
+     */
+    public IngestResult ingest(Stream<IngestItem> items) throws VectorClientException {
+        Run run = new Run();
+        try {
+            Iterator<IngestItem> it = items.iterator();
+            List<IngestItem> batch = new ArrayList<>(batchSize);
+            while (it.hasNext() && run.failure.get() == null) {
+                batch.add(it.next());
+                if (batch.size() == batchSize) {
+                    run.inFlight.acquire();
+                    run.submit(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty() && run.failure.get() == null) {
+                run.inFlight.acquire();
+                run.submit(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.fail(e);
+        } catch (RuntimeException e) {
+            run.fail(e);
+        } finally {
+            run.sourceDone();
+        }
+
+        try {
+            return run.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof VectorClientException cause) {
+                throw cause;
+            }
+            throw new VectorClientException("Ingest failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    /**
+     * Subscribe to the publisher and ingest everything it emits. The returned future completes
+     * once the publisher has completed and every item is stored. Cancelling it cancels the
+     * subscription; batches already in flight are still stored.
+     */
+    public CompletableFuture<IngestResult> ingest(Flow.Publisher<IngestItem> publisher) {
+        Run run = new Run();
+        BatchingSubscriber subscriber = new BatchingSubscriber(run);
+        run.result.whenComplete((done, error) -> {
+            if (error instanceof CancellationException) {
+                subscriber.cancel(error);
+            }
+        });
+        publisher.subscribe(subscriber);
+        return run.result;
+    }
+
+    /**
+     * State of one ingest call. {@code outstanding} counts in-flight batches plus one for the
+     * source; the result completes when it drops to zero.
+     */
+    private final class Run {
+        final Semaphore inFlight = new Semaphore(maxInFlightBatches);
+        final Semaphore writes = new Semaphore(maxConcurrentWrites);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final AtomicInteger outstanding = new AtomicInteger(1);
+        final CompletableFuture<IngestResult> result = new CompletableFuture<>();
+        final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+        final LongAdder items = new LongAdder();
+        final LongAdder batches = new LongAdder();
+        final long startNanos = System.nanoTime();
+        volatile Runnable onSlotFreed = () -> { };
+
+        /** Caller holds one {@code inFlight} permit, which is released once the batch is stored. */
+        void submit(List<IngestItem> batch) {
+            outstanding.incrementAndGet();
+            List<EmbeddingRequest> requests = new ArrayList<>(batch.size());
+            for (IngestItem item : batch) {
+                requests.add(EmbeddingRequest.builder()
+                        .text(item.getText())
+                        .requestId(item.getId())
+                        .metadata(item.getMetadata())
+                        .collection(collectionOf(item))
+                        .build());
+            }
+
+            CompletableFuture<List<EmbeddingResponse>> embedded;
+            try {
+                embedded = model.embedBatch(requests);
+            } catch (RuntimeException e) {
+                embedded = CompletableFuture.failedFuture(e);
+            }
+            embedded.whenComplete((responses, error) -> {
+                if (error != null) {
+                    fail(error);
+                    finish();
+                    return;
+                }
+                writers.execute(() -> store(batch, responses));
+            });
+        }
+
+        private void store(List<IngestItem> batch, List<EmbeddingResponse> responses) {
+            try {
+                if (responses == null || responses.size() != batch.size()) {
+                    throw new VectorClientException("Model " + model.getModelName() + " returned "
+                            + (responses == null ? 0 : responses.size()) + " embeddings for " + batch.size() + " texts");
+                }
+                List<Embedding> embeddings = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    IngestItem item = batch.get(i);
+                    embeddings.add(new Embedding(item.getId(), VectorUtil.toArray(responses.get(i).getEmbedding()),
+                            item.getText(), item.getMetadata(), collectionOf(item)));
+                }
+                writes.acquire();
+                try {
+                    client.batchStore(embeddings);
+                } finally {
+                    writes.release();
+                }
+                items.add(batch.size());
+                batches.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            } catch (VectorClientException | RuntimeException e) {
+                fail(e);
+            } finally {
+                finish();
+            }
+        }
+
+        void fail(Throwable error) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (failure.compareAndSet(null, cause)) {
+                logger.warn("Ingest failed after {} items: {}", items.sum(), cause.toString());
+            }
+        }
+
+        void sourceDone() {
+            release();
+        }
+
+        private void finish() {
+            inFlight.release();
+            onSlotFreed.run();
+            release();
+        }
+
+        private void release() {
+            if (outstanding.decrementAndGet() != 0) {
+                return;
+            }
+            writers.shutdown();
+            Throwable error = failure.get();
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            IngestResult done = new IngestResult(items.sum(), batches.sum(), Duration.ofNanos(System.nanoTime() - startNanos));
+            logger.info("Ingested {} items in {} batches ({} items/s)", done.getItemCount(), done.getBatchCount(),
+                    String.format("%.0f", done.getItemsPerSecond()));
+            result.complete(done);
+        }
+    }
+
+    /**
+     * Requests one batch worth of items at a time, and only while an in-flight slot is free. A
+     * full batch that finds no free slot is parked until a running batch finishes.
+     */
+    private final class BatchingSubscriber implements Flow.Subscriber<IngestItem> {
+        private final Run run;
+        private Flow.Subscription subscription;
+        private List<IngestItem> batch = new ArrayList<>(batchSize);
+        private List<IngestItem> parked;
+        private boolean sourceComplete;
+        private boolean finished;
+
+        BatchingSubscriber(Run run) {
+            this.run = run;
+            run.onSlotFreed = this::slotFreed;
+        }
+
+        @Override
+        public synchronized void onSubscribe(Flow.Subscription subscription) {
+            if (this.subscription != null || finished) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+            subscription.request(batchSize);
+        }
+
+        @Override
+        public synchronized void onNext(IngestItem item) {
+            if (finished) {
+                return;
+            }
+            if (run.failure.get() != null) {
+                stop();
+                return;
+            }
+            batch.add(item);
+            if (batch.size() == batchSize) {
+                List<IngestItem> full = batch;
+                batch = new ArrayList<>(batchSize);
+                if (run.inFlight.tryAcquire()) {
+                    run.submit(full);
+                    subscription.request(batchSize);
+                } else {
+                    parked = full;
+                }
+            }
+        }
+
+        @Override
+        public synchronized void onError(Throwable throwable) {
+            run.fail(throwable);
+            finishSource();
+        }
+
+        @Override
+        public synchronized void onComplete() {
+            sourceComplete = true;
+            if (!batch.isEmpty()) {
+                if (parked == null && run.inFlight.tryAcquire()) {
+                    run.submit(batch);
+                } else if (parked == null) {
+                    parked = batch;
+                } else {
+                    // wait for the parked batch first; slotFreed submits the remainder afterwards
+                    return;
+                }
+                batch = new ArrayList<>(0);
+            }
+            if (parked == null) {
+                finishSource();
+            }
+        }
+
+        private synchronized void slotFreed() {
+            if (finished) {
+                return;
+            }
+            if (run.failure.get() != null) {
+                stop();
+                return;
+            }
+            if (parked != null && run.inFlight.tryAcquire()) {
+                run.submit(parked);
+                parked = null;
+                if (!sourceComplete) {
+                    subscription.request(batchSize);
+                } else if (!batch.isEmpty()) {
+                    onComplete();
+                } else {
+                    finishSource();
+                }
+            }
+        }
+
+        synchronized void cancel(Throwable reason) {
+            run.fail(reason);
+            stop();
+        }
+
+        private void stop() {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            finishSource();
+        }
+
+        private void finishSource() {
+            if (!finished) {
+                finished = true;
+                run.sourceDone();
+            }
+        }
+    }
+
+    private String collectionOf(IngestItem item) {
+        return item.getCollection() != null ? item.getCollection() : collection;
+    }
+
+    public static class Builder {
+        private EmbeddingModel model;
+        private Client client;
+        private String collection;
+        private int batchSize = -1;
+        private int maxInFlightBatches = 4;
+        private int maxConcurrentWrites = 2;
+
+        public Builder model(EmbeddingModel model) {
+            this.model = model;
+            return this;
+        }
+
+        public Builder client(Client client) {
+            this.client = client;
+            return this;
+        }
+
+        /** Collection for items that do not name one. */
+        public Builder collection(String collection) {
+            this.collection = collection;
+            return this;
+        }
+
+        /** Items per embedBatch/batchStore call. Defaults to the model's {@code getMaxBatchSize()}. */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /** Batches read from the source but not yet stored. Defaults to 4. */
+        public Builder maxInFlightBatches(int maxInFlightBatches) {
+            this.maxInFlightBatches = maxInFlightBatches;
+            return this;
+        }
+
+        /** Concurrent batchStore calls. Defaults to 2. */
+        public Builder maxConcurrentWrites(int maxConcurrentWrites) {
+            this.maxConcurrentWrites = maxConcurrentWrites;
+            return this;
+        }
+
+        public IngestPipeline build() {
+            if (model == null || client == null) {
+                throw new IllegalArgumentException("Model and client are required");
+            }
+            if (maxInFlightBatches <= 0 || maxConcurrentWrites <= 0) {
+                throw new IllegalArgumentException("Concurrency limits must be positive");
+            }
+            if (batchSize > model.getMaxBatchSize() && model.getMaxBatchSize() > 0) {
+                throw new IllegalArgumentException("batchSize exceeds the model limit of " + model.getMaxBatchSize());
+            }
+            return new IngestPipeline(this);
+        }
+    }
+}
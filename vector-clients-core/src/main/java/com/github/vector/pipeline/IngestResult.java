@@ -0,0 +1,44 @@
+package com.github.vector.pipeline;
+
+import java.time.Duration;
+
+/**
+ * Totals of a completed {@link IngestPipeline} run.
+ */
+public class IngestResult {
+    private final long itemCount;
+    private final long batchCount;
+    private final Duration elapsed;
+
+    IngestResult(final long itemCount, final long batchCount, final Duration elapsed) {
+        this.itemCount = itemCount;
+        this.batchCount = batchCount;
+        this.elapsed = elapsed;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public double getItemsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0.0 : itemCount * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestResult{" +
+                "itemCount=" + itemCount +
+                ", batchCount=" + batchCount +
+                ", elapsed=" + elapsed +
+                '}';
+    }
+}
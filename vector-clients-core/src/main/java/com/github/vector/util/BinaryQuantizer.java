@@ -0,0 +1,67 @@
+package com.github.vector.util;
+
+/**
+ * 1-bit sign quantization: bit {@code i} is set when dimension {@code i} is positive, packed 64
+ * dimensions per long (a 32x reduction from float32). Similarity is measured by Hamming distance,
+ * which for roughly centered embeddings tracks angular distance closely enough to preselect
+ * candidates for an exact rerank.
+ */
+public final class BinaryQuantizer {
+
+    private BinaryQuantizer() {}
+
+    public static long[] encode(float[] vector) {
+        long[] bits = new long[words(vector.length)];
+        for (int i = 0; i < vector.length; i++) {
+            if (vector[i] > 0.0f) {
+                bits[i >>> 6] |= 1L << (i & 63);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Decode to +1/-1 per dimension; useful for estimating dot products against float queries.
+     */
+    public static float[] decode(long[] bits, int dimension) {
+        checkWords(bits.length, dimension);
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (bits[i >>> 6] >>> (i & 63) & 1L) != 0 ? 1.0f : -1.0f;
+        }
+        return vector;
+    }
+
+    public static int hammingDistance(long[] a, long[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Code lengths differ: " + a.length + " vs " + b.length);
+        }
+        int distance = 0;
+        for (int i = 0; i < a.length; i++) {
+            distance += Long.bitCount(a[i] ^ b[i]);
+        }
+        return distance;
+    }
+
+    /**
+     * Text form accepted by pgvector's {@code bit(n)} type, dimension 0 first.
+     */
+    public static String toBitString(long[] bits, int dimension) {
+        checkWords(bits.length, dimension);
+        StringBuilder sb = new StringBuilder(dimension);
+        for (int i = 0; i < dimension; i++) {
+            sb.append((bits[i >>> 6] >>> (i & 63) & 1L) != 0 ? '1' : '0');
+        }
+        return sb.toString();
+    }
+
+    public static int words(int dimension) {
+        return (dimension + 63) >>> 6;
+    }
+
+    private static void checkWords(int words, int dimension) {
+        if (words != words(dimension)) {
+            throw new IllegalArgumentException(words + " words cannot hold " + dimension + " dimensions");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.vector.util;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Source of the float buffers that hold embeddings and PCA matrices.
+ *
+ * <p>{@link #heap()} is the default and behaves like {@code FloatBuffer.allocate}. An
+ * {@link OffHeapArena} places buffers in native memory so large batches are not scanned or
+ * copied by the garbage collector, and can be handed to channels without an extra copy; its
+ * memory is freed when the arena is closed, eagerly for the buffers given back to it.
+ */
+public interface BufferAllocator extends AutoCloseable {
+
+    /**
+     * Allocate a zeroed buffer of {@code count} floats with position 0 and limit {@code count}.
+     */
+    FloatBuffer allocateFloats(int count);
+
+    /**
+     * @return true when buffers from this allocator live outside the Java heap
+     */
+    boolean isDirect();
+
+    /**
+     * @return bytes currently reserved by this allocator
+     */
+    long allocatedBytes();
+
+    /**
+     * Release the memory behind the buffers handed out, as far as it is safe to; see
+     * {@link OffHeapArena}. Heap allocators leave that to the garbage collector.
+     */
+    @Override
+    void close();
+
+    static BufferAllocator heap() {
+        return HeapBufferAllocator.INSTANCE;
+    }
+}
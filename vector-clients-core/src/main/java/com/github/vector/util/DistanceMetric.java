@@ -0,0 +1,34 @@
+package com.github.vector.util;
+
+/**
+ * Distance functions shared by in-memory indexes and database clients.
+ * Every metric is expressed as a distance: smaller means more similar.
+ */
+public enum DistanceMetric {
+    L2 {
+        @Override
+        public float distance(float[] a, float[] b) {
+            return VectorUtil.l2Distance(a, b);
+        }
+    },
+    COSINE {
+        @Override
+        public float distance(float[] a, float[] b) {
+            return VectorUtil.cosineDistance(a, b);
+        }
+    },
+    INNER_PRODUCT {
+        @Override
+        public float distance(float[] a, float[] b) {
+            return -VectorUtil.dotProduct(a, b);
+        }
+    },
+    L1 {
+        @Override
+        public float distance(float[] a, float[] b) {
+            return VectorUtil.l1Distance(a, b);
+        }
+    };
+
+    public abstract float distance(float[] a, float[] b);
+}
@@ -0,0 +1,31 @@
+package com.github.vector.util;
+
+import java.nio.FloatBuffer;
+
+/**
+ * {@link BufferAllocator} backed by ordinary heap arrays. Stateless; closing it is a no-op.
+ */
+final class HeapBufferAllocator implements BufferAllocator {
+    static final HeapBufferAllocator INSTANCE = new HeapBufferAllocator();
+
+    private HeapBufferAllocator() {}
+
+    @Override
+    public FloatBuffer allocateFloats(int count) {
+        return FloatBuffer.allocate(count);
+    }
+
+    @Override
+    public boolean isDirect() {
+        return false;
+    }
+
+    @Override
+    public long allocatedBytes() {
+        return 0L;
+    }
+
+    @Override
+    public void close() {
+    }
+}
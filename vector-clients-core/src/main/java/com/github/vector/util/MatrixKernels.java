@@ -0,0 +1,167 @@
+package com.github.vector.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+
+/**
+ * Cache-blocked, row-parallel dense kernels over row-major float arrays.
+ * Work is split into independent output tiles, so tasks never write to shared memory.
+ */
+final class MatrixKernels {
+    // Covariance tile: BLOCK_I rows of output, BLOCK_J columns, accumulated in L1/L2
+    private static final int BLOCK_I = 32;
+    private static final int BLOCK_J = 256;
+    // Rows of input accumulated in float before the tile is folded into double precision
+    private static final int BLOCK_K = 1024;
+    private static final int ROWS_PER_TASK = 64;
+    // Below this many multiply-adds a task hand-off costs more than it saves
+    private static final long PARALLEL_THRESHOLD = 1L << 20;
+
+    private MatrixKernels() {}
+
+    /**
+     * out = scale * xᵀx for x (n×d). Only the upper triangle is computed; it is mirrored into
+     * the lower one.
+     */
+    static void covariance(float[] x, int n, int d, float scale, float[] out, Executor executor) {
+        List<int[]> tiles = new ArrayList<>();
+        for (int i0 = 0; i0 < d; i0 += BLOCK_I) {
+            for (int j0 = (i0 / BLOCK_J) * BLOCK_J; j0 < d; j0 += BLOCK_J) {
+                tiles.add(new int[]{i0, j0});
+            }
+        }
+        long work = (long) n * d * d / 2;
+        parallelFor(tiles.size(), work, t -> covarianceTile(x, n, d, scale, out, tiles.get(t)[0], tiles.get(t)[1]), executor);
+    }
+
+    private static void covarianceTile(float[] x, int n, int d, float scale, float[] out, int i0, int j0) {
+        int i1 = Math.min(i0 + BLOCK_I, d);
+        int j1 = Math.min(j0 + BLOCK_J, d);
+        int width = j1 - j0;
+        float[] partial = new float[BLOCK_I * width];
+        double[] total = new double[BLOCK_I * width];
+
+        for (int k0 = 0; k0 < n; k0 += BLOCK_K) {
+            int k1 = Math.min(k0 + BLOCK_K, n);
+            for (int k = k0; k < k1; k++) {
+                int row = k * d;
+                for (int i = i0; i < i1; i++) {
+                    float xi = x[row + i];
+                    if (xi == 0.0f) {
+                        continue;
+                    }
+                    int base = (i - i0) * width - j0;
+                    for (int j = Math.max(j0, i); j < j1; j++) {
+                        partial[base + j] += xi * x[row + j];
+                    }
+                }
+            }
+            for (int p = 0; p < partial.length; p++) {
+                total[p] += partial[p];
+                partial[p] = 0.0f;
+            }
+        }
+
+        for (int i = i0; i < i1; i++) {
+            int base = (i - i0) * width - j0;
+            for (int j = Math.max(j0, i); j < j1; j++) {
+                float value = (float) (total[base + j] * scale);
+                out[i * d + j] = value;
+                out[j * d + i] = value;
+            }
+        }
+    }
+
+    /**
+     * out = a·b for a (m×k) and b (k×n). Loop order i-l-j keeps both b and out streaming
+     * contiguously so the inner loop vectorizes.
+     */
+    static void multiply(float[] a, float[] b, float[] out, int m, int k, int n, Executor executor) {
+        int tasks = (m + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+        parallelFor(tasks, (long) m * k * n, t -> {
+            int r0 = t * ROWS_PER_TASK;
+            int r1 = Math.min(r0 + ROWS_PER_TASK, m);
+            for (int i = r0; i < r1; i++) {
+                int outRow = i * n;
+                Arrays.fill(out, outRow, outRow + n, 0.0f);
+                for (int l = 0; l < k; l++) {
+                    float ail = a[i * k + l];
+                    if (ail == 0.0f) {
+                        continue;
+                    }
+                    int bRow = l * n;
+                    for (int j = 0; j < n; j++) {
+                        out[outRow + j] += ail * b[bRow + j];
+                    }
+                }
+            }
+        }, executor);
+    }
+
+    /**
+     * out = a·bᵀ for a (m×k) and b (n×k): every output is a dot product of two contiguous
+     * rows, computed with the {@link VectorUtil} kernels.
+     */
+    static void multiplyTransposed(float[] a, float[] b, float[] out, int m, int k, int n, Executor executor) {
+        VectorKernels kernels = VectorUtil.getKernels();
+        int tasks = (m + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+        parallelFor(tasks, (long) m * k * n, t -> {
+            int r0 = t * ROWS_PER_TASK;
+            int r1 = Math.min(r0 + ROWS_PER_TASK, m);
+            for (int i = r0; i < r1; i++) {
+                for (int j = 0; j < n; j++) {
+                    out[i * n + j] = kernels.dotProduct(a, i * k, b, j * k, k);
+                }
+            }
+        }, executor);
+    }
+
+    /**
+     * out[i·k + j] = (x[i]·c[j] − shift[j]) · scale[j] for {@code rows} rows of x (×d) starting
+     * at {@code xOffset} and c (k×d). With shift = mean·cᵀ this is the centered projection
+     * (x − mean)·cᵀ without materializing the centered rows. A null scale means 1.
+     */
+    static void projectRows(float[] x, int xOffset, int rows, int d, float[] c, int k,
+                            float[] shift, float[] scale, float[] out, int outOffset) {
+        VectorKernels kernels = VectorUtil.getKernels();
+        for (int i = 0; i < rows; i++) {
+            int row = xOffset + i * d;
+            int target = outOffset + i * k;
+            for (int j = 0; j < k; j++) {
+                float value = kernels.dotProduct(x, row, c, j * d, d) - shift[j];
+                out[target + j] = scale == null ? value : value * scale[j];
+            }
+        }
+    }
+
+    /**
+     * Run body(0..count-1) on the executor and wait for all of them. Runs inline when there is
+     * a single task, no executor, or too little work to amortize the hand-off.
+     */
+    static void parallelFor(int count, long work, IntConsumer body, Executor executor) {
+        if (count <= 1 || executor == null || work < PARALLEL_THRESHOLD) {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+            return;
+        }
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[count];
+        for (int i = 0; i < count; i++) {
+            int task = i;
+            futures[i] = CompletableFuture.runAsync(() -> body.accept(task), executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.github.vector.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arena of direct buffers with an explicit lifetime. Small requests are carved out of shared
+ * slabs and large ones get a dedicated buffer.
+ *
+ * <p>Ownership: a buffer handed out belongs to the caller until it is passed back to
+ * {@link #release}, which promises that neither it nor any duplicate, slice or view of it is
+ * used again. {@link #close()} frees a slab or dedicated buffer at once when every buffer
+ * carved from it has been released; the rest stay valid and are freed by the collector once
+ * unreachable, or at once when their last buffer is released after the close. Freeing memory
+ * still in use would crash the JVM, so unreleased buffers are never freed eagerly.
+ *
+ * <p>Buffers use the platform byte order and are 64-byte aligned. Allocation is thread-safe.
+ */
+public final class OffHeapArena implements BufferAllocator {
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapArena.class);
+    private static final int DEFAULT_SLAB_BYTES = 16 * 1024 * 1024;
+    private static final int ALIGNMENT = 64;
+    private static final Deallocator DEALLOCATOR = Deallocator.find();
+
+    private final int slabBytes;
+    private final List<Backing> backings = new ArrayList<>();
+    // buffers handed out and not yet released, by identity
+    private final Map<FloatBuffer, Backing> outstanding = new IdentityHashMap<>();
+    private Backing slab;
+    private ByteBuffer slabSpace;
+    private long allocatedBytes;
+    private boolean closed;
+
+    public OffHeapArena() {
+        this(DEFAULT_SLAB_BYTES);
+    }
+
+    /**
+     * @param slabBytes size of the shared slabs; requests larger than a quarter slab are given
+     *                  their own buffer
+     */
+    public OffHeapArena(int slabBytes) {
+        if (slabBytes < ALIGNMENT) {
+            throw new IllegalArgumentException("slabBytes must be at least " + ALIGNMENT);
+        }
+        this.slabBytes = slabBytes;
+    }
+
+    @Override
+    public synchronized FloatBuffer allocateFloats(int count) {
+        if (closed) {
+            throw new IllegalStateException("Arena is closed");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        int bytes = Math.multiplyExact(count, Float.BYTES);
+        if (bytes > slabBytes / 4) {
+            Backing dedicated = new Backing(ByteBuffer.allocateDirect(bytes), bytes);
+            backings.add(dedicated);
+            allocatedBytes += bytes;
+            return handOut(dedicated, dedicated.raw);
+        }
+
+        int aligned = (bytes + ALIGNMENT - 1) & -ALIGNMENT;
+        if (slabSpace == null || slabSpace.remaining() < aligned) {
+            // keep the original buffer: the cleaner refuses slices
+            slab = new Backing(ByteBuffer.allocateDirect(slabBytes + ALIGNMENT), slabBytes);
+            backings.add(slab);
+            slabSpace = slab.raw.alignedSlice(ALIGNMENT);
+            allocatedBytes += slabBytes;
+        }
+        ByteBuffer slice = slabSpace.slice(slabSpace.position(), bytes);
+        slabSpace.position(slabSpace.position() + aligned);
+        return handOut(slab, slice);
+    }
+
+    /**
+     * Give a buffer back: the caller, and anything it passed the buffer or its views to, is
+     * done with it. Its memory is not reused, but once every buffer of its slab is released
+     * the slab can be freed eagerly. Releasing is optional; see the class comment.
+     *
+     * @throws IllegalArgumentException if the buffer did not come from this arena or was
+     *                                  already released
+     */
+    public synchronized void release(FloatBuffer buffer) {
+        Backing backing = outstanding.remove(buffer);
+        if (backing == null) {
+            throw new IllegalArgumentException("Buffer was not allocated by this arena or was already released");
+        }
+        backing.live--;
+        if (closed && backing.live == 0) {
+            free(backing);
+        }
+    }
+
+    @Override
+    public boolean isDirect() {
+        return true;
+    }
+
+    /**
+     * @return bytes reserved and not yet freed; after {@link #close()}, those still held by
+     *         unreleased buffers
+     */
+    @Override
+    public synchronized long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Reject further allocation and free the memory no buffer still holds. Buffers not
+     * released remain usable until they become unreachable.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        slab = null;
+        slabSpace = null;
+        for (Backing backing : List.copyOf(backings)) {
+            if (backing.live == 0) {
+                free(backing);
+            }
+        }
+        if (!backings.isEmpty()) {
+            logger.debug("Arena closed with {} unreleased buffers; {} bytes are left to the collector",
+                    outstanding.size(), allocatedBytes);
+        }
+    }
+
+    private FloatBuffer handOut(Backing backing, ByteBuffer bytes) {
+        FloatBuffer buffer = bytes.order(ByteOrder.nativeOrder()).asFloatBuffer();
+        outstanding.put(buffer, backing);
+        backing.live++;
+        return buffer;
+    }
+
+    private void free(Backing backing) {
+        backings.remove(backing);
+        allocatedBytes -= backing.bytes;
+        DEALLOCATOR.free(backing.raw);
+    }
+
+    /**
+     * A direct buffer obtained from the JDK, and the number of unreleased buffers cut from it.
+     */
+    private static final class Backing {
+        final ByteBuffer raw;
+        final long bytes;
+        int live;
+
+        Backing(ByteBuffer raw, long bytes) {
+            this.raw = raw;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Frees a direct buffer immediately through {@code sun.misc.Unsafe.invokeCleaner}
+     * (module jdk.unsupported). Without it, memory is reclaimed when the buffer is collected.
+     */
+    private interface Deallocator {
+        void free(ByteBuffer buffer);
+
+        static Deallocator find() {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                Object unsafe = field.get(null);
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                return buffer -> {
+                    try {
+                        invokeCleaner.invoke(unsafe, buffer);
+                    } catch (ReflectiveOperationException e) {
+                        logger.debug("Could not free direct buffer: {}", e.toString());
+                    }
+                };
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                logger.debug("Direct buffers will be freed by the garbage collector: {}", e.toString());
+                return buffer -> { };
+            }
+        }
+    }
+}
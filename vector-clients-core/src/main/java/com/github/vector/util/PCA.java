@@ -3,9 +3,32 @@ package com.github.vector.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class PCA {
+    // Binary model format, little-endian:
+    //   int magic "PCA1", int version, int nFeatures, int nComponents, int flags (bit 0: whiten),
+    //   int reserved, long nSamplesSeen, float[nFeatures] mean,
+    //   float[nComponents * nFeatures] components, float[nComponents] explainedVariance
+    private static final int FORMAT_MAGIC = 0x31414350; // "PCA1" read as little-endian bytes
+    private static final int FORMAT_VERSION = 1;
+    private static final int FORMAT_HEADER_BYTES = 32;
+    private static final int FLAG_WHITEN = 1;
+    // Rows projected per task in transform
+    private static final int TRANSFORM_ROWS_PER_TASK = 256;
+
     private FloatBuffer components;          // Principal components matrix (nComponents x nFeatures)
     private FloatBuffer explainedVariance;  // Variance explained by each component
     private FloatBuffer mean;               // Mean vector for centering
@@ -13,6 +36,15 @@ public class PCA {
     private int nFeatures;                  // Original feature dimensions
     private boolean fitted;                 // Training state
     private boolean whiten;                 // Whitening flag
+    private Executor executor;              // Runs the row-parallel matrix kernels
+    private String solver;                  // "jacobi", "randomized" or "power"
+    private double tolerance;               // Convergence threshold for the iterative solvers
+    private int maxIterations;              // Iteration cap for the iterative solvers
+    private int oversamples;                // Extra random directions for the randomized solver
+    private long randomSeed;                // Seed for the randomized and power solvers
+    private long nSamplesSeen;              // Samples folded into mean and components so far
+    private volatile Projection projection; // Array form of the model used by transform, built lazily
+    private BufferAllocator allocator;      // Storage for the model and for transform results
     private Logger logger;
     private PCA() {
         this.fitted = false;
@@ -23,12 +55,35 @@ public class PCA {
         return new PCABuilder();
     }
 
+    /**
+     * Restore a fitted model from its parts, e.g. as read back by a model store.
+     *
+     * @param mean              nFeatures values
+     * @param components        nComponents x nFeatures, row-major
+     * @param explainedVariance nComponents values
+     */
+    public static PCA fromModel(float[] mean, float[] components, float[] explainedVariance, boolean whiten) {
+        int nFeatures = mean.length;
+        int nComponents = explainedVariance.length;
+        if (nComponents == 0 || components.length != nComponents * nFeatures) {
+            throw new IllegalArgumentException("Expected " + nComponents + " x " + nFeatures + " components, got " + components.length + " values");
+        }
+        PCA pca = builder().nComponents(nComponents).whiten(whiten).build();
+        pca.nFeatures = nFeatures;
+        pca.components = FloatBuffer.wrap(components.clone());
+        pca.explainedVariance = FloatBuffer.wrap(explainedVariance.clone());
+        pca.mean = FloatBuffer.wrap(mean.clone());
+        pca.fitted = true;
+        return pca;
+    }
+
     public void fit(FloatBuffer data, int nSamples, int nFeatures) throws IllegalArgumentException {
         if (this.nComponents <= 0 || this.nComponents > nFeatures) {
             throw new IllegalArgumentException("Invalid number of components");
         }
 
         this.nFeatures = nFeatures;
+        this.nSamplesSeen = nSamples;
         try {
             allocateBuffers();
 
@@ -42,7 +97,109 @@ public class PCA {
             logger.error(e.getMessage());
         }
 
+        this.projection = null;
+        this.fitted = true;
+    }
+
+    /**
+     * Incremental PCA: folds one batch into the mean and components without revisiting earlier
+     * batches, so memory stays bounded by the batch size. The batch is centered on its own mean
+     * and stacked under the current components (scaled by their singular values) plus a
+     * mean-shift correction row; the top components of that stack are then recomputed with the
+     * randomized solver, whatever {@code solver} is configured.
+     *
+     * <p>The number of features is taken from the first batch ({@code batch.limit() / nSamples}).
+     */
+    public void partialFit(FloatBuffer batch, int nSamples) throws IllegalArgumentException {
+        if (nSamples <= 0) {
+            throw new IllegalArgumentException("Batch must contain at least one sample");
+        }
+        partialFit(batch, nSamples, fitted ? nFeatures : batch.limit() / nSamples);
+    }
+
+    public void partialFit(FloatBuffer batch, int nSamples, int nFeatures) throws IllegalArgumentException {
+        if (nSamples <= 0) {
+            throw new IllegalArgumentException("Batch must contain at least one sample");
+        }
+        if (fitted && nFeatures != this.nFeatures) {
+            throw new IllegalArgumentException("Batch has " + nFeatures + " features, model was fitted with " + this.nFeatures);
+        }
+        if (this.nComponents <= 0 || this.nComponents > nFeatures) {
+            throw new IllegalArgumentException("Invalid number of components");
+        }
+        if (!fitted) {
+            this.nFeatures = nFeatures;
+            this.nSamplesSeen = 0;
+            allocateBuffers();
+        } else if (components.isReadOnly()) {
+            // a memory-mapped model is read-only; continue fitting on private copies
+            FloatBuffer oldMean = mean;
+            FloatBuffer oldComponents = components;
+            FloatBuffer oldVariance = explainedVariance;
+            allocateBuffers();
+            mean.put(0, oldMean, 0, nFeatures);
+            components.put(0, oldComponents, 0, nComponents * nFeatures);
+            explainedVariance.put(0, oldVariance, 0, nComponents);
+        }
+
+        float[] values = arrayOf(batch, nSamples * nFeatures);
+        double[] batchMean = new double[nFeatures];
+        for (int i = 0; i < nSamples; i++) {
+            int row = i * nFeatures;
+            for (int j = 0; j < nFeatures; j++) {
+                batchMean[j] += values[row + j];
+            }
+        }
+        for (int j = 0; j < nFeatures; j++) {
+            batchMean[j] /= nSamples;
+        }
+
+        long previous = nSamplesSeen;
+        long total = previous + nSamples;
+        int priorRows = previous > 0 ? nComponents : 0;
+        int rows = priorRows + nSamples + (previous > 0 ? 1 : 0);
+        float[] stacked = new float[rows * nFeatures];
+
+        // current components scaled back to singular values: sigma^2 = variance * (n - 1)
+        for (int c = 0; c < priorRows; c++) {
+            float sigma = (float) Math.sqrt(explainedVariance.get(c) * (double) Math.max(previous - 1, 1));
+            int row = c * nFeatures;
+            for (int j = 0; j < nFeatures; j++) {
+                stacked[row + j] = sigma * components.get(row + j);
+            }
+        }
+        for (int i = 0; i < nSamples; i++) {
+            int src = i * nFeatures;
+            int dst = (priorRows + i) * nFeatures;
+            for (int j = 0; j < nFeatures; j++) {
+                stacked[dst + j] = (float) (values[src + j] - batchMean[j]);
+            }
+        }
+        if (previous > 0) {
+            // accounts for the variance between the old mean and this batch's mean
+            double weight = Math.sqrt((double) previous * nSamples / total);
+            int row = (rows - 1) * nFeatures;
+            for (int j = 0; j < nFeatures; j++) {
+                stacked[row + j] = (float) (weight * (mean.get(j) - batchMean[j]));
+            }
+        }
+        for (int j = 0; j < nFeatures; j++) {
+            mean.put(j, (float) ((previous * (double) mean.get(j) + nSamples * batchMean[j]) / total));
+        }
+
+        float[] result = writableArray(components);
+        float[] variances = writableArray(explainedVariance);
+        TruncatedSolvers.randomized(stacked, rows, nFeatures, nComponents, oversamples,
+                randomizedPowerIterations(rows, nFeatures), randomSeed, result, variances, executor);
+        float scale = 1.0f / Math.max(total - 1, 1);
+        for (int c = 0; c < nComponents; c++) {
+            variances[c] *= scale;
+        }
+        copyBack(result, components);
+        copyBack(variances, explainedVariance);
 
+        this.nSamplesSeen = total;
+        this.projection = null;
         this.fitted = true;
     }
 
@@ -50,27 +207,89 @@ public class PCA {
         if (!fitted) {
             throw new IllegalStateException("PCA must be fitted before transform");
         }
-        if(nSamples > nFeatures) {
-            throw new IllegalStateException();
-        }
-        try {
-            FloatBuffer transformed = FloatBuffer.allocate(nSamples * nComponents);
+        return transform(data, nSamples, allocator.allocateFloats(nSamples * nComponents));
+    }
 
-            FloatBuffer centeredData = FloatBuffer.allocate(nSamples * nFeatures);
-            centerDataInPlace(data, centeredData, nSamples);
+    /**
+     * Project {@code nSamples} rows into {@code out}, which is filled from index 0 and returned.
+     * Rows are split across the executor; each task centers, projects and whitens its rows in a
+     * single pass, using (x - mean)·Cᵀ = x·Cᵀ - mean·Cᵀ so no centered copy of the input is made.
+     * Heap buffers are read and written in place; other buffers are copied one block at a time.
+     */
+    public FloatBuffer transform(FloatBuffer data, int nSamples, FloatBuffer out) throws IllegalStateException, IllegalArgumentException {
+        if (!fitted) {
+            throw new IllegalStateException("PCA must be fitted before transform");
+        }
+        if (nSamples < 0 || (long) nSamples * nFeatures > data.capacity()) {
+            throw new IllegalArgumentException("Input holds " + data.capacity() / Math.max(1, nFeatures)
+                    + " rows of " + nFeatures + " features, " + nSamples + " requested");
+        }
+        if ((long) nSamples * nComponents > out.capacity()) {
+            throw new IllegalArgumentException("Output holds " + out.capacity() + " floats, "
+                    + (long) nSamples * nComponents + " needed");
+        }
 
-            matrixMultiply(centeredData, components, transformed, nSamples, nFeatures, nComponents);
-            if (whiten) {
-                applyWhitening(transformed, nSamples);
+        Projection model = projection();
+        int d = nFeatures;
+        int k = nComponents;
+        boolean inPlaceInput = data.hasArray();
+        boolean inPlaceOutput = out.hasArray();
+        int tasks = (nSamples + TRANSFORM_ROWS_PER_TASK - 1) / TRANSFORM_ROWS_PER_TASK;
+        MatrixKernels.parallelFor(tasks, (long) nSamples * d * k, t -> {
+            int r0 = t * TRANSFORM_ROWS_PER_TASK;
+            int rows = Math.min(TRANSFORM_ROWS_PER_TASK, nSamples - r0);
+            float[] in;
+            int inOffset;
+            if (inPlaceInput) {
+                in = data.array();
+                inOffset = data.arrayOffset() + r0 * d;
+            } else {
+                in = new float[rows * d];
+                inOffset = 0;
+                data.get(r0 * d, in, 0, rows * d);
+            }
+            float[] projected = inPlaceOutput ? out.array() : new float[rows * k];
+            int outOffset = inPlaceOutput ? out.arrayOffset() + r0 * k : 0;
+            MatrixKernels.projectRows(in, inOffset, rows, d, model.components, k, model.shift, model.scale,
+                    projected, outOffset);
+            if (!inPlaceOutput) {
+                out.put(r0 * k, projected, 0, rows * k);
             }
+        }, executor);
+        return out;
+    }
 
-            return transformed;
-        } catch(IllegalArgumentException e) {
-            e.printStackTrace();
+    /**
+     * Components, mean·Cᵀ and whitening factors as arrays. For direct or mapped models this is
+     * the only copy transform makes of the components; it is dropped whenever the model changes.
+     */
+    private Projection projection() {
+        Projection current = projection;
+        if (current != null) {
+            return current;
         }
-        return null;
+        float[] c = arrayOf(components, nComponents * nFeatures);
+        float[] means = arrayOf(mean, nFeatures);
+        float[] shift = new float[nComponents];
+        VectorKernels kernels = VectorUtil.getKernels();
+        for (int j = 0; j < nComponents; j++) {
+            shift[j] = kernels.dotProduct(means, 0, c, j * nFeatures, nFeatures);
+        }
+        float[] scale = null;
+        if (whiten) {
+            scale = new float[nComponents];
+            for (int j = 0; j < nComponents; j++) {
+                float variance = explainedVariance.get(j);
+                scale[j] = variance > 1e-8f ? 1.0f / (float) Math.sqrt(variance) : 1.0f;
+            }
+        }
+        current = new Projection(c, shift, scale);
+        projection = current;
+        return current;
     }
 
+    private record Projection(float[] components, float[] shift, float[] scale) {}
+
     public FloatBuffer fitTransform(FloatBuffer data, int nSamples, int nFeatures) {
         fit(data, nSamples, nFeatures);
         return transform(data, nSamples);
@@ -81,7 +300,7 @@ public class PCA {
             throw new IllegalStateException("PCA must be fitted before inverse transform");
         }
 
-        FloatBuffer original = FloatBuffer.allocate(nSamples * nFeatures);
+        FloatBuffer original = allocator.allocateFloats(nSamples * nFeatures);
         FloatBuffer tempData = transformedData;
 
         if (whiten) {
@@ -96,47 +315,172 @@ public class PCA {
         return original;
     }
 
-    private void allocateBuffers() {
-        this.components = FloatBuffer.allocate(nComponents * nFeatures);
-        this.explainedVariance = FloatBuffer.allocate(nComponents);
-        this.mean = FloatBuffer.allocate(nFeatures);
+    /**
+     * Write the fitted model in the binary format read by {@link #load(Path)}. The model is
+     * written to a temporary file next to {@code path} and then renamed over it, so models
+     * already loaded from {@code path} keep their mapping of the old file.
+     */
+    public void save(Path path) throws IOException {
+        if (!fitted) {
+            throw new IllegalStateException("PCA must be fitted before it can be saved");
+        }
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                writeTo(channel);
+                channel.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
     }
 
-    private void computeMean(FloatBuffer data, int nSamples, int nFeatures) {
-        mean.clear();
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        if (!fitted) {
+            throw new IllegalStateException("PCA must be fitted before it can be saved");
+        }
+        ByteBuffer header = ByteBuffer.allocate(FORMAT_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(FORMAT_MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(nFeatures)
+                .putInt(nComponents)
+                .putInt(whiten ? FLAG_WHITEN : 0)
+                .putInt(0)
+                .putLong(nSamplesSeen)
+                .flip();
+        writeFully(channel, header);
+        writeFloats(channel, mean, nFeatures);
+        writeFloats(channel, components, nComponents * nFeatures);
+        writeFloats(channel, explainedVariance, nComponents);
+    }
 
-        for (int j = 0; j < nFeatures; j++) {
-            float sum = 0.0f;
-            for (int i = 0; i < nSamples; i++) {
-                sum += data.get(i * nFeatures + j);
-            }
-            mean.put(j, sum / nSamples);
+    /**
+     * Map a model written by {@link #save(Path)}. Nothing is parsed or copied: mean, components
+     * and explained variance are read-only views of the mapping, which stays valid after the
+     * file is closed.
+     */
+    public static PCA load(Path path) throws IOException {
+        return load(path, builder());
+    }
+
+    /**
+     * Like {@link #load(Path)}, taking executor and allocator settings from {@code settings}.
+     * Component count and whitening always come from the file.
+     */
+    public static PCA load(Path path, PCABuilder settings) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return fromBuffer(mapped, path.toString(), settings);
         }
     }
 
-    private FloatBuffer centerData(FloatBuffer data, int nSamples, int nFeatures) {
-        FloatBuffer centered = FloatBuffer.allocate(nSamples * nFeatures);
+    private static PCA fromBuffer(ByteBuffer buffer, String source, PCABuilder settings) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < FORMAT_HEADER_BYTES || buffer.getInt(0) != FORMAT_MAGIC) {
+            throw new IOException("Not a PCA model file: " + source);
+        }
+        int version = buffer.getInt(4);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported PCA model version " + version + " in " + source);
+        }
+        int nFeatures = buffer.getInt(8);
+        int nComponents = buffer.getInt(12);
+        int flags = buffer.getInt(16);
+        long nSamplesSeen = buffer.getLong(24);
+        long expected = FORMAT_HEADER_BYTES + ((long) nFeatures + (long) nComponents * nFeatures + nComponents) * Float.BYTES;
+        if (nFeatures <= 0 || nComponents <= 0 || nComponents > nFeatures || buffer.capacity() != expected) {
+            throw new IOException("Corrupt PCA model " + source + ": " + nComponents + " x " + nFeatures
+                    + " needs " + expected + " bytes, file has " + buffer.capacity());
+        }
+
+        PCA pca = settings.copy().nComponents(nComponents).whiten((flags & FLAG_WHITEN) != 0).build();
+        int offset = FORMAT_HEADER_BYTES;
+        pca.nFeatures = nFeatures;
+        pca.mean = floatView(buffer, offset, nFeatures);
+        offset += nFeatures * Float.BYTES;
+        pca.components = floatView(buffer, offset, nComponents * nFeatures);
+        offset += nComponents * nFeatures * Float.BYTES;
+        pca.explainedVariance = floatView(buffer, offset, nComponents);
+        pca.nSamplesSeen = nSamplesSeen;
+        pca.fitted = true;
+        return pca;
+    }
+
+    private static FloatBuffer floatView(ByteBuffer buffer, int offset, int count) {
+        // slice() resets the byte order, so set it again before viewing as floats
+        return buffer.slice(offset, count * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer()
+                .asReadOnlyBuffer();
+    }
+
+    private static void writeFloats(WritableByteChannel channel, FloatBuffer values, int count) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(Math.min(count, 1 << 16) * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int start = 0; start < count; start += chunk.capacity() / Float.BYTES) {
+            int n = Math.min(chunk.capacity() / Float.BYTES, count - start);
+            chunk.clear();
+            chunk.asFloatBuffer().put(0, values, start, n);
+            chunk.limit(n * Float.BYTES);
+            writeFully(channel, chunk);
+        }
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private void allocateBuffers() {
+        this.components = allocator.allocateFloats(nComponents * nFeatures);
+        this.explainedVariance = allocator.allocateFloats(nComponents);
+        this.mean = allocator.allocateFloats(nFeatures);
+    }
 
+    private void computeMean(FloatBuffer data, int nSamples, int nFeatures) {
+        mean.clear();
+
+        // row-major walk over the samples keeps the reads sequential
+        float[] values = arrayOf(data, nSamples * nFeatures);
+        double[] sums = new double[nFeatures];
         for (int i = 0; i < nSamples; i++) {
+            int row = i * nFeatures;
             for (int j = 0; j < nFeatures; j++) {
-                int idx = i * nFeatures + j;
-                centered.put(idx, data.get(idx) - mean.get(j));
+                sums[j] += values[row + j];
             }
         }
-
-        return centered;
+        for (int j = 0; j < nFeatures; j++) {
+            mean.put(j, (float) (sums[j] / nSamples));
+        }
     }
 
-    private void centerDataInPlace(FloatBuffer source, FloatBuffer target, int nSamples) {
+    private FloatBuffer centerData(FloatBuffer data, int nSamples, int nFeatures) {
+        float[] values = arrayOf(data, nSamples * nFeatures);
+        float[] means = arrayOf(mean, nFeatures);
+        float[] centered = new float[nSamples * nFeatures];
+
         for (int i = 0; i < nSamples; i++) {
+            int row = i * nFeatures;
             for (int j = 0; j < nFeatures; j++) {
-                int idx = i * nFeatures + j;
-                target.put(idx, source.get(idx) - mean.get(j));
+                centered[row + j] = values[row + j] - means[j];
             }
         }
+
+        return FloatBuffer.wrap(centered);
     }
 
     private void performSVD(FloatBuffer centeredData, int nSamples, int nFeatures) throws IllegalArgumentException {
+        if (SOLVER_RANDOMIZED.equals(solver)) {
+            performRandomizedSVD(centeredData, nSamples, nFeatures);
+            return;
+        }
+        if (SOLVER_POWER.equals(solver)) {
+            performPowerIteration(centeredData, nSamples, nFeatures);
+            return;
+        }
 
         try {
             FloatBuffer covariance = FloatBuffer.allocate(nFeatures * nFeatures);
@@ -156,18 +500,45 @@ public class PCA {
 
     }
 
+    private void performRandomizedSVD(FloatBuffer centeredData, int nSamples, int nFeatures) {
+        float[] result = writableArray(components);
+        float[] variances = writableArray(explainedVariance);
+        TruncatedSolvers.randomized(arrayOf(centeredData, nSamples * nFeatures), nSamples, nFeatures, nComponents,
+                oversamples, randomizedPowerIterations(nSamples, nFeatures), randomSeed, result, variances, executor);
+        float scale = 1.0f / Math.max(nSamples - 1, 1);
+        for (int c = 0; c < nComponents; c++) {
+            variances[c] *= scale;
+        }
+        copyBack(result, components);
+        copyBack(variances, explainedVariance);
+    }
+
+    private int randomizedPowerIterations(int rows, int cols) {
+        // same default as scikit-learn: more subspace iterations when few components are kept
+        return nComponents < 0.1 * Math.min(rows, cols) ? 7 : 4;
+    }
+
+    private void performPowerIteration(FloatBuffer centeredData, int nSamples, int nFeatures) {
+        FloatBuffer covariance = FloatBuffer.allocate(nFeatures * nFeatures);
+        computeCovariance(centeredData, covariance, nSamples, nFeatures);
+
+        float[] result = writableArray(components);
+        float[] variances = writableArray(explainedVariance);
+        int iterations = TruncatedSolvers.power(arrayOf(covariance, nFeatures * nFeatures), nFeatures, nComponents,
+                tolerance, maxIterations, randomSeed, result, variances, executor);
+        if (iterations >= maxIterations) {
+            logger.warn("Power iteration stopped after {} iterations without reaching tolerance {}", iterations, tolerance);
+        }
+        copyBack(result, components);
+        copyBack(variances, explainedVariance);
+    }
+
     private void computeCovariance(FloatBuffer centeredData, FloatBuffer covariance, int nSamples, int nFeatures) {
         float scale = 1.0f / (nSamples - 1);
 
-        for (int i = 0; i < nFeatures; i++) {
-            for (int j = 0; j < nFeatures; j++) {
-                float sum = 0.0f;
-                for (int k = 0; k < nSamples; k++) {
-                    sum += centeredData.get(k * nFeatures + i) * centeredData.get(k * nFeatures + j);
-                }
-                covariance.put(i * nFeatures + j, sum * scale);
-            }
-        }
+        float[] result = writableArray(covariance);
+        MatrixKernels.covariance(arrayOf(centeredData, nSamples * nFeatures), nSamples, nFeatures, scale, result, executor);
+        copyBack(result, covariance);
     }
 
     private void jacobiEigenDecomposition(FloatBuffer matrix, FloatBuffer eigenValues, FloatBuffer eigenVectors, int n) {
@@ -246,7 +617,26 @@ public class PCA {
     }
 
     private void sortEigenPairs(FloatBuffer eigenValues, FloatBuffer eigenVectors, int n) {
-
+        // descending by eigenvalue; eigenvectors are the columns of eigenVectors
+        for (int i = 0; i < n - 1; i++) {
+            int best = i;
+            for (int j = i + 1; j < n; j++) {
+                if (eigenValues.get(j) > eigenValues.get(best)) {
+                    best = j;
+                }
+            }
+            if (best == i) {
+                continue;
+            }
+            float value = eigenValues.get(i);
+            eigenValues.put(i, eigenValues.get(best));
+            eigenValues.put(best, value);
+            for (int r = 0; r < n; r++) {
+                float v = eigenVectors.get(r * n + i);
+                eigenVectors.put(r * n + i, eigenVectors.get(r * n + best));
+                eigenVectors.put(r * n + best, v);
+            }
+        }
     }
 
     private void extractTopComponents(FloatBuffer eigenValues, FloatBuffer eigenVectors, int nFeatures) {
@@ -265,26 +655,34 @@ public class PCA {
 
     private void matrixMultiply(FloatBuffer a, FloatBuffer b, FloatBuffer result, int m, int k, int n) {
         // result = a * b where a is m×k and b is k×n
-        for (int i = 0; i < m; i++) {
-            for (int j = 0; j < n; j++) {
-                float sum = 0.0f;
-                for (int l = 0; l < k; l++) {
-                    sum += a.get(i * k + l) * b.get(l * n + j);
-                }
-                result.put(i * n + j, sum);
-            }
+        float[] out = writableArray(result);
+        MatrixKernels.multiply(arrayOf(a, m * k), arrayOf(b, k * n), out, m, k, n, executor);
+        copyBack(out, result);
+    }
+
+    /**
+     * Backing array of a heap buffer, or a copy of the first {@code length} elements otherwise.
+     * Buffers are always addressed from index 0, as everywhere else in this class.
+     */
+    private static float[] arrayOf(FloatBuffer buffer, int length) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0) {
+            return buffer.array();
         }
+        float[] copy = new float[length];
+        buffer.get(0, copy, 0, length);
+        return copy;
     }
 
-    private void applyWhitening(FloatBuffer data, int nSamples) {
-        for (int i = 0; i < nSamples; i++) {
-            for (int j = 0; j < nComponents; j++) {
-                int idx = i * nComponents + j;
-                float variance = explainedVariance.get(j);
-                if (variance > 1e-8f) {
-                    data.put(idx, data.get(idx) / (float)Math.sqrt(variance));
-                }
-            }
+    private static float[] writableArray(FloatBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0) {
+            return buffer.array();
+        }
+        return new float[buffer.capacity()];
+    }
+
+    private static void copyBack(float[] values, FloatBuffer target) {
+        if (!(target.hasArray() && target.array() == values)) {
+            target.put(0, values, 0, target.capacity());
         }
     }
 
@@ -311,8 +709,15 @@ public class PCA {
     public int getNumComponents() { return nComponents; }
     public int getNumFeatures() { return nFeatures; }
     public boolean isFitted() { return fitted; }
+    public long getNumSamplesSeen() { return nSamplesSeen; }
     public FloatBuffer getExplainedVariance() { return explainedVariance.asReadOnlyBuffer(); }
     public FloatBuffer getComponents() { return components.asReadOnlyBuffer(); }
+    public FloatBuffer getMean() { return mean.asReadOnlyBuffer(); }
+    public boolean isWhiten() { return whiten; }
+
+    public static final String SOLVER_JACOBI = "jacobi";
+    public static final String SOLVER_RANDOMIZED = "randomized";
+    public static final String SOLVER_POWER = "power";
 
     public static class PCABuilder {
         private int nComponents = -1;  // Will be set to input dimensions if not specified
@@ -320,6 +725,10 @@ public class PCA {
         private String solver = "jacobi";  // Fixed typo: was "solvent"
         private double tolerance = 1e-6;
         private int maxIterations = 50;
+        private Executor executor = ForkJoinPool.commonPool();
+        private int oversamples = 10;
+        private long randomSeed = 42L;
+        private BufferAllocator allocator = BufferAllocator.heap();
 
         public PCABuilder nComponents(int nComponents) {
             this.nComponents = nComponents;
@@ -331,6 +740,13 @@ public class PCA {
             return this;
         }
 
+        /**
+         * {@code "jacobi"} (default) eigendecomposes the full covariance matrix.
+         * {@code "randomized"} runs a randomized range finder on the data and never forms the
+         * covariance matrix; {@code "power"} runs block power iteration on the covariance
+         * matrix, bounded by {@link #tolerance} and {@link #maxIterations}. Both compute only
+         * the top {@code nComponents} directions.
+         */
         public PCABuilder solver(String solver) {
             this.solver = solver;
             return this;
@@ -346,10 +762,69 @@ public class PCA {
             return this;
         }
 
+        /** Extra random directions sampled by the randomized solver beyond nComponents. */
+        public PCABuilder oversamples(int oversamples) {
+            this.oversamples = oversamples;
+            return this;
+        }
+
+        /** Seed for the random starting subspace of the randomized and power solvers. */
+        public PCABuilder randomSeed(long randomSeed) {
+            this.randomSeed = randomSeed;
+            return this;
+        }
+
+        /**
+         * Executor for the parallel covariance and projection kernels. Defaults to the
+         * ForkJoin common pool; pass a direct executor ({@code Runnable::run}) to stay on
+         * the calling thread.
+         */
+        public PCABuilder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Allocator for the fitted model and for the buffers returned by transform and
+         * inverseTransform. With an {@link OffHeapArena}, which the caller owns, those buffers
+         * follow its release rules; scratch matrices used while fitting stay on the heap.
+         */
+        public PCABuilder allocator(BufferAllocator allocator) {
+            this.allocator = allocator;
+            return this;
+        }
+
+        private PCABuilder copy() {
+            PCABuilder copy = new PCABuilder();
+            copy.nComponents = nComponents;
+            copy.whiten = whiten;
+            copy.solver = solver;
+            copy.tolerance = tolerance;
+            copy.maxIterations = maxIterations;
+            copy.executor = executor;
+            copy.oversamples = oversamples;
+            copy.randomSeed = randomSeed;
+            copy.allocator = allocator;
+            return copy;
+        }
+
         public PCA build() {
+            if (!SOLVER_JACOBI.equals(solver) && !SOLVER_RANDOMIZED.equals(solver) && !SOLVER_POWER.equals(solver)) {
+                throw new IllegalArgumentException("Unknown PCA solver: " + solver);
+            }
+            if (oversamples < 0) {
+                throw new IllegalArgumentException("oversamples must not be negative");
+            }
             PCA pca = new PCA();
             pca.nComponents = this.nComponents;
             pca.whiten = this.whiten;
+            pca.executor = this.executor;
+            pca.solver = this.solver;
+            pca.tolerance = this.tolerance;
+            pca.maxIterations = this.maxIterations;
+            pca.oversamples = this.oversamples;
+            pca.randomSeed = this.randomSeed;
+            pca.allocator = this.allocator != null ? this.allocator : BufferAllocator.heap();
             return pca;
         }
     }
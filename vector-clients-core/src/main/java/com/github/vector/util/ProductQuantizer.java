@@ -0,0 +1,403 @@
+package com.github.vector.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Product quantizer: the vector is split into {@code subspaces} equal slices and each slice is
+ * replaced by the index of its nearest centroid, learned per slice by k-means. With 256
+ * centroids a code is one byte per subspace, e.g. 48 bytes for a 1536-d vector instead of 6KB.
+ *
+ * <p>Queries are not quantized. {@link #distanceTable} precomputes the distance from each query
+ * slice to every centroid once, after which the distance to any code is {@code subspaces} table
+ * lookups ({@link #distance(float[], byte[], int)}), so a linear scan over packed codes runs at
+ * memory speed. Use it for candidate generation and rerank the survivors on exact vectors.
+ */
+public class ProductQuantizer {
+    private static final Logger logger = LoggerFactory.getLogger(ProductQuantizer.class);
+    private static final int MAX_CENTROIDS = 256;
+
+    private int dimension;
+    private int subspaces;
+    private int subDimension;
+    private int centroidCount;
+    private float[] centroids;              // subspaces x centroidCount x subDimension
+    private boolean trained;
+    private int iterations;
+    private long randomSeed;
+    private Executor executor;
+
+    private ProductQuantizer() {
+    }
+
+    public static ProductQuantizerBuilder builder() {
+        return new ProductQuantizerBuilder();
+    }
+
+    /**
+     * Rebuild a trained quantizer from centroids saved with {@link #getCentroids()}.
+     */
+    public static ProductQuantizer fromCentroids(int dimension, int subspaces, int centroidCount, float[] centroids) {
+        ProductQuantizer pq = builder().subspaces(subspaces).centroids(centroidCount).build();
+        pq.configure(dimension);
+        if (centroids.length != subspaces * centroidCount * pq.subDimension) {
+            throw new IllegalArgumentException("Expected " + subspaces * centroidCount * pq.subDimension
+                    + " centroid values, got " + centroids.length);
+        }
+        pq.centroids = centroids.clone();
+        pq.trained = true;
+        return pq;
+    }
+
+    /**
+     * Learn the codebooks from {@code nSamples} row-major training vectors. Subspaces are
+     * clustered independently, in parallel on the configured executor.
+     */
+    public void train(FloatBuffer sample, int nSamples, int dimension) {
+        if (nSamples < centroidCount) {
+            throw new IllegalArgumentException("Need at least " + centroidCount + " training vectors, got " + nSamples);
+        }
+        configure(dimension);
+        float[] data = new float[nSamples * dimension];
+        sample.get(0, data, 0, data.length);
+        float[] codebooks = new float[subspaces * centroidCount * subDimension];
+
+        long start = System.nanoTime();
+        long work = (long) iterations * nSamples * centroidCount * dimension;
+        MatrixKernels.parallelFor(subspaces, work, m -> {
+            float[] slice = new float[nSamples * subDimension];
+            for (int i = 0; i < nSamples; i++) {
+                System.arraycopy(data, i * dimension + m * subDimension, slice, i * subDimension, subDimension);
+            }
+            float[] codebook = kMeans(slice, nSamples, new Random(randomSeed + m));
+            System.arraycopy(codebook, 0, codebooks, m * centroidCount * subDimension, codebook.length);
+        }, executor);
+
+        this.centroids = codebooks;
+        this.trained = true;
+        logger.debug("Trained {}x{} product quantizer on {} vectors in {} ms", subspaces, centroidCount, nSamples,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public byte[] encode(float[] vector) {
+        byte[] code = new byte[subspaces];
+        encode(vector, code, 0);
+        return code;
+    }
+
+    /** Encode into {@code out[offset .. offset + subspaces)}, for packing many codes in one array. */
+    public void encode(float[] vector, byte[] out, int offset) {
+        checkTrained();
+        checkDimension(vector.length);
+        VectorKernels kernels = VectorUtil.getKernels();
+        for (int m = 0; m < subspaces; m++) {
+            int base = m * centroidCount * subDimension;
+            int best = 0;
+            float bestDistance = Float.POSITIVE_INFINITY;
+            for (int c = 0; c < centroidCount; c++) {
+                float d = kernels.squaredL2Distance(vector, m * subDimension, centroids, base + c * subDimension, subDimension);
+                if (d < bestDistance) {
+                    bestDistance = d;
+                    best = c;
+                }
+            }
+            out[offset + m] = (byte) best;
+        }
+    }
+
+    /** Reconstruct the vector a code stands for: the concatenation of its centroids. */
+    public float[] decode(byte[] code) {
+        checkTrained();
+        float[] vector = new float[dimension];
+        for (int m = 0; m < subspaces; m++) {
+            int centroid = code[m] & 0xFF;
+            System.arraycopy(centroids, (m * centroidCount + centroid) * subDimension, vector, m * subDimension, subDimension);
+        }
+        return vector;
+    }
+
+    /**
+     * Per-query lookup table of {@code subspaces * centroidCount} partial distances. Supported
+     * metrics are L2 (squared, which ranks identically), INNER_PRODUCT (negated dot product) and
+     * COSINE, which assumes the encoded vectors were normalized and normalizes the query.
+     */
+    public float[] distanceTable(float[] query, DistanceMetric metric) {
+        checkTrained();
+        checkDimension(query.length);
+        VectorKernels kernels = VectorUtil.getKernels();
+        float[] q = query;
+        if (metric == DistanceMetric.COSINE) {
+            float norm = (float) Math.sqrt(kernels.dotProduct(query, 0, query, 0, dimension));
+            q = new float[dimension];
+            for (int i = 0; i < dimension && norm > 0; i++) {
+                q[i] = query[i] / norm;
+            }
+        } else if (metric != DistanceMetric.L2 && metric != DistanceMetric.INNER_PRODUCT) {
+            throw new IllegalArgumentException("Product quantization does not support " + metric);
+        }
+
+        float[] table = new float[subspaces * centroidCount];
+        for (int m = 0; m < subspaces; m++) {
+            for (int c = 0; c < centroidCount; c++) {
+                int centroid = (m * centroidCount + c) * subDimension;
+                table[m * centroidCount + c] = metric == DistanceMetric.L2
+                        ? kernels.squaredL2Distance(q, m * subDimension, centroids, centroid, subDimension)
+                        : -kernels.dotProduct(q, m * subDimension, centroids, centroid, subDimension);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Asymmetric distance between the table's query and the code at {@code codes[offset]}. For
+     * COSINE the result is the negated similarity; add 1 for cosine distance.
+     */
+    public float distance(float[] table, byte[] codes, int offset) {
+        float sum = 0.0f;
+        for (int m = 0, base = 0; m < subspaces; m++, base += centroidCount) {
+            sum += table[base + (codes[offset + m] & 0xFF)];
+        }
+        return sum;
+    }
+
+    /**
+     * Scan {@code count} codes packed back to back in {@code codes} and return the positions of
+     * the {@code topK} closest, nearest first.
+     *
+     * @throws IllegalArgumentException if {@code topK} is not positive or {@code count} negative
+     */
+    public int[] nearest(float[] table, byte[] codes, int count, int topK) {
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        int k = Math.min(topK, count);
+        // max-heap on distance holding the best k seen so far
+        int[] heapIds = new int[k];
+        float[] heapDistances = new float[k];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            float d = distance(table, codes, i * subspaces);
+            if (size < k) {
+                int pos = size++;
+                while (pos > 0 && heapDistances[(pos - 1) >>> 1] < d) {
+                    int parent = (pos - 1) >>> 1;
+                    heapIds[pos] = heapIds[parent];
+                    heapDistances[pos] = heapDistances[parent];
+                    pos = parent;
+                }
+                heapIds[pos] = i;
+                heapDistances[pos] = d;
+            } else if (d < heapDistances[0]) {
+                siftDown(heapIds, heapDistances, size, i, d);
+            }
+        }
+
+        int[] result = new int[size];
+        for (int n = size - 1; n >= 0; n--) {
+            result[n] = heapIds[0];
+            int lastId = heapIds[n];
+            float lastDistance = heapDistances[n];
+            siftDown(heapIds, heapDistances, n, lastId, lastDistance);
+        }
+        return result;
+    }
+
+    private static void siftDown(int[] ids, float[] distances, int size, int id, float distance) {
+        int pos = 0;
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && distances[child + 1] > distances[child]) {
+                child++;
+            }
+            if (distances[child] <= distance) {
+                break;
+            }
+            ids[pos] = ids[child];
+            distances[pos] = distances[child];
+            pos = child;
+        }
+        if (size > 0) {
+            ids[pos] = id;
+            distances[pos] = distance;
+        }
+    }
+
+    /** k-means++ seeding followed by Lloyd iterations; empty clusters are re-seeded. */
+    private float[] kMeans(float[] points, int n, Random random) {
+        VectorKernels kernels = VectorUtil.getKernels();
+        int k = centroidCount;
+        int sub = subDimension;
+        float[] codebook = new float[k * sub];
+
+        float[] nearest = new float[n];
+        Arrays.fill(nearest, Float.POSITIVE_INFINITY);
+        int first = random.nextInt(n);
+        System.arraycopy(points, first * sub, codebook, 0, sub);
+        for (int c = 1; c < k; c++) {
+            double total = 0.0;
+            for (int i = 0; i < n; i++) {
+                float d = kernels.squaredL2Distance(points, i * sub, codebook, (c - 1) * sub, sub);
+                if (d < nearest[i]) {
+                    nearest[i] = d;
+                }
+                total += nearest[i];
+            }
+            int chosen = random.nextInt(n);
+            if (total > 0) {
+                double target = random.nextDouble() * total;
+                for (int i = 0; i < n; i++) {
+                    target -= nearest[i];
+                    if (target <= 0) {
+                        chosen = i;
+                        break;
+                    }
+                }
+            }
+            System.arraycopy(points, chosen * sub, codebook, c * sub, sub);
+        }
+
+        int[] assignment = new int[n];
+        double[] sums = new double[k * sub];
+        int[] counts = new int[k];
+        for (int iter = 0; iter < iterations; iter++) {
+            int changed = 0;
+            for (int i = 0; i < n; i++) {
+                int best = 0;
+                float bestDistance = Float.POSITIVE_INFINITY;
+                for (int c = 0; c < k; c++) {
+                    float d = kernels.squaredL2Distance(points, i * sub, codebook, c * sub, sub);
+                    if (d < bestDistance) {
+                        bestDistance = d;
+                        best = c;
+                    }
+                }
+                if (assignment[i] != best || iter == 0) {
+                    changed++;
+                }
+                assignment[i] = best;
+            }
+            if (changed == 0) {
+                break;
+            }
+
+            Arrays.fill(sums, 0.0);
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                int c = assignment[i];
+                counts[c]++;
+                for (int j = 0; j < sub; j++) {
+                    sums[c * sub + j] += points[i * sub + j];
+                }
+            }
+            for (int c = 0; c < k; c++) {
+                if (counts[c] == 0) {
+                    System.arraycopy(points, random.nextInt(n) * sub, codebook, c * sub, sub);
+                    continue;
+                }
+                for (int j = 0; j < sub; j++) {
+                    codebook[c * sub + j] = (float) (sums[c * sub + j] / counts[c]);
+                }
+            }
+        }
+        return codebook;
+    }
+
+    private void configure(int dimension) {
+        if (dimension % subspaces != 0) {
+            throw new IllegalArgumentException("Dimension " + dimension + " is not divisible by " + subspaces + " subspaces");
+        }
+        this.dimension = dimension;
+        this.subDimension = dimension / subspaces;
+    }
+
+    private void checkTrained() {
+        if (!trained) {
+            throw new IllegalStateException("ProductQuantizer must be trained before use");
+        }
+    }
+
+    private void checkDimension(int length) {
+        if (length != dimension) {
+            throw new IllegalArgumentException("Vector dimensions differ: " + length + " vs " + dimension);
+        }
+    }
+
+    // Getters
+    public int getDimension() { return dimension; }
+    public int getSubspaces() { return subspaces; }
+    public int getCentroidCount() { return centroidCount; }
+    public int getCodeSize() { return subspaces; }
+    public boolean isTrained() { return trained; }
+    public float[] getCentroids() {
+        checkTrained();
+        return centroids.clone();
+    }
+
+    public static class ProductQuantizerBuilder {
+        private int subspaces = 8;
+        private int centroids = MAX_CENTROIDS;
+        private int iterations = 25;
+        private long randomSeed = 42L;
+        private Executor executor = ForkJoinPool.commonPool();
+
+        /** Number of slices M; the code size in bytes. Must divide the dimension. */
+        public ProductQuantizerBuilder subspaces(int subspaces) {
+            this.subspaces = subspaces;
+            return this;
+        }
+
+        /** Centroids per subspace, at most 256. */
+        public ProductQuantizerBuilder centroids(int centroids) {
+            this.centroids = centroids;
+            return this;
+        }
+
+        /** Upper bound on Lloyd iterations per subspace. */
+        public ProductQuantizerBuilder iterations(int iterations) {
+            this.iterations = iterations;
+            return this;
+        }
+
+        public ProductQuantizerBuilder randomSeed(long randomSeed) {
+            this.randomSeed = randomSeed;
+            return this;
+        }
+
+        /** Executor that trains subspaces in parallel. Defaults to the ForkJoin common pool. */
+        public ProductQuantizerBuilder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public ProductQuantizer build() {
+            if (subspaces <= 0) {
+                throw new IllegalArgumentException("subspaces must be positive");
+            }
+            if (centroids <= 0 || centroids > MAX_CENTROIDS) {
+                throw new IllegalArgumentException("centroids must be between 1 and " + MAX_CENTROIDS);
+            }
+            if (iterations <= 0) {
+                throw new IllegalArgumentException("iterations must be positive");
+            }
+            ProductQuantizer pq = new ProductQuantizer();
+            pq.subspaces = this.subspaces;
+            pq.centroidCount = this.centroids;
+            pq.iterations = this.iterations;
+            pq.randomSeed = this.randomSeed;
+            pq.executor = this.executor;
+            return pq;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.github.vector.util;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * int8 scalar quantization: each dimension is mapped linearly from its [min, max] range, as
+ * learned from a sample, onto 256 levels. Codes are stored as unsigned bytes, a 4x reduction
+ * from float32. Values outside the learned range are clamped.
+ *
+ * <p>Distances are available symmetrically (code to code) and asymmetrically (float query to
+ * code); the asymmetric form only rounds the stored side and is the one to use for reranking.
+ */
+public final class ScalarQuantizer {
+    private static final int LEVELS = 255;
+
+    private final float[] min;
+    private final float[] step;
+    private final float[] stepSquared;
+
+    /**
+     * Build from known per-dimension bounds, e.g. ones saved from an earlier {@link #fit}.
+     */
+    public ScalarQuantizer(float[] min, float[] max) {
+        if (min.length != max.length) {
+            throw new IllegalArgumentException("min and max differ in length: " + min.length + " vs " + max.length);
+        }
+        this.min = min.clone();
+        this.step = new float[min.length];
+        this.stepSquared = new float[min.length];
+        for (int i = 0; i < min.length; i++) {
+            float range = max[i] - min[i];
+            if (range < 0) {
+                throw new IllegalArgumentException("max < min in dimension " + i);
+            }
+            step[i] = range / LEVELS;
+            stepSquared[i] = step[i] * step[i];
+        }
+    }
+
+    /**
+     * Learn per-dimension bounds from {@code nSamples} row-major vectors.
+     */
+    public static ScalarQuantizer fit(FloatBuffer sample, int nSamples, int dimension) {
+        if (nSamples <= 0 || dimension <= 0) {
+            throw new IllegalArgumentException("Sample must contain at least one vector");
+        }
+        float[] min = new float[dimension];
+        float[] max = new float[dimension];
+        Arrays.fill(min, Float.POSITIVE_INFINITY);
+        Arrays.fill(max, Float.NEGATIVE_INFINITY);
+        for (int s = 0; s < nSamples; s++) {
+            int row = s * dimension;
+            for (int i = 0; i < dimension; i++) {
+                float value = sample.get(row + i);
+                if (value < min[i]) {
+                    min[i] = value;
+                }
+                if (value > max[i]) {
+                    max[i] = value;
+                }
+            }
+        }
+        return new ScalarQuantizer(min, max);
+    }
+
+    public static ScalarQuantizer fit(float[][] sample) {
+        if (sample.length == 0) {
+            throw new IllegalArgumentException("Sample must contain at least one vector");
+        }
+        int dimension = sample[0].length;
+        FloatBuffer rows = FloatBuffer.allocate(sample.length * dimension);
+        for (float[] vector : sample) {
+            if (vector.length != dimension) {
+                throw new IllegalArgumentException("Vector dimensions differ: " + vector.length + " vs " + dimension);
+            }
+            rows.put(vector);
+        }
+        return fit(rows, sample.length, dimension);
+    }
+
+    public int getDimension() {
+        return min.length;
+    }
+
+    public float[] getMin() {
+        return min.clone();
+    }
+
+    public float[] getMax() {
+        float[] max = new float[min.length];
+        for (int i = 0; i < max.length; i++) {
+            max[i] = min[i] + step[i] * LEVELS;
+        }
+        return max;
+    }
+
+    public byte[] encode(float[] vector) {
+        byte[] codes = new byte[min.length];
+        encode(vector, codes, 0);
+        return codes;
+    }
+
+    /** Encode into {@code out[offset .. offset + dimension)}, for packing many codes in one array. */
+    public void encode(float[] vector, byte[] out, int offset) {
+        checkDimension(vector.length);
+        for (int i = 0; i < min.length; i++) {
+            int level = step[i] == 0.0f ? 0 : Math.round((vector[i] - min[i]) / step[i]);
+            out[offset + i] = (byte) Math.max(0, Math.min(LEVELS, level));
+        }
+    }
+
+    public float[] decode(byte[] codes) {
+        checkDimension(codes.length);
+        float[] vector = new float[min.length];
+        for (int i = 0; i < min.length; i++) {
+            vector[i] = min[i] + step[i] * (codes[i] & 0xFF);
+        }
+        return vector;
+    }
+
+    /** Squared L2 distance between two codes, in the original units. */
+    public float squaredL2Distance(byte[] a, byte[] b) {
+        checkDimension(a.length);
+        checkDimension(b.length);
+        float sum = 0.0f;
+        for (int i = 0; i < min.length; i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            sum += stepSquared[i] * (diff * diff);
+        }
+        return sum;
+    }
+
+    /** Squared L2 distance between a float query and a code. */
+    public float squaredL2Distance(float[] query, byte[] code) {
+        checkDimension(query.length);
+        checkDimension(code.length);
+        float sum = 0.0f;
+        for (int i = 0; i < min.length; i++) {
+            float diff = query[i] - (min[i] + step[i] * (code[i] & 0xFF));
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /** Dot product of two codes, in the original units. */
+    public float dotProduct(byte[] a, byte[] b) {
+        checkDimension(a.length);
+        checkDimension(b.length);
+        float sum = 0.0f;
+        for (int i = 0; i < min.length; i++) {
+            sum += (min[i] + step[i] * (a[i] & 0xFF)) * (min[i] + step[i] * (b[i] & 0xFF));
+        }
+        return sum;
+    }
+
+    /** Dot product of a float query and a code. */
+    public float dotProduct(float[] query, byte[] code) {
+        checkDimension(query.length);
+        checkDimension(code.length);
+        float sum = 0.0f;
+        for (int i = 0; i < min.length; i++) {
+            sum += query[i] * (min[i] + step[i] * (code[i] & 0xFF));
+        }
+        return sum;
+    }
+
+    private void checkDimension(int length) {
+        if (length != min.length) {
+            throw new IllegalArgumentException("Vector dimensions differ: " + length + " vs " + min.length);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.vector.util;
+
+/**
+ * Portable kernels. Each loop keeps four independent accumulators so the JIT can pipeline
+ * the floating point adds instead of serializing on a single dependency chain.
+ */
+public final class ScalarVectorKernels implements VectorKernels {
+
+    @Override
+    public float dotProduct(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (int bound = length & ~3; i < bound; i += 4) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public float cosineSimilarity(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float d0 = 0f, d1 = 0f, d2 = 0f, d3 = 0f;
+        float na0 = 0f, na1 = 0f, na2 = 0f, na3 = 0f;
+        float nb0 = 0f, nb1 = 0f, nb2 = 0f, nb3 = 0f;
+        int i = 0;
+        for (int bound = length & ~3; i < bound; i += 4) {
+            float x0 = a[aOffset + i], x1 = a[aOffset + i + 1], x2 = a[aOffset + i + 2], x3 = a[aOffset + i + 3];
+            float y0 = b[bOffset + i], y1 = b[bOffset + i + 1], y2 = b[bOffset + i + 2], y3 = b[bOffset + i + 3];
+            d0 += x0 * y0;
+            d1 += x1 * y1;
+            d2 += x2 * y2;
+            d3 += x3 * y3;
+            na0 += x0 * x0;
+            na1 += x1 * x1;
+            na2 += x2 * x2;
+            na3 += x3 * x3;
+            nb0 += y0 * y0;
+            nb1 += y1 * y1;
+            nb2 += y2 * y2;
+            nb3 += y3 * y3;
+        }
+        for (; i < length; i++) {
+            float x = a[aOffset + i];
+            float y = b[bOffset + i];
+            d0 += x * y;
+            na0 += x * x;
+            nb0 += y * y;
+        }
+        return VectorUtil.cosineFromParts((d0 + d1) + (d2 + d3), (na0 + na1) + (na2 + na3), (nb0 + nb1) + (nb2 + nb3));
+    }
+
+    @Override
+    public float squaredL2Distance(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (int bound = length & ~3; i < bound; i += 4) {
+            float d0 = a[aOffset + i] - b[bOffset + i];
+            float d1 = a[aOffset + i + 1] - b[bOffset + i + 1];
+            float d2 = a[aOffset + i + 2] - b[bOffset + i + 2];
+            float d3 = a[aOffset + i + 3] - b[bOffset + i + 3];
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        for (; i < length; i++) {
+            float d = a[aOffset + i] - b[bOffset + i];
+            s0 += d * d;
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public float l1Distance(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (int bound = length & ~3; i < bound; i += 4) {
+            s0 += Math.abs(a[aOffset + i] - b[bOffset + i]);
+            s1 += Math.abs(a[aOffset + i + 1] - b[bOffset + i + 1]);
+            s2 += Math.abs(a[aOffset + i + 2] - b[bOffset + i + 2]);
+            s3 += Math.abs(a[aOffset + i + 3] - b[bOffset + i + 3]);
+        }
+        for (; i < length; i++) {
+            s0 += Math.abs(a[aOffset + i] - b[bOffset + i]);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
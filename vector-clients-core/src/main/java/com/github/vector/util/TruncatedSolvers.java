@@ -0,0 +1,282 @@
+package com.github.vector.util;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+/**
+ * Solvers that compute only the leading {@code k} principal directions instead of a full
+ * eigendecomposition. Matrices are row-major float arrays; every basis is stored as rows so
+ * that orthonormalization and projections run over contiguous memory.
+ */
+final class TruncatedSolvers {
+    // Relative tolerance and sweep cap for the small dense eigenproblems (size k or k + oversamples)
+    private static final double SMALL_EIGEN_TOLERANCE = 1e-12;
+    private static final int SMALL_EIGEN_SWEEPS = 100;
+
+    private TruncatedSolvers() {}
+
+    /**
+     * Randomized range finder (Halko, Martinsson and Tropp) on the centered data x (n×d).
+     * The covariance matrix is never formed: each pass costs O(n·d·l) with l = k + oversamples.
+     *
+     * @param components     output, k×d
+     * @param singularSquared output, the k largest squared singular values of x in descending
+     *                        order; divide by n - 1 for the explained variance of centered data
+     */
+    static void randomized(float[] x, int n, int d, int k, int oversamples, int powerIterations, long seed,
+                           float[] components, float[] singularSquared, Executor executor) {
+        int l = Math.max(k, Math.min(k + oversamples, d));
+
+        float[] omega = gaussian(l, d, seed);
+        float[] q = new float[l * n];
+        float[] y = new float[n * l];
+        float[] z = new float[l * d];
+
+        // Q = orth(X Ω)
+        MatrixKernels.multiplyTransposed(x, omega, y, n, d, l, executor);
+        transpose(y, n, l, q);
+        orthonormalizeRows(q, l, n);
+
+        // subspace iterations sharpen the spectrum decay: Q = orth(X Xᵀ Q)
+        for (int iter = 0; iter < powerIterations; iter++) {
+            MatrixKernels.multiply(q, x, z, l, n, d, executor);
+            orthonormalizeRows(z, l, d);
+            MatrixKernels.multiplyTransposed(x, z, y, n, d, l, executor);
+            transpose(y, n, l, q);
+            orthonormalizeRows(q, l, n);
+        }
+
+        // B = Qᵀ X (l×d); the right singular vectors of B are the principal directions
+        float[] b = z;
+        MatrixKernels.multiply(q, x, b, l, n, d, executor);
+        float[] gram = new float[l * l];
+        MatrixKernels.multiplyTransposed(b, b, gram, l, d, l, null);
+
+        double[] values = new double[l];
+        double[] vectors = new double[l * l];
+        symmetricEigen(toDouble(gram), l, values, vectors);
+
+        for (int c = 0; c < k; c++) {
+            double singular = Math.sqrt(Math.max(values[c], 0.0));
+            singularSquared[c] = (float) Math.max(values[c], 0.0);
+            int row = c * d;
+            Arrays.fill(components, row, row + d, 0.0f);
+            if (singular < 1e-12) {
+                continue;
+            }
+            // v_c = Bᵀ u_c / σ_c
+            for (int j = 0; j < l; j++) {
+                float weight = (float) (vectors[j * l + c] / singular);
+                int bRow = j * d;
+                for (int f = 0; f < d; f++) {
+                    components[row + f] += weight * b[bRow + f];
+                }
+            }
+        }
+    }
+
+    /**
+     * Block power (subspace) iteration on the covariance matrix (d×d), followed by a
+     * Rayleigh-Ritz step. Stops when every direction moved by less than {@code tolerance}
+     * between iterations, or after {@code maxIterations}.
+     *
+     * @return the number of iterations performed
+     */
+    static int power(float[] covariance, int d, int k, double tolerance, int maxIterations, long seed,
+                     float[] components, float[] variances, Executor executor) {
+        float[] v = gaussian(k, d, seed);
+        orthonormalizeRows(v, k, d);
+        float[] w = new float[k * d];
+
+        int iterations = 0;
+        while (iterations < maxIterations) {
+            iterations++;
+            // covariance is symmetric, so V C computes (C Vᵀ)ᵀ
+            MatrixKernels.multiply(v, covariance, w, k, d, d, executor);
+            orthonormalizeRows(w, k, d);
+
+            double change = 0.0;
+            for (int c = 0; c < k; c++) {
+                double cos = Math.abs(VectorUtil.getKernels().dotProduct(v, c * d, w, c * d, d));
+                change = Math.max(change, 1.0 - cos);
+            }
+            float[] swap = v;
+            v = w;
+            w = swap;
+            if (change < tolerance) {
+                break;
+            }
+        }
+
+        // Rayleigh-Ritz: H = V C Vᵀ (k×k), rotate V onto H's eigenvectors
+        MatrixKernels.multiply(v, covariance, w, k, d, d, executor);
+        float[] h = new float[k * k];
+        MatrixKernels.multiplyTransposed(w, v, h, k, d, k, null);
+
+        double[] values = new double[k];
+        double[] vectors = new double[k * k];
+        symmetricEigen(toDouble(h), k, values, vectors);
+
+        Arrays.fill(components, 0, k * d, 0.0f);
+        for (int c = 0; c < k; c++) {
+            variances[c] = (float) values[c];
+            int row = c * d;
+            for (int j = 0; j < k; j++) {
+                float weight = (float) vectors[j * k + c];
+                int vRow = j * d;
+                for (int f = 0; f < d; f++) {
+                    components[row + f] += weight * v[vRow + f];
+                }
+            }
+        }
+        return iterations;
+    }
+
+    /**
+     * Cyclic Jacobi on a small dense symmetric matrix, in double precision. Eigenvalues are
+     * returned in descending order; eigenvector c is column c of {@code vectors} (n×n).
+     * The input matrix is overwritten.
+     */
+    static void symmetricEigen(double[] a, int n, double[] values, double[] vectors) {
+        for (int i = 0; i < n * n; i++) {
+            vectors[i] = 0.0;
+        }
+        for (int i = 0; i < n; i++) {
+            vectors[i * n + i] = 1.0;
+        }
+
+        double norm = 0.0;
+        for (double value : a) {
+            norm += value * value;
+        }
+        double threshold = SMALL_EIGEN_TOLERANCE * SMALL_EIGEN_TOLERANCE * norm;
+
+        for (int sweep = 0; sweep < SMALL_EIGEN_SWEEPS; sweep++) {
+            double off = 0.0;
+            for (int p = 0; p < n - 1; p++) {
+                for (int q = p + 1; q < n; q++) {
+                    off += a[p * n + q] * a[p * n + q];
+                }
+            }
+            if (off <= threshold) {
+                break;
+            }
+            for (int p = 0; p < n - 1; p++) {
+                for (int q = p + 1; q < n; q++) {
+                    double apq = a[p * n + q];
+                    if (apq == 0.0) {
+                        continue;
+                    }
+                    double theta = (a[q * n + q] - a[p * n + p]) / (2.0 * apq);
+                    double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1.0));
+                    if (theta == 0.0) {
+                        t = 1.0;
+                    }
+                    double c = 1.0 / Math.sqrt(t * t + 1.0);
+                    double s = t * c;
+                    for (int r = 0; r < n; r++) {
+                        double arp = a[r * n + p];
+                        double arq = a[r * n + q];
+                        a[r * n + p] = c * arp - s * arq;
+                        a[r * n + q] = s * arp + c * arq;
+                    }
+                    for (int r = 0; r < n; r++) {
+                        double apr = a[p * n + r];
+                        double aqr = a[q * n + r];
+                        a[p * n + r] = c * apr - s * aqr;
+                        a[q * n + r] = s * apr + c * aqr;
+                    }
+                    for (int r = 0; r < n; r++) {
+                        double vrp = vectors[r * n + p];
+                        double vrq = vectors[r * n + q];
+                        vectors[r * n + p] = c * vrp - s * vrq;
+                        vectors[r * n + q] = s * vrp + c * vrq;
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            values[i] = a[i * n + i];
+        }
+        sortDescending(values, vectors, n);
+    }
+
+    /** Selection sort of eigenpairs by eigenvalue, swapping eigenvector columns alongside. */
+    static void sortDescending(double[] values, double[] vectors, int n) {
+        for (int i = 0; i < n - 1; i++) {
+            int best = i;
+            for (int j = i + 1; j < n; j++) {
+                if (values[j] > values[best]) {
+                    best = j;
+                }
+            }
+            if (best == i) {
+                continue;
+            }
+            double value = values[i];
+            values[i] = values[best];
+            values[best] = value;
+            for (int r = 0; r < n; r++) {
+                double v = vectors[r * n + i];
+                vectors[r * n + i] = vectors[r * n + best];
+                vectors[r * n + best] = v;
+            }
+        }
+    }
+
+    /**
+     * Modified Gram-Schmidt over the rows of m (rows×cols), run twice for stability in float.
+     * Rows that are numerically dependent on earlier ones are left as zero.
+     */
+    static void orthonormalizeRows(float[] m, int rows, int cols) {
+        VectorKernels kernels = VectorUtil.getKernels();
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < rows; i++) {
+                int row = i * cols;
+                for (int j = 0; j < i; j++) {
+                    float projection = kernels.dotProduct(m, row, m, j * cols, cols);
+                    if (projection == 0.0f) {
+                        continue;
+                    }
+                    int other = j * cols;
+                    for (int c = 0; c < cols; c++) {
+                        m[row + c] -= projection * m[other + c];
+                    }
+                }
+                float norm = (float) Math.sqrt(kernels.dotProduct(m, row, m, row, cols));
+                float inverse = norm > 1e-20f ? 1.0f / norm : 0.0f;
+                for (int c = 0; c < cols; c++) {
+                    m[row + c] *= inverse;
+                }
+            }
+        }
+    }
+
+    private static float[] gaussian(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        float[] m = new float[rows * cols];
+        for (int i = 0; i < m.length; i++) {
+            m[i] = (float) random.nextGaussian();
+        }
+        return m;
+    }
+
+    private static void transpose(float[] src, int rows, int cols, float[] dst) {
+        for (int i = 0; i < rows; i++) {
+            int row = i * cols;
+            for (int j = 0; j < cols; j++) {
+                dst[j * rows + i] = src[row + j];
+            }
+        }
+    }
+
+    private static double[] toDouble(float[] m) {
+        double[] out = new double[m.length];
+        for (int i = 0; i < m.length; i++) {
+            out[i] = m[i];
+        }
+        return out;
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.vector.util;
+
+/**
+ * Distance kernels over float ranges. Implementations are stateless and thread-safe.
+ * {@link VectorUtil} picks one at class initialization; use it rather than an implementation
+ * directly unless you need to compare them.
+ */
+public interface VectorKernels {
+
+    float dotProduct(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    /**
+     * @return cosine similarity in [-1, 1], or 0 if either range has zero norm
+     */
+    float cosineSimilarity(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    float squaredL2Distance(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    float l1Distance(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    /**
+     * @return short name for logging, e.g. "scalar" or "simd-256"
+     */
+    String name();
+}
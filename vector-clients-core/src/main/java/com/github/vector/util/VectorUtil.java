@@ -1,7 +1,168 @@
 package com.github.vector.util;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-// for vector operations
+import java.nio.FloatBuffer;
 
-public class VectorUtil {
+/**
+ * Vector operations used for reranking, filtering and index construction.
+ *
+ * <p>Kernels are chosen once, when this class initializes: the SIMD implementation when the
+ * JVM was started with {@code --add-modules jdk.incubator.vector}, otherwise the scalar one.
+ * Set the system property {@code vector.simd.disabled=true} to force the scalar path.
+ *
+ * <p>FloatBuffer variants operate on the elements between position and limit and do not
+ * modify the buffers' positions.
+ */
+public final class VectorUtil {
+    private static final Logger logger = LoggerFactory.getLogger(VectorUtil.class);
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final VectorKernels KERNELS = selectKernels();
+
+    private static final ThreadLocal<float[][]> SCRATCH = ThreadLocal.withInitial(() -> new float[2][0]);
+
+    private VectorUtil() {}
+
+    public static VectorKernels getKernels() {
+        return KERNELS;
+    }
+
+    public static boolean isSimdEnabled() {
+        return !(KERNELS instanceof ScalarVectorKernels);
+    }
+
+    // === float[] ===
+
+    public static float dotProduct(float[] a, float[] b) {
+        checkLengths(a.length, b.length);
+        return KERNELS.dotProduct(a, 0, b, 0, a.length);
+    }
+
+    public static float cosineSimilarity(float[] a, float[] b) {
+        checkLengths(a.length, b.length);
+        return KERNELS.cosineSimilarity(a, 0, b, 0, a.length);
+    }
+
+    public static float cosineDistance(float[] a, float[] b) {
+        return 1.0f - cosineSimilarity(a, b);
+    }
+
+    public static float squaredL2Distance(float[] a, float[] b) {
+        checkLengths(a.length, b.length);
+        return KERNELS.squaredL2Distance(a, 0, b, 0, a.length);
+    }
+
+    public static float l2Distance(float[] a, float[] b) {
+        return (float) Math.sqrt(squaredL2Distance(a, b));
+    }
+
+    public static float l1Distance(float[] a, float[] b) {
+        checkLengths(a.length, b.length);
+        return KERNELS.l1Distance(a, 0, b, 0, a.length);
+    }
+
+    // === FloatBuffer ===
+
+    public static float dotProduct(FloatBuffer a, FloatBuffer b) {
+        return apply(a, b, Op.DOT);
+    }
+
+    public static float cosineSimilarity(FloatBuffer a, FloatBuffer b) {
+        return apply(a, b, Op.COSINE);
+    }
+
+    public static float cosineDistance(FloatBuffer a, FloatBuffer b) {
+        return 1.0f - cosineSimilarity(a, b);
+    }
+
+    public static float squaredL2Distance(FloatBuffer a, FloatBuffer b) {
+        return apply(a, b, Op.SQUARED_L2);
+    }
+
+    public static float l2Distance(FloatBuffer a, FloatBuffer b) {
+        return (float) Math.sqrt(squaredL2Distance(a, b));
+    }
+
+    public static float l1Distance(FloatBuffer a, FloatBuffer b) {
+        return apply(a, b, Op.L1);
+    }
+
+    /**
+     * Copies the elements between position and limit into a new array.
+     */
+    public static float[] toArray(FloatBuffer vector) {
+        float[] array = new float[vector.remaining()];
+        vector.get(vector.position(), array);
+        return array;
+    }
+
+    static float cosineFromParts(float dot, float normA, float normB) {
+        if (normA == 0.0f || normB == 0.0f) {
+            return 0.0f;
+        }
+        return (float) (dot / Math.sqrt((double) normA * normB));
+    }
+
+    private enum Op { DOT, COSINE, SQUARED_L2, L1 }
+
+    private static float apply(FloatBuffer a, FloatBuffer b, Op op) {
+        int length = a.remaining();
+        checkLengths(length, b.remaining());
+
+        float[] arrayA;
+        int offsetA;
+        float[] arrayB;
+        int offsetB;
+        if (a.hasArray() && b.hasArray()) {
+            arrayA = a.array();
+            offsetA = a.arrayOffset() + a.position();
+            arrayB = b.array();
+            offsetB = b.arrayOffset() + b.position();
+        } else {
+            // direct or read-only buffers: one bulk copy each, then the same kernel. A virtual
+            // thread rarely lives for a second call, so it copies into fresh arrays rather than
+            // growing a thread-local map it will not reuse
+            float[][] scratch = Thread.currentThread().isVirtual() ? new float[2][0] : SCRATCH.get();
+            if (scratch[0].length < length) {
+                scratch[0] = new float[length];
+                scratch[1] = new float[length];
+            }
+            arrayA = scratch[0];
+            arrayB = scratch[1];
+            a.get(a.position(), arrayA, 0, length);
+            b.get(b.position(), arrayB, 0, length);
+            offsetA = 0;
+            offsetB = 0;
+        }
+
+        return switch (op) {
+            case DOT -> KERNELS.dotProduct(arrayA, offsetA, arrayB, offsetB, length);
+            case COSINE -> KERNELS.cosineSimilarity(arrayA, offsetA, arrayB, offsetB, length);
+            case SQUARED_L2 -> KERNELS.squaredL2Distance(arrayA, offsetA, arrayB, offsetB, length);
+            case L1 -> KERNELS.l1Distance(arrayA, offsetA, arrayB, offsetB, length);
+        };
+    }
+
+    private static void checkLengths(int a, int b) {
+        if (a != b) {
+            throw new IllegalArgumentException("Vector dimensions differ: " + a + " vs " + b);
+        }
+    }
+
+    private static VectorKernels selectKernels() {
+        VectorKernels kernels = new ScalarVectorKernels();
+        if (!Boolean.getBoolean("vector.simd.disabled")
+                && ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                kernels = (VectorKernels) Class.forName("com.github.vector.util.SimdVectorKernels")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.warn("SIMD kernels unavailable, falling back to scalar: {}", e.toString());
+            }
+        }
+        logger.debug("Using {} vector kernels", kernels.name());
+        return kernels;
+    }
 }
@@ -0,0 +1,101 @@
+package com.github.vectortest.client;
+
+import com.github.vector.client.DirectoryPCAModelStore;
+import com.github.vector.util.PCA;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirectoryPCAModelStoreTest {
+    private Path dir;
+    private DirectoryPCAModelStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("pca-store");
+        // a directory that does not exist yet, created on the first save
+        store = new DirectoryPCAModelStore(dir.resolve("models"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (var files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static PCA fitted(long seed) {
+        Random random = new Random(seed);
+        FloatBuffer data = FloatBuffer.allocate(100 * 8);
+        for (int i = 0; i < data.capacity(); i++) {
+            data.put(i, (float) random.nextGaussian() * (1 + i % 8));
+        }
+        PCA pca = PCA.builder().nComponents(3).build();
+        pca.fit(data, 100, 8);
+        return pca;
+    }
+
+    @Test
+    @DisplayName("Should load a saved model that transforms identically")
+    void shouldRoundTrip() throws IOException {
+        PCA pca = fitted(3);
+        store.save("docs", pca);
+        PCA loaded = store.load("docs");
+
+        assertEquals(8, loaded.getNumFeatures());
+        assertEquals(3, loaded.getNumComponents());
+        FloatBuffer row = FloatBuffer.wrap(new float[]{1, -2, 3, -4, 5, -6, 7, -8});
+        FloatBuffer expected = pca.transform(row, 1);
+        FloatBuffer actual = loaded.transform(row, 1);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expected.get(i), actual.get(i), 1e-6f);
+        }
+    }
+
+    @Test
+    @DisplayName("Should replace a model and leave no temporary files behind")
+    void shouldReplaceModel() throws IOException {
+        store.save("docs", fitted(1));
+        PCA second = fitted(2);
+        store.save("docs", second);
+
+        try (var files = Files.list(dir.resolve("models"))) {
+            assertEquals(List.of(store.pathOf("docs")), files.toList());
+        }
+        assertEquals(second.getMean().get(0), store.load("docs").getMean().get(0));
+    }
+
+    @Test
+    @DisplayName("Should return null for a collection without a model")
+    void shouldLoadMissingAsNull() throws IOException {
+        assertNull(store.load("docs"));
+    }
+
+    @Test
+    @DisplayName("Should refuse an unfitted model")
+    void shouldRejectUnfitted() {
+        assertThrows(IllegalArgumentException.class, () -> store.save("docs", PCA.builder().nComponents(2).build()));
+    }
+
+    @Test
+    @DisplayName("Should reject collection names that leave the directory or hide the file")
+    void shouldRejectUnsafeNames() {
+        assertEquals(dir.resolve("models").resolve("docs.pca"), store.pathOf("docs"));
+        for (String name : List.of("../x", "a/b", "a\\b", ".hidden", "")) {
+            assertThrows(IllegalArgumentException.class, () -> store.pathOf(name), name);
+        }
+    }
+}
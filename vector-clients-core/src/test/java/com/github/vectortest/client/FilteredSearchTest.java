@@ -0,0 +1,126 @@
+package com.github.vectortest.client;
+
+import com.github.vector.Config;
+import com.github.vector.client.FilterPlanner;
+import com.github.vector.client.FilterStrategy;
+import com.github.vector.client.FilteredSearchResult;
+import com.github.vector.client.HnswClient;
+import com.github.vector.data.Embedding;
+import com.github.vector.data.Metadata;
+import com.github.vector.data.filter.Filter;
+import com.github.vector.util.DistanceMetric;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FilteredSearchTest {
+    private static final int DIM = 16;
+    private static final int COUNT = 2000;
+
+    private static final float[][] VECTORS = new float[COUNT][DIM];
+
+    static {
+        Random random = new Random(42);
+        for (float[] vector : VECTORS) {
+            for (int d = 0; d < DIM; d++) {
+                vector[d] = random.nextFloat();
+            }
+        }
+    }
+
+    private static Metadata metadata(int i) {
+        return new Metadata(Map.of("bucket", i % 100, "half", i % 2));
+    }
+
+    private static HnswClient client(int exactScanRows) throws Throwable {
+        Config config = new Config();
+        config.setAdditionalProperty("filter.exactScanRows", exactScanRows);
+        HnswClient client = new HnswClient();
+        client.connect(config);
+        for (int i = 0; i < COUNT; i++) {
+            client.store(new Embedding("e" + i, VECTORS[i], null, metadata(i), "docs"));
+        }
+        return client;
+    }
+
+    private static List<String> exact(float[] query, Filter filter, int topK) {
+        return IntStream.range(0, COUNT)
+                .filter(i -> filter.test(metadata(i)))
+                .boxed()
+                .sorted(Comparator.comparingDouble(i -> DistanceMetric.L2.distance(query, VECTORS[i])))
+                .limit(topK)
+                .map(i -> "e" + i)
+                .toList();
+    }
+
+    private static List<String> ids(FilteredSearchResult result) {
+        return result.getResults().stream().map(Embedding::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Should choose the strategy from the expected number of matches")
+    void shouldChooseStrategyFromSelectivity() {
+        FilterPlanner planner = new FilterPlanner(1000, 0.2);
+        assertEquals(FilterStrategy.PRE_FILTER_EXACT, planner.choose(0.001, 1_000_000, true));
+        assertEquals(FilterStrategy.POST_FILTER_EXPANDING, planner.choose(0.5, 1_000_000, true));
+        assertEquals(FilterStrategy.ITERATIVE_INDEX_SCAN, planner.choose(0.05, 1_000_000, true));
+        assertEquals(FilterStrategy.POST_FILTER_EXPANDING, planner.choose(0.05, 1_000_000, false));
+        assertEquals(100, planner.initialCandidates(10, 0.15));
+        assertThrows(IllegalArgumentException.class, () -> new FilterPlanner(10, 0));
+    }
+
+    @Test
+    @DisplayName("Should scan exactly when few embeddings match")
+    void shouldScanExactlyForSelectiveFilters() throws Throwable {
+        HnswClient client = client(FilterPlanner.DEFAULT_EXACT_SCAN_ROWS);
+        float[] query = VECTORS[3];
+        Filter filter = Filter.eq("bucket", 7);
+        FilteredSearchResult result = client.searchFiltered(new Embedding(query, null, null, "docs"), 10, filter);
+        assertEquals(FilterStrategy.PRE_FILTER_EXACT, result.getStrategy());
+        assertEquals(exact(query, filter, 10), ids(result));
+    }
+
+    @Test
+    @DisplayName("Should post-filter and iterate in the index for broader filters")
+    void shouldUseIndexForBroadFilters() throws Throwable {
+        HnswClient client = client(50);
+        float[] query = VECTORS[3];
+
+        Filter half = Filter.eq("half", 0);
+        FilteredSearchResult postFiltered = client.searchFiltered(new Embedding(query, null, null, "docs"), 10, half);
+        assertEquals(FilterStrategy.POST_FILTER_EXPANDING, postFiltered.getStrategy());
+        assertEquals(exact(query, half, 10), ids(postFiltered));
+        assertTrue(postFiltered.getCandidatesExamined() >= 10);
+
+        Filter tenth = Filter.lt("bucket", 10);
+        FilteredSearchResult iterative = client.searchFiltered(new Embedding(query, null, null, "docs"), 10, tenth);
+        assertEquals(FilterStrategy.ITERATIVE_INDEX_SCAN, iterative.getStrategy());
+        assertEquals(exact(query, tenth, 10), ids(iterative));
+        assertTrue(iterative.toString().startsWith("ITERATIVE_INDEX_SCAN"));
+    }
+
+    @Test
+    @DisplayName("Should keep embeddings with the same id in different collections apart")
+    void shouldScopeEmbeddingsByCollection() throws Throwable {
+        HnswClient client = client(50);
+        Metadata other = new Metadata(Map.of("bucket", -1, "half", -1));
+        client.store(new Embedding("e0", VECTORS[1], null, other, "archive"));
+
+        Embedding docs = client.search(new Embedding(VECTORS[0], null, null, "docs"), 1).get(0);
+        assertEquals("docs", docs.getCollection());
+        assertArrayEquals(VECTORS[0], docs.getEmbedding());
+
+        FilteredSearchResult archived = client.searchFiltered(
+                new Embedding(VECTORS[1], null, null, "archive"), 5, Filter.eq("bucket", -1));
+        assertEquals(List.of("e0"), ids(archived));
+        assertEquals("archive", archived.getResults().get(0).getCollection());
+        assertEquals(1.0, archived.getEstimatedSelectivity());
+    }
+}
@@ -0,0 +1,241 @@
+package com.github.vectortest.client;
+
+import com.github.vector.client.Client;
+import com.github.vector.client.PCAClient;
+import com.github.vector.client.PCAModelStore;
+import com.github.vector.data.Embedding;
+import com.github.vector.exception.VectorClientException;
+import com.github.vector.util.DistanceMetric;
+import com.github.vector.util.PCA;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PCAClientTest {
+
+    /** Keeps models in memory and counts loads. */
+    private static final class MemoryModelStore implements PCAModelStore {
+        final Map<String, PCA> models = new HashMap<>();
+        final Map<String, Integer> loads = new HashMap<>();
+
+        @Override
+        public void save(String collection, PCA pca) {
+            models.put(collection, pca);
+        }
+
+        @Override
+        public PCA load(String collection) {
+            loads.merge(collection, 1, Integer::sum);
+            return models.get(collection);
+        }
+    }
+
+    private Client delegate;
+    private MemoryModelStore store;
+
+    @BeforeEach
+    public void setUp() {
+        delegate = mock(Client.class);
+        store = new MemoryModelStore();
+        // docs: 3 -> 2, keeps the first and last coordinates after centering on 1
+        store.models.put("docs", PCA.fromModel(new float[]{1f, 1f, 1f},
+                new float[]{1f, 0f, 0f, 0f, 0f, 1f}, new float[]{2f, 1f}, false));
+        // notes: 2 -> 1, keeps the second coordinate
+        store.models.put("notes", PCA.fromModel(new float[]{0f, 0f},
+                new float[]{0f, 1f}, new float[]{1f}, false));
+    }
+
+    private PCAClient client(boolean requireModel) {
+        return PCAClient.builder().delegate(delegate).modelStore(store).requireModel(requireModel).build();
+    }
+
+    private static Embedding embedding(String id, String collection, float... vector) {
+        return new Embedding(id, vector, null, null, collection);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<Embedding>> listCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    @Nested
+    @DisplayName("Store Tests")
+    class Store {
+        @Test
+        @DisplayName("Should store the reduced vector and leave the original untouched")
+        void shouldReduceOnStore() throws Throwable {
+            Embedding original = embedding("a", "docs", 3f, 5f, 7f);
+            client(true).store(original);
+
+            ArgumentCaptor<List<Embedding>> stored = listCaptor();
+            verify(delegate).batchStore(stored.capture());
+            Embedding reduced = stored.getValue().get(0);
+            assertArrayEquals(new float[]{2f, 6f}, reduced.getEmbedding(), 1e-6f);
+            assertEquals("a", reduced.getId());
+            assertEquals("docs", reduced.getCollection());
+            assertArrayEquals(new float[]{3f, 5f, 7f}, original.getEmbedding());
+        }
+
+        @Test
+        @DisplayName("Should reduce a mixed batch per collection and keep its order")
+        void shouldReduceMixedBatch() throws Throwable {
+            client(true).batchStore(List.of(
+                    embedding("a", "docs", 1f, 2f, 3f),
+                    embedding("b", "notes", 4f, 5f),
+                    embedding("c", "docs", 0f, 0f, 0f)));
+
+            ArgumentCaptor<List<Embedding>> stored = listCaptor();
+            verify(delegate).batchStore(stored.capture());
+            List<Embedding> reduced = stored.getValue();
+            assertEquals(List.of("a", "b", "c"), reduced.stream().map(Embedding::getId).toList());
+            assertArrayEquals(new float[]{0f, 2f}, reduced.get(0).getEmbedding(), 1e-6f);
+            assertArrayEquals(new float[]{5f}, reduced.get(1).getEmbedding(), 1e-6f);
+            assertArrayEquals(new float[]{-1f, -1f}, reduced.get(2).getEmbedding(), 1e-6f);
+            assertEquals(1, store.loads.get("docs"));
+            assertEquals(1, store.loads.get("notes"));
+        }
+
+        @Test
+        @DisplayName("Should report ids assigned by the wrapped client on the originals")
+        void shouldWriteBackIds() throws Throwable {
+            doAnswer(invocation -> {
+                List<Embedding> reduced = invocation.getArgument(0);
+                for (int i = 0; i < reduced.size(); i++) {
+                    if (reduced.get(i).getId() == null) {
+                        reduced.get(i).setId("generated-" + i);
+                    }
+                }
+                return null;
+            }).when(delegate).batchStore(anyList());
+
+            Embedding unnamed = embedding(null, "docs", 1f, 1f, 1f);
+            Embedding named = embedding("kept", "notes", 1f, 1f);
+            client(true).batchStore(List.of(named, unnamed));
+            assertEquals("kept", named.getId());
+            assertEquals("generated-1", unnamed.getId());
+        }
+
+        @Test
+        @DisplayName("Should reject a vector whose dimension does not match the model")
+        void shouldRejectWrongDimension() throws Throwable {
+            assertThrows(VectorClientException.class, () -> client(true).store(embedding("a", "docs", 1f, 2f)));
+            verify(delegate, never()).batchStore(anyList());
+        }
+    }
+
+    @Nested
+    @DisplayName("Search Tests")
+    class Search {
+        @Test
+        @DisplayName("Should search with the reduced query")
+        void shouldReduceQuery() throws Throwable {
+            Embedding result = embedding("hit", "docs", 0f, 0f);
+            when(delegate.search(any(Embedding.class), eq(3))).thenReturn(List.of(result));
+
+            List<Embedding> results = client(true).search(embedding(null, "docs", 2f, 9f, 4f), 3);
+            ArgumentCaptor<Embedding> query = ArgumentCaptor.forClass(Embedding.class);
+            verify(delegate).search(query.capture(), eq(3));
+            assertArrayEquals(new float[]{1f, 3f}, query.getValue().getEmbedding(), 1e-6f);
+            assertEquals(List.of(result), results);
+        }
+
+        @Test
+        @DisplayName("Should reduce a batch of queries from several collections")
+        void shouldReduceQueryBatch() throws Throwable {
+            client(true).searchBatch(List.of(embedding(null, "notes", 1f, 8f), embedding(null, "docs", 1f, 1f, 2f)), 5);
+
+            ArgumentCaptor<List<Embedding>> queries = listCaptor();
+            verify(delegate).searchBatch(queries.capture(), eq(5));
+            assertArrayEquals(new float[]{8f}, queries.getValue().get(0).getEmbedding(), 1e-6f);
+            assertArrayEquals(new float[]{0f, 1f}, queries.getValue().get(1).getEmbedding(), 1e-6f);
+        }
+    }
+
+    @Nested
+    @DisplayName("Model Tests")
+    class Models {
+        @Test
+        @DisplayName("Should reject a collection without a model when models are required")
+        void shouldRequireModel() throws Throwable {
+            VectorClientException error = assertThrows(VectorClientException.class,
+                    () -> client(true).store(embedding("a", "other", 1f, 2f, 3f)));
+            assertTrue(error.getMessage().contains("other"));
+            verify(delegate, never()).batchStore(anyList());
+        }
+
+        @Test
+        @DisplayName("Should pass vectors of a collection without a model through when allowed")
+        void shouldPassThroughWithoutModel() throws Throwable {
+            Embedding original = embedding("a", "other", 1f, 2f, 3f);
+            client(false).store(original);
+
+            ArgumentCaptor<List<Embedding>> stored = listCaptor();
+            verify(delegate).batchStore(stored.capture());
+            assertSame(original, stored.getValue().get(0));
+        }
+
+        @Test
+        @DisplayName("Should ask the store once for a collection without a model")
+        void shouldCacheMissingModel() throws Throwable {
+            PCAClient client = client(false);
+            assertNull(client.getModel("other"));
+            assertNull(client.getModel("other"));
+            assertEquals(1, store.loads.get("other"));
+        }
+
+        @Test
+        @DisplayName("Should persist and use a registered model, and refuse an unfitted one")
+        void shouldRegisterModel() throws Throwable {
+            PCAClient client = client(true);
+            PCA pca = PCA.fromModel(new float[]{0f}, new float[]{2f}, new float[]{1f}, false);
+            client.registerModel("scalars", pca);
+            assertSame(pca, store.models.get("scalars"));
+            assertSame(pca, client.getModel("scalars"));
+
+            assertThrows(VectorClientException.class, () -> client.registerModel("x", PCA.builder().nComponents(1).build()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Create Collection Tests")
+    class CreateCollection {
+        @Test
+        @DisplayName("Should create the wrapped collection with the model's component count")
+        void shouldCreateReducedCollection() throws Throwable {
+            client(true).createCollection("docs", 3, DistanceMetric.COSINE, null);
+            verify(delegate).createCollection(eq("docs"), eq(2), eq(DistanceMetric.COSINE), isNull());
+        }
+
+        @Test
+        @DisplayName("Should reject a dimension that differs from the model's")
+        void shouldRejectDimensionMismatch() throws Throwable {
+            assertThrows(VectorClientException.class,
+                    () -> client(true).createCollection("docs", 4, DistanceMetric.COSINE, null));
+            verify(delegate, never()).createCollection(any(), eq(4), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should keep the dimension of a collection without a model")
+        void shouldKeepDimensionWithoutModel() throws Throwable {
+            client(false).createCollection("other", 8, DistanceMetric.L2, null);
+            verify(delegate).createCollection(eq("other"), eq(8), eq(DistanceMetric.L2), isNull());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.vectortest.client;
+
+import com.github.vector.Config;
+import com.github.vector.client.Client;
+import com.github.vector.client.VirtualThreadAsyncClient;
+import com.github.vector.data.Embedding;
+import com.github.vector.exception.VectorClientException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadAsyncClientTest {
+
+    /** Blocking client whose searches sleep, recording how many overlap. */
+    private static final class SlowClient implements Client {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final long sleepMillis;
+
+        SlowClient(long sleepMillis) {
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public void connect(Config config) {}
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void disconnect() {}
+
+        @Override
+        public void createCollection(String collectionName) {}
+
+        @Override
+        public void store(Embedding embedding) throws VectorClientException {
+            throw new VectorClientException("read-only");
+        }
+
+        @Override
+        public void batchStore(List<Embedding> embeddings) {}
+
+        @Override
+        public List<Embedding> search(Embedding embedding, int topK) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return List.of(embedding);
+        }
+
+        @Override
+        public void delete(String embeddingId) {
+            throw new LinkageError("class went missing");
+        }
+    }
+
+    @Test
+    @DisplayName("Should run many operations without exceeding the concurrency limit")
+    void shouldLimitConcurrency() {
+        SlowClient slow = new SlowClient(5);
+        try (VirtualThreadAsyncClient client = VirtualThreadAsyncClient.builder(slow).maxConcurrency(8).build()) {
+            List<CompletableFuture<List<Embedding>>> futures = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                futures.add(client.search(new Embedding("q" + i, new float[]{i}, null, null, "docs"), 1));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals("q" + i, futures.get(i).join().get(0).getId());
+            }
+            assertEquals(8, slow.maxRunning.get());
+            assertEquals(0, client.getInFlight());
+        }
+    }
+
+    @Test
+    @DisplayName("Should complete exceptionally with the client's exception")
+    void shouldPropagateFailures() {
+        try (VirtualThreadAsyncClient client = VirtualThreadAsyncClient.builder(new SlowClient(0)).build()) {
+            CompletionException e = assertThrows(CompletionException.class,
+                    () -> client.store(new Embedding(new float[]{1}, null, null, "docs")).join());
+            assertInstanceOf(VectorClientException.class, e.getCause());
+        }
+    }
+
+    @Test
+    @DisplayName("Should complete exceptionally when the client throws an error")
+    void shouldPropagateErrors() {
+        try (VirtualThreadAsyncClient client = VirtualThreadAsyncClient.builder(new SlowClient(0)).build()) {
+            CompletionException e = assertThrows(CompletionException.class, () -> client.delete("e1").join());
+            assertInstanceOf(LinkageError.class, e.getCause());
+            assertEquals(0, client.getInFlight());
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail operations that cannot start within the acquire timeout")
+    void shouldTimeOutWaitingForCapacity() {
+        SlowClient slow = new SlowClient(200);
+        try (VirtualThreadAsyncClient client = VirtualThreadAsyncClient.builder(slow)
+                .maxConcurrency(1).acquireTimeout(Duration.ofMillis(20)).build()) {
+            CompletableFuture<List<Embedding>> first = client.search(new Embedding(new float[]{1}, null, null, "docs"), 1);
+            while (client.getInFlight() == 0) {
+                Thread.onSpinWait();
+            }
+            CompletableFuture<List<Embedding>> second = client.search(new Embedding(new float[]{2}, null, null, "docs"), 1);
+            CompletionException e = assertThrows(CompletionException.class, second::join);
+            assertInstanceOf(VectorClientException.class, e.getCause());
+            assertEquals(1, first.join().size());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.vectortest.connection;
+
+import com.github.vector.Config;
+import com.github.vector.connection.ConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+    private List<Connection> opened;
+
+    @BeforeEach
+    public void setUp() {
+        Config config = new Config();
+        config.setMinPoolSize(1);
+        config.setMaxPoolSize(4);
+        config.setConnectionTimeout(Duration.ofMillis(200));
+        opened = new ArrayList<>();
+        pool = new ConnectionPool(config, () -> {
+            Connection connection = mock(Connection.class);
+            when(connection.isValid(anyInt())).thenReturn(true);
+            synchronized (opened) {
+                opened.add(connection);
+            }
+            return connection;
+        });
+        pool.initialize(1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown(false, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Nested
+    @DisplayName("Borrow and Return Tests")
+    class BorrowAndReturn {
+        @Test
+        @DisplayName("Should reuse the same physical connection after close")
+        void shouldReuseConnectionAfterClose() throws SQLException {
+            try (Connection connection = pool.getConnection()) {
+                assertFalse(connection.isClosed());
+            }
+            try (Connection ignored = pool.getConnection()) {
+                assertEquals(1, pool.getTotalConnections());
+                assertEquals(1, pool.getActiveConnections());
+            }
+            assertEquals(0, pool.getActiveConnections());
+        }
+
+        @Test
+        @DisplayName("Should reject use of a connection after it was returned")
+        void shouldRejectUseAfterReturn() throws SQLException {
+            Connection connection = pool.getConnection();
+            connection.close();
+            assertTrue(connection.isClosed());
+            assertThrows(SQLException.class, connection::createStatement);
+        }
+
+        @Test
+        @DisplayName("Should close the physical connection when returned as invalid")
+        void shouldDiscardInvalidConnection() throws SQLException {
+            Connection connection = pool.getConnection();
+            pool.returnInvalidConnection(connection);
+            verify(opened.get(0)).close();
+            assertEquals(0, pool.getTotalConnections());
+        }
+
+        @Test
+        @DisplayName("Should roll back and restore session properties on return")
+        void shouldResetSessionStateOnReturn() throws SQLException {
+            Connection physical = opened.get(0);
+            when(physical.getAutoCommit()).thenReturn(true, false);
+            try (Connection connection = pool.getConnection()) {
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+            }
+            InOrder order = inOrder(physical);
+            order.verify(physical).rollback();
+            order.verify(physical).setReadOnly(false);
+            order.verify(physical).setAutoCommit(true);
+            assertEquals(1, pool.getTotalConnections());
+        }
+
+        @Test
+        @DisplayName("Should close a returned connection whose transaction cannot be rolled back")
+        void shouldDiscardConnectionThatCannotBeReset() throws SQLException {
+            Connection physical = opened.get(0);
+            doThrow(new SQLException("connection lost")).when(physical).rollback();
+            pool.getConnection().close();
+            verify(physical).close();
+            assertEquals(0, pool.getTotalConnections());
+        }
+
+        @Test
+        @DisplayName("Should time out when the pool is exhausted")
+        void shouldTimeOutWhenExhausted() {
+            List<Connection> held = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                held.add(pool.getConnection());
+            }
+            assertThrows(IllegalStateException.class, () -> pool.getConnection(50, TimeUnit.MILLISECONDS));
+            held.forEach(pool::returnConnection);
+        }
+    }
+
+    @Nested
+    @DisplayName("Sizing Tests")
+    class Sizing {
+        @Test
+        @DisplayName("Should never open more than maxPoolSize connections under contention")
+        void shouldRespectMaxPoolSize() throws InterruptedException {
+            ExecutorService executor = Executors.newFixedThreadPool(32);
+            CountDownLatch done = new CountDownLatch(32);
+            AtomicInteger failures = new AtomicInteger();
+            for (int t = 0; t < 32; t++) {
+                executor.execute(() -> {
+                    try {
+                        for (int i = 0; i < 200; i++) {
+                            try (Connection ignored = pool.getConnection(1, TimeUnit.SECONDS)) {
+                                assertTrue(pool.getTotalConnections() <= 4);
+                            }
+                        }
+                    } catch (Exception | AssertionError e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+            executor.shutdown();
+            assertEquals(0, failures.get());
+            assertTrue(opened.size() <= 4);
+            assertEquals(0, pool.getActiveConnections());
+        }
+
+        @Test
+        @DisplayName("Should expand and shrink idle connections")
+        void shouldExpandAndShrink() {
+            assertEquals(3, pool.expandPool(10));
+            assertEquals(4, pool.getTotalConnections());
+            assertEquals(3, pool.shrinkPool(1));
+            assertEquals(1, pool.getTotalConnections());
+        }
+    }
+}
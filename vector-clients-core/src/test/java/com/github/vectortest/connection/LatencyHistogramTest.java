@@ -0,0 +1,47 @@
+package com.github.vectortest.connection;
+
+import com.github.vector.connection.LatencyHistogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Should report exact percentiles for small values")
+    void shouldReportExactSmallValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 20; i++) {
+            histogram.record(i);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(20, snapshot.getCount());
+        assertEquals(10, snapshot.getP50());
+        assertEquals(20, snapshot.getP99());
+        assertEquals(20, snapshot.getMax());
+    }
+
+    @Test
+    @DisplayName("Should keep percentile error within a few percent for large values")
+    void shouldBoundRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v * 1_000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(50_000_000, snapshot.getP50(), 50_000_000 * 0.04);
+        assertEquals(99_000_000, snapshot.getP99(), 99_000_000 * 0.04);
+        assertEquals(99_900_000, snapshot.getP999(), 99_900_000 * 0.04);
+    }
+
+    @Test
+    @DisplayName("Should return zero for an empty histogram and after reset")
+    void shouldHandleEmptyAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().getP99());
+        histogram.record(12_345);
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.vectortest.data;
+
+import com.github.vector.data.Metadata;
+import com.github.vector.data.filter.Filter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FilterTest {
+
+    private static Metadata metadata(Object... keyValues) {
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            values.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return new Metadata(values);
+    }
+
+    @Test
+    @DisplayName("Should compare numbers by value across Java types")
+    void shouldCompareNumbersByValue() {
+        Metadata doc = metadata("year", 2021L, "score", 0.5);
+        assertTrue(Filter.eq("year", 2021).test(doc));
+        assertTrue(Filter.eq("year", 2021.0).test(doc));
+        assertTrue(Filter.in("year", 2019, 2021).test(doc));
+        assertTrue(Filter.range("score", 0, 1).test(doc));
+        assertFalse(Filter.gt("score", 0.5f).test(doc));
+        assertTrue(Filter.lte("score", 0.5f).test(doc));
+    }
+
+    @Test
+    @DisplayName("Should not match values of another type")
+    void shouldNotMatchAcrossTypes() {
+        Metadata doc = metadata("year", "2021", "tags", List.of("a", "b"));
+        assertFalse(Filter.eq("year", 2021).test(doc));
+        assertFalse(Filter.gte("year", 2000).test(doc));
+        assertTrue(Filter.gte("year", "2000").test(doc));
+        assertFalse(Filter.eq("tags", "a").test(doc));
+    }
+
+    @Test
+    @DisplayName("Should treat missing keys and metadata as non-matching except under not")
+    void shouldHandleMissingValues() {
+        Metadata doc = metadata("deleted", null);
+        assertTrue(Filter.exists("deleted").test(doc));
+        assertFalse(Filter.exists("tenant").test(doc));
+        assertFalse(Filter.eq("tenant", "acme").test(null));
+        assertTrue(Filter.not(Filter.eq("tenant", "acme")).test(null));
+        assertTrue(Filter.not(Filter.gt("year", 1)).test(doc));
+    }
+
+    @Test
+    @DisplayName("Should combine filters with and, or and not")
+    void shouldCombineFilters() {
+        Filter filter = Filter.and(
+                Filter.eq("tenant", "acme"),
+                Filter.or(Filter.gte("year", 2020), Filter.eq("pinned", true)),
+                Filter.not(Filter.exists("deleted")));
+        assertTrue(filter.test(metadata("tenant", "acme", "year", 2022)));
+        assertTrue(filter.test(metadata("tenant", "acme", "year", 2001, "pinned", true)));
+        assertFalse(filter.test(metadata("tenant", "acme", "year", 2022, "deleted", true)));
+        assertFalse(filter.test(metadata("tenant", "other", "year", 2022)));
+    }
+
+    @Test
+    @DisplayName("Should reject non-scalar values and mixed range bounds")
+    void shouldRejectInvalidFilters() {
+        assertThrows(IllegalArgumentException.class, () -> Filter.eq("tags", List.of("a")));
+        assertThrows(IllegalArgumentException.class, () -> Filter.eq("score", Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> Filter.range("year", 1, "9"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.range("year", null, null));
+        assertThrows(IllegalArgumentException.class, () -> Filter.in("year", List.of()));
+        assertThrows(IllegalArgumentException.class, () -> Filter.and());
+    }
+
+    @Test
+    @DisplayName("Should compare filters by structure and values")
+    void shouldCompareFiltersByValue() {
+        Filter filter = Filter.and(Filter.in("lang", "en", "de"), Filter.not(Filter.range("year", 2020, 2024)));
+        Filter same = Filter.and(Filter.in("lang", List.of("en", "de")), Filter.not(Filter.range("year", 2020, 2024)));
+        assertEquals(filter, same);
+        assertEquals(filter.hashCode(), same.hashCode());
+
+        assertNotEquals(filter, Filter.or(Filter.in("lang", "en", "de"), Filter.not(Filter.range("year", 2020, 2024))));
+        assertNotEquals(Filter.gt("year", 2020), Filter.gte("year", 2020));
+        assertNotEquals(Filter.eq("year", 2020), Filter.eq("year", "2020"));
+        assertNotEquals(Filter.exists("a"), Filter.exists("b"));
+    }
+}
@@ -0,0 +1,200 @@
+package com.github.vectortest.embedding;
+
+import com.github.vector.data.Text;
+import com.github.vector.embedding.BatchingEmbeddingModel;
+import com.github.vector.embedding.EmbeddingModel;
+import com.github.vector.embedding.EmbeddingRequest;
+import com.github.vector.embedding.EmbeddingResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BatchingEmbeddingModelTest {
+
+    /** Model that records the size of every batch it receives; vectors hold the text's length. */
+    private static final class RecordingModel implements EmbeddingModel {
+        final List<Integer> batchSizes = new ArrayList<>();
+        Function<List<EmbeddingRequest>, CompletableFuture<List<EmbeddingResponse>>> responder = RecordingModel::respond;
+
+        static CompletableFuture<List<EmbeddingResponse>> respond(List<EmbeddingRequest> requests) {
+            return CompletableFuture.completedFuture(requests.stream()
+                    .map(request -> EmbeddingResponse.builder()
+                            .text(request.getText())
+                            .embedding(new float[]{request.getText().getContextString().length()})
+                            .build())
+                    .toList());
+        }
+
+        @Override
+        public CompletableFuture<EmbeddingResponse> embed(EmbeddingRequest request) {
+            throw new UnsupportedOperationException("single requests should be batched");
+        }
+
+        @Override
+        public synchronized CompletableFuture<List<EmbeddingResponse>> embedBatch(List<EmbeddingRequest> requests) {
+            batchSizes.add(requests.size());
+            return responder.apply(requests);
+        }
+
+        synchronized List<Integer> batchSizes() {
+            return List.copyOf(batchSizes);
+        }
+
+        @Override
+        public int getDimensions() {
+            return 1;
+        }
+
+        @Override
+        public int getMaxTokens() {
+            return -1;
+        }
+
+        @Override
+        public String getModelName() {
+            return "recording";
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return 100;
+        }
+    }
+
+    private static EmbeddingRequest request(String text) {
+        return EmbeddingRequest.builder().text(new Text(text)).build();
+    }
+
+    private static float first(CompletableFuture<EmbeddingResponse> response) {
+        return response.join().getEmbedding().get(0);
+    }
+
+    @Nested
+    @DisplayName("Flush Tests")
+    class Flush {
+        @Test
+        @DisplayName("Should send a batch as soon as it reaches maxBatchSize")
+        void shouldFlushWhenFull() {
+            RecordingModel model = new RecordingModel();
+            try (BatchingEmbeddingModel batching = BatchingEmbeddingModel.builder(model)
+                    .maxBatchSize(3).maxLinger(Duration.ofHours(1)).build()) {
+                CompletableFuture<EmbeddingResponse> a = batching.embed(request("a"));
+                CompletableFuture<EmbeddingResponse> b = batching.embed(request("bb"));
+                assertTrue(model.batchSizes().isEmpty());
+                assertFalse(a.isDone());
+
+                CompletableFuture<EmbeddingResponse> c = batching.embed(request("ccc"));
+                assertEquals(List.of(3), model.batchSizes());
+                assertEquals(1f, first(a));
+                assertEquals(2f, first(b));
+                assertEquals(3f, first(c));
+                assertEquals(3.0, batching.getAverageBatchSize());
+            }
+        }
+
+        @Test
+        @DisplayName("Should send a partial batch once the linger deadline passes")
+        void shouldFlushAfterLinger() {
+            RecordingModel model = new RecordingModel();
+            try (BatchingEmbeddingModel batching = BatchingEmbeddingModel.builder(model)
+                    .maxBatchSize(10).maxLinger(Duration.ofMillis(20)).build()) {
+                CompletableFuture<EmbeddingResponse> a = batching.embed(request("a"));
+                CompletableFuture<EmbeddingResponse> b = batching.embed(request("bb"));
+
+                assertEquals(2f, b.orTimeout(5, TimeUnit.SECONDS).join().getEmbedding().get(0));
+                assertEquals(1f, first(a));
+                assertEquals(List.of(2), model.batchSizes());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Failure Tests")
+    class Failures {
+        @Test
+        @DisplayName("Should fail every request of a batch when the model fails")
+        void shouldPropagateBatchFailure() {
+            RecordingModel model = new RecordingModel();
+            model.responder = requests -> CompletableFuture.failedFuture(new IllegalStateException("model down"));
+            try (BatchingEmbeddingModel batching = BatchingEmbeddingModel.builder(model)
+                    .maxBatchSize(2).maxLinger(Duration.ofHours(1)).build()) {
+                CompletableFuture<EmbeddingResponse> a = batching.embed(request("a"));
+                CompletableFuture<EmbeddingResponse> b = batching.embed(request("b"));
+
+                CompletionException error = assertThrows(CompletionException.class, a::join);
+                assertInstanceOf(IllegalStateException.class, error.getCause());
+                assertThrows(CompletionException.class, b::join);
+            }
+        }
+
+        @Test
+        @DisplayName("Should fail the batch when the model returns the wrong number of embeddings")
+        void shouldRejectShortResponse() {
+            RecordingModel model = new RecordingModel();
+            model.responder = requests -> RecordingModel.respond(requests.subList(0, 1));
+            try (BatchingEmbeddingModel batching = BatchingEmbeddingModel.builder(model)
+                    .maxBatchSize(2).maxLinger(Duration.ofHours(1)).build()) {
+                CompletableFuture<EmbeddingResponse> a = batching.embed(request("a"));
+                CompletableFuture<EmbeddingResponse> b = batching.embed(request("b"));
+
+                assertTrue(a.isCompletedExceptionally());
+                assertTrue(b.isCompletedExceptionally());
+            }
+        }
+
+        @Test
+        @DisplayName("Should fail a request whose linger deadline cannot be scheduled")
+        @SuppressWarnings("unchecked")
+        void shouldFailWhenSchedulerRejects() {
+            RecordingModel model = new RecordingModel();
+            ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+            when(scheduler.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class)))
+                    .thenThrow(new RejectedExecutionException("shut down"));
+            try (BatchingEmbeddingModel batching = BatchingEmbeddingModel.builder(model)
+                    .maxBatchSize(10).scheduler(scheduler).build()) {
+                CompletableFuture<EmbeddingResponse> a = batching.embed(request("a"));
+                assertTrue(a.isCompletedExceptionally());
+
+                // the rejected request must not linger in the queue and ride along with a later flush
+                batching.flush();
+                assertTrue(model.batchSizes().isEmpty());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Close Tests")
+    class Close {
+        @Test
+        @DisplayName("Should send queued requests on close and reject new ones")
+        void shouldDrainOnClose() {
+            RecordingModel model = new RecordingModel();
+            BatchingEmbeddingModel batching = BatchingEmbeddingModel.builder(model)
+                    .maxBatchSize(10).maxLinger(Duration.ofHours(1)).build();
+            CompletableFuture<EmbeddingResponse> a = batching.embed(request("a"));
+            CompletableFuture<EmbeddingResponse> b = batching.embed(request("bb"));
+
+            batching.close();
+            assertEquals(List.of(2), model.batchSizes());
+            assertEquals(1f, first(a));
+            assertEquals(2f, first(b));
+            assertTrue(batching.embed(request("late")).isCompletedExceptionally());
+        }
+    }
+}
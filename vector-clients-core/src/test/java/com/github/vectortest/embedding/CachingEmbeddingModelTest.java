@@ -0,0 +1,296 @@
+package com.github.vectortest.embedding;
+
+import com.github.vector.data.Text;
+import com.github.vector.embedding.CachingEmbeddingModel;
+import com.github.vector.embedding.EmbeddingModel;
+import com.github.vector.embedding.EmbeddingRequest;
+import com.github.vector.embedding.EmbeddingResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CachingEmbeddingModelTest {
+
+    private static final int DIMENSION = 64;
+    // vector bytes plus the cache's per-entry overhead
+    private static final long ENTRY_BYTES = DIMENSION * Float.BYTES + 96;
+
+    /** Model whose vector for a text is filled with the text's length; counts the texts it embeds. */
+    private static final class CountingModel implements EmbeddingModel {
+        final AtomicInteger embedded = new AtomicInteger();
+        final List<CompletableFuture<EmbeddingResponse>> pending = new ArrayList<>();
+        Function<EmbeddingRequest, EmbeddingResponse> responder = CountingModel::respond;
+        boolean defer;
+
+        static EmbeddingResponse respond(EmbeddingRequest request) {
+            float[] vector = new float[DIMENSION];
+            Arrays.fill(vector, request.getText().getContextString().length());
+            return EmbeddingResponse.builder().text(request.getText()).embedding(vector).build();
+        }
+
+        @Override
+        public CompletableFuture<EmbeddingResponse> embed(EmbeddingRequest request) {
+            embedded.incrementAndGet();
+            if (defer) {
+                CompletableFuture<EmbeddingResponse> future = new CompletableFuture<>();
+                pending.add(future);
+                return future;
+            }
+            try {
+                return CompletableFuture.completedFuture(responder.apply(request));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        @Override
+        public CompletableFuture<List<EmbeddingResponse>> embedBatch(List<EmbeddingRequest> requests) {
+            embedded.addAndGet(requests.size());
+            return CompletableFuture.completedFuture(requests.stream().map(responder).toList());
+        }
+
+        @Override
+        public int getDimensions() {
+            return DIMENSION;
+        }
+
+        @Override
+        public int getMaxTokens() {
+            return -1;
+        }
+
+        @Override
+        public String getModelName() {
+            return "counting";
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return 100;
+        }
+    }
+
+    private static EmbeddingRequest request(String text) {
+        return EmbeddingRequest.builder().text(new Text(text)).build();
+    }
+
+    private static float first(CompletableFuture<EmbeddingResponse> response) {
+        return response.join().getEmbedding().get(0);
+    }
+
+    @Nested
+    @DisplayName("Memory Tier Tests")
+    class MemoryTier {
+        @Test
+        @DisplayName("Should embed a repeated text once")
+        void shouldAnswerRepeatsFromMemory() throws IOException {
+            CountingModel model = new CountingModel();
+            try (CachingEmbeddingModel cache = CachingEmbeddingModel.builder(model).build()) {
+                assertEquals(5f, first(cache.embed(request("hello"))));
+                assertEquals(5f, first(cache.embed(request("hello"))));
+                assertEquals(1, model.embedded.get());
+                assertEquals(1, cache.getHitCount());
+                assertEquals(1, cache.getMissCount());
+            }
+        }
+
+        @Test
+        @DisplayName("Should evict to stay within the byte budget")
+        void shouldStayWithinBudget() throws IOException {
+            long maxBytes = 50 * ENTRY_BYTES;
+            try (CachingEmbeddingModel cache = CachingEmbeddingModel.builder(new CountingModel()).maxBytes(maxBytes).build()) {
+                for (int i = 0; i < 500; i++) {
+                    cache.embed(request("text-" + i)).join();
+                }
+                assertTrue(cache.getMemoryBytes() <= maxBytes);
+                assertTrue(cache.getMemoryEntries() <= 50);
+                assertTrue(cache.getEvictionCount() >= 450);
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep frequently used texts through a scan of one-off texts")
+        void shouldNotAdmitOneOffsOverPopularEntries() throws IOException {
+            CountingModel model = new CountingModel();
+            try (CachingEmbeddingModel cache = CachingEmbeddingModel.builder(model).maxBytes(100 * ENTRY_BYTES).build()) {
+                for (int round = 0; round < 4; round++) {
+                    for (int i = 0; i < 20; i++) {
+                        cache.embed(request("hot-" + i)).join();
+                    }
+                }
+                for (int i = 0; i < 300; i++) {
+                    cache.embed(request("once-" + i)).join();
+                }
+                int before = model.embedded.get();
+                for (int i = 0; i < 20; i++) {
+                    cache.embed(request("hot-" + i)).join();
+                }
+                assertEquals(before, model.embedded.get());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Coalescing Tests")
+    class Coalescing {
+        @Test
+        @DisplayName("Should share one model call between concurrent misses for the same text")
+        void shouldCoalesceConcurrentMisses() throws IOException {
+            CountingModel model = new CountingModel();
+            model.defer = true;
+            try (CachingEmbeddingModel cache = CachingEmbeddingModel.builder(model).build()) {
+                CompletableFuture<EmbeddingResponse> a = cache.embed(request("same"));
+                CompletableFuture<EmbeddingResponse> b = cache.embed(request("same"));
+                assertEquals(1, model.embedded.get());
+                assertFalse(a.isDone());
+
+                model.pending.get(0).complete(CountingModel.respond(request("same")));
+                assertEquals(4f, first(a));
+                assertEquals(4f, first(b));
+                assertEquals(1, cache.getCoalescedCount());
+            }
+        }
+
+        @Test
+        @DisplayName("Should send each distinct uncached text of a batch once")
+        void shouldDeduplicateBatch() throws IOException {
+            CountingModel model = new CountingModel();
+            try (CachingEmbeddingModel cache = CachingEmbeddingModel.builder(model).build()) {
+                cache.embed(request("cached")).join();
+                List<EmbeddingResponse> responses = cache.embedBatch(List.of(
+                        request("a"), request("cached"), request("bb"), request("a"))).join();
+                assertEquals(4, responses.size());
+                assertEquals(3, model.embedded.get());
+                assertEquals(2f, responses.get(2).getEmbedding().get(0));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Failure Tests")
+    class Failures {
+        @Test
+        @DisplayName("Should fail the caller and retry on the next request when the model fails")
+        void shouldNotCacheFailures() throws IOException {
+            CountingModel model = new CountingModel();
+            model.responder = request -> {
+                throw new IllegalStateException("model down");
+            };
+            try (CachingEmbeddingModel cache = CachingEmbeddingModel.builder(model).build()) {
+                assertThrows(CompletionException.class, () -> cache.embed(request("x")).join());
+                model.responder = CountingModel::respond;
+                assertEquals(1f, first(cache.embed(request("x"))));
+                assertEquals(2, model.embedded.get());
+            }
+        }
+
+        @Test
+        @DisplayName("Should fail rather than hang when a response cannot be read")
+        void shouldFailWhenResponseCannotBeConverted() throws IOException {
+            CountingModel model = new CountingModel();
+            EmbeddingResponse broken = mock(EmbeddingResponse.class);
+            when(broken.getEmbedding()).thenThrow(new IllegalStateException("buffer released"));
+            model.responder = request -> broken;
+            try (CachingEmbeddingModel cache = CachingEmbeddingModel.builder(model).build()) {
+                CompletableFuture<EmbeddingResponse> result = cache.embed(request("x"));
+                assertTrue(result.isCompletedExceptionally());
+
+                model.responder = CountingModel::respond;
+                assertEquals(1f, first(cache.embed(request("x"))));
+            }
+        }
+
+        @Test
+        @DisplayName("Should settle every request of a batch when one response cannot be read")
+        void shouldSettleWholeBatch() throws IOException {
+            CountingModel model = new CountingModel();
+            EmbeddingResponse broken = mock(EmbeddingResponse.class);
+            when(broken.getEmbedding()).thenThrow(new IllegalStateException("buffer released"));
+            model.responder = request -> request.getText().getContextString().equals("bad")
+                    ? broken : CountingModel.respond(request);
+            try (CachingEmbeddingModel cache = CachingEmbeddingModel.builder(model).build()) {
+                CompletableFuture<List<EmbeddingResponse>> batch =
+                        cache.embedBatch(List.of(request("bad"), request("ok"), request("fine")));
+                assertTrue(batch.isCompletedExceptionally());
+
+                int before = model.embedded.get();
+                assertEquals(2f, first(cache.embed(request("ok"))));
+                assertEquals(before, model.embedded.get());
+                cache.embed(request("bad"));
+                assertEquals(before + 1, model.embedded.get());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Disk Tier Tests")
+    class DiskTier {
+        @TempDir
+        Path dir;
+
+        @Test
+        @DisplayName("Should serve vectors from the file after reopening")
+        void shouldReopenStore() throws IOException {
+            Path file = dir.resolve("cache.bin");
+            try (CachingEmbeddingModel cache = CachingEmbeddingModel.builder(new CountingModel())
+                    .diskPath(file).diskSegmentBytes(4096).build()) {
+                for (String text : List.of("a", "bb", "ccc")) {
+                    cache.embed(request(text)).join();
+                }
+            }
+
+            CountingModel model = new CountingModel();
+            try (CachingEmbeddingModel cache = CachingEmbeddingModel.builder(model)
+                    .diskPath(file).diskSegmentBytes(4096).build()) {
+                assertEquals(3, cache.getDiskEntries());
+                assertEquals(3f, first(cache.embed(request("ccc"))));
+                assertEquals(0, model.embedded.get());
+                assertEquals(1, cache.getDiskHitCount());
+            }
+        }
+
+        @Test
+        @DisplayName("Should drop a torn record whose checksum does not match")
+        void shouldRejectCorruptRecord() throws IOException {
+            Path file = dir.resolve("cache.bin");
+            try (CachingEmbeddingModel cache = CachingEmbeddingModel.builder(new CountingModel())
+                    .diskPath(file).diskSegmentBytes(4096).build()) {
+                for (String text : List.of("a", "bb", "ccc")) {
+                    cache.embed(request(text)).join();
+                }
+            }
+            // file header, then records of dim, two key halves and crc ahead of the floats
+            long recordBytes = 4 + 8 + 8 + 4 + DIMENSION * Float.BYTES;
+            long lastPayload = 16 + 2 * recordBytes + 24;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[]{0x7f, 0x7f}), lastPayload + 8);
+            }
+
+            CountingModel model = new CountingModel();
+            try (CachingEmbeddingModel cache = CachingEmbeddingModel.builder(model)
+                    .diskPath(file).diskSegmentBytes(4096).build()) {
+                assertEquals(2, cache.getDiskEntries());
+                assertEquals(3f, first(cache.embed(request("ccc"))));
+                assertEquals(1, model.embedded.get());
+            }
+        }
+    }
+}
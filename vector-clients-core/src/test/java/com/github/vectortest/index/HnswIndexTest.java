@@ -0,0 +1,114 @@
+package com.github.vectortest.index;
+
+import com.github.vector.index.HnswIndex;
+import com.github.vector.index.SearchResult;
+import com.github.vector.util.DistanceMetric;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HnswIndexTest {
+
+    private static final int DIMENSION = 16;
+    private static final int SIZE = 2000;
+
+    private HnswIndex index;
+    private float[][] vectors;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(42);
+        vectors = new float[SIZE][DIMENSION];
+        for (float[] vector : vectors) {
+            for (int j = 0; j < DIMENSION; j++) {
+                vector[j] = (float) random.nextGaussian();
+            }
+        }
+        index = HnswIndex.builder().m(12).efConstruction(100).build();
+    }
+
+    @Nested
+    @DisplayName("Search Tests")
+    class Search {
+        @Test
+        @DisplayName("Should find each stored vector as its own nearest neighbour")
+        void shouldFindExactMatches() {
+            for (int i = 0; i < SIZE; i++) {
+                index.add("id" + i, vectors[i]);
+            }
+            int found = 0;
+            for (int i = 0; i < SIZE; i += 10) {
+                List<SearchResult> results = index.search(vectors[i], 1, 64);
+                if (results.get(0).getId().equals("id" + i)) {
+                    found++;
+                }
+            }
+            assertTrue(found >= SIZE / 10 * 0.95, "found " + found);
+        }
+
+        @Test
+        @DisplayName("Should return results ordered by increasing distance")
+        void shouldOrderResults() {
+            for (int i = 0; i < SIZE; i++) {
+                index.add("id" + i, vectors[i]);
+            }
+            List<SearchResult> results = index.search(vectors[7], 10, 50);
+            assertEquals(10, results.size());
+            for (int i = 1; i < results.size(); i++) {
+                assertTrue(results.get(i - 1).getDistance() <= results.get(i).getDistance());
+            }
+            assertEquals(DistanceMetric.L2, index.getMetric());
+        }
+
+        @Test
+        @DisplayName("Should support concurrent inserts")
+        void shouldSupportConcurrentInserts() throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < SIZE; i++) {
+                int id = i;
+                futures.add(executor.submit(() -> index.add("id" + id, vectors[id])));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+            assertEquals(SIZE, index.size());
+            assertEquals("id3", index.search(vectors[3], 1, 64).get(0).getId());
+        }
+    }
+
+    @Nested
+    @DisplayName("Mutation Tests")
+    class Mutation {
+        @Test
+        @DisplayName("Should not return removed vectors")
+        void shouldNotReturnRemoved() {
+            for (int i = 0; i < SIZE; i++) {
+                index.add("id" + i, vectors[i]);
+            }
+            assertTrue(index.remove("id5"));
+            assertFalse(index.contains("id5"));
+            for (SearchResult result : index.search(vectors[5], 10)) {
+                assertNotEquals("id5", result.getId());
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject vectors of a different dimension")
+        void shouldRejectDimensionMismatch() {
+            index.add("a", vectors[0]);
+            assertThrows(IllegalArgumentException.class, () -> index.add("b", new float[DIMENSION + 1]));
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.github.vectortest.pipeline;
+
+import com.github.vector.client.Client;
+import com.github.vector.data.Text;
+import com.github.vector.embedding.EmbeddingModel;
+import com.github.vector.embedding.EmbeddingRequest;
+import com.github.vector.embedding.EmbeddingResponse;
+import com.github.vector.exception.VectorClientException;
+import com.github.vector.pipeline.IngestItem;
+import com.github.vector.pipeline.IngestPipeline;
+import com.github.vector.pipeline.IngestResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IngestPipelineTest {
+
+    private static final int BATCH_SIZE = 2;
+    private static final int MAX_IN_FLIGHT = 2;
+
+    private EmbeddingModel model;
+    private Client client;
+    private CountDownLatch sinkOpen;
+    private AtomicInteger storing;
+    private AtomicInteger maxStoring;
+
+    /** Publisher driven from the test thread; only emits what the subscriber has requested. */
+    private static final class ManualPublisher implements Flow.Publisher<IngestItem> {
+        final AtomicLong requested = new AtomicLong();
+        volatile boolean cancelled;
+        Flow.Subscriber<? super IngestItem> subscriber;
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super IngestItem> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+
+        boolean offer(IngestItem item) {
+            if (cancelled || requested.get() == 0) {
+                return false;
+            }
+            requested.decrementAndGet();
+            subscriber.onNext(item);
+            return true;
+        }
+
+        /** Emits the items, waiting for demand, for at most five seconds. */
+        void emit(List<IngestItem> items) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            for (IngestItem item : items) {
+                while (!offer(item)) {
+                    assertTrue(System.nanoTime() < deadline, "subscriber stopped requesting");
+                    Thread.sleep(1);
+                }
+            }
+        }
+    }
+
+    private static List<IngestItem> items(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new IngestItem("id-" + i, new Text("text " + i), null, null))
+                .toList();
+    }
+
+    @BeforeEach
+    public void setUp() throws VectorClientException {
+        model = mock(EmbeddingModel.class);
+        when(model.getMaxBatchSize()).thenReturn(100);
+        when(model.getModelName()).thenReturn("mock");
+        when(model.embedBatch(anyList())).thenAnswer(invocation -> {
+            List<EmbeddingRequest> requests = invocation.getArgument(0);
+            return CompletableFuture.completedFuture(requests.stream()
+                    .map(request -> EmbeddingResponse.builder().text(request.getText()).embedding(new float[]{1f, 2f}).build())
+                    .toList());
+        });
+
+        // a sink that holds every write until the test opens it
+        client = mock(Client.class);
+        sinkOpen = new CountDownLatch(1);
+        storing = new AtomicInteger();
+        maxStoring = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxStoring.accumulateAndGet(storing.incrementAndGet(), Math::max);
+            try {
+                assertTrue(sinkOpen.await(5, TimeUnit.SECONDS));
+            } finally {
+                storing.decrementAndGet();
+            }
+            return null;
+        }).when(client).batchStore(anyList());
+    }
+
+    private IngestPipeline pipeline() {
+        return IngestPipeline.builder()
+                .model(model)
+                .client(client)
+                .collection("docs")
+                .batchSize(BATCH_SIZE)
+                .maxInFlightBatches(MAX_IN_FLIGHT)
+                .maxConcurrentWrites(1)
+                .build();
+    }
+
+    @Nested
+    @DisplayName("Backpressure Tests")
+    class Backpressure {
+        @Test
+        @DisplayName("Should stop pulling from a stream while the sink is slow")
+        void shouldBoundStreamReads() throws Throwable {
+            AtomicInteger pulled = new AtomicInteger();
+            CompletableFuture<IngestResult> result = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return pipeline().ingest(items(20).stream().peek(item -> pulled.incrementAndGet()));
+                } catch (VectorClientException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            verify(client, timeout(5000)).batchStore(anyList());
+            Thread.sleep(100);
+            // two batches in flight plus the one built while waiting for a slot
+            assertEquals((MAX_IN_FLIGHT + 1) * BATCH_SIZE, pulled.get());
+
+            sinkOpen.countDown();
+            IngestResult done = result.get(5, TimeUnit.SECONDS);
+            assertEquals(20, done.getItemCount());
+            assertEquals(10, done.getBatchCount());
+            assertEquals(1, maxStoring.get());
+        }
+
+        @Test
+        @DisplayName("Should not request more from a publisher while all slots are taken")
+        void shouldBoundPublisherDemand() throws Exception {
+            ManualPublisher publisher = new ManualPublisher();
+            CompletableFuture<IngestResult> result = pipeline().ingest(publisher);
+
+            int accepted = 0;
+            for (IngestItem item : items(20)) {
+                if (!publisher.offer(item)) {
+                    break;
+                }
+                accepted++;
+            }
+            assertEquals((MAX_IN_FLIGHT + 1) * BATCH_SIZE, accepted);
+
+            sinkOpen.countDown();
+            publisher.emit(items(20).subList(accepted, 20));
+            publisher.subscriber.onComplete();
+            assertEquals(20, result.get(5, TimeUnit.SECONDS).getItemCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Failure Tests")
+    class Failures {
+        @Test
+        @DisplayName("Should fail the run and cancel the subscription when a write fails")
+        void shouldPropagateSinkFailure() throws Throwable {
+            doThrow(new VectorClientException("disk full")).when(client).batchStore(anyList());
+            ManualPublisher publisher = new ManualPublisher();
+            CompletableFuture<IngestResult> result = pipeline().ingest(publisher);
+
+            publisher.offer(items(1).get(0));
+            publisher.offer(items(2).get(1));
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(VectorClientException.class, error.getCause());
+            assertEquals("disk full", error.getCause().getMessage());
+            assertTrue(publisher.cancelled);
+        }
+
+        @Test
+        @DisplayName("Should fail the run when the publisher signals an error")
+        void shouldPropagatePublisherError() {
+            sinkOpen.countDown();
+            ManualPublisher publisher = new ManualPublisher();
+            CompletableFuture<IngestResult> result = pipeline().ingest(publisher);
+
+            publisher.subscriber.onError(new IllegalStateException("source gone"));
+            ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, error.getCause());
+        }
+
+        @Test
+        @DisplayName("Should throw from a blocking stream ingest when a write fails")
+        void shouldThrowFromStreamIngest() throws VectorClientException {
+            doThrow(new VectorClientException("disk full")).when(client).batchStore(anyList());
+            VectorClientException error = assertThrows(VectorClientException.class,
+                    () -> pipeline().ingest(items(10).stream()));
+            assertEquals("disk full", error.getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("Completion Tests")
+    class Completion {
+        @Test
+        @DisplayName("Should wait for in-flight and parked batches after the publisher completes")
+        void shouldDrainAfterComplete() throws Exception {
+            ManualPublisher publisher = new ManualPublisher();
+            CompletableFuture<IngestResult> result = pipeline().ingest(publisher);
+
+            publisher.emit(items(5));
+            publisher.subscriber.onComplete();
+            Thread.sleep(50);
+            assertFalse(result.isDone());
+
+            sinkOpen.countDown();
+            IngestResult done = result.get(5, TimeUnit.SECONDS);
+            assertEquals(5, done.getItemCount());
+            assertEquals(3, done.getBatchCount());
+        }
+
+        @Test
+        @DisplayName("Should cancel the subscription but finish in-flight batches when cancelled")
+        void shouldCancelSubscription() throws VectorClientException {
+            ManualPublisher publisher = new ManualPublisher();
+            CompletableFuture<IngestResult> result = pipeline().ingest(publisher);
+            for (IngestItem item : items(6)) {
+                assertTrue(publisher.offer(item));
+            }
+
+            assertTrue(result.cancel(false));
+            assertTrue(publisher.cancelled);
+            assertFalse(publisher.offer(items(7).get(6)));
+
+            sinkOpen.countDown();
+            // the two in-flight batches are stored; the parked one is dropped
+            verify(client, timeout(5000).times(2)).batchStore(anyList());
+            verify(client, after(200).times(2)).batchStore(any());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.vectortest.util;
+
+import com.github.vector.util.OffHeapArena;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapArenaTest {
+
+    @Test
+    @DisplayName("Should keep unreleased buffers usable after close")
+    void shouldNotFreeLiveBuffers() {
+        OffHeapArena arena = new OffHeapArena(4096);
+        FloatBuffer small = arena.allocateFloats(16);
+        FloatBuffer large = arena.allocateFloats(1024);
+        small.put(0, 1.5f);
+        large.put(1023, 2.5f);
+
+        arena.close();
+        assertTrue(arena.isClosed());
+        assertEquals(1.5f, small.get(0));
+        assertEquals(2.5f, large.duplicate().get(1023));
+        assertTrue(arena.allocatedBytes() > 0);
+        assertThrows(IllegalStateException.class, () -> arena.allocateFloats(1));
+    }
+
+    @Test
+    @DisplayName("Should free memory once every buffer of it is released")
+    void shouldFreeReleasedBuffers() {
+        OffHeapArena arena = new OffHeapArena(4096);
+        FloatBuffer first = arena.allocateFloats(16);
+        FloatBuffer second = arena.allocateFloats(16);
+        FloatBuffer large = arena.allocateFloats(1024);
+        arena.release(first);
+        arena.release(large);
+
+        arena.close();
+        assertEquals(4096, arena.allocatedBytes());
+        arena.release(second);
+        assertEquals(0, arena.allocatedBytes());
+    }
+
+    @Test
+    @DisplayName("Should reject releasing a buffer twice or from elsewhere")
+    void shouldRejectForeignRelease() {
+        try (OffHeapArena arena = new OffHeapArena(4096)) {
+            FloatBuffer buffer = arena.allocateFloats(8);
+            arena.release(buffer);
+            assertThrows(IllegalArgumentException.class, () -> arena.release(buffer));
+            assertThrows(IllegalArgumentException.class, () -> arena.release(FloatBuffer.allocate(8)));
+        }
+    }
+}
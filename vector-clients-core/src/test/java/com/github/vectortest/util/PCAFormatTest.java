@@ -0,0 +1,130 @@
+package com.github.vectortest.util;
+
+import com.github.vector.util.PCA;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PCAFormatTest {
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("pca-format");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private static FloatBuffer randomData(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        FloatBuffer data = FloatBuffer.allocate(rows * cols);
+        for (int i = 0; i < rows * cols; i++) {
+            data.put(i, (float) random.nextGaussian() * (1 + i % cols));
+        }
+        return data;
+    }
+
+    @Test
+    @DisplayName("Should load a saved model that transforms identically")
+    void shouldRoundTripModel() throws IOException {
+        PCA pca = PCA.builder().nComponents(4).whiten(true).build();
+        pca.fit(randomData(200, 16, 5), 200, 16);
+        Path file = dir.resolve("model.pca");
+        pca.save(file);
+
+        PCA loaded = PCA.load(file);
+        assertEquals(16, loaded.getNumFeatures());
+        assertEquals(4, loaded.getNumComponents());
+        assertTrue(loaded.isWhiten());
+        assertEquals(200L, loaded.getNumSamplesSeen());
+        assertEquals(Files.size(file), 32L + (16 + 4 * 16 + 4) * Float.BYTES);
+
+        FloatBuffer batch = randomData(10, 16, 9);
+        FloatBuffer expected = pca.transform(batch, 10);
+        FloatBuffer actual = loaded.transform(batch, 10);
+        for (int i = 0; i < 10 * 4; i++) {
+            assertEquals(expected.get(i), actual.get(i), 0.0f);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep fitting a loaded model without touching the file")
+    void shouldPartialFitLoadedModel() throws IOException {
+        PCA pca = PCA.builder().nComponents(3).build();
+        pca.fit(randomData(100, 8, 1), 100, 8);
+        Path file = dir.resolve("model.pca");
+        pca.save(file);
+        byte[] before = Files.readAllBytes(file);
+
+        PCA loaded = PCA.load(file);
+        loaded.partialFit(randomData(50, 8, 2), 50);
+        assertEquals(150L, loaded.getNumSamplesSeen());
+        assertArrayEquals(before, Files.readAllBytes(file));
+    }
+
+    @Test
+    @DisplayName("Should leave a loaded model intact when the file is saved over")
+    void shouldReplaceFileAtomically() throws IOException {
+        PCA first = PCA.builder().nComponents(2).build();
+        first.fit(randomData(100, 8, 1), 100, 8);
+        Path file = dir.resolve("model.pca");
+        first.save(file);
+        PCA loaded = PCA.load(file);
+
+        PCA second = PCA.builder().nComponents(4).build();
+        second.fit(randomData(100, 8, 3), 100, 8);
+        second.save(file);
+
+        assertEquals(2, loaded.getNumComponents());
+        FloatBuffer expected = first.getComponents();
+        FloatBuffer actual = loaded.getComponents();
+        for (int i = 0; i < 2 * 8; i++) {
+            assertEquals(expected.get(i), actual.get(i), 0.0f);
+        }
+        assertEquals(4, PCA.load(file).getNumComponents());
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should not change the settings builder passed to load")
+    void shouldNotMutateLoadSettings() throws IOException {
+        PCA pca = PCA.builder().nComponents(2).whiten(true).build();
+        pca.fit(randomData(100, 8, 1), 100, 8);
+        Path file = dir.resolve("model.pca");
+        pca.save(file);
+
+        PCA.PCABuilder settings = PCA.builder().nComponents(5);
+        PCA.load(file, settings);
+        PCA fromSettings = settings.build();
+        fromSettings.fit(randomData(100, 8, 2), 100, 8);
+        assertEquals(5, fromSettings.getNumComponents());
+        assertFalse(fromSettings.isWhiten());
+    }
+
+    @Test
+    @DisplayName("Should reject files that are not PCA models")
+    void shouldRejectForeignFiles() throws IOException {
+        Path file = dir.resolve("other.pca");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> PCA.load(file));
+    }
+}
@@ -0,0 +1,221 @@
+package com.github.vectortest.util;
+
+import com.github.vector.util.PCA;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Regression tests on fixed-seed data of rank {@value #RANK} plus small noise, whose top
+ * components are well separated, checked against naive double-precision references.
+ */
+public class PCARegressionTest {
+
+    private static final int RANK = 3;
+    private static final double[] SCALES = {10, 5, 2};
+    private static final double NOISE = 0.01;
+    private static final Executor SERIAL = Runnable::run;
+
+    /** n×d rows: a fixed mean plus {@link #RANK} scaled random directions plus noise. */
+    private static float[] lowRank(int n, int d, long seed) {
+        Random random = new Random(seed);
+        double[][] directions = new double[RANK][d];
+        for (double[] direction : directions) {
+            for (int j = 0; j < d; j++) {
+                direction[j] = random.nextGaussian();
+            }
+        }
+        float[] data = new float[n * d];
+        for (int i = 0; i < n; i++) {
+            double[] latent = new double[RANK];
+            for (int r = 0; r < RANK; r++) {
+                latent[r] = random.nextGaussian() * SCALES[r];
+            }
+            for (int j = 0; j < d; j++) {
+                double value = 0.5 * j + NOISE * random.nextGaussian();
+                for (int r = 0; r < RANK; r++) {
+                    value += latent[r] * directions[r][j] / Math.sqrt(d);
+                }
+                data[i * d + j] = (float) value;
+            }
+        }
+        return data;
+    }
+
+    private static PCA fit(float[] data, int n, int d, int k, String solver, Executor executor) {
+        PCA pca = PCA.builder().nComponents(k).solver(solver).executor(executor).maxIterations(200).build();
+        pca.fit(FloatBuffer.wrap(data), n, d);
+        return pca;
+    }
+
+    /** Sample covariance (n - 1) in double precision, by the textbook double loop. */
+    private static double[] naiveCovariance(float[] data, int n, int d) {
+        double[] mean = new double[d];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < d; j++) {
+                mean[j] += data[i * d + j];
+            }
+        }
+        for (int j = 0; j < d; j++) {
+            mean[j] /= n;
+        }
+        double[] covariance = new double[d * d];
+        for (int i = 0; i < n; i++) {
+            for (int a = 0; a < d; a++) {
+                double x = data[i * d + a] - mean[a];
+                for (int b = 0; b < d; b++) {
+                    covariance[a * d + b] += x * (data[i * d + b] - mean[b]);
+                }
+            }
+        }
+        for (int a = 0; a < d * d; a++) {
+            covariance[a] /= n - 1;
+        }
+        return covariance;
+    }
+
+    private static float[] toArray(FloatBuffer buffer, int length) {
+        float[] values = new float[length];
+        buffer.get(0, values, 0, length);
+        return values;
+    }
+
+    /** Each fitted component is a unit eigenvector of the reference covariance with its variance. */
+    private static void assertEigenpairs(PCA pca, double[] covariance, int d, double tolerance) {
+        float[] components = toArray(pca.getComponents(), pca.getNumComponents() * d);
+        for (int c = 0; c < pca.getNumComponents(); c++) {
+            double variance = pca.getExplainedVariance().get(c);
+            double norm = 0;
+            double residual = 0;
+            for (int a = 0; a < d; a++) {
+                double cv = 0;
+                for (int b = 0; b < d; b++) {
+                    cv += covariance[a * d + b] * components[c * d + b];
+                }
+                residual += Math.pow(cv - variance * components[c * d + a], 2);
+                norm += Math.pow(components[c * d + a], 2);
+            }
+            assertEquals(1.0, norm, 1e-3, "norm of component " + c);
+            assertTrue(Math.sqrt(residual) < tolerance * variance, "residual of component " + c + ": " + Math.sqrt(residual));
+        }
+    }
+
+    /** Same variances within a relative tolerance and same directions up to sign. */
+    private static void assertSameModel(PCA expected, PCA actual, int d, double tolerance) {
+        int k = expected.getNumComponents();
+        float[] a = toArray(expected.getComponents(), k * d);
+        float[] b = toArray(actual.getComponents(), k * d);
+        for (int c = 0; c < k; c++) {
+            double variance = expected.getExplainedVariance().get(c);
+            assertEquals(variance, actual.getExplainedVariance().get(c), tolerance * variance, "variance " + c);
+            double dot = 0;
+            for (int j = 0; j < d; j++) {
+                dot += a[c * d + j] * b[c * d + j];
+            }
+            assertEquals(1.0, Math.abs(dot), tolerance, "direction " + c);
+        }
+    }
+
+    @Nested
+    @DisplayName("Matrix Kernel Tests")
+    class Kernels {
+        // large enough to cross the covariance tile edges and the parallel threshold
+        private static final int N = 1100;
+        private static final int D = 300;
+
+        @Test
+        @DisplayName("Should fit eigenpairs of the naive covariance with blocked, parallel kernels")
+        void shouldMatchNaiveCovariance() {
+            float[] data = lowRank(N, D, 17);
+            PCA pca = fit(data, N, D, RANK, PCA.SOLVER_POWER, ForkJoinPool.commonPool());
+            assertEigenpairs(pca, naiveCovariance(data, N, D), D, 1e-3);
+        }
+
+        @Test
+        @DisplayName("Should give bit-identical models on one thread and on many")
+        void shouldNotDependOnExecutor() {
+            float[] data = lowRank(N, D, 17);
+            PCA serial = fit(data, N, D, RANK, PCA.SOLVER_POWER, SERIAL);
+            PCA parallel = fit(data, N, D, RANK, PCA.SOLVER_POWER, ForkJoinPool.commonPool());
+            assertArrayEquals(toArray(serial.getComponents(), RANK * D), toArray(parallel.getComponents(), RANK * D));
+            assertArrayEquals(toArray(serial.getExplainedVariance(), RANK), toArray(parallel.getExplainedVariance(), RANK));
+        }
+
+        @Test
+        @DisplayName("Should project and reconstruct like naive matrix products")
+        void shouldMatchNaiveProducts() {
+            int n = 2000;
+            int d = 100;
+            int k = 8;
+            float[] data = lowRank(n, d, 23);
+            PCA pca = fit(data, n, d, k, PCA.SOLVER_RANDOMIZED, ForkJoinPool.commonPool());
+            float[] components = toArray(pca.getComponents(), k * d);
+            float[] mean = toArray(pca.getMean(), d);
+
+            float[] projected = toArray(pca.transform(FloatBuffer.wrap(data), n), n * k);
+            float[] reconstructed = toArray(pca.inverseTransform(FloatBuffer.wrap(projected), n), n * d);
+            for (int i = 0; i < n; i++) {
+                for (int c = 0; c < k; c++) {
+                    double expected = 0;
+                    for (int j = 0; j < d; j++) {
+                        expected += (data[i * d + j] - (double) mean[j]) * components[c * d + j];
+                    }
+                    assertEquals(expected, projected[i * k + c], 1e-3, "row " + i + ", component " + c);
+                }
+                for (int j = 0; j < d; j++) {
+                    double expected = mean[j];
+                    for (int c = 0; c < k; c++) {
+                        expected += (double) projected[i * k + c] * components[c * d + j];
+                    }
+                    assertEquals(expected, reconstructed[i * d + j], 1e-3, "row " + i + ", feature " + j);
+                }
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Solver Tests")
+    class Solvers {
+        private static final int N = 500;
+        private static final int D = 8;
+
+        @Test
+        @DisplayName("Should agree with Jacobi on explained variance and component directions")
+        void shouldMatchJacobi() {
+            float[] data = lowRank(N, D, 5);
+            PCA jacobi = fit(data, N, D, RANK, PCA.SOLVER_JACOBI, SERIAL);
+            assertEigenpairs(jacobi, naiveCovariance(data, N, D), D, 1e-3);
+
+            assertSameModel(jacobi, fit(data, N, D, RANK, PCA.SOLVER_RANDOMIZED, SERIAL), D, 1e-3);
+            assertSameModel(jacobi, fit(data, N, D, RANK, PCA.SOLVER_POWER, SERIAL), D, 1e-3);
+        }
+
+        @Test
+        @DisplayName("Should match a single fit after partial fits over several chunks")
+        void shouldMatchSingleFit() {
+            float[] data = lowRank(N, D, 9);
+            PCA whole = fit(data, N, D, RANK, PCA.SOLVER_JACOBI, SERIAL);
+
+            PCA incremental = PCA.builder().nComponents(RANK).executor(SERIAL).build();
+            int[] chunks = {120, 80, 200, 100};
+            int start = 0;
+            for (int rows : chunks) {
+                float[] chunk = new float[rows * D];
+                System.arraycopy(data, start * D, chunk, 0, rows * D);
+                incremental.partialFit(FloatBuffer.wrap(chunk), rows, D);
+                start += rows;
+            }
+
+            assertEquals(N, incremental.getNumSamplesSeen());
+            assertArrayEquals(toArray(whole.getMean(), D), toArray(incremental.getMean(), D), 1e-4f);
+            assertSameModel(whole, incremental, D, 1e-3);
+        }
+    }
+}
@@ -6,7 +6,9 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.doNothing;
@@ -61,5 +63,60 @@ public class PCAUtilTest {
 
     }
 
+    @Nested
+    @DisplayName("Transform Tests")
+    class Transform {
+        private static final int N = 3000;
+        private static final int D = 24;
+        private static final int K = 5;
+
+        private float[] randomRows(int rows, long seed) {
+            Random random = new Random(seed);
+            float[] values = new float[rows * D];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (float) random.nextGaussian() * (1 + i % D) + 3;
+            }
+            return values;
+        }
+
+        @Test
+        @DisplayName("Should project batches with more rows than features")
+        void shouldTransformLargeBatches() {
+            float[] rows = randomRows(N, 1);
+            PCA fitted = PCA.builder().nComponents(K).whiten(true).build();
+            fitted.fit(FloatBuffer.wrap(rows), N, D);
+
+            FloatBuffer projected = fitted.transform(FloatBuffer.wrap(rows), N);
+            FloatBuffer mean = fitted.getMean();
+            FloatBuffer components = fitted.getComponents();
+            FloatBuffer variance = fitted.getExplainedVariance();
+            for (int i = 0; i < N; i += 97) {
+                for (int j = 0; j < K; j++) {
+                    double expected = 0;
+                    for (int f = 0; f < D; f++) {
+                        expected += (rows[i * D + f] - mean.get(f)) * components.get(j * D + f);
+                    }
+                    expected /= Math.sqrt(variance.get(j));
+                    assertEquals(expected, projected.get(i * K + j), 1e-3);
+                }
+            }
+        }
 
+        @Test
+        @DisplayName("Should write into a caller-provided direct buffer")
+        void shouldReuseOutputBuffer() {
+            float[] rows = randomRows(N, 2);
+            PCA fitted = PCA.builder().nComponents(K).build();
+            fitted.fit(FloatBuffer.wrap(rows), N, D);
+
+            FloatBuffer expected = fitted.transform(FloatBuffer.wrap(rows), N);
+            FloatBuffer out = ByteBuffer.allocateDirect(N * K * Float.BYTES).asFloatBuffer();
+            assertSame(out, fitted.transform(FloatBuffer.wrap(rows), N, out));
+            for (int i = 0; i < N * K; i++) {
+                assertEquals(expected.get(i), out.get(i), 0.0f);
+            }
+            assertThrows(IllegalArgumentException.class,
+                    () -> fitted.transform(FloatBuffer.wrap(rows), N, FloatBuffer.allocate(K)));
+        }
+    }
 }
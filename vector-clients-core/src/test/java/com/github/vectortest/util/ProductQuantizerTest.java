@@ -0,0 +1,107 @@
+package com.github.vectortest.util;
+
+import com.github.vector.util.DistanceMetric;
+import com.github.vector.util.ProductQuantizer;
+import com.github.vector.util.VectorUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductQuantizerTest {
+
+    private static final int DIMENSION = 32;
+
+    private static float[] randomData(int count, long seed) {
+        Random random = new Random(seed);
+        float[] data = new float[count * DIMENSION];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (float) random.nextGaussian();
+        }
+        return data;
+    }
+
+    private static ProductQuantizer trained(float[] data, int count) {
+        ProductQuantizer pq = ProductQuantizer.builder().subspaces(8).centroids(64).iterations(15).build();
+        pq.train(FloatBuffer.wrap(data), count, DIMENSION);
+        return pq;
+    }
+
+    @Test
+    @DisplayName("Should match ADC distance to the distance from the decoded vector")
+    void shouldMatchDecodedDistance() {
+        float[] data = randomData(2000, 21);
+        ProductQuantizer pq = trained(data, 2000);
+        float[] query = Arrays.copyOfRange(data, 0, DIMENSION);
+        float[] vector = Arrays.copyOfRange(data, DIMENSION, 2 * DIMENSION);
+
+        byte[] code = pq.encode(vector);
+        assertEquals(8, code.length);
+        float[] table = pq.distanceTable(query, DistanceMetric.L2);
+        float expected = VectorUtil.squaredL2Distance(query, pq.decode(code));
+        assertEquals(expected, pq.distance(table, code, 0), 1e-3f);
+    }
+
+    @Test
+    @DisplayName("Should recall most true neighbours in the ADC candidate set")
+    void shouldRecallNeighbours() {
+        int count = 3000;
+        float[] data = randomData(count, 22);
+        ProductQuantizer pq = trained(data, count);
+        byte[] codes = new byte[count * pq.getCodeSize()];
+        for (int i = 0; i < count; i++) {
+            pq.encode(Arrays.copyOfRange(data, i * DIMENSION, (i + 1) * DIMENSION), codes, i * pq.getCodeSize());
+        }
+
+        float[] query = randomData(1, 23);
+        int[] candidates = pq.nearest(pq.distanceTable(query, DistanceMetric.L2), codes, count, 100);
+        assertEquals(100, candidates.length);
+
+        Set<Integer> exact = new HashSet<>();
+        IntStream.range(0, count).boxed()
+                .sorted(Comparator.comparingDouble(i -> VectorUtil.squaredL2Distance(query, Arrays.copyOfRange(data, i * DIMENSION, (i + 1) * DIMENSION))))
+                .limit(10)
+                .forEach(exact::add);
+        long found = Arrays.stream(candidates).filter(exact::contains).count();
+        assertTrue(found >= 8, "recall@100 of top-10 was " + found + "/10");
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive topK and return nothing for no codes")
+    void shouldValidateNearestArguments() {
+        float[] data = randomData(500, 25);
+        ProductQuantizer pq = trained(data, 500);
+        float[] table = pq.distanceTable(Arrays.copyOfRange(data, 0, DIMENSION), DistanceMetric.L2);
+        byte[] codes = pq.encode(Arrays.copyOfRange(data, 0, DIMENSION));
+        assertThrows(IllegalArgumentException.class, () -> pq.nearest(table, codes, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> pq.nearest(table, codes, 1, -3));
+        assertEquals(0, pq.nearest(table, codes, 0, 5).length);
+        assertArrayEquals(new int[]{0}, pq.nearest(table, codes, 1, 5));
+    }
+
+    @Test
+    @DisplayName("Should restore a quantizer from saved centroids")
+    void shouldRestoreFromCentroids() {
+        float[] data = randomData(500, 24);
+        ProductQuantizer pq = trained(data, 500);
+        ProductQuantizer restored = ProductQuantizer.fromCentroids(DIMENSION, 8, 64, pq.getCentroids());
+        float[] vector = Arrays.copyOfRange(data, 0, DIMENSION);
+        assertArrayEquals(pq.encode(vector), restored.encode(vector));
+    }
+
+    @Test
+    @DisplayName("Should reject dimensions not divisible by the subspace count")
+    void shouldRejectIndivisibleDimension() {
+        ProductQuantizer pq = ProductQuantizer.builder().subspaces(5).centroids(4).build();
+        assertThrows(IllegalArgumentException.class, () -> pq.train(FloatBuffer.wrap(new float[32 * 10]), 10, 32));
+        assertThrows(IllegalStateException.class, () -> pq.encode(new float[32]));
+    }
+}
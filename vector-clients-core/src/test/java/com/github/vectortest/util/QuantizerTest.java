@@ -0,0 +1,83 @@
+package com.github.vectortest.util;
+
+import com.github.vector.util.BinaryQuantizer;
+import com.github.vector.util.ScalarQuantizer;
+import com.github.vector.util.VectorUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuantizerTest {
+
+    private static float[][] randomVectors(int count, int dimension, long seed) {
+        Random random = new Random(seed);
+        float[][] vectors = new float[count][dimension];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+        return vectors;
+    }
+
+    @Test
+    @DisplayName("Should round-trip int8 codes within half a quantization step")
+    void shouldRoundTripScalarCodes() {
+        float[][] sample = randomVectors(500, 64, 11);
+        ScalarQuantizer quantizer = ScalarQuantizer.fit(sample);
+        float[] min = quantizer.getMin();
+        float[] max = quantizer.getMax();
+
+        float[] decoded = quantizer.decode(quantizer.encode(sample[3]));
+        for (int i = 0; i < decoded.length; i++) {
+            float halfStep = (max[i] - min[i]) / 255 / 2;
+            assertEquals(sample[3][i], decoded[i], halfStep + 1e-6f);
+        }
+    }
+
+    @Test
+    @DisplayName("Should approximate float distances on int8 codes")
+    void shouldApproximateScalarDistances() {
+        float[][] sample = randomVectors(500, 128, 12);
+        ScalarQuantizer quantizer = ScalarQuantizer.fit(sample);
+        float[] a = sample[0];
+        float[] b = sample[1];
+        byte[] codeA = quantizer.encode(a);
+        byte[] codeB = quantizer.encode(b);
+
+        float exact = VectorUtil.squaredL2Distance(a, b);
+        assertEquals(exact, quantizer.squaredL2Distance(codeA, codeB), exact * 0.02f);
+        assertEquals(exact, quantizer.squaredL2Distance(a, codeB), exact * 0.02f);
+        float dot = VectorUtil.dotProduct(a, b);
+        assertEquals(dot, quantizer.dotProduct(a, codeB), 0.5f);
+        assertEquals(dot, quantizer.dotProduct(codeA, codeB), 0.5f);
+    }
+
+    @Test
+    @DisplayName("Should clamp values outside the fitted range")
+    void shouldClampOutOfRange() {
+        ScalarQuantizer quantizer = new ScalarQuantizer(new float[]{0f, 0f}, new float[]{1f, 1f});
+        float[] decoded = quantizer.decode(quantizer.encode(new float[]{-5f, 5f}));
+        assertArrayEquals(new float[]{0f, 1f}, decoded, 1e-6f);
+    }
+
+    @Test
+    @DisplayName("Should pack sign bits and count Hamming distance")
+    void shouldComputeHammingDistance() {
+        float[] a = new float[130];
+        float[] b = new float[130];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = 1f;
+            b[i] = i % 10 == 0 ? -1f : 1f;
+        }
+        long[] codeA = BinaryQuantizer.encode(a);
+        long[] codeB = BinaryQuantizer.encode(b);
+        assertEquals(3, codeA.length);
+        assertEquals(13, BinaryQuantizer.hammingDistance(codeA, codeB));
+        assertArrayEquals(b, BinaryQuantizer.decode(codeB, b.length), 0f);
+        assertEquals("0111111111", BinaryQuantizer.toBitString(codeB, b.length).substring(0, 10));
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.vectortest.util;
+
+import com.github.vector.util.ScalarVectorKernels;
+import com.github.vector.util.SimdVectorKernels;
+import com.github.vector.util.VectorKernels;
+import com.github.vector.util.VectorUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VectorKernelsTest {
+
+    private static final int[] LENGTHS = {1, 7, 17, 1537};
+    private static final int OFFSET = 3;
+
+    private final VectorKernels scalar = new ScalarVectorKernels();
+    private final VectorKernels simd = new SimdVectorKernels();
+
+    private static float[] random(Random random, int length) {
+        float[] values = new float[length + OFFSET];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) random.nextGaussian();
+        }
+        return values;
+    }
+
+    /** Both kernels sum in a different order, so they agree to a few ulps of the summed magnitudes. */
+    private static void assertClose(float expected, float actual, double magnitude, String message) {
+        assertEquals(expected, actual, 1e-5 * magnitude + 1e-6, message);
+    }
+
+    @Test
+    @DisplayName("Should run the SIMD kernels when the vector module is present")
+    void shouldSelectSimdKernels() {
+        assertTrue(VectorUtil.isSimdEnabled());
+        assertTrue(simd.name().startsWith("simd-"));
+    }
+
+    @Test
+    @DisplayName("Should match the scalar kernels on lengths around the lane count, at an offset")
+    void shouldMatchScalarKernels() {
+        Random random = new Random(11);
+        for (int length : LENGTHS) {
+            float[] a = random(random, length);
+            float[] b = random(random, length);
+            double products = 0, differences = 0, squares = 0;
+            for (int i = OFFSET; i < OFFSET + length; i++) {
+                products += Math.abs(a[i] * b[i]);
+                differences += Math.abs(a[i] - b[i]);
+                squares += (a[i] - b[i]) * (a[i] - b[i]);
+            }
+            String message = "length " + length;
+
+            assertClose(scalar.dotProduct(a, OFFSET, b, OFFSET, length),
+                    simd.dotProduct(a, OFFSET, b, OFFSET, length), products, message);
+            assertClose(scalar.squaredL2Distance(a, OFFSET, b, OFFSET, length),
+                    simd.squaredL2Distance(a, OFFSET, b, OFFSET, length), squares, message);
+            assertClose(scalar.l1Distance(a, OFFSET, b, OFFSET, length),
+                    simd.l1Distance(a, OFFSET, b, OFFSET, length), differences, message);
+            assertClose(scalar.cosineSimilarity(a, OFFSET, b, OFFSET, length),
+                    simd.cosineSimilarity(a, OFFSET, b, OFFSET, length), 1, message);
+        }
+    }
+
+    @Test
+    @DisplayName("Should return zero cosine similarity for a zero vector in both kernels")
+    void shouldHandleZeroNorm() {
+        float[] zero = new float[17];
+        float[] other = random(new Random(5), 17);
+        assertEquals(0f, scalar.cosineSimilarity(zero, 0, other, 0, 17));
+        assertEquals(0f, simd.cosineSimilarity(zero, 0, other, 0, 17));
+    }
+}
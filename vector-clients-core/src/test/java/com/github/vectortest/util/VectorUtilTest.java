@@ -0,0 +1,58 @@
+package com.github.vectortest.util;
+
+import com.github.vector.util.ScalarVectorKernels;
+import com.github.vector.util.VectorUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VectorUtilTest {
+
+    private static final float EPSILON = 1e-3f;
+
+    @Test
+    @DisplayName("Should match naive loops for odd dimensions")
+    void shouldMatchNaiveLoops() {
+        Random random = new Random(7);
+        float[] a = new float[387];
+        float[] b = new float[387];
+        double dot = 0, l2 = 0, l1 = 0, normA = 0, normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            a[i] = random.nextFloat() - 0.5f;
+            b[i] = random.nextFloat() - 0.5f;
+            dot += a[i] * b[i];
+            l2 += (a[i] - b[i]) * (a[i] - b[i]);
+            l1 += Math.abs(a[i] - b[i]);
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        assertEquals(dot, VectorUtil.dotProduct(a, b), EPSILON);
+        assertEquals(Math.sqrt(l2), VectorUtil.l2Distance(a, b), EPSILON);
+        assertEquals(l1, VectorUtil.l1Distance(a, b), EPSILON);
+        assertEquals(dot / Math.sqrt(normA * normB), VectorUtil.cosineSimilarity(a, b), EPSILON);
+        assertEquals(dot, new ScalarVectorKernels().dotProduct(a, 0, b, 0, a.length), EPSILON);
+    }
+
+    @Test
+    @DisplayName("Should accept heap and direct buffers without moving their positions")
+    void shouldHandleBuffers() {
+        float[] a = {1f, 2f, 3f, 4f, 5f};
+        float[] b = {5f, 4f, 3f, 2f, 1f};
+        FloatBuffer direct = ByteBuffer.allocateDirect(a.length * Float.BYTES).asFloatBuffer().put(a).flip();
+        FloatBuffer heap = FloatBuffer.wrap(b);
+        assertEquals(35f, VectorUtil.dotProduct(direct, heap), EPSILON);
+        assertEquals(0, direct.position());
+        assertEquals(12f, VectorUtil.l1Distance(FloatBuffer.wrap(a), heap), EPSILON);
+    }
+
+    @Test
+    @DisplayName("Should reject vectors of different dimension")
+    void shouldRejectDimensionMismatch() {
+        assertThrows(IllegalArgumentException.class, () -> VectorUtil.dotProduct(new float[3], new float[4]));
+    }
+}